@@ -0,0 +1,153 @@
+package com.clay.g_parallel_processing_parallelism.data_parallelism;
+
+/**
+ * An open-addressing hash table from long keys to the sum, count, minimum and maximum of their values, stored in
+ * parallel primitive arrays. Collisions are resolved by linear probing, and the table doubles when it is half full.
+ * A slot is empty while its count is 0, so no key value needs to be reserved. Not thread-safe.
+ */
+class AggregationTable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] sums;
+    private long[] counts;
+    private long[] mins;
+    private long[] maxs;
+    private int size;
+
+    AggregationTable() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        sums = new long[capacity];
+        counts = new long[capacity];
+        mins = new long[capacity];
+        maxs = new long[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    boolean isOccupied(int slot) {
+        return counts[slot] != 0;
+    }
+
+    long key(int slot) {
+        return keys[slot];
+    }
+
+    long sum(int slot) {
+        return sums[slot];
+    }
+
+    long count(int slot) {
+        return counts[slot];
+    }
+
+    long min(int slot) {
+        return mins[slot];
+    }
+
+    long max(int slot) {
+        return maxs[slot];
+    }
+
+    /**
+     * @param hash mix(key), passed in because the caller needs it too
+     */
+    void add(long key, long hash, long value) {
+        int slot = slotOf(key, hash);
+        sums[slot] += value;
+        counts[slot]++;
+        if (value < mins[slot]) {
+            mins[slot] = value;
+        }
+        if (value > maxs[slot]) {
+            maxs[slot] = value;
+        }
+    }
+
+    /**
+     * Adds the aggregates of a group from another table.
+     */
+    void merge(long key, long hash, long sum, long count, long min, long max) {
+        int slot = slotOf(key, hash);
+        sums[slot] += sum;
+        counts[slot] += count;
+        if (min < mins[slot]) {
+            mins[slot] = min;
+        }
+        if (max > maxs[slot]) {
+            maxs[slot] = max;
+        }
+    }
+
+    /**
+     * @return the slot of the key, a new slot with an empty aggregate if it was not in the table
+     */
+    private int slotOf(long key, long hash) {
+        int mask = keys.length - 1;
+        int slot = (int) hash & mask;
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (2 * (size + 1) > keys.length) {
+            grow();
+            return slotOf(key, hash);
+        }
+        // A count of 0 marks the slot as free until the caller increments it
+        keys[slot] = key;
+        mins[slot] = Long.MAX_VALUE;
+        maxs[slot] = Long.MIN_VALUE;
+        size++;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldSums = sums;
+        long[] oldCounts = counts;
+        long[] oldMins = mins;
+        long[] oldMaxs = maxs;
+        allocate(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int old = 0; old < oldKeys.length; old++) {
+            if (oldCounts[old] != 0) {
+                int slot = (int) mix(oldKeys[old]) & mask;
+                while (counts[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[old];
+                sums[slot] = oldSums[old];
+                counts[slot] = oldCounts[old];
+                mins[slot] = oldMins[old];
+                maxs[slot] = oldMaxs[old];
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a key over the whole hash (the finalizer of MurmurHash3), so that keys that differ only in
+     * their upper bits, such as multiples of a large number, do not collide.
+     */
+    static long mix(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,39 +1,71 @@
 package com.clay.g_parallel_processing_parallelism.data_parallelism;
 
-import java.util.Arrays;
-import java.util.List;
+import com.clay.g_parallel_processing_parallelism.parallel_reduction.ParallelReducer;
 
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Aggregates a table of sales, stored column by column in primitive arrays: the region, the day and the amount in
+ * cents of every sale. The same operation runs on every row, split over all processors (data parallelism).
+ *
+ * The grand total is a parallel reduction of the amount column. The rollups per region and per region and day
+ * group the rows with ParallelGroupBy, which combines both columns into one small key and aggregates into plain
+ * arrays. Grouping by customer id, a key with a huge range, uses its hash tables instead.
+ */
 public class DataParallelismExample {
 
+    private static final String[] REGIONS = {"North", "South", "East", "West"};
+    private static final int DAYS = 365;
+
     public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
         // Simulating a large dataset of sales for different regions
-        List<Integer> salesData = Arrays.asList(1000, 2000, 1500, 3000, 2500, 1800, 2200, 3500, 2800, 4000);
+        SplittableRandom random = new SplittableRandom(42);
+        int[] regions = new int[rows];
+        int[] days = new int[rows];
+        long[] customers = new long[rows];
+        long[] amounts = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            regions[i] = random.nextInt(REGIONS.length);
+            days[i] = random.nextInt(DAYS);
+            customers[i] = random.nextLong(1_000_000_000_000L);
+            amounts[i] = 100 + random.nextInt(500_000);
+        }
 
-        // Calculate total sales using data parallelism
-        int totalSales = calculateTotalSales(salesData);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        ParallelGroupBy groupBy = new ParallelGroupBy(pool);
 
-        System.out.println("Total Sales: " + totalSales);
-    }
+        // Calculate total sales using data parallelism
+        long totalSales = new ParallelReducer(pool).sum(amounts);
+        System.out.printf("Total Sales: %,.2f%n", totalSales / 100.0);
 
-    private static int calculateTotalSales(List<Integer> salesData) {
-        // Use parallel stream to process the sales data in parallel
-        return salesData.parallelStream()
-                .mapToInt(sale -> {
-                    // Simulating a complex computation for each sale
-                    simulateComputation();
-
-                    // Return the sale amount
-                    return sale;
-                })
-                .sum();
-    }
+        // Rollup per region
+        long[] regionKeys = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            regionKeys[i] = regions[i];
+        }
+        GroupByResult byRegion = groupBy.aggregate(regionKeys, amounts);
+        for (int group = 0; group < byRegion.size(); group++) {
+            System.out.printf("%-5s sales %,9d, total %,15.2f, min %8.2f, max %8.2f, avg %8.2f%n",
+                    REGIONS[(int) byRegion.getKey(group)], byRegion.getCount(group), byRegion.getSum(group) / 100.0,
+                    byRegion.getMin(group) / 100.0, byRegion.getMax(group) / 100.0,
+                    byRegion.getAverage(group) / 100.0);
+        }
 
-    private static void simulateComputation() {
-        // Simulating a complex computation
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        // Rollup per region and day, with both columns combined into one key
+        long[] regionDayKeys = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            regionDayKeys[i] = (long) regions[i] * DAYS + days[i];
         }
+        GroupByResult byRegionAndDay = groupBy.aggregate(regionDayKeys, amounts);
+        int newYear = byRegionAndDay.indexOf(0);
+        System.out.printf("%d region-day groups, %s on day 0: %d sales, total %,.2f%n", byRegionAndDay.size(),
+                REGIONS[0], byRegionAndDay.getCount(newYear), byRegionAndDay.getSum(newYear) / 100.0);
+
+        // Customer ids spread over a huge range
+        GroupByResult byCustomer = groupBy.aggregate(customers, amounts);
+        System.out.println(byCustomer.size() + " distinct customers");
     }
 }
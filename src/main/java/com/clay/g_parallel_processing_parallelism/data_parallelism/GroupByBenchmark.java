@@ -0,0 +1,82 @@
+package com.clay.g_parallel_processing_parallelism.data_parallelism;
+
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares ParallelGroupBy with a parallel stream that groups boxed rows with Collectors.groupingBy.
+ *
+ * Usage: GroupByBenchmark [rows] [iterations]
+ *
+ * Three key columns are grouped: region and day combined into about 1500 keys (dense tables, and the same keys
+ * forced through the hash tables), and 100 000 random customer ids (hash tables). Every result is compared with the
+ * result of the stream before timing.
+ */
+public class GroupByBenchmark {
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        System.out.println("Rows: " + rows + ", threads: " + pool.getParallelism());
+
+        SplittableRandom random = new SplittableRandom(42);
+        long[] values = new long[rows];
+        long[] regionDays = new long[rows];
+        long[] customers = new long[rows];
+        long[] customerIds = random.longs(100_000).toArray();
+        for (int i = 0; i < rows; i++) {
+            values[i] = random.nextInt(1_000_000);
+            regionDays[i] = random.nextInt(4) * 365L + random.nextInt(365);
+            customers[i] = customerIds[random.nextInt(customerIds.length)];
+        }
+
+        ParallelGroupBy dense = new ParallelGroupBy(pool);
+        ParallelGroupBy hashed = new ParallelGroupBy(pool, false);
+        compare("region/day", regionDays, values, iterations, dense, "dense");
+        compare("region/day", regionDays, values, iterations, hashed, "hash");
+        compare("customer", customers, values, iterations, dense, "hash");
+    }
+
+    private static void compare(String keyName, long[] keys, long[] values, int iterations, ParallelGroupBy groupBy,
+                                String path) {
+        Supplier<Map<Long, LongSummaryStatistics>> stream = () -> IntStream.range(0, keys.length).parallel().boxed()
+                .collect(Collectors.groupingByConcurrent(i -> keys[i], Collectors.summarizingLong(i -> values[i])));
+        Map<Long, LongSummaryStatistics> expected = stream.get();
+        GroupByResult result = groupBy.aggregate(keys, values);
+        if (result.size() != expected.size()) {
+            throw new IllegalStateException(keyName + ": " + result.size() + " groups instead of " + expected.size());
+        }
+        for (int group = 0; group < result.size(); group++) {
+            LongSummaryStatistics statistics = expected.get(result.getKey(group));
+            if (statistics == null || statistics.getSum() != result.getSum(group)
+                    || statistics.getCount() != result.getCount(group) || statistics.getMin() != result.getMin(group)
+                    || statistics.getMax() != result.getMax(group)) {
+                throw new IllegalStateException(keyName + ": wrong aggregates for key " + result.getKey(group));
+            }
+        }
+
+        long streamNanos = time(iterations, stream);
+        long groupByNanos = time(iterations, () -> groupBy.aggregate(keys, values));
+        System.out.printf("%-10s %5d groups, stream %9.2f ms, group-by (%s) %8.2f ms (%6.1f M rows/s), speedup %.1fx%n",
+                keyName, result.size(), streamNanos / 1e6, path, groupByNanos / 1e6, keys.length / (groupByNanos / 1e3),
+                (double) streamNanos / groupByNanos);
+    }
+
+    private static long time(int iterations, Supplier<?> aggregation) {
+        // Warm up so that the JIT has compiled the hot loops
+        aggregation.get();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            aggregation.get();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,63 @@
+package com.clay.g_parallel_processing_parallelism.data_parallelism;
+
+import java.util.Arrays;
+
+/**
+ * The aggregates of every group found by ParallelGroupBy, one entry per distinct key, sorted by key. The columns
+ * are primitive arrays; group i has the key getKey(i), and its aggregates are read with the same index.
+ */
+public class GroupByResult {
+
+    private final long[] keys;
+    private final long[] sums;
+    private final long[] counts;
+    private final long[] mins;
+    private final long[] maxs;
+
+    GroupByResult(long[] keys, long[] sums, long[] counts, long[] mins, long[] maxs) {
+        this.keys = keys;
+        this.sums = sums;
+        this.counts = counts;
+        this.mins = mins;
+        this.maxs = maxs;
+    }
+
+    /**
+     * @return the number of groups
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @return the index of the group with the key, or -1 if no row had this key
+     */
+    public int indexOf(long key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? index : -1;
+    }
+
+    public long getKey(int group) {
+        return keys[group];
+    }
+
+    public long getSum(int group) {
+        return sums[group];
+    }
+
+    public long getCount(int group) {
+        return counts[group];
+    }
+
+    public long getMin(int group) {
+        return mins[group];
+    }
+
+    public long getMax(int group) {
+        return maxs[group];
+    }
+
+    public double getAverage(int group) {
+        return (double) sums[group] / counts[group];
+    }
+}
@@ -0,0 +1,248 @@
+package com.clay.g_parallel_processing_parallelism.data_parallelism;
+
+import com.clay.g_parallel_processing_parallelism.parallel_graph_algo.ParallelRange;
+import com.clay.g_parallel_processing_parallelism.parallel_reduction.ParallelReducer;
+import com.clay.g_parallel_processing_parallelism.parallel_sorting.ParallelRadixSort;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Groups rows given as two primitive columns, a key and a value per row, and computes the sum, count, minimum,
+ * maximum and average of the values of every key, in parallel.
+ *
+ * The rows are cut into one block per worker, and every block aggregates its rows into a partial table of its own,
+ * so the workers never share anything they write. The partial tables are then merged. Keys of several columns,
+ * such as region and day, can be combined into one long key, for example region * days + day.
+ *
+ * There are two kinds of partial tables:
+ *
+ * - Dense: if all keys lie in a range of at most 65536 values, the aggregates are kept in arrays indexed by
+ *   key - minimum key. Adding a row is a few array accesses without hashing or probing. The tables are merged in
+ *   parallel by key range.
+ * - Hash: otherwise every block uses open-addressing hash tables (AggregationTable). Every block has one table
+ *   per hash partition, chosen by the upper bits of the key's hash. A key always lands in the same partition,
+ *   so the partitions are merged independently and in parallel, each task reading only its partition of every
+ *   block.
+ *
+ * The result is sorted by key in both cases. Sums wrap around on overflow like any long arithmetic.
+ */
+public class ParallelGroupBy {
+
+    // Key ranges up to this size are aggregated in arrays indexed by the key
+    private static final int MAX_DENSE_RANGE = 1 << 16;
+    // Every block should be large enough to amortize its partial tables
+    private static final int MIN_BLOCK_SIZE = 1 << 16;
+    // Keys per task when dense tables are merged
+    private static final int DENSE_MERGE_CHUNK = 1 << 12;
+    // Groups per task when the hash results are reordered
+    private static final int PERMUTE_CHUNK = 1 << 16;
+
+    private final ForkJoinPool pool;
+    private final boolean allowDense;
+    private final ParallelReducer reducer;
+    private final ParallelRadixSort radixSort;
+
+    public ParallelGroupBy(ForkJoinPool pool) {
+        this(pool, true);
+    }
+
+    /**
+     * @param allowDense false to always use hash tables, only useful to measure the difference
+     */
+    ParallelGroupBy(ForkJoinPool pool, boolean allowDense) {
+        this.pool = pool;
+        this.allowDense = allowDense;
+        this.reducer = new ParallelReducer(pool);
+        this.radixSort = new ParallelRadixSort(pool);
+    }
+
+    /**
+     * @param keys   the group key of every row
+     * @param values the value of every row
+     * @return the aggregates of every distinct key
+     */
+    public GroupByResult aggregate(long[] keys, long[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values must have the same length");
+        }
+        if (keys.length == 0) {
+            return new GroupByResult(new long[0], new long[0], new long[0], new long[0], new long[0]);
+        }
+        long min = reducer.reduce(keys, Long.MAX_VALUE, Math::min);
+        long max = reducer.reduce(keys, Long.MIN_VALUE, Math::max);
+        // The difference is negative if it overflows
+        long range = max - min;
+        if (allowDense && range >= 0 && range < MAX_DENSE_RANGE) {
+            return aggregateDense(keys, values, min, (int) range + 1);
+        }
+        return aggregateHashed(keys, values);
+    }
+
+    private GroupByResult aggregateDense(long[] keys, long[] values, long min, int range) {
+        int n = keys.length;
+        int blocks = blockCount(n);
+        long[][] sums = new long[blocks][];
+        long[][] counts = new long[blocks][];
+        long[][] mins = new long[blocks][];
+        long[][] maxs = new long[blocks][];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            long[] sum = new long[range];
+            long[] count = new long[range];
+            long[] low = new long[range];
+            long[] high = new long[range];
+            Arrays.fill(low, Long.MAX_VALUE);
+            Arrays.fill(high, Long.MIN_VALUE);
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                int group = (int) (keys[i] - min);
+                long value = values[i];
+                sum[group] += value;
+                count[group]++;
+                if (value < low[group]) {
+                    low[group] = value;
+                }
+                if (value > high[group]) {
+                    high[group] = value;
+                }
+            }
+            sums[block] = sum;
+            counts[block] = count;
+            mins[block] = low;
+            maxs[block] = high;
+        });
+
+        // Merge into the tables of block 0, every task a range of keys across all blocks
+        ParallelRange.forEachChunk(pool, (range + DENSE_MERGE_CHUNK - 1) / DENSE_MERGE_CHUNK, chunk -> {
+            int end = Math.min(range, (chunk + 1) * DENSE_MERGE_CHUNK);
+            for (int block = 1; block < blocks; block++) {
+                for (int group = chunk * DENSE_MERGE_CHUNK; group < end; group++) {
+                    sums[0][group] += sums[block][group];
+                    counts[0][group] += counts[block][group];
+                    mins[0][group] = Math.min(mins[0][group], mins[block][group]);
+                    maxs[0][group] = Math.max(maxs[0][group], maxs[block][group]);
+                }
+            }
+        });
+
+        int groups = 0;
+        for (long count : counts[0]) {
+            if (count != 0) {
+                groups++;
+            }
+        }
+        GroupColumns result = new GroupColumns(groups);
+        int position = 0;
+        for (int group = 0; group < range; group++) {
+            if (counts[0][group] != 0) {
+                result.set(position++, min + group, sums[0][group], counts[0][group], mins[0][group], maxs[0][group]);
+            }
+        }
+        return result.toResult();
+    }
+
+    private GroupByResult aggregateHashed(long[] keys, long[] values) {
+        int n = keys.length;
+        int blocks = blockCount(n);
+        // At least two partitions per worker, a power of two so that the upper hash bits select one
+        int partitions = Integer.highestOneBit(Math.max(1, 2 * pool.getParallelism() - 1)) << 1;
+        int partitionShift = Long.SIZE - Integer.numberOfTrailingZeros(partitions);
+        AggregationTable[][] tables = new AggregationTable[blocks][partitions];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            AggregationTable[] own = tables[block];
+            for (int partition = 0; partition < partitions; partition++) {
+                own[partition] = new AggregationTable();
+            }
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                long key = keys[i];
+                long hash = AggregationTable.mix(key);
+                own[(int) (hash >>> partitionShift)].add(key, hash, values[i]);
+            }
+        });
+
+        // Merge every partition into the table of block 0
+        ParallelRange.forEachChunk(pool, partitions, partition -> {
+            AggregationTable target = tables[0][partition];
+            for (int block = 1; block < blocks; block++) {
+                AggregationTable source = tables[block][partition];
+                for (int slot = 0; slot < source.capacity(); slot++) {
+                    if (source.isOccupied(slot)) {
+                        long key = source.key(slot);
+                        target.merge(key, AggregationTable.mix(key), source.sum(slot), source.count(slot),
+                                source.min(slot), source.max(slot));
+                    }
+                }
+            }
+        });
+
+        int[] offsets = new int[partitions + 1];
+        for (int partition = 0; partition < partitions; partition++) {
+            offsets[partition + 1] = offsets[partition] + tables[0][partition].size();
+        }
+        GroupColumns unsorted = new GroupColumns(offsets[partitions]);
+        ParallelRange.forEachChunk(pool, partitions, partition -> {
+            AggregationTable table = tables[0][partition];
+            int position = offsets[partition];
+            for (int slot = 0; slot < table.capacity(); slot++) {
+                if (table.isOccupied(slot)) {
+                    unsorted.set(position++, table.key(slot), table.sum(slot), table.count(slot), table.min(slot),
+                            table.max(slot));
+                }
+            }
+        });
+        return sortByKey(unsorted);
+    }
+
+    private GroupByResult sortByKey(GroupColumns unsorted) {
+        int groups = unsorted.keys.length;
+        long[] sortedKeys = unsorted.keys.clone();
+        int[] order = new int[groups];
+        for (int i = 0; i < groups; i++) {
+            order[i] = i;
+        }
+        radixSort.sort(sortedKeys, order);
+        GroupColumns sorted = new GroupColumns(groups);
+        ParallelRange.forEachChunk(pool, (groups + PERMUTE_CHUNK - 1) / PERMUTE_CHUNK, chunk -> {
+            for (int i = chunk * PERMUTE_CHUNK, end = Math.min(groups, i + PERMUTE_CHUNK); i < end; i++) {
+                int from = order[i];
+                sorted.set(i, sortedKeys[i], unsorted.sums[from], unsorted.counts[from], unsorted.mins[from],
+                        unsorted.maxs[from]);
+            }
+        });
+        return sorted.toResult();
+    }
+
+    private int blockCount(int n) {
+        return Math.max(1, Math.min(pool.getParallelism(), n / MIN_BLOCK_SIZE));
+    }
+
+    // The result columns while they are filled
+    private static class GroupColumns {
+        final long[] keys;
+        final long[] sums;
+        final long[] counts;
+        final long[] mins;
+        final long[] maxs;
+
+        GroupColumns(int groups) {
+            keys = new long[groups];
+            sums = new long[groups];
+            counts = new long[groups];
+            mins = new long[groups];
+            maxs = new long[groups];
+        }
+
+        void set(int group, long key, long sum, long count, long min, long max) {
+            keys[group] = key;
+            sums[group] = sum;
+            counts[group] = count;
+            mins[group] = min;
+            maxs[group] = max;
+        }
+
+        GroupByResult toResult() {
+            return new GroupByResult(keys, sums, counts, mins, maxs);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size bit set that many threads can update concurrently.
+ *
+ * Bits are packed 64 to a word in an AtomicLongArray, so one million vertices take 125 KB instead of the
+ * megabytes a concurrent set of boxed integers would need. Setting a bit is a compare-and-set loop on its word,
+ * and set() reports whether the calling thread was the one that flipped the bit. That makes it suitable as a
+ * "visited" marker where exactly one thread must claim each vertex.
+ */
+public class AtomicBitSet {
+    private final AtomicLongArray words;
+    private final int size;
+
+    public AtomicBitSet(int size) {
+        this.size = size;
+        this.words = new AtomicLongArray((size + 63) >>> 6);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean get(int index) {
+        return (words.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets the bit at the given index.
+     *
+     * @return true if this call changed the bit from 0 to 1, false if it was already set
+     */
+    public boolean set(int index) {
+        int wordIndex = index >>> 6;
+        long mask = 1L << index;
+        long word = words.get(wordIndex);
+        while ((word & mask) == 0) {
+            long witness = words.compareAndExchange(wordIndex, word, word | mask);
+            if (witness == word) {
+                return true;
+            }
+            word = witness; // Another bit of the same word changed, retry with the fresh value
+        }
+        return false;
+    }
+
+    /**
+     * Clears all bits. Not safe to call while other threads are updating the set.
+     */
+    public void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0L);
+        }
+    }
+
+    /**
+     * @return the number of bits that are set
+     */
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+}
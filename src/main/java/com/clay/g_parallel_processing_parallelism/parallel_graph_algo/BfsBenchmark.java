@@ -0,0 +1,95 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares the top-down ParallelBfs with DirectionOptimizingBfs on a synthetic Kronecker (R-MAT) graph.
+ *
+ * Usage: BfsBenchmark [scale] [edgeFactor] [searches]
+ *
+ * Both searches run from the same random sources, which are chosen among vertices with at least one edge.
+ * Their depth arrays are compared, and the per-level statistics of the last direction-optimizing search are printed.
+ */
+public class BfsBenchmark {
+
+    public static void main(String[] args) {
+        int scale = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int edgeFactor = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int searches = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        long start = System.nanoTime();
+        CsrGraph graph = RmatGenerator.kronecker(pool, scale, edgeFactor, 42);
+        System.out.printf("Kronecker graph: scale %d, %,d vertices, %,d directed edges, generated in %.1f ms, %d threads%n",
+                scale, graph.getVertexCount(), graph.getEdgeCount(), (System.nanoTime() - start) / 1e6, pool.getParallelism());
+
+        ParallelBfs topDown = new ParallelBfs(pool);
+        DirectionOptimizingBfs hybrid = new DirectionOptimizingBfs(pool);
+        int[] sources = pickSources(graph, searches);
+
+        // Warm up both searches
+        for (int i = 0; i < 2; i++) {
+            topDown.search(graph, sources[0]);
+            hybrid.search(graph, sources[0]);
+        }
+
+        long topDownNanos = 0;
+        long hybridNanos = 0;
+        long topDownEdges = 0;
+        long hybridEdges = 0;
+        BfsResult lastHybrid = null;
+        for (int source : sources) {
+            start = System.nanoTime();
+            BfsResult expected = topDown.search(graph, source);
+            topDownNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            BfsResult actual = hybrid.search(graph, source);
+            hybridNanos += System.nanoTime() - start;
+
+            if (!Arrays.equals(expected.getDepths(), actual.getDepths())) {
+                throw new IllegalStateException("Depths differ for source " + source);
+            }
+            topDownEdges += componentEdges(graph, expected);
+            hybridEdges += actual.getLevelStats().stream().mapToLong(BfsLevelStats::getEdgesExamined).sum();
+            lastHybrid = actual;
+        }
+
+        System.out.printf("Top-down:             %8.2f ms per search, %,14d edges examined per search%n",
+                topDownNanos / 1e6 / searches, topDownEdges / searches);
+        System.out.printf("Direction-optimizing: %8.2f ms per search, %,14d edges examined per search%n",
+                hybridNanos / 1e6 / searches, hybridEdges / searches);
+        System.out.printf("Speedup: %.2fx%n", (double) topDownNanos / hybridNanos);
+
+        System.out.println("Levels of the last direction-optimizing search from vertex " + lastHybrid.getSource() + ":");
+        for (BfsLevelStats level : lastHybrid.getLevelStats()) {
+            System.out.println("  " + level);
+        }
+    }
+
+    private static int[] pickSources(CsrGraph graph, int count) {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] sources = new int[count];
+        for (int i = 0; i < count; ) {
+            int candidate = random.nextInt(graph.getVertexCount());
+            if (graph.getDegree(candidate) > 0) {
+                sources[i++] = candidate;
+            }
+        }
+        return sources;
+    }
+
+    // A top-down search reads the whole adjacency of every vertex it reaches
+    private static long componentEdges(CsrGraph graph, BfsResult result) {
+        long edges = 0;
+        int[] depths = result.getDepths();
+        for (int v = 0; v < depths.length; v++) {
+            if (depths[v] >= 0) {
+                edges += graph.getDegree(v);
+            }
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,69 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+/**
+ * Statistics of one expansion step of a breadth-first search.
+ */
+public class BfsLevelStats {
+
+    public enum Direction {
+        /** Every frontier vertex pushes to its unvisited neighbors */
+        TOP_DOWN,
+        /** Every unvisited vertex looks for a parent in the frontier */
+        BOTTOM_UP
+    }
+
+    private final int level;
+    private final int frontierSize;
+    private final long edgesExamined;
+    private final int discovered;
+    private final Direction direction;
+    private final long nanos;
+
+    BfsLevelStats(int level, int frontierSize, long edgesExamined, int discovered, Direction direction, long nanos) {
+        this.level = level;
+        this.frontierSize = frontierSize;
+        this.edgesExamined = edgesExamined;
+        this.discovered = discovered;
+        this.direction = direction;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return the depth of the frontier that was expanded
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    public int getFrontierSize() {
+        return frontierSize;
+    }
+
+    /**
+     * @return the number of adjacency entries read during this step
+     */
+    public long getEdgesExamined() {
+        return edgesExamined;
+    }
+
+    /**
+     * @return the number of vertices discovered, which is the size of the next frontier
+     */
+    public int getDiscovered() {
+        return discovered;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("level %3d  %-9s frontier %,12d  edges examined %,14d  discovered %,12d  %8.2f ms",
+                level, direction, frontierSize, edgesExamined, discovered, nanos / 1e6);
+    }
+}
@@ -0,0 +1,61 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a breadth-first search: the BFS level and the BFS tree parent of every vertex.
+ * Vertices that were not reached have depth -1 and parent -1. The source is its own parent.
+ * Searches that record per-level statistics also expose them here.
+ */
+public class BfsResult {
+    private final int source;
+    private final int[] depths;
+    private final int[] parents;
+    private final int levelCount;
+    private final int visitedCount;
+    private final List<BfsLevelStats> levelStats;
+
+    BfsResult(int source, int[] depths, int[] parents, int levelCount, int visitedCount) {
+        this(source, depths, parents, levelCount, visitedCount, Collections.emptyList());
+    }
+
+    BfsResult(int source, int[] depths, int[] parents, int levelCount, int visitedCount, List<BfsLevelStats> levelStats) {
+        this.source = source;
+        this.depths = depths;
+        this.parents = parents;
+        this.levelCount = levelCount;
+        this.visitedCount = visitedCount;
+        this.levelStats = Collections.unmodifiableList(levelStats);
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int[] getDepths() {
+        return depths;
+    }
+
+    public int[] getParents() {
+        return parents;
+    }
+
+    /**
+     * @return the number of non-empty levels, including the level of the source
+     */
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    /**
+     * @return one entry per expansion step, or an empty list if the search did not record statistics
+     */
+    public List<BfsLevelStats> getLevelStats() {
+        return levelStats;
+    }
+}
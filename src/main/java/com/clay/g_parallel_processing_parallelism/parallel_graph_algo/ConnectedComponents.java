@@ -0,0 +1,173 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parallel connected components of an undirected graph with the Afforest algorithm (Sutton, Ben-Nun and Barak),
+ * a refinement of Shiloach-Vishkin hooking and pointer jumping.
+ *
+ * Every vertex starts as its own tree in an int[] parent array. Linking two vertices hooks the root with the
+ * higher id under the root with the lower id using a compare-and-set on the parent array, and retries if another
+ * thread moved the root in the meantime. Compressing replaces every parent pointer with the root (pointer jumping).
+ *
+ * Afforest avoids looking at most edges:
+ *
+ * 1. Link every vertex with its first few neighbors only, then compress. This already joins most of the
+ *    giant component that real graphs tend to have.
+ * 2. Sample some vertices to find the label of that largest component.
+ * 3. Link the remaining edges of every vertex that is not in the largest component, then compress again.
+ *    Vertices of the largest component are skipped, since all their edges lead into their own component
+ *    or are seen from the other side.
+ *
+ * The result labels every vertex with the smallest vertex id of its component. The graph must store every edge in
+ * both directions, as CsrGraph.fromEdges(..., true) does.
+ */
+public class ConnectedComponents {
+
+    private static final VarHandle PARENTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // Neighbors linked per vertex before sampling
+    private static final int NEIGHBOR_ROUNDS = 2;
+    private static final int SAMPLE_SIZE = 1024;
+    private static final int MIN_CHUNK_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+
+    public ConnectedComponents(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param graph an undirected graph
+     * @return the component label of every vertex, the smallest vertex id of the component
+     */
+    public int[] labels(CsrGraph graph) {
+        int vertexCount = graph.getVertexCount();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] parents = new int[vertexCount];
+        int chunks = ParallelRange.chunkCount(pool, vertexCount, MIN_CHUNK_SIZE);
+
+        ParallelRange.forEachChunk(pool, chunks, chunk -> {
+            int to = ParallelRange.chunkStart(chunk + 1, chunks, vertexCount);
+            for (int v = ParallelRange.chunkStart(chunk, chunks, vertexCount); v < to; v++) {
+                parents[v] = v;
+            }
+        });
+
+        // Phase 1: link a few neighbors of every vertex
+        for (int round = 0; round < NEIGHBOR_ROUNDS; round++) {
+            int r = round;
+            ParallelRange.forEachChunk(pool, chunks, chunk -> {
+                int to = ParallelRange.chunkStart(chunk + 1, chunks, vertexCount);
+                for (int v = ParallelRange.chunkStart(chunk, chunks, vertexCount); v < to; v++) {
+                    int edge = offsets[v] + r;
+                    if (edge < offsets[v + 1]) {
+                        link(parents, v, targets[edge]);
+                    }
+                }
+            });
+            compress(parents, chunks);
+        }
+
+        // Phase 2: find the most likely largest component
+        int largest = mostFrequentLabel(parents);
+
+        // Phase 3: link the remaining edges of vertices outside the largest component
+        ParallelRange.forEachChunk(pool, chunks, chunk -> {
+            int to = ParallelRange.chunkStart(chunk + 1, chunks, vertexCount);
+            for (int v = ParallelRange.chunkStart(chunk, chunks, vertexCount); v < to; v++) {
+                if ((int) PARENTS.getVolatile(parents, v) == largest) {
+                    continue;
+                }
+                for (int edge = offsets[v] + NEIGHBOR_ROUNDS, end = offsets[v + 1]; edge < end; edge++) {
+                    link(parents, v, targets[edge]);
+                }
+            }
+        });
+        compress(parents, chunks);
+
+        return parents;
+    }
+
+    /**
+     * Counts the distinct labels, i.e. the number of components.
+     */
+    public static int countComponents(int[] labels) {
+        int count = 0;
+        for (int v = 0; v < labels.length; v++) {
+            if (labels[v] == v) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Joins the trees of u and v by hooking the higher root under the lower one.
+     */
+    private static void link(int[] parents, int u, int v) {
+        int p1 = (int) PARENTS.getVolatile(parents, u);
+        int p2 = (int) PARENTS.getVolatile(parents, v);
+        while (p1 != p2) {
+            int high = Math.max(p1, p2);
+            int low = Math.min(p1, p2);
+            int highParent = (int) PARENTS.getVolatile(parents, high);
+            if (highParent == low) {
+                break; // Already linked
+            }
+            if (highParent == high && PARENTS.compareAndSet(parents, high, high, low)) {
+                break; // high was a root and now hangs under low
+            }
+            // high is not a root (any more), climb one step on both sides and retry
+            p1 = (int) PARENTS.getVolatile(parents, (int) PARENTS.getVolatile(parents, high));
+            p2 = (int) PARENTS.getVolatile(parents, low);
+        }
+    }
+
+    /**
+     * Points every vertex directly at the root of its tree.
+     */
+    private void compress(int[] parents, int chunks) {
+        int vertexCount = parents.length;
+        ParallelRange.forEachChunk(pool, chunks, chunk -> {
+            int to = ParallelRange.chunkStart(chunk + 1, chunks, vertexCount);
+            for (int v = ParallelRange.chunkStart(chunk, chunks, vertexCount); v < to; v++) {
+                while (parents[v] != parents[parents[v]]) {
+                    parents[v] = parents[parents[v]];
+                }
+            }
+        });
+    }
+
+    private static int mostFrequentLabel(int[] parents) {
+        if (parents.length == 0) {
+            return -1;
+        }
+        SplittableRandom random = new SplittableRandom(parents.length);
+        int[] sample = new int[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            sample[i] = parents[random.nextInt(parents.length)];
+        }
+
+        // Sorting groups equal labels together, the longest run is the most frequent label
+        Arrays.sort(sample);
+        int best = sample[0];
+        int bestRun = 0;
+        for (int start = 0, end; start < SAMPLE_SIZE; start = end) {
+            end = start;
+            while (end < SAMPLE_SIZE && sample[end] == sample[start]) {
+                end++;
+            }
+            if (end - start > bestRun) {
+                bestRun = end - start;
+                best = sample[start];
+            }
+        }
+        return best;
+    }
+}
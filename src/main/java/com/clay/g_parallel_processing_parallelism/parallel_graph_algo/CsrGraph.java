@@ -0,0 +1,134 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+/**
+ * CsrGraph stores a graph in compressed sparse row (CSR) form: the neighbors of vertex v are
+ * targets[offsets[v]] ... targets[offsets[v + 1] - 1].
+ *
+ * Compared with a map of boxed adjacency lists, the whole graph is two flat int arrays. Neighbor lists are
+ * contiguous in memory, so traversals stream through them, and there is no per-vertex or per-edge object.
+ * Vertices are the ints 0 ... vertexCount - 1. The graph is immutable once built and can be shared between threads.
+ */
+public class CsrGraph {
+    private final int[] offsets;
+    private final int[] targets;
+
+    /**
+     * Wraps existing CSR arrays without copying them.
+     *
+     * @param offsets vertexCount + 1 non-decreasing offsets into targets, starting at 0 and ending at targets.length
+     * @param targets the concatenated neighbor lists
+     */
+    public CsrGraph(int[] offsets, int[] targets) {
+        if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != targets.length) {
+            throw new IllegalArgumentException("Offsets must start at 0 and end at the number of targets");
+        }
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Builds a graph from an edge list given as two parallel arrays.
+     *
+     * @param vertexCount  the number of vertices; every endpoint must be smaller than this
+     * @param sources      the source vertex of every edge
+     * @param destinations the destination vertex of every edge
+     * @param undirected   whether every edge should also be stored in the reverse direction
+     * @return the graph in CSR form
+     */
+    public static CsrGraph fromEdges(int vertexCount, int[] sources, int[] destinations, boolean undirected) {
+        if (sources.length != destinations.length) {
+            throw new IllegalArgumentException("Sources and destinations must have the same length");
+        }
+
+        // Count the degree of every vertex
+        int[] offsets = new int[vertexCount + 1];
+        for (int i = 0; i < sources.length; i++) {
+            checkVertex(sources[i], vertexCount);
+            checkVertex(destinations[i], vertexCount);
+            offsets[sources[i] + 1]++;
+            if (undirected && sources[i] != destinations[i]) {
+                offsets[destinations[i] + 1]++;
+            }
+        }
+
+        // Turn the degrees into start offsets
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // Place every edge at the next free slot of its source vertex
+        int[] cursor = new int[vertexCount];
+        System.arraycopy(offsets, 0, cursor, 0, vertexCount);
+        int[] targets = new int[offsets[vertexCount]];
+        for (int i = 0; i < sources.length; i++) {
+            targets[cursor[sources[i]]++] = destinations[i];
+            if (undirected && sources[i] != destinations[i]) {
+                targets[cursor[destinations[i]]++] = sources[i];
+            }
+        }
+
+        return new CsrGraph(offsets, targets);
+    }
+
+    /**
+     * Builds the reverse graph, in which every edge u -> v becomes v -> u. For a graph built as undirected
+     * the transpose has the same neighbor sets, so there is no need to compute it.
+     *
+     * @return a new graph holding the incoming edges of every vertex
+     */
+    public CsrGraph transpose() {
+        int vertexCount = getVertexCount();
+
+        // Count the in-degree of every vertex, shifted by one so that the scan below yields start offsets
+        int[] reverseOffsets = new int[vertexCount + 1];
+        for (int target : targets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+
+        int[] cursor = new int[vertexCount];
+        System.arraycopy(reverseOffsets, 0, cursor, 0, vertexCount);
+        int[] reverseTargets = new int[targets.length];
+        for (int u = 0; u < vertexCount; u++) {
+            for (int edge = offsets[u]; edge < offsets[u + 1]; edge++) {
+                reverseTargets[cursor[targets[edge]]++] = u;
+            }
+        }
+
+        return new CsrGraph(reverseOffsets, reverseTargets);
+    }
+
+    public int getVertexCount() {
+        return offsets.length - 1;
+    }
+
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    public int getDegree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /**
+     * @return the offsets array itself, which must not be modified
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * @return the targets array itself, which must not be modified
+     */
+    public int[] getTargets() {
+        return targets;
+    }
+
+    private static void checkVertex(int vertex, int vertexCount) {
+        if (vertex < 0 || vertex >= vertexCount) {
+            throw new IllegalArgumentException("Vertex " + vertex + " is outside 0.." + (vertexCount - 1));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import com.clay.g_parallel_processing_parallelism.parallel_prefix_sum.ParallelPrefixScan;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Builds a CsrGraph from an edge list in parallel.
+ *
+ * 1. Degree count: every edge atomically increments the degree of its source (and of its destination for
+ *    undirected graphs). The degrees are stored shifted by one position.
+ * 2. Prefix sum: an inclusive ParallelPrefixScan over the shifted degrees turns them into the start offsets.
+ * 3. Fill: every edge claims the next free slot of its source with an atomic increment of a cursor array.
+ * 4. Sort: the neighbor lists are sorted, so the result does not depend on which thread claimed which slot and
+ *    neighbors are read in ascending order.
+ */
+public class CsrGraphBuilder {
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    private CsrGraphBuilder() {
+    }
+
+    /**
+     * @param pool         the pool doing the work
+     * @param vertexCount  the number of vertices; every endpoint must be smaller than this
+     * @param sources      the source vertex of every edge
+     * @param destinations the destination vertex of every edge
+     * @param undirected   whether every edge should also be stored in the reverse direction
+     * @return the graph in CSR form
+     */
+    public static CsrGraph build(ForkJoinPool pool, int vertexCount, int[] sources, int[] destinations, boolean undirected) {
+        if (sources.length != destinations.length) {
+            throw new IllegalArgumentException("Sources and destinations must have the same length");
+        }
+        int edgeCount = sources.length;
+        int edgeChunks = ParallelRange.chunkCount(pool, edgeCount, MIN_CHUNK_SIZE);
+
+        // 1. Count degrees, shifted by one so that the inclusive scan yields start offsets
+        int[] offsets = new int[vertexCount + 1];
+        long[] storedEdges = new long[edgeChunks];
+        ParallelRange.forEachChunk(pool, edgeChunks, chunk -> {
+            int to = ParallelRange.chunkStart(chunk + 1, edgeChunks, edgeCount);
+            long stored = 0;
+            for (int i = ParallelRange.chunkStart(chunk, edgeChunks, edgeCount); i < to; i++) {
+                int source = sources[i];
+                int destination = destinations[i];
+                if (source < 0 || source >= vertexCount || destination < 0 || destination >= vertexCount) {
+                    throw new IllegalArgumentException("Edge " + i + " has an endpoint outside 0.." + (vertexCount - 1));
+                }
+                INTS.getAndAdd(offsets, source + 1, 1);
+                stored++;
+                if (undirected && source != destination) {
+                    INTS.getAndAdd(offsets, destination + 1, 1);
+                    stored++;
+                }
+            }
+            storedEdges[chunk] = stored;
+        });
+        if (Arrays.stream(storedEdges).sum() > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many edges for int offsets");
+        }
+
+        // 2. Turn the degrees into offsets
+        new ParallelPrefixScan(pool).inclusiveSum(offsets);
+
+        // 3. Place every edge at the next free slot of its source vertex
+        int[] cursor = Arrays.copyOf(offsets, vertexCount);
+        int[] targets = new int[offsets[vertexCount]];
+        ParallelRange.forEachChunk(pool, edgeChunks, chunk -> {
+            int to = ParallelRange.chunkStart(chunk + 1, edgeChunks, edgeCount);
+            for (int i = ParallelRange.chunkStart(chunk, edgeChunks, edgeCount); i < to; i++) {
+                int source = sources[i];
+                int destination = destinations[i];
+                targets[(int) INTS.getAndAdd(cursor, source, 1)] = destination;
+                if (undirected && source != destination) {
+                    targets[(int) INTS.getAndAdd(cursor, destination, 1)] = source;
+                }
+            }
+        });
+
+        // 4. Sort every neighbor list
+        sortNeighbors(pool, offsets, targets);
+
+        return new CsrGraph(offsets, targets);
+    }
+
+    private static void sortNeighbors(ForkJoinPool pool, int[] offsets, int[] targets) {
+        int vertexCount = offsets.length - 1;
+        int chunks = ParallelRange.chunkCount(pool, vertexCount, 4096);
+        ParallelRange.forEachChunk(pool, chunks, chunk -> {
+            int to = ParallelRange.chunkStart(chunk + 1, chunks, vertexCount);
+            for (int v = ParallelRange.chunkStart(chunk, chunks, vertexCount); v < to; v++) {
+                if (offsets[v + 1] - offsets[v] > 1) {
+                    Arrays.sort(targets, offsets[v], offsets[v + 1]);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A compact binary file format for CsrGraph, so that a graph parsed once can be reloaded without parsing.
+ *
+ * Layout, all values little-endian:
+ *
+ *   bytes  0 ..  3  magic "CSR1"
+ *   bytes  4 ..  7  format version (1)
+ *   bytes  8 .. 11  vertex count n
+ *   bytes 12 .. 15  reserved (0)
+ *   bytes 16 .. 23  edge count m
+ *   then            n + 1 int offsets
+ *   then            m int targets
+ *
+ * Reading maps the file and bulk-copies the two arrays out of the mapping in parallel chunks, so a reload costs
+ * little more than reading the bytes from the page cache.
+ */
+public class CsrGraphFile {
+
+    private static final int MAGIC = 0x31525343; // "CSR1" read as a little-endian int
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+
+    // Ints copied per chunk when reading
+    private static final int MIN_CHUNK_INTS = 1 << 20;
+    private static final int WRITE_BUFFER_BYTES = 8 << 20;
+
+    private CsrGraphFile() {
+    }
+
+    public static void write(CsrGraph graph, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(graph.getVertexCount()).putInt(0).putLong(graph.getEdgeCount());
+            writeInts(channel, buffer, graph.getOffsets());
+            writeInts(channel, buffer, graph.getTargets());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public static CsrGraph read(Path file, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a CSR graph file: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported CSR graph file version " + version + ": " + file);
+            }
+            int vertexCount = header.getInt();
+            header.getInt();
+            long edgeCount = header.getLong();
+            if (vertexCount < 0 || edgeCount < 0 || edgeCount > Integer.MAX_VALUE - 8
+                    || channel.size() != HEADER_BYTES + 4L * (vertexCount + 1L + edgeCount)) {
+                throw new IOException("Corrupt CSR graph file: " + file);
+            }
+
+            int[] offsets = readInts(channel, pool, HEADER_BYTES, vertexCount + 1);
+            int[] targets = readInts(channel, pool, HEADER_BYTES + 4L * (vertexCount + 1), (int) edgeCount);
+            return new CsrGraph(offsets, targets);
+        }
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+        int position = 0;
+        while (position < values.length) {
+            if (buffer.remaining() < 4) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+            int count = Math.min(values.length - position, buffer.remaining() / 4);
+            buffer.asIntBuffer().put(values, position, count);
+            buffer.position(buffer.position() + count * 4);
+            position += count;
+        }
+    }
+
+    private static int[] readInts(FileChannel channel, ForkJoinPool pool, long fileOffset, int count) {
+        int[] values = new int[count];
+        int chunks = ParallelRange.chunkCount(pool, count, MIN_CHUNK_INTS);
+        ParallelRange.forEachChunk(pool, chunks, chunk -> {
+            int from = ParallelRange.chunkStart(chunk, chunks, count);
+            int to = ParallelRange.chunkStart(chunk + 1, chunks, count);
+            try {
+                IntBuffer ints = channel.map(FileChannel.MapMode.READ_ONLY, fileOffset + 4L * from, 4L * (to - from))
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asIntBuffer();
+                ints.get(values, from, to - from);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return values;
+    }
+}
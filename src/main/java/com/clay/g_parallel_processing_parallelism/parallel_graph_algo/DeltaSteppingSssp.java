@@ -0,0 +1,213 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parallel single-source shortest paths with the delta-stepping algorithm of Meyer and Sanders.
+ *
+ * Tentative distances are grouped into buckets of width delta: bucket i holds the vertices whose tentative
+ * distance lies in [i * delta, (i + 1) * delta). Buckets are settled in increasing order. Edges are split into light
+ * edges (weight <= delta) and heavy edges (weight > delta):
+ *
+ * 1. The vertices of the current bucket relax their light edges in parallel. A light edge can put a vertex back
+ *    into the current bucket, so this repeats until the bucket stays empty.
+ * 2. All vertices removed from the bucket relax their heavy edges once, in parallel. A heavy edge always leads to
+ *    a later bucket, so there is no need to repeat this.
+ *
+ * Distances live in a plain long[] that is updated with compare-and-set through a VarHandle, so the result needs
+ * no copying. Every chunk of relaxation work collects improved vertices in its own small bucket buffers, which are
+ * appended to the shared buckets after the parallel step. With delta = 1 the algorithm behaves like a parallel
+ * Dijkstra. With delta = infinity it becomes a parallel Bellman-Ford, so delta trades wasted re-relaxations for
+ * parallelism. suggestDelta() gives a reasonable starting point.
+ */
+public class DeltaSteppingSssp {
+
+    /** The distance of vertices that cannot be reached from the source */
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private static final VarHandle DISTANCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // Bucket vertices per chunk at minimum
+    private static final int MIN_CHUNK_SIZE = 256;
+    // Chunks keep separate buffers for this many buckets ahead of the current one, further ones share a buffer
+    private static final int LOCAL_BUCKETS = 64;
+
+    private final ForkJoinPool pool;
+    private final long delta;
+
+    public DeltaSteppingSssp(ForkJoinPool pool, long delta) {
+        if (delta < 1) {
+            throw new IllegalArgumentException("Delta must be at least 1");
+        }
+        this.pool = pool;
+        this.delta = delta;
+    }
+
+    /**
+     * Suggests a bucket width of about the maximum weight divided by the average degree, which keeps the number of
+     * re-relaxations low on graphs with random weights while leaving enough vertices per bucket to work in parallel.
+     */
+    public static long suggestDelta(WeightedCsrGraph graph) {
+        double averageDegree = Math.max(1.0, (double) graph.getEdgeCount() / Math.max(1, graph.getVertexCount()));
+        return Math.max(1L, (long) (graph.getMaxWeight() / averageDegree));
+    }
+
+    /**
+     * Computes the shortest distance from the source to every vertex.
+     *
+     * @param graph  a graph with non-negative weights
+     * @param source the start vertex
+     * @return the distance of every vertex, UNREACHABLE for vertices that cannot be reached
+     */
+    public long[] shortestPaths(WeightedCsrGraph graph, int source) {
+        int vertexCount = graph.getVertexCount();
+        if (source < 0 || source >= vertexCount) {
+            throw new IllegalArgumentException("Source vertex " + source + " is not in the graph");
+        }
+
+        long[] distances = new long[vertexCount];
+        Arrays.fill(distances, UNREACHABLE);
+        distances[source] = 0;
+
+        // Only buckets that currently hold vertices are kept, so large distances do not create empty buckets
+        TreeMap<Long, IntArrayList> buckets = new TreeMap<>();
+        IntArrayList first = new IntArrayList();
+        first.add(source);
+        buckets.put(0L, first);
+
+        // Marks the last bucket in which a vertex was settled, to avoid relaxing its heavy edges twice
+        int[] settledIn = new int[vertexCount];
+        Arrays.fill(settledIn, -1);
+        int phase = 0;
+
+        while (!buckets.isEmpty()) {
+            long bucket = buckets.firstKey();
+            IntArrayList settled = new IntArrayList();
+
+            // Light edges may refill the current bucket, so keep going until it stays empty
+            IntArrayList current;
+            while ((current = buckets.remove(bucket)) != null) {
+                int[] frontier = current.toArray();
+                relax(graph, distances, frontier, bucket, true, buckets, settled, settledIn, phase);
+            }
+
+            // Heavy edges of everything settled in this bucket lead to later buckets only
+            relax(graph, distances, settled.toArray(), bucket, false, buckets, null, null, phase);
+            phase++;
+        }
+
+        return distances;
+    }
+
+    /**
+     * Relaxes the light or heavy edges of the given vertices in parallel and files every improved vertex
+     * into its new bucket.
+     */
+    private void relax(WeightedCsrGraph graph, long[] distances, int[] vertices, long bucket, boolean light,
+                       TreeMap<Long, IntArrayList> buckets, IntArrayList settled, int[] settledIn, int phase) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        int chunks = ParallelRange.chunkCount(pool, vertices.length, MIN_CHUNK_SIZE);
+        LocalBuckets[] locals = new LocalBuckets[chunks];
+        IntArrayList[] settledPerChunk = new IntArrayList[chunks];
+
+        ParallelRange.forEachChunk(pool, chunks, chunk -> {
+            int from = ParallelRange.chunkStart(chunk, chunks, vertices.length);
+            int to = ParallelRange.chunkStart(chunk + 1, chunks, vertices.length);
+            LocalBuckets local = new LocalBuckets(bucket);
+            IntArrayList newlySettled = light ? new IntArrayList(to - from) : null;
+
+            for (int i = from; i < to; i++) {
+                int vertex = vertices[i];
+                long distance = (long) DISTANCES.getVolatile(distances, vertex);
+                if (light) {
+                    // Skip stale entries of vertices that have moved on since they were filed
+                    if (distance / delta != bucket) {
+                        continue;
+                    }
+                    if (settledIn[vertex] != phase) {
+                        settledIn[vertex] = phase;
+                        newlySettled.add(vertex);
+                    }
+                }
+                for (int edge = offsets[vertex], end = offsets[vertex + 1]; edge < end; edge++) {
+                    int weight = weights[edge];
+                    if ((weight <= delta) != light) {
+                        continue;
+                    }
+                    int neighbor = targets[edge];
+                    long candidate = distance + weight;
+                    long known = (long) DISTANCES.getVolatile(distances, neighbor);
+                    while (candidate < known) {
+                        long witness = (long) DISTANCES.compareAndExchange(distances, neighbor, known, candidate);
+                        if (witness == known) {
+                            local.add(neighbor, candidate / delta);
+                            break;
+                        }
+                        known = witness; // Another thread improved the distance first, compare again
+                    }
+                }
+            }
+
+            locals[chunk] = local;
+            settledPerChunk[chunk] = newlySettled;
+        });
+
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            locals[chunk].drainInto(buckets, distances, delta);
+            if (light) {
+                settled.addAll(settledPerChunk[chunk]);
+            }
+        }
+    }
+
+    /**
+     * The bucket buffers of one chunk. Buckets close to the current one get their own list,
+     * and vertices for buckets further ahead share one list and are filed by distance when drained.
+     */
+    private static class LocalBuckets {
+        private final long base;
+        private final IntArrayList[] near = new IntArrayList[LOCAL_BUCKETS];
+        private IntArrayList far;
+
+        LocalBuckets(long base) {
+            this.base = base;
+        }
+
+        void add(int vertex, long bucket) {
+            long offset = bucket - base;
+            if (offset < LOCAL_BUCKETS) {
+                int index = (int) offset;
+                if (near[index] == null) {
+                    near[index] = new IntArrayList();
+                }
+                near[index].add(vertex);
+            } else {
+                if (far == null) {
+                    far = new IntArrayList();
+                }
+                far.add(vertex);
+            }
+        }
+
+        void drainInto(Map<Long, IntArrayList> buckets, long[] distances, long delta) {
+            for (int index = 0; index < LOCAL_BUCKETS; index++) {
+                if (near[index] != null) {
+                    buckets.computeIfAbsent(base + index, key -> new IntArrayList()).addAll(near[index]);
+                }
+            }
+            if (far != null) {
+                for (int i = 0; i < far.size(); i++) {
+                    int vertex = far.get(i);
+                    buckets.computeIfAbsent(distances[vertex] / delta, key -> new IntArrayList()).add(vertex);
+                }
+            }
+        }
+    }
+}
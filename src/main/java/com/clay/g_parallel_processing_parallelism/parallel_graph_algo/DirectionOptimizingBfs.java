@@ -0,0 +1,211 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A direction-optimizing breadth-first search that switches between top-down and bottom-up steps.
+ *
+ * A top-down step walks the edges of every frontier vertex, which is cheap while the frontier is small. On
+ * low-diameter graphs such as social networks, one or two levels contain a large part of the graph. Top-down
+ * expansion of those levels reads almost every edge, and most of them lead to vertices that are already visited.
+ * A bottom-up step turns the search around: every unvisited vertex scans its incoming edges and stops at the first
+ * neighbor that is in the frontier. When the frontier is large, such a neighbor is usually found after a few edges.
+ *
+ * The search starts top-down and switches to bottom-up once the edges leaving the frontier exceed
+ * bottomUpEdgeFraction of the edges leaving still unexplored vertices. It switches back to top-down once the
+ * frontier is shrinking and holds fewer than topDownVertexFraction of all vertices. Every step is recorded as a
+ * BfsLevelStats entry with the frontier size, the edges examined and the chosen direction.
+ *
+ * Bottom-up steps need the incoming edges of every vertex. For an undirected graph these are the same as the
+ * outgoing ones. For a directed graph pass CsrGraph.transpose() as the incoming graph.
+ */
+public class DirectionOptimizingBfs {
+
+    // Beamer et al. use alpha = 14 and beta = 24, i.e. these fractions
+    public static final double DEFAULT_BOTTOM_UP_EDGE_FRACTION = 1.0 / 14;
+    public static final double DEFAULT_TOP_DOWN_VERTEX_FRACTION = 1.0 / 24;
+
+    // Vertices per chunk at minimum in bottom-up steps and in degree sums
+    private static final int MIN_CHUNK_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final ParallelBfs topDown;
+    private final double bottomUpEdgeFraction;
+    private final double topDownVertexFraction;
+
+    public DirectionOptimizingBfs(ForkJoinPool pool) {
+        this(pool, DEFAULT_BOTTOM_UP_EDGE_FRACTION, DEFAULT_TOP_DOWN_VERTEX_FRACTION);
+    }
+
+    /**
+     * @param pool                  the pool running every step
+     * @param bottomUpEdgeFraction  switch to bottom-up when the frontier's outgoing edges exceed this fraction
+     *                              of the unexplored edges
+     * @param topDownVertexFraction switch back to top-down when a shrinking frontier holds fewer than this
+     *                              fraction of all vertices
+     */
+    public DirectionOptimizingBfs(ForkJoinPool pool, double bottomUpEdgeFraction, double topDownVertexFraction) {
+        if (bottomUpEdgeFraction <= 0 || topDownVertexFraction <= 0) {
+            throw new IllegalArgumentException("Switching fractions must be positive");
+        }
+        this.pool = pool;
+        this.topDown = new ParallelBfs(pool);
+        this.bottomUpEdgeFraction = bottomUpEdgeFraction;
+        this.topDownVertexFraction = topDownVertexFraction;
+    }
+
+    /**
+     * Searches an undirected graph, whose incoming edges are its outgoing edges.
+     */
+    public BfsResult search(CsrGraph graph, int source) {
+        return search(graph, graph, source);
+    }
+
+    /**
+     * Searches a graph whose incoming edges are given separately.
+     *
+     * @param graph    the outgoing edges, used by top-down steps
+     * @param incoming the incoming edges, used by bottom-up steps
+     * @param source   the start vertex
+     * @return the depth and parent of every vertex together with per-level statistics
+     */
+    public BfsResult search(CsrGraph graph, CsrGraph incoming, int source) {
+        int vertexCount = graph.getVertexCount();
+        if (incoming.getVertexCount() != vertexCount || incoming.getEdgeCount() != graph.getEdgeCount()) {
+            throw new IllegalArgumentException("The incoming graph must have the same vertices and edges");
+        }
+        if (source < 0 || source >= vertexCount) {
+            throw new IllegalArgumentException("Source vertex " + source + " is not in the graph");
+        }
+
+        int[] depths = new int[vertexCount];
+        int[] parents = new int[vertexCount];
+        Arrays.fill(depths, -1);
+        Arrays.fill(parents, -1);
+
+        AtomicBitSet visited = new AtomicBitSet(vertexCount);
+        visited.set(source);
+        depths[source] = 0;
+        parents[source] = source;
+
+        List<BfsLevelStats> stats = new ArrayList<>();
+        AtomicBitSet frontierBits = null;
+        BfsLevelStats.Direction direction = BfsLevelStats.Direction.TOP_DOWN;
+
+        int[] frontier = {source};
+        long frontierEdges = graph.getDegree(source);
+        long unexploredEdges = graph.getEdgeCount() - frontierEdges;
+        int previousFrontierSize = 0;
+        int level = 0;
+        int visitedCount = 1;
+
+        while (frontier.length > 0) {
+            // Decide the direction of this step from the size of the frontier
+            if (direction == BfsLevelStats.Direction.TOP_DOWN) {
+                if (frontierEdges > unexploredEdges * bottomUpEdgeFraction) {
+                    direction = BfsLevelStats.Direction.BOTTOM_UP;
+                }
+            } else if (frontier.length < previousFrontierSize && frontier.length < vertexCount * topDownVertexFraction) {
+                direction = BfsLevelStats.Direction.TOP_DOWN;
+            }
+
+            long start = System.nanoTime();
+            int[] next;
+            long edgesExamined;
+            if (direction == BfsLevelStats.Direction.TOP_DOWN) {
+                next = topDown.expandTopDown(graph, frontier, level + 1, visited, depths, parents);
+                edgesExamined = frontierEdges;
+            } else {
+                if (frontierBits == null) {
+                    frontierBits = new AtomicBitSet(vertexCount);
+                } else {
+                    frontierBits.clear();
+                }
+                markFrontier(frontier, frontierBits);
+                long[] examined = new long[1];
+                next = expandBottomUp(incoming, frontierBits, level + 1, visited, depths, parents, examined);
+                edgesExamined = examined[0];
+            }
+            stats.add(new BfsLevelStats(level, frontier.length, edgesExamined, next.length, direction, System.nanoTime() - start));
+
+            previousFrontierSize = frontier.length;
+            frontier = next;
+            frontierEdges = degreeSum(graph, frontier);
+            unexploredEdges -= frontierEdges;
+            visitedCount += next.length;
+            level++;
+        }
+
+        return new BfsResult(source, depths, parents, level, visitedCount, stats);
+    }
+
+    /**
+     * Every unvisited vertex looks through its incoming edges for a parent in the frontier and stops at the first
+     * one. Each chunk owns a range of vertices, so a vertex is only ever written by one thread.
+     */
+    private int[] expandBottomUp(CsrGraph incoming, AtomicBitSet frontierBits, int nextDepth, AtomicBitSet visited,
+                                 int[] depths, int[] parents, long[] edgesExamined) {
+        int vertexCount = incoming.getVertexCount();
+        int[] offsets = incoming.getOffsets();
+        int[] targets = incoming.getTargets();
+        int chunks = ParallelRange.chunkCount(pool, vertexCount, MIN_CHUNK_SIZE);
+        IntArrayList[] buffers = new IntArrayList[chunks];
+        long[] examinedPerChunk = new long[chunks];
+
+        ParallelRange.forEachChunk(pool, chunks, chunk -> {
+            int from = ParallelRange.chunkStart(chunk, chunks, vertexCount);
+            int to = ParallelRange.chunkStart(chunk + 1, chunks, vertexCount);
+            IntArrayList next = new IntArrayList();
+            long examined = 0;
+            for (int vertex = from; vertex < to; vertex++) {
+                if (visited.get(vertex)) {
+                    continue;
+                }
+                for (int edge = offsets[vertex], end = offsets[vertex + 1]; edge < end; edge++) {
+                    examined++;
+                    int neighbor = targets[edge];
+                    if (frontierBits.get(neighbor)) {
+                        depths[vertex] = nextDepth;
+                        parents[vertex] = neighbor;
+                        visited.set(vertex);
+                        next.add(vertex);
+                        break; // One parent is enough, skip the remaining edges
+                    }
+                }
+            }
+            buffers[chunk] = next;
+            examinedPerChunk[chunk] = examined;
+        });
+
+        edgesExamined[0] = Arrays.stream(examinedPerChunk).sum();
+        return topDown.concatenate(buffers);
+    }
+
+    private void markFrontier(int[] frontier, AtomicBitSet frontierBits) {
+        int chunks = ParallelRange.chunkCount(pool, frontier.length, MIN_CHUNK_SIZE);
+        ParallelRange.forEachChunk(pool, chunks, chunk -> {
+            int to = ParallelRange.chunkStart(chunk + 1, chunks, frontier.length);
+            for (int i = ParallelRange.chunkStart(chunk, chunks, frontier.length); i < to; i++) {
+                frontierBits.set(frontier[i]);
+            }
+        });
+    }
+
+    private long degreeSum(CsrGraph graph, int[] frontier) {
+        int[] offsets = graph.getOffsets();
+        int chunks = ParallelRange.chunkCount(pool, frontier.length, MIN_CHUNK_SIZE);
+        long[] sums = new long[chunks];
+        ParallelRange.forEachChunk(pool, chunks, chunk -> {
+            int to = ParallelRange.chunkStart(chunk + 1, chunks, frontier.length);
+            long sum = 0;
+            for (int i = ParallelRange.chunkStart(chunk, chunks, frontier.length); i < to; i++) {
+                sum += offsets[frontier[i] + 1] - offsets[frontier[i]];
+            }
+            sums[chunk] = sum;
+        });
+        return Arrays.stream(sums).sum();
+    }
+}
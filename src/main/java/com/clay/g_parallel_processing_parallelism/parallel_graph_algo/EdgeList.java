@@ -0,0 +1,33 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+/**
+ * An edge list held as two parallel int arrays, together with the number of vertices it spans
+ * (the largest vertex id plus one).
+ */
+public class EdgeList {
+    private final int[] sources;
+    private final int[] destinations;
+    private final int vertexCount;
+
+    EdgeList(int[] sources, int[] destinations, int vertexCount) {
+        this.sources = sources;
+        this.destinations = destinations;
+        this.vertexCount = vertexCount;
+    }
+
+    public int[] getSources() {
+        return sources;
+    }
+
+    public int[] getDestinations() {
+        return destinations;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getEdgeCount() {
+        return sources.length;
+    }
+}
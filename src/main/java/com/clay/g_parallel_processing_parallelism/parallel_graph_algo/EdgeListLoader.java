@@ -0,0 +1,256 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Loads edge-list files in parallel from memory-mapped chunks.
+ *
+ * Text files hold one edge per line as two non-negative vertex ids separated by spaces, tabs or commas. Anything
+ * after the second id (for example a weight) is ignored, as are empty lines and lines starting with '#' or '%'.
+ * The file is cut into chunks that end right after a newline, so that no line is split. Each chunk is mapped and
+ * parsed twice straight from the mapped bytes: the first pass counts its edges, a prefix sum over the counts gives
+ * every chunk its position in the result arrays, and the second pass parses the ids into place. No String or
+ * boxed value is created per line.
+ *
+ * Binary files are a sequence of (source, destination) pairs of little-endian 32-bit ints.
+ *
+ * The loaded edges can be turned into a CsrGraph with CsrGraphBuilder, see loadTextGraph() and loadBinaryGraph().
+ */
+public class EdgeListLoader {
+
+    // Chunks larger than this are split further, and a mapped region must stay below 2 GB anyway
+    private static final long MAX_CHUNK_BYTES = 64L << 20;
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+
+    private final ForkJoinPool pool;
+
+    public EdgeListLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public CsrGraph loadTextGraph(Path file, boolean undirected) throws IOException {
+        EdgeList edges = loadText(file);
+        return CsrGraphBuilder.build(pool, edges.getVertexCount(), edges.getSources(), edges.getDestinations(), undirected);
+    }
+
+    public CsrGraph loadBinaryGraph(Path file, boolean undirected) throws IOException {
+        EdgeList edges = loadBinary(file);
+        return CsrGraphBuilder.build(pool, edges.getVertexCount(), edges.getSources(), edges.getDestinations(), undirected);
+    }
+
+    /**
+     * Parses a text edge list.
+     */
+    public EdgeList loadText(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] boundaries = lineAlignedBoundaries(channel, size, chunkCount(size));
+            int chunks = boundaries.length - 1;
+
+            // Pass 1: count the edges of every chunk
+            long[] counts = new long[chunks];
+            ParallelRange.forEachChunk(pool, chunks, chunk -> {
+                MappedByteBuffer buffer = map(channel, boundaries[chunk], boundaries[chunk + 1]);
+                counts[chunk] = parse(buffer, null, null, 0, boundaries[chunk]);
+            });
+
+            // The edges of every chunk start where those of the previous chunks end
+            long[] starts = new long[chunks + 1];
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                starts[chunk + 1] = starts[chunk] + counts[chunk];
+            }
+            if (starts[chunks] > Integer.MAX_VALUE - 8) {
+                throw new IOException("Too many edges in " + file + ": " + starts[chunks]);
+            }
+
+            // Pass 2: parse every chunk into its part of the result arrays
+            int[] sources = new int[(int) starts[chunks]];
+            int[] destinations = new int[sources.length];
+            long[] maxIds = new long[chunks];
+            ParallelRange.forEachChunk(pool, chunks, chunk -> {
+                MappedByteBuffer buffer = map(channel, boundaries[chunk], boundaries[chunk + 1]);
+                maxIds[chunk] = parse(buffer, sources, destinations, (int) starts[chunk], boundaries[chunk]);
+            });
+
+            return new EdgeList(sources, destinations, vertexCount(maxIds));
+        }
+    }
+
+    /**
+     * Reads a binary edge list of little-endian int pairs.
+     */
+    public EdgeList loadBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % 8 != 0) {
+                throw new IOException("Binary edge list size is not a multiple of 8 bytes: " + file);
+            }
+            if (size / 8 > Integer.MAX_VALUE - 8) {
+                throw new IOException("Too many edges in " + file + ": " + size / 8);
+            }
+            int edgeCount = (int) (size / 8);
+            int chunks = Math.min(chunkCount(size), Math.max(1, edgeCount));
+            int[] sources = new int[edgeCount];
+            int[] destinations = new int[edgeCount];
+            long[] maxIds = new long[chunks];
+
+            ParallelRange.forEachChunk(pool, chunks, chunk -> {
+                int from = ParallelRange.chunkStart(chunk, chunks, edgeCount);
+                int to = ParallelRange.chunkStart(chunk + 1, chunks, edgeCount);
+                IntBuffer ints = map(channel, from * 8L, to * 8L).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                long max = -1;
+                for (int i = from; i < to; i++) {
+                    int source = ints.get();
+                    int destination = ints.get();
+                    if (source < 0 || destination < 0) {
+                        throw new IllegalArgumentException("Negative vertex id in edge " + i);
+                    }
+                    sources[i] = source;
+                    destinations[i] = destination;
+                    max = Math.max(max, Math.max(source, destination));
+                }
+                maxIds[chunk] = max;
+            });
+
+            return new EdgeList(sources, destinations, vertexCount(maxIds));
+        }
+    }
+
+    /**
+     * Parses the edges of one chunk. Without destination arrays only the edges are counted.
+     *
+     * @return the number of edges when counting, otherwise the largest vertex id seen (-1 if none)
+     */
+    private static long parse(ByteBuffer buffer, int[] sources, int[] destinations, int position, long fileOffset) {
+        boolean counting = sources == null;
+        int limit = buffer.limit();
+        long edges = 0;
+        long maxId = -1;
+        int i = 0;
+        while (i < limit) {
+            // Skip leading blanks of the line
+            byte b = buffer.get(i);
+            while ((b == ' ' || b == '\t' || b == '\r') && ++i < limit) {
+                b = buffer.get(i);
+            }
+            if (i >= limit) {
+                break;
+            }
+            if (b < '0' || b > '9') {
+                if (b != '\n' && b != '#' && b != '%') {
+                    throw new IllegalArgumentException("Unexpected character '" + (char) b + "' at byte " + (fileOffset + i));
+                }
+                // Empty or comment line
+                while (i < limit && buffer.get(i) != '\n') {
+                    i++;
+                }
+                i++;
+                continue;
+            }
+
+            if (counting) {
+                edges++;
+            } else {
+                // First id
+                long source = 0;
+                while (i < limit && (b = buffer.get(i)) >= '0' && b <= '9' && source <= Integer.MAX_VALUE) {
+                    source = source * 10 + (b - '0');
+                    i++;
+                }
+                // Separator
+                while (i < limit && ((b = buffer.get(i)) == ' ' || b == '\t' || b == ',')) {
+                    i++;
+                }
+                // Second id
+                long destination = 0;
+                int digits = 0;
+                while (i < limit && (b = buffer.get(i)) >= '0' && b <= '9' && destination <= Integer.MAX_VALUE) {
+                    destination = destination * 10 + (b - '0');
+                    digits++;
+                    i++;
+                }
+                if (digits == 0) {
+                    throw new IllegalArgumentException("Missing destination vertex at byte " + (fileOffset + i));
+                }
+                if (source > Integer.MAX_VALUE || destination > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Vertex id too large at byte " + (fileOffset + i));
+                }
+                sources[position] = (int) source;
+                destinations[position] = (int) destination;
+                position++;
+                maxId = Math.max(maxId, Math.max(source, destination));
+            }
+
+            // Skip the rest of the line
+            while (i < limit && buffer.get(i) != '\n') {
+                i++;
+            }
+            i++;
+        }
+        return counting ? edges : maxId;
+    }
+
+    private int chunkCount(long size) {
+        long bySize = Math.max(1, (size + MIN_CHUNK_BYTES - 1) / MIN_CHUNK_BYTES);
+        long byParallelism = Math.max((long) pool.getParallelism() * ParallelRange.CHUNKS_PER_WORKER,
+                (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        return (int) Math.min(bySize, byParallelism);
+    }
+
+    /**
+     * Moves every evenly spaced chunk boundary forward to just after the next newline.
+     */
+    private static long[] lineAlignedBoundaries(FileChannel channel, long size, int chunks) throws IOException {
+        long[] boundaries = new long[chunks + 1];
+        ByteBuffer window = ByteBuffer.allocate(64 * 1024);
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            long position = Math.max(boundaries[chunk - 1], size * chunk / chunks);
+            boundaries[chunk] = size;
+            search:
+            while (position < size) {
+                window.clear();
+                int read = channel.read(window, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (window.get(i) == '\n') {
+                        boundaries[chunk] = position + i + 1;
+                        break search;
+                    }
+                }
+                position += read;
+            }
+        }
+        boundaries[chunks] = size;
+        return boundaries;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long from, long to) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int vertexCount(long[] maxIds) {
+        long max = -1;
+        for (long id : maxIds) {
+            max = Math.max(max, id);
+        }
+        if (max >= Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Vertex id too large for int offsets: " + max);
+        }
+        return (int) (max + 1);
+    }
+}
@@ -0,0 +1,55 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * In this example, we run two bulk-parallel graph analytics kernels on a synthetic Kronecker graph: connected
+ * components with ConnectedComponents and PageRank with PageRank.
+ *
+ * Both kernels work on the flat arrays of a CsrGraph and keep their state in primitive arrays (an int[] parent
+ * array and two double[] rank arrays), so they allocate nothing per vertex. Each kernel is run once on a pool
+ * with a single thread and once on a pool with all available processors to show how it scales.
+ *
+ * Usage: GraphAnalyticsExample [scale] [edgeFactor]
+ */
+public class GraphAnalyticsExample {
+
+    public static void main(String[] args) {
+        int scale = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int edgeFactor = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        CsrGraph graph = RmatGenerator.kronecker(ForkJoinPool.commonPool(), scale, edgeFactor, 42);
+        System.out.printf("Kronecker graph: %,d vertices, %,d directed edges%n", graph.getVertexCount(), graph.getEdgeCount());
+
+        int[] threadCounts = {1, Runtime.getRuntime().availableProcessors()};
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+
+            // Run each kernel twice and time the second run, so that the JIT has warmed up
+            ConnectedComponents components = new ConnectedComponents(pool);
+            components.labels(graph);
+            long start = System.nanoTime();
+            int[] labels = components.labels(graph);
+            long componentsNanos = System.nanoTime() - start;
+
+            PageRank pageRank = new PageRank(pool);
+            pageRank.ranks(graph);
+            start = System.nanoTime();
+            double[] ranks = pageRank.ranks(graph);
+            long pageRankNanos = System.nanoTime() - start;
+
+            int top = 0;
+            for (int v = 1; v < ranks.length; v++) {
+                if (ranks[v] > ranks[top]) {
+                    top = v;
+                }
+            }
+
+            System.out.printf("%2d threads: connected components %8.1f ms (%,d components), "
+                            + "PageRank %8.1f ms (%d iterations, top vertex %d with rank %.6f)%n",
+                    threads, componentsNanos / 1e6, ConnectedComponents.countComponents(labels),
+                    pageRankNanos / 1e6, pageRank.getIterations(), top, ranks[top]);
+            pool.shutdown();
+        }
+    }
+}
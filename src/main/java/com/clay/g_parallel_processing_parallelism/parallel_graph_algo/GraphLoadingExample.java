@@ -0,0 +1,75 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * In this example, we write a synthetic graph as a text edge list, load it back with EdgeListLoader, save it in
+ * the binary CSR format of CsrGraphFile and reload it from there.
+ *
+ * Loading the text file maps it in newline-aligned chunks that are parsed in parallel straight from the mapped
+ * bytes, and CsrGraphBuilder builds the CSR arrays with a parallel degree count and prefix sum. Reloading the
+ * binary file skips parsing and building altogether, which is what makes repeated runs on the same graph cheap.
+ *
+ * Usage: GraphLoadingExample [scale] [edgeFactor]
+ */
+public class GraphLoadingExample {
+
+    public static void main(String[] args) throws IOException {
+        int scale = args.length > 0 ? Integer.parseInt(args[0]) : 18;
+        int edgeFactor = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        // Write a directed R-MAT graph as a text edge list
+        CsrGraph original = RmatGenerator.generate(pool, scale, edgeFactor, RmatGenerator.GRAPH500_A,
+                RmatGenerator.GRAPH500_B, RmatGenerator.GRAPH500_C, 42, false);
+        Path textFile = Files.createTempFile("edges", ".txt");
+        Path csrFile = Files.createTempFile("graph", ".csr");
+        try {
+            writeEdgeList(original, textFile);
+            System.out.printf("Edge list: %,d edges, %,d bytes%n", original.getEdgeCount(), Files.size(textFile));
+
+            EdgeListLoader loader = new EdgeListLoader(pool);
+            long start = System.nanoTime();
+            CsrGraph loaded = loader.loadTextGraph(textFile, false);
+            System.out.printf("Parsed text edge list and built CSR in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+            start = System.nanoTime();
+            CsrGraphFile.write(loaded, csrFile);
+            System.out.printf("Wrote binary CSR file (%,d bytes) in %.1f ms%n", Files.size(csrFile), (System.nanoTime() - start) / 1e6);
+
+            start = System.nanoTime();
+            CsrGraph reloaded = CsrGraphFile.read(csrFile, pool);
+            System.out.printf("Reloaded binary CSR file in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+            // Isolated vertices above the largest id in the edge list are not loaded, so compare the neighbor lists
+            boolean same = Arrays.equals(loaded.getTargets(), original.getTargets())
+                    && Arrays.equals(loaded.getTargets(), reloaded.getTargets())
+                    && Arrays.equals(loaded.getOffsets(), reloaded.getOffsets());
+            System.out.println("Graphs identical: " + same);
+        } finally {
+            Files.deleteIfExists(textFile);
+            Files.deleteIfExists(csrFile);
+        }
+    }
+
+    private static void writeEdgeList(CsrGraph graph, Path file) throws IOException {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("# source destination\n");
+            for (int v = 0; v < graph.getVertexCount(); v++) {
+                for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                    writer.write(Integer.toString(v));
+                    writer.write('\t');
+                    writer.write(Integer.toString(targets[edge]));
+                    writer.write('\n');
+                }
+            }
+        }
+    }
+}
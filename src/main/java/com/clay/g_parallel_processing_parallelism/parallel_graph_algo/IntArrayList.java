@@ -0,0 +1,62 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.util.Arrays;
+
+/**
+ * A minimal growable list of primitive ints, used as a thread-confined buffer by the graph kernels
+ * so that collecting vertices never boxes them.
+ */
+class IntArrayList {
+    private int[] elements;
+    private int size;
+
+    IntArrayList() {
+        this(16);
+    }
+
+    IntArrayList(int initialCapacity) {
+        elements = new int[Math.max(1, initialCapacity)];
+    }
+
+    void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        elements[size++] = value;
+    }
+
+    void addAll(IntArrayList other) {
+        if (size + other.size > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(elements.length * 2, size + other.size));
+        }
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    int get(int index) {
+        return elements[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Copies the elements into the destination array starting at the given position.
+     */
+    void copyTo(int[] destination, int position) {
+        System.arraycopy(elements, 0, destination, position, size);
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
@@ -0,0 +1,145 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parallel pull-based PageRank with double-buffered rank arrays.
+ *
+ * Each iteration first computes the contribution of every vertex, its rank divided by its out-degree, and the
+ * total rank held by dangling vertices without outgoing edges. Then every vertex pulls the contributions of its
+ * in-neighbors into the next rank array. Because a vertex only writes its own entry, no atomics or locks are
+ * needed. The rank arrays are swapped after each iteration. Iteration stops when the L1 distance between two rank
+ * vectors drops below the tolerance or after maxIterations.
+ *
+ * The rank of dangling vertices is spread evenly over all vertices, so the ranks always sum to 1.
+ */
+public class PageRank {
+
+    public static final double DEFAULT_DAMPING = 0.85;
+    public static final double DEFAULT_TOLERANCE = 1e-6;
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    private static final int MIN_CHUNK_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final double damping;
+    private final double tolerance;
+    private final int maxIterations;
+    private int iterations;
+
+    public PageRank(ForkJoinPool pool) {
+        this(pool, DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    public PageRank(ForkJoinPool pool, double damping, double tolerance, int maxIterations) {
+        if (damping < 0 || damping > 1) {
+            throw new IllegalArgumentException("Damping must be between 0 and 1");
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("At least one iteration is required");
+        }
+        this.pool = pool;
+        this.damping = damping;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Ranks an undirected graph, whose incoming edges are its outgoing edges.
+     */
+    public double[] ranks(CsrGraph graph) {
+        return ranks(graph, graph);
+    }
+
+    /**
+     * Ranks a directed graph.
+     *
+     * @param graph    the outgoing edges, which give the out-degree of every vertex
+     * @param incoming the incoming edges, for example graph.transpose()
+     * @return the rank of every vertex
+     */
+    public double[] ranks(CsrGraph graph, CsrGraph incoming) {
+        int vertexCount = graph.getVertexCount();
+        if (incoming.getVertexCount() != vertexCount) {
+            throw new IllegalArgumentException("The incoming graph must have the same vertices");
+        }
+        if (vertexCount == 0) {
+            return new double[0];
+        }
+        int[] outOffsets = graph.getOffsets();
+        int[] inOffsets = incoming.getOffsets();
+        int[] inTargets = incoming.getTargets();
+        int chunks = ParallelRange.chunkCount(pool, vertexCount, MIN_CHUNK_SIZE);
+
+        double[] current = new double[vertexCount];
+        double[] next = new double[vertexCount];
+        double[] contributions = new double[vertexCount];
+        double[] partials = new double[chunks];
+        Arrays.fill(current, 1.0 / vertexCount);
+
+        iterations = 0;
+        while (iterations < maxIterations) {
+            iterations++;
+            double[] ranks = current;
+            double[] nextRanks = next;
+
+            // Contribution of every vertex, and the rank of dangling vertices that has nowhere to go
+            ParallelRange.forEachChunk(pool, chunks, chunk -> {
+                int to = ParallelRange.chunkStart(chunk + 1, chunks, vertexCount);
+                double dangling = 0;
+                for (int v = ParallelRange.chunkStart(chunk, chunks, vertexCount); v < to; v++) {
+                    int degree = outOffsets[v + 1] - outOffsets[v];
+                    if (degree == 0) {
+                        dangling += ranks[v];
+                        contributions[v] = 0;
+                    } else {
+                        contributions[v] = ranks[v] / degree;
+                    }
+                }
+                partials[chunk] = dangling;
+            });
+            double base = (1 - damping) / vertexCount + damping * sum(partials) / vertexCount;
+
+            // Every vertex pulls from its in-neighbors and only writes its own rank
+            ParallelRange.forEachChunk(pool, chunks, chunk -> {
+                int to = ParallelRange.chunkStart(chunk + 1, chunks, vertexCount);
+                double error = 0;
+                for (int v = ParallelRange.chunkStart(chunk, chunks, vertexCount); v < to; v++) {
+                    double incomingRank = 0;
+                    for (int edge = inOffsets[v], end = inOffsets[v + 1]; edge < end; edge++) {
+                        incomingRank += contributions[inTargets[edge]];
+                    }
+                    double rank = base + damping * incomingRank;
+                    error += Math.abs(rank - ranks[v]);
+                    nextRanks[v] = rank;
+                }
+                partials[chunk] = error;
+            });
+
+            // Swap the buffers
+            current = nextRanks;
+            next = ranks;
+            if (sum(partials) < tolerance) {
+                break;
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * @return the number of iterations of the last call to ranks()
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,114 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A level-synchronous parallel breadth-first search over a CsrGraph.
+ *
+ * The search keeps the current level (the frontier) in a plain int array. Each round, the frontier is cut into
+ * chunks that are expanded in parallel on the ForkJoinPool. A chunk walks the neighbor lists of its vertices and
+ * claims every unvisited neighbor with a single compare-and-set on an AtomicBitSet. Only the claiming thread
+ * records the neighbor's depth and parent and appends it to the chunk's own next-frontier buffer, so chunks never
+ * contend on a shared queue. When every chunk has finished, the buffers are concatenated in parallel into the next
+ * frontier. The search stops when a level discovers no new vertices.
+ *
+ * Every vertex enters the frontier exactly once and every edge is examined at most twice, so the total work
+ * is O(V + E).
+ */
+public class ParallelBfs {
+
+    // Frontier vertices per chunk at minimum, below this the task overhead dominates
+    private static final int MIN_CHUNK_SIZE = 512;
+
+    private final ForkJoinPool pool;
+
+    public ParallelBfs() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelBfs(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Runs a breadth-first search from the given source vertex.
+     *
+     * @param graph  the graph to traverse
+     * @param source the start vertex
+     * @return the depth and parent of every vertex
+     */
+    public BfsResult search(CsrGraph graph, int source) {
+        int vertexCount = graph.getVertexCount();
+        if (source < 0 || source >= vertexCount) {
+            throw new IllegalArgumentException("Source vertex " + source + " is not in the graph");
+        }
+
+        int[] depths = new int[vertexCount];
+        int[] parents = new int[vertexCount];
+        Arrays.fill(depths, -1);
+        Arrays.fill(parents, -1);
+
+        AtomicBitSet visited = new AtomicBitSet(vertexCount);
+        visited.set(source);
+        depths[source] = 0;
+        parents[source] = source;
+
+        int[] frontier = {source};
+        int level = 0;
+        int visitedCount = 1;
+        while (frontier.length > 0) {
+            frontier = expandTopDown(graph, frontier, level + 1, visited, depths, parents);
+            visitedCount += frontier.length;
+            level++;
+        }
+
+        return new BfsResult(source, depths, parents, level, visitedCount);
+    }
+
+    /**
+     * Expands one frontier by following the outgoing edges of every frontier vertex.
+     *
+     * @return the vertices discovered by this step, which form the next frontier
+     */
+    int[] expandTopDown(CsrGraph graph, int[] frontier, int nextDepth, AtomicBitSet visited, int[] depths, int[] parents) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int chunks = ParallelRange.chunkCount(pool, frontier.length, MIN_CHUNK_SIZE);
+        IntArrayList[] buffers = new IntArrayList[chunks];
+
+        ParallelRange.forEachChunk(pool, chunks, chunk -> {
+            int from = ParallelRange.chunkStart(chunk, chunks, frontier.length);
+            int to = ParallelRange.chunkStart(chunk + 1, chunks, frontier.length);
+            IntArrayList next = new IntArrayList(to - from);
+            for (int i = from; i < to; i++) {
+                int vertex = frontier[i];
+                for (int edge = offsets[vertex], end = offsets[vertex + 1]; edge < end; edge++) {
+                    int neighbor = targets[edge];
+                    // Only the thread that flips the visited bit records the neighbor
+                    if (!visited.get(neighbor) && visited.set(neighbor)) {
+                        depths[neighbor] = nextDepth;
+                        parents[neighbor] = vertex;
+                        next.add(neighbor);
+                    }
+                }
+            }
+            buffers[chunk] = next;
+        });
+
+        return concatenate(buffers);
+    }
+
+    /**
+     * Concatenates per-chunk buffers into one array, copying the chunks in parallel.
+     */
+    int[] concatenate(IntArrayList[] buffers) {
+        int[] starts = new int[buffers.length + 1];
+        for (int chunk = 0; chunk < buffers.length; chunk++) {
+            starts[chunk + 1] = starts[chunk] + buffers[chunk].size();
+        }
+        int[] result = new int[starts[buffers.length]];
+        ParallelRange.forEachChunk(pool, buffers.length, chunk -> buffers[chunk].copyTo(result, starts[chunk]));
+        return result;
+    }
+}
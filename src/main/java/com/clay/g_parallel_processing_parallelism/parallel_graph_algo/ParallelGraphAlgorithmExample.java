@@ -9,6 +9,8 @@ import java.util.concurrent.*;
  * The main logic of the parallelBFS method executes the parallel BFS algorithm. It starts with the initial vertex, adds it to the visited list, and enqueues it in a shared Queue. Then, it enters a loop where it processes vertices from the queue in parallel. Each vertex's neighbors are retrieved, and if a neighbor has not been visited, it is added to the visited list, enqueued in the shared Queue, and a BFSTask is submitted to the executor service for parallel execution. The BFSTask performs the BFS traversal starting from the neighbor vertex and returns the list of visited vertices. The main thread collects the results from all the tasks and adds them to the visited list. The process continues until the queue is empty, meaning all vertices have been processed.
  *
  * The Graph class represents the graph using an adjacency list, and the BFSTask class is a callable that performs the BFS traversal starting from a specific vertex. The BFSTask is executed by separate threads in parallel, allowing for faster exploration of the graph.
+ *
+ * For large graphs, the same traversal is also shown on a CsrGraph with ParallelBfs. The CSR form keeps the adjacency in two flat int arrays, the visited set is an AtomicBitSet, and every level of the search is expanded in parallel on a ForkJoinPool without boxing a single vertex.
  */
 public class ParallelGraphAlgorithmExample {
 
@@ -29,6 +31,14 @@ public class ParallelGraphAlgorithmExample {
         // Execute parallel BFS
         List<Integer> result = parallelBFS(graph, startVertex);
         System.out.println("Parallel BFS Result: " + result);
+
+        // Execute the level-synchronous BFS on the same edges stored in CSR form
+        int[] sources = {1, 1, 2, 2, 3, 3, 4, 5};
+        int[] destinations = {2, 3, 4, 5, 6, 7, 8, 9};
+        CsrGraph csrGraph = CsrGraph.fromEdges(10, sources, destinations, true);
+        BfsResult bfsResult = new ParallelBfs(ForkJoinPool.commonPool()).search(csrGraph, startVertex);
+        System.out.println("CSR BFS depths: " + Arrays.toString(bfsResult.getDepths()));
+        System.out.println("CSR BFS levels: " + bfsResult.getLevelCount() + ", visited: " + bfsResult.getVisitedCount());
     }
 
     private static List<Integer> parallelBFS(Graph graph, int startVertex) {
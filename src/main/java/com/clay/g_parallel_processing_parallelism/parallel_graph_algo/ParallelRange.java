@@ -0,0 +1,66 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Helpers for running a loop body over index ranges on a ForkJoinPool, shared by the graph kernels and the other
+ * ForkJoin-based algorithms of this module.
+ */
+public class ParallelRange {
+
+    // Chunks per worker thread, so that work stealing can even out chunks of uneven cost
+    static final int CHUNKS_PER_WORKER = 8;
+
+    private ParallelRange() {
+    }
+
+    /**
+     * @return a chunk count for splitting count items into chunks of at least minChunkSize items
+     */
+    public static int chunkCount(ForkJoinPool pool, long count, int minChunkSize) {
+        long bySize = (count + minChunkSize - 1) / minChunkSize;
+        return (int) Math.max(1, Math.min(bySize, (long) pool.getParallelism() * CHUNKS_PER_WORKER));
+    }
+
+    /**
+     * @return the first index of the given chunk when count items are split into chunks equal parts
+     */
+    public static int chunkStart(int chunk, int chunks, int count) {
+        return (int) ((long) count * chunk / chunks);
+    }
+
+    /**
+     * Runs the body once for every chunk index in 0 ... chunks - 1 and waits for all of them.
+     */
+    public static void forEachChunk(ForkJoinPool pool, int chunks, IntConsumer body) {
+        if (chunks == 1) {
+            body.accept(0);
+        } else if (chunks > 1) {
+            pool.invoke(new ChunkTask(body, 0, chunks));
+        }
+    }
+
+    private static class ChunkTask extends RecursiveAction {
+        private final IntConsumer body;
+        private final int start;
+        private final int end;
+
+        ChunkTask(IntConsumer body, int start, int end) {
+            this.body = body;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                body.accept(start);
+            } else {
+                int mid = (start + end) >>> 1;
+                invokeAll(new ChunkTask(body, start, mid), new ChunkTask(body, mid, end));
+            }
+        }
+    }
+}
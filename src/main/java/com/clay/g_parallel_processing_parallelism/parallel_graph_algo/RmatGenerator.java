@@ -0,0 +1,108 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates synthetic R-MAT graphs, the recursive-matrix model behind the Graph500 Kronecker generator.
+ *
+ * Every edge picks one quadrant of the adjacency matrix with probabilities a, b, c and 1 - a - b - c, then
+ * recurses into that quadrant until a single cell is left. Skewed probabilities give the power-law degree
+ * distribution and small diameter of social graphs. With a = 0.57 and b = c = 0.19 this is the Graph500 Kronecker
+ * graph. Vertex ids are shuffled afterwards so that high-degree vertices are not clustered at low ids.
+ *
+ * Edges are generated in a fixed number of chunks, each with its own random stream derived from the seed, so the
+ * result depends only on the parameters and not on the number of threads.
+ */
+public class RmatGenerator {
+
+    public static final double GRAPH500_A = 0.57;
+    public static final double GRAPH500_B = 0.19;
+    public static final double GRAPH500_C = 0.19;
+
+    private static final int CHUNKS = 64;
+
+    private RmatGenerator() {
+    }
+
+    /**
+     * Generates a Graph500-style Kronecker graph.
+     */
+    public static CsrGraph kronecker(ForkJoinPool pool, int scale, int edgeFactor, long seed) {
+        return generate(pool, scale, edgeFactor, GRAPH500_A, GRAPH500_B, GRAPH500_C, seed, true);
+    }
+
+    /**
+     * Generates an R-MAT graph.
+     *
+     * @param pool       the pool generating the edges
+     * @param scale      log2 of the number of vertices
+     * @param edgeFactor edges per vertex
+     * @param a          probability of the top-left quadrant
+     * @param b          probability of the top-right quadrant
+     * @param c          probability of the bottom-left quadrant
+     * @param seed       the random seed
+     * @param undirected whether to store every edge in both directions
+     * @return the generated graph
+     */
+    public static CsrGraph generate(ForkJoinPool pool, int scale, int edgeFactor, double a, double b, double c,
+                                    long seed, boolean undirected) {
+        if (scale < 1 || scale > 30 || edgeFactor < 1) {
+            throw new IllegalArgumentException("Scale must be in 1..30 and the edge factor positive");
+        }
+        if (a < 0 || b < 0 || c < 0 || a + b + c > 1) {
+            throw new IllegalArgumentException("Quadrant probabilities must be non-negative and sum to at most 1");
+        }
+        int vertexCount = 1 << scale;
+        long edgeCount = (long) edgeFactor << scale;
+        if (edgeCount * (undirected ? 2 : 1) > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many edges for int offsets: " + edgeCount);
+        }
+
+        int[] permutation = randomPermutation(vertexCount, new SplittableRandom(seed));
+        int[] sources = new int[(int) edgeCount];
+        int[] destinations = new int[(int) edgeCount];
+        double ab = a + b;
+        double abc = a + b + c;
+
+        ParallelRange.forEachChunk(pool, CHUNKS, chunk -> {
+            SplittableRandom random = new SplittableRandom(seed * 31 + chunk + 1);
+            int to = ParallelRange.chunkStart(chunk + 1, CHUNKS, sources.length);
+            for (int i = ParallelRange.chunkStart(chunk, CHUNKS, sources.length); i < to; i++) {
+                int row = 0;
+                int column = 0;
+                for (int bit = 0; bit < scale; bit++) {
+                    double r = random.nextDouble();
+                    row <<= 1;
+                    column <<= 1;
+                    if (r >= abc) {
+                        row |= 1;
+                        column |= 1;
+                    } else if (r >= ab) {
+                        row |= 1;
+                    } else if (r >= a) {
+                        column |= 1;
+                    }
+                }
+                sources[i] = permutation[row];
+                destinations[i] = permutation[column];
+            }
+        });
+
+        return CsrGraphBuilder.build(pool, vertexCount, sources, destinations, undirected);
+    }
+
+    private static int[] randomPermutation(int size, SplittableRandom random) {
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return permutation;
+    }
+}
@@ -0,0 +1,118 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.util.Arrays;
+
+/**
+ * The classic sequential Dijkstra algorithm with a binary heap, used as the reference for DeltaSteppingSssp.
+ *
+ * The heap stores (distance, vertex) pairs in two primitive arrays. Instead of a decrease-key operation, an
+ * improved vertex is pushed again and outdated entries are skipped when they are popped.
+ */
+public class SequentialDijkstra {
+
+    private SequentialDijkstra() {
+    }
+
+    /**
+     * Computes the shortest distance from the source to every vertex.
+     *
+     * @return the distance of every vertex, DeltaSteppingSssp.UNREACHABLE for vertices that cannot be reached
+     */
+    public static long[] shortestPaths(WeightedCsrGraph graph, int source) {
+        int vertexCount = graph.getVertexCount();
+        if (source < 0 || source >= vertexCount) {
+            throw new IllegalArgumentException("Source vertex " + source + " is not in the graph");
+        }
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+
+        long[] distances = new long[vertexCount];
+        Arrays.fill(distances, DeltaSteppingSssp.UNREACHABLE);
+        distances[source] = 0;
+
+        MinHeap heap = new MinHeap(Math.max(16, vertexCount / 4));
+        heap.push(0, source);
+        while (!heap.isEmpty()) {
+            long distance = heap.peekKey();
+            int vertex = heap.pop();
+            if (distance > distances[vertex]) {
+                continue; // An outdated entry, the vertex was already settled with a shorter distance
+            }
+            for (int edge = offsets[vertex], end = offsets[vertex + 1]; edge < end; edge++) {
+                int neighbor = targets[edge];
+                long candidate = distance + weights[edge];
+                if (candidate < distances[neighbor]) {
+                    distances[neighbor] = candidate;
+                    heap.push(candidate, neighbor);
+                }
+            }
+        }
+
+        return distances;
+    }
+
+    // A binary min-heap of (long key, int value) pairs
+    private static class MinHeap {
+        private long[] keys;
+        private int[] values;
+        private int size;
+
+        MinHeap(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long peekKey() {
+            return keys[0];
+        }
+
+        void push(long key, int value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            // Sift the new entry up from the last position
+            int index = size++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[index] = keys[parent];
+                values[index] = values[parent];
+                index = parent;
+            }
+            keys[index] = key;
+            values[index] = value;
+        }
+
+        int pop() {
+            int result = values[0];
+            long key = keys[--size];
+            int value = values[size];
+            // Sift the last entry down from the root
+            int index = 0;
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                keys[index] = keys[child];
+                values[index] = values[child];
+                index = child;
+            }
+            keys[index] = key;
+            values[index] = value;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks DeltaSteppingSssp against SequentialDijkstra and measures the speedup.
+ *
+ * Usage: SsspComparison [vertices] [averageDegree] [maxWeight] [sources] [delta]
+ *
+ * The graph is a random undirected graph with uniformly distributed integer weights in 1..maxWeight.
+ * When no delta is given, DeltaSteppingSssp.suggestDelta() picks one.
+ */
+public class SsspComparison {
+
+    public static void main(String[] args) {
+        int vertices = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int averageDegree = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int maxWeight = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        int sources = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        WeightedCsrGraph graph = randomGraph(vertices, averageDegree, maxWeight, new SplittableRandom(42));
+        long delta = args.length > 4 ? Long.parseLong(args[4]) : DeltaSteppingSssp.suggestDelta(graph);
+        DeltaSteppingSssp deltaStepping = new DeltaSteppingSssp(pool, delta);
+        System.out.printf("Random graph: %,d vertices, %,d directed edges, weights 1..%d, delta %d, %d threads%n",
+                graph.getVertexCount(), graph.getEdgeCount(), maxWeight, delta, pool.getParallelism());
+
+        // Warm up both implementations
+        SequentialDijkstra.shortestPaths(graph, 0);
+        deltaStepping.shortestPaths(graph, 0);
+
+        SplittableRandom random = new SplittableRandom(7);
+        long dijkstraNanos = 0;
+        long deltaNanos = 0;
+        for (int i = 0; i < sources; i++) {
+            int source = random.nextInt(vertices);
+
+            long start = System.nanoTime();
+            long[] expected = SequentialDijkstra.shortestPaths(graph, source);
+            long dijkstra = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long[] actual = deltaStepping.shortestPaths(graph, source);
+            long parallel = System.nanoTime() - start;
+
+            if (!Arrays.equals(expected, actual)) {
+                throw new IllegalStateException("Distances differ for source " + source);
+            }
+            System.out.printf("Source %,10d: Dijkstra %8.1f ms, delta-stepping %8.1f ms, distances match%n",
+                    source, dijkstra / 1e6, parallel / 1e6);
+            dijkstraNanos += dijkstra;
+            deltaNanos += parallel;
+        }
+
+        System.out.printf("Speedup: %.2fx%n", (double) dijkstraNanos / deltaNanos);
+    }
+
+    private static WeightedCsrGraph randomGraph(int vertices, int averageDegree, int maxWeight, SplittableRandom random) {
+        // Every undirected edge is stored twice, so generate half the requested degree
+        int edges = (int) Math.min(Integer.MAX_VALUE / 2 - 8, (long) vertices * averageDegree / 2);
+        int[] sources = new int[edges];
+        int[] destinations = new int[edges];
+        int[] weights = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            sources[i] = random.nextInt(vertices);
+            destinations[i] = random.nextInt(vertices);
+            weights[i] = 1 + random.nextInt(maxWeight);
+        }
+        return WeightedCsrGraph.fromEdges(vertices, sources, destinations, weights, true);
+    }
+}
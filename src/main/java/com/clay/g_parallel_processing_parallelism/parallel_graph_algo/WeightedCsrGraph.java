@@ -0,0 +1,90 @@
+package com.clay.g_parallel_processing_parallelism.parallel_graph_algo;
+
+/**
+ * A CsrGraph with a non-negative int weight on every edge. The weight of the edge stored at
+ * targets[i] is weights[i], so the weights are read in the same order as the neighbors.
+ */
+public class WeightedCsrGraph extends CsrGraph {
+    private final int[] weights;
+    private final int maxWeight;
+
+    /**
+     * Wraps existing CSR arrays without copying them.
+     */
+    public WeightedCsrGraph(int[] offsets, int[] targets, int[] weights) {
+        super(offsets, targets);
+        if (weights.length != targets.length) {
+            throw new IllegalArgumentException("There must be one weight per edge");
+        }
+        int max = 0;
+        for (int weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Edge weights must not be negative: " + weight);
+            }
+            max = Math.max(max, weight);
+        }
+        this.weights = weights;
+        this.maxWeight = max;
+    }
+
+    /**
+     * Builds a weighted graph from an edge list given as three parallel arrays.
+     *
+     * @param vertexCount  the number of vertices; every endpoint must be smaller than this
+     * @param sources      the source vertex of every edge
+     * @param destinations the destination vertex of every edge
+     * @param edgeWeights  the non-negative weight of every edge
+     * @param undirected   whether every edge should also be stored in the reverse direction
+     * @return the graph in CSR form
+     */
+    public static WeightedCsrGraph fromEdges(int vertexCount, int[] sources, int[] destinations, int[] edgeWeights,
+                                             boolean undirected) {
+        if (sources.length != destinations.length || sources.length != edgeWeights.length) {
+            throw new IllegalArgumentException("Sources, destinations and weights must have the same length");
+        }
+
+        // Count the degree of every vertex, shifted by one so that the scan below yields start offsets
+        int[] offsets = new int[vertexCount + 1];
+        for (int i = 0; i < sources.length; i++) {
+            if (sources[i] < 0 || sources[i] >= vertexCount || destinations[i] < 0 || destinations[i] >= vertexCount) {
+                throw new IllegalArgumentException("Edge " + i + " has an endpoint outside 0.." + (vertexCount - 1));
+            }
+            offsets[sources[i] + 1]++;
+            if (undirected && sources[i] != destinations[i]) {
+                offsets[destinations[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // Place every edge and its weight at the next free slot of its source vertex
+        int[] cursor = new int[vertexCount];
+        System.arraycopy(offsets, 0, cursor, 0, vertexCount);
+        int[] targets = new int[offsets[vertexCount]];
+        int[] weights = new int[targets.length];
+        for (int i = 0; i < sources.length; i++) {
+            int slot = cursor[sources[i]]++;
+            targets[slot] = destinations[i];
+            weights[slot] = edgeWeights[i];
+            if (undirected && sources[i] != destinations[i]) {
+                slot = cursor[destinations[i]]++;
+                targets[slot] = sources[i];
+                weights[slot] = edgeWeights[i];
+            }
+        }
+
+        return new WeightedCsrGraph(offsets, targets, weights);
+    }
+
+    /**
+     * @return the weights array itself, which must not be modified
+     */
+    public int[] getWeights() {
+        return weights;
+    }
+
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+}
@@ -0,0 +1,36 @@
+package com.clay.g_parallel_processing_parallelism.parallel_image_processing;
+
+import java.nio.file.Path;
+
+/**
+ * An image that a ThumbnailPipeline skipped, with the stage that failed on it and the reason.
+ */
+public class ImageFailure {
+
+    private final Path file;
+    private final ThumbnailPipeline.Stage stage;
+    private final Exception cause;
+
+    ImageFailure(Path file, ThumbnailPipeline.Stage stage, Exception cause) {
+        this.file = file;
+        this.stage = stage;
+        this.cause = cause;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public ThumbnailPipeline.Stage getStage() {
+        return stage;
+    }
+
+    public Exception getCause() {
+        return cause;
+    }
+
+    @Override
+    public String toString() {
+        return stage + " failed for " + file + ": " + cause;
+    }
+}
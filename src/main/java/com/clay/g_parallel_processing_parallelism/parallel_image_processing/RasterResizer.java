@@ -0,0 +1,450 @@
+package com.clay.g_parallel_processing_parallelism.parallel_image_processing;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Resizes images by working directly on the int[] or byte[] arrays behind their rasters.
+ *
+ * BufferedImage.getRGB and setRGB convert every pixel through the color model, which costs far more than the
+ * resampling itself. This engine reads and writes the backing arrays instead and treats each 8-bit channel as an
+ * independent lane: packed int images have four lanes per pixel, interleaved byte images one lane per band.
+ * Because every lane is filtered the same way, the meaning of the channels (ARGB, BGR, gray, ...) does not matter
+ * as long as the output has the same type as the input. Images in other formats are converted to
+ * TYPE_INT_ARGB first.
+ *
+ * The one exception is alpha that is not premultiplied (TYPE_INT_ARGB and TYPE_4BYTE_ABGR). Filtering its color
+ * lanes on their own would mix the colors of fully transparent pixels, which are often black, into the visible
+ * pixels next to them and leave dark fringes along every edge. For these types every color is weighted with its
+ * alpha in the horizontal pass, and divided by the filtered alpha again when the output is written, which is
+ * filtering premultiplied colors without converting the image. Premultiplied types are filtered as they are.
+ *
+ * Resampling is separable. Both axes get a WeightTable with the first source pixel and the normalized weights of
+ * every destination column and row. The output is cut into bands of rows whose intermediate data fits in the L2
+ * cache, and the bands are processed in parallel on the ForkJoinPool. For each band, the source rows it needs are
+ * first filtered horizontally into a small float buffer, and then every output row is filtered vertically from
+ * that buffer. NEAREST skips the float buffer and copies pixels directly.
+ */
+public class RasterResizer {
+
+    // Target size of the horizontal pass buffer of one band
+    private static final int BAND_BUFFER_BYTES = 256 * 1024;
+    // Bands per worker at least, so that work stealing can balance uneven bands
+    private static final int BANDS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+
+    public RasterResizer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Resizes an image.
+     *
+     * @param source the image to resize
+     * @param width  the width of the result
+     * @param height the height of the result
+     * @param filter the reconstruction filter
+     * @return a new image of the given size, of the same type as the source if that type is supported directly
+     */
+    public BufferedImage resize(BufferedImage source, int width, int height, ResizeFilter filter) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Width and height must be positive");
+        }
+        BufferedImage input = isDirectlyAccessible(source) ? source : convert(source, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage output = new BufferedImage(width, height, input.getType());
+        WeightTable columns = WeightTable.build(input.getWidth(), width, filter);
+        WeightTable rows = WeightTable.build(input.getHeight(), height, filter);
+        resample(input, 0, 0, columns, rows, output, 0, height);
+        return output;
+    }
+
+    /**
+     * Resamples part of an image. The source may be a tile of a larger virtual image whose top-left pixel sits at
+     * (sourceX, sourceY). The weight tables are expressed in coordinates of that larger image, and the tile must
+     * contain every source pixel read by the destination rows firstRow ... endRow - 1.
+     */
+    void resample(BufferedImage source, int sourceX, int sourceY, WeightTable columns, WeightTable rows,
+                  BufferedImage destination, int firstRow, int endRow) {
+        if (!isDirectlyAccessible(source) || !isDirectlyAccessible(destination) || source.getType() != destination.getType()) {
+            throw new IllegalArgumentException("Source and destination must be directly accessible images of the same type");
+        }
+        int rowCount = endRow - firstRow;
+        if (rowCount <= 0) {
+            return;
+        }
+
+        // Size the bands so that their horizontal pass buffer stays in the cache
+        int lanes = lanes(destination.getType());
+        long bufferRowBytes = (long) destination.getWidth() * lanes * Float.BYTES;
+        double sourceRowsPerRow = Math.max(1.0, (double) (rows.end(endRow - 1) - rows.starts[firstRow] + 1) / rowCount);
+        int bandRows = (int) Math.max(1, BAND_BUFFER_BYTES / (bufferRowBytes * sourceRowsPerRow));
+        int minBands = pool.getParallelism() * BANDS_PER_WORKER;
+        bandRows = Math.min(bandRows, Math.max(1, (rowCount + minBands - 1) / minBands));
+        int bands = (rowCount + bandRows - 1) / bandRows;
+
+        pool.invoke(new BandTask(new Job(source, sourceX, sourceY, columns, rows, destination, firstRow, endRow, bandRows), 0, bands));
+    }
+
+    /**
+     * @return whether the engine can work on the backing array of this image without converting it
+     */
+    static boolean isDirectlyAccessible(BufferedImage image) {
+        int lanes = lanes(image.getType());
+        if (lanes == 0) {
+            return false;
+        }
+        WritableRaster raster = image.getRaster();
+        DataBuffer buffer = raster.getDataBuffer();
+        if (raster.getParent() != null || raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0
+                || buffer.getNumBanks() != 1 || buffer.getOffset() != 0) {
+            return false; // A sub-image or an unusual layout
+        }
+        SampleModel model = raster.getSampleModel();
+        if (model instanceof SinglePixelPackedSampleModel) {
+            return ((SinglePixelPackedSampleModel) model).getScanlineStride() == image.getWidth();
+        }
+        if (model instanceof ComponentSampleModel) {
+            ComponentSampleModel component = (ComponentSampleModel) model;
+            return component.getPixelStride() == lanes && component.getScanlineStride() == image.getWidth() * lanes;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of 8-bit lanes per pixel for the supported image types, 0 for all others
+     */
+    static int lanes(int type) {
+        switch (type) {
+            case BufferedImage.TYPE_INT_RGB:
+            case BufferedImage.TYPE_INT_ARGB:
+            case BufferedImage.TYPE_INT_ARGB_PRE:
+            case BufferedImage.TYPE_INT_BGR:
+            case BufferedImage.TYPE_4BYTE_ABGR:
+            case BufferedImage.TYPE_4BYTE_ABGR_PRE:
+                return 4;
+            case BufferedImage.TYPE_3BYTE_BGR:
+                return 3;
+            case BufferedImage.TYPE_BYTE_GRAY:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return the lane of the alpha channel for the supported types with alpha that is not premultiplied, else -1
+     */
+    static int alphaLane(int type) {
+        switch (type) {
+            case BufferedImage.TYPE_INT_ARGB:
+                return 3; // The highest byte
+            case BufferedImage.TYPE_4BYTE_ABGR:
+                return 0; // The first byte
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Copies an image into a new image of the given type. The pixels go through getRGB and setRGB row by row, so
+     * the colors are the same as those seen by getRGB on the original (drawImage would apply color space
+     * conversions to images such as 16-bit gray).
+     */
+    static BufferedImage convert(BufferedImage image, int type) {
+        int width = image.getWidth();
+        BufferedImage converted = new BufferedImage(width, image.getHeight(), type);
+        int[] row = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            converted.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return converted;
+    }
+
+    // Everything a band needs to know about one resampling call
+    private static class Job {
+        final int[] sourceInts;
+        final byte[] sourceBytes;
+        final int sourceWidth;
+        final int sourceX;
+        final int sourceY;
+        final WeightTable columns;
+        final WeightTable rows;
+        final int[] destinationInts;
+        final byte[] destinationBytes;
+        final int destinationWidth;
+        final int lanes;
+        // The lane holding straight (not premultiplied) alpha, -1 if the colors can be filtered independently
+        final int alphaLane;
+        final int firstRow;
+        final int endRow;
+        final int bandRows;
+        final boolean nearest;
+
+        Job(BufferedImage source, int sourceX, int sourceY, WeightTable columns, WeightTable rows,
+            BufferedImage destination, int firstRow, int endRow, int bandRows) {
+            DataBuffer sourceBuffer = source.getRaster().getDataBuffer();
+            DataBuffer destinationBuffer = destination.getRaster().getDataBuffer();
+            this.sourceInts = sourceBuffer instanceof DataBufferInt ? ((DataBufferInt) sourceBuffer).getData() : null;
+            this.sourceBytes = sourceBuffer instanceof DataBufferByte ? ((DataBufferByte) sourceBuffer).getData() : null;
+            this.destinationInts = destinationBuffer instanceof DataBufferInt ? ((DataBufferInt) destinationBuffer).getData() : null;
+            this.destinationBytes = destinationBuffer instanceof DataBufferByte ? ((DataBufferByte) destinationBuffer).getData() : null;
+            this.sourceWidth = source.getWidth();
+            this.sourceX = sourceX;
+            this.sourceY = sourceY;
+            this.columns = columns;
+            this.rows = rows;
+            this.destinationWidth = destination.getWidth();
+            this.lanes = lanes(destination.getType());
+            this.alphaLane = alphaLane(destination.getType());
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+            this.bandRows = bandRows;
+            this.nearest = columns.taps == 1 && rows.taps == 1;
+        }
+    }
+
+    private static class BandTask extends RecursiveAction {
+        private final Job job;
+        private final int startBand;
+        private final int endBand;
+
+        BandTask(Job job, int startBand, int endBand) {
+            this.job = job;
+            this.startBand = startBand;
+            this.endBand = endBand;
+        }
+
+        @Override
+        protected void compute() {
+            if (endBand - startBand == 1) {
+                int from = job.firstRow + startBand * job.bandRows;
+                int to = Math.min(job.endRow, from + job.bandRows);
+                if (job.nearest) {
+                    copyNearest(from, to);
+                } else {
+                    filterBand(from, to);
+                }
+            } else {
+                int mid = (startBand + endBand) >>> 1;
+                invokeAll(new BandTask(job, startBand, mid), new BandTask(job, mid, endBand));
+            }
+        }
+
+        private void copyNearest(int from, int to) {
+            int width = job.destinationWidth;
+            int lanes = job.lanes;
+            int[] columnStarts = job.columns.starts;
+            for (int y = from; y < to; y++) {
+                int sourceRow = (job.rows.starts[y] - job.sourceY) * job.sourceWidth - job.sourceX;
+                if (job.sourceInts != null) {
+                    int[] source = job.sourceInts;
+                    int[] destination = job.destinationInts;
+                    int out = y * width;
+                    for (int x = 0; x < width; x++) {
+                        destination[out + x] = source[sourceRow + columnStarts[x]];
+                    }
+                } else {
+                    byte[] source = job.sourceBytes;
+                    byte[] destination = job.destinationBytes;
+                    int out = y * width * lanes;
+                    for (int x = 0; x < width; x++) {
+                        int in = (sourceRow + columnStarts[x]) * lanes;
+                        for (int lane = 0; lane < lanes; lane++) {
+                            destination[out++] = source[in + lane];
+                        }
+                    }
+                }
+            }
+        }
+
+        private void filterBand(int from, int to) {
+            WeightTable rows = job.rows;
+            int width = job.destinationWidth;
+            int lanes = job.lanes;
+            int rowLength = width * lanes;
+            int firstSourceRow = rows.starts[from];
+            int lastSourceRow = rows.end(to - 1);
+            float[] buffer = new float[(lastSourceRow - firstSourceRow + 1) * rowLength];
+
+            // Horizontal pass: filter every source row the band needs down (or up) to the output width
+            for (int sourceRow = firstSourceRow; sourceRow <= lastSourceRow; sourceRow++) {
+                int in = (sourceRow - job.sourceY) * job.sourceWidth - job.sourceX;
+                int out = (sourceRow - firstSourceRow) * rowLength;
+                if (job.sourceInts != null) {
+                    if (job.alphaLane >= 0) {
+                        filterRowPremultiplied(job.sourceInts, in, buffer, out);
+                    } else {
+                        filterRow(job.sourceInts, in, buffer, out);
+                    }
+                } else {
+                    if (job.alphaLane >= 0) {
+                        filterRowPremultiplied(job.sourceBytes, in, buffer, out);
+                    } else {
+                        filterRow(job.sourceBytes, in, lanes, buffer, out);
+                    }
+                }
+            }
+
+            // Vertical pass: combine buffered rows into every output row of the band
+            int taps = rows.taps;
+            float[] weights = rows.weights;
+            float[] lanesOfRow = new float[rowLength];
+            for (int y = from; y < to; y++) {
+                Arrays.fill(lanesOfRow, 0f);
+                int base = (rows.starts[y] - firstSourceRow) * rowLength;
+                for (int t = 0; t < taps; t++) {
+                    float weight = weights[y * taps + t];
+                    int offset = base + t * rowLength;
+                    for (int i = 0; i < rowLength; i++) {
+                        lanesOfRow[i] += weight * buffer[offset + i];
+                    }
+                }
+                if (job.alphaLane >= 0) {
+                    unpremultiply(lanesOfRow, lanes, job.alphaLane);
+                }
+                if (job.destinationInts != null) {
+                    int[] destination = job.destinationInts;
+                    int out = y * width;
+                    for (int x = 0, i = 0; x < width; x++, i += 4) {
+                        destination[out + x] = clamp(lanesOfRow[i]) | clamp(lanesOfRow[i + 1]) << 8
+                                | clamp(lanesOfRow[i + 2]) << 16 | clamp(lanesOfRow[i + 3]) << 24;
+                    }
+                } else {
+                    byte[] destination = job.destinationBytes;
+                    int out = y * rowLength;
+                    for (int i = 0; i < rowLength; i++) {
+                        destination[out + i] = (byte) clamp(lanesOfRow[i]);
+                    }
+                }
+            }
+        }
+
+        // Packed int pixels: four 8-bit lanes, lowest byte first
+        private void filterRow(int[] source, int in, float[] buffer, int out) {
+            WeightTable columns = job.columns;
+            int taps = columns.taps;
+            float[] weights = columns.weights;
+            for (int x = 0; x < job.destinationWidth; x++) {
+                int pixel = in + columns.starts[x];
+                int w = x * taps;
+                float lane0 = 0;
+                float lane1 = 0;
+                float lane2 = 0;
+                float lane3 = 0;
+                for (int t = 0; t < taps; t++) {
+                    int argb = source[pixel + t];
+                    float weight = weights[w + t];
+                    lane0 += weight * (argb & 0xFF);
+                    lane1 += weight * ((argb >>> 8) & 0xFF);
+                    lane2 += weight * ((argb >>> 16) & 0xFF);
+                    lane3 += weight * (argb >>> 24);
+                }
+                buffer[out++] = lane0;
+                buffer[out++] = lane1;
+                buffer[out++] = lane2;
+                buffer[out++] = lane3;
+            }
+        }
+
+        // Interleaved byte pixels with the given number of lanes
+        private void filterRow(byte[] source, int in, int lanes, float[] buffer, int out) {
+            WeightTable columns = job.columns;
+            int taps = columns.taps;
+            float[] weights = columns.weights;
+            for (int x = 0; x < job.destinationWidth; x++) {
+                int pixel = (in + columns.starts[x]) * lanes;
+                int w = x * taps;
+                for (int lane = 0; lane < lanes; lane++) {
+                    float sum = 0;
+                    for (int t = 0, index = pixel + lane; t < taps; t++, index += lanes) {
+                        sum += weights[w + t] * (source[index] & 0xFF);
+                    }
+                    buffer[out++] = sum;
+                }
+            }
+        }
+
+        // Packed int pixels with straight alpha in the highest lane: the colors are weighted with their alpha
+        private void filterRowPremultiplied(int[] source, int in, float[] buffer, int out) {
+            WeightTable columns = job.columns;
+            int taps = columns.taps;
+            float[] weights = columns.weights;
+            for (int x = 0; x < job.destinationWidth; x++) {
+                int pixel = in + columns.starts[x];
+                int w = x * taps;
+                float lane0 = 0;
+                float lane1 = 0;
+                float lane2 = 0;
+                float alpha = 0;
+                for (int t = 0; t < taps; t++) {
+                    int argb = source[pixel + t];
+                    float weight = weights[w + t] * (argb >>> 24);
+                    lane0 += weight * (argb & 0xFF);
+                    lane1 += weight * ((argb >>> 8) & 0xFF);
+                    lane2 += weight * ((argb >>> 16) & 0xFF);
+                    alpha += weight;
+                }
+                buffer[out++] = lane0;
+                buffer[out++] = lane1;
+                buffer[out++] = lane2;
+                buffer[out++] = alpha;
+            }
+        }
+
+        // Byte pixels with straight alpha in the first of four lanes (ABGR): the colors are weighted with their alpha
+        private void filterRowPremultiplied(byte[] source, int in, float[] buffer, int out) {
+            WeightTable columns = job.columns;
+            int taps = columns.taps;
+            float[] weights = columns.weights;
+            for (int x = 0; x < job.destinationWidth; x++) {
+                int pixel = (in + columns.starts[x]) * 4;
+                int w = x * taps;
+                float alpha = 0;
+                float lane1 = 0;
+                float lane2 = 0;
+                float lane3 = 0;
+                for (int t = 0, index = pixel; t < taps; t++, index += 4) {
+                    float weight = weights[w + t] * (source[index] & 0xFF);
+                    alpha += weight;
+                    lane1 += weight * (source[index + 1] & 0xFF);
+                    lane2 += weight * (source[index + 2] & 0xFF);
+                    lane3 += weight * (source[index + 3] & 0xFF);
+                }
+                buffer[out++] = alpha;
+                buffer[out++] = lane1;
+                buffer[out++] = lane2;
+                buffer[out++] = lane3;
+            }
+        }
+
+        // Turns a row of filtered alpha-weighted colors back into straight colors. Where the filtered alpha is not
+        // positive, the pixel is fully transparent and its colors are 0.
+        private static void unpremultiply(float[] row, int lanes, int alphaLane) {
+            for (int pixel = 0; pixel < row.length; pixel += lanes) {
+                float alpha = row[pixel + alphaLane];
+                float scale = alpha > 0 ? 1 / alpha : 0;
+                for (int lane = 0; lane < lanes; lane++) {
+                    if (lane != alphaLane) {
+                        row[pixel + lane] *= scale;
+                    }
+                }
+            }
+        }
+
+        private static int clamp(float value) {
+            int rounded = (int) (value + 0.5f);
+            return rounded < 0 ? 0 : Math.min(rounded, 255);
+        }
+    }
+}
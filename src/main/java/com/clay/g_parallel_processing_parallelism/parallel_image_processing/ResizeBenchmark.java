@@ -0,0 +1,77 @@
+package com.clay.g_parallel_processing_parallelism.parallel_image_processing;
+
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the throughput of RasterResizer in megapixels per second for every filter and a few image types.
+ *
+ * Usage: ResizeBenchmark [sourceWidth] [sourceHeight] [iterations]
+ *
+ * Every image is shrunk to a quarter of its width and height and enlarged to twice its size. Throughput is
+ * reported in source megapixels per second for shrinking and destination megapixels per second for enlarging.
+ * For reference, the first line times the old per-pixel getRGB/setRGB nearest-neighbor approach.
+ */
+public class ResizeBenchmark {
+
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 3000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        RasterResizer resizer = new RasterResizer(ForkJoinPool.commonPool());
+        System.out.printf("Source %dx%d, %d threads%n", width, height, ForkJoinPool.commonPool().getParallelism());
+
+        BufferedImage reference = randomImage(width, height, BufferedImage.TYPE_INT_RGB);
+        report("getRGB/setRGB nearest", "shrink", width * (double) height, iterations, () -> {
+            int outputWidth = width / 4;
+            int outputHeight = height / 4;
+            BufferedImage output = new BufferedImage(outputWidth, outputHeight, reference.getType());
+            for (int y = 0; y < outputHeight; y++) {
+                for (int x = 0; x < outputWidth; x++) {
+                    output.setRGB(x, y, reference.getRGB(x * width / outputWidth, y * height / outputHeight));
+                }
+            }
+        });
+
+        int[] types = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR};
+        String[] typeNames = {"INT_RGB", "3BYTE_BGR", "4BYTE_ABGR"};
+        for (int i = 0; i < types.length; i++) {
+            BufferedImage source = randomImage(width, height, types[i]);
+            for (ResizeFilter filter : ResizeFilter.values()) {
+                String name = typeNames[i] + " " + filter;
+                report(name, "shrink", width * (double) height, iterations,
+                        () -> resizer.resize(source, width / 4, height / 4, filter));
+                report(name, "enlarge", 4 * width * (double) height, iterations,
+                        () -> resizer.resize(source, width * 2, height * 2, filter));
+            }
+        }
+    }
+
+    private static void report(String name, String operation, double pixels, int iterations, Runnable resize) {
+        // Warm up so that the JIT has compiled the loops
+        resize.run();
+        resize.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            resize.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-24s %-8s %9.2f ms %9.1f MP/s%n", name, operation, best / 1e6, pixels / 1e6 / (best / 1e9));
+    }
+
+    private static BufferedImage randomImage(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        SplittableRandom random = new SplittableRandom(42);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // Smooth gradients with some noise, closer to a photo than pure noise
+                row[x] = ((x * 255 / width) << 16) | ((y * 255 / height) << 8) | random.nextInt(256) | 0xFF000000;
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+}
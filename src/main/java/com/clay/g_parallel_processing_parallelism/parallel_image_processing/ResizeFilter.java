@@ -0,0 +1,76 @@
+package com.clay.g_parallel_processing_parallelism.parallel_image_processing;
+
+/**
+ * The reconstruction filters offered by RasterResizer.
+ *
+ * Each filter is a weight function centered on the sample position together with its support radius in source
+ * pixels. When an image is shrunk, RasterResizer stretches the filter by the scale factor, so that it also
+ * averages away detail that the smaller image cannot show (anti-aliasing).
+ */
+public enum ResizeFilter {
+
+    /** Takes the closest source pixel. Fastest, but blocky when enlarging and aliased when shrinking. */
+    NEAREST(0.5) {
+        @Override
+        double weight(double x) {
+            return x >= -0.5 && x < 0.5 ? 1 : 0;
+        }
+    },
+
+    /** Linear interpolation between the two (or, when shrinking, more) closest pixels. */
+    BILINEAR(1.0) {
+        @Override
+        double weight(double x) {
+            x = Math.abs(x);
+            return x < 1 ? 1 - x : 0;
+        }
+    },
+
+    /** Keys cubic convolution with a = -0.5 (Catmull-Rom), sharper than bilinear with mild ringing. */
+    BICUBIC(2.0) {
+        @Override
+        double weight(double x) {
+            final double a = -0.5;
+            x = Math.abs(x);
+            if (x < 1) {
+                return ((a + 2) * x - (a + 3)) * x * x + 1;
+            } else if (x < 2) {
+                return ((a * x - 5 * a) * x + 8 * a) * x - 4 * a;
+            }
+            return 0;
+        }
+    },
+
+    /** Windowed sinc with three lobes, the sharpest filter and the most expensive one. */
+    LANCZOS3(3.0) {
+        @Override
+        double weight(double x) {
+            x = Math.abs(x);
+            if (x < 1e-8) {
+                return 1;
+            } else if (x < 3) {
+                double piX = Math.PI * x;
+                return 3 * Math.sin(piX) * Math.sin(piX / 3) / (piX * piX);
+            }
+            return 0;
+        }
+    };
+
+    private final double support;
+
+    ResizeFilter(double support) {
+        this.support = support;
+    }
+
+    /**
+     * @return the radius, in source pixels at scale 1, outside of which the weight is zero
+     */
+    double support() {
+        return support;
+    }
+
+    /**
+     * @return the weight of a source pixel at distance x from the sample position
+     */
+    abstract double weight(double x);
+}
@@ -0,0 +1,522 @@
+package com.clay.g_parallel_processing_parallelism.parallel_image_processing;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Turns a directory tree of images into thumbnail pyramids with a pipeline of bounded stages:
+ *
+ * SCAN      walks the input directory and emits every image file
+ * DECODE    reads the image header, reserves memory for the image and its pyramid, then decodes it
+ * DOWNSCALE builds all pyramid levels from the one decoded image: the first level fits the image into
+ *           maxSize x maxSize, every further level halves the previous one
+ * WATERMARK draws the watermark text onto every level that is large enough
+ * ENCODE    writes every level to the output directory, mirroring the input tree
+ *
+ * A level is named after the full source file name, extension included, and its size, so photo.png becomes
+ * photo.png_512x384.jpg. Keeping the extension means that photo.png and photo.jpg in the same directory never write
+ * to the same output files.
+ *
+ * Every stage has its own thread pool and reads from its own bounded queue, so a slow stage fills its queue and
+ * eventually blocks the stage in front of it instead of letting work pile up. Queue bounds alone do not limit
+ * memory, because a single decoded photo can take hundreds of megabytes. The pipeline therefore also has a
+ * pixel budget: before decoding, a worker acquires one semaphore permit per pixel of the source image and its
+ * pyramid, the source pixels are given back once the pyramid is built, and the rest once the levels are written.
+ * An image larger than the whole budget takes the whole budget and is processed alone.
+ *
+ * A file that cannot be decoded or written is counted as failed by its stage and skipped, and getFailures() lists
+ * it with the reason. getMetrics() exposes the live counters of every stage and may be polled from another thread
+ * while run() is busy.
+ *
+ * The setters configure the next run and must not be called while a run is in progress.
+ */
+public class ThumbnailPipeline {
+
+    public enum Stage {
+        SCAN,
+        DECODE,
+        DOWNSCALE,
+        WATERMARK,
+        ENCODE
+    }
+
+    private static final List<String> EXTENSIONS = Arrays.asList("png", "jpg", "jpeg", "gif", "bmp");
+    // Levels smaller than this get no watermark, the text would not be readable anyway
+    private static final int MIN_WATERMARK_WIDTH = 96;
+    // Marks the end of the input of a stage
+    private static final ImageJob END = new ImageJob(null, null);
+
+    private final RasterResizer resizer;
+    private final Path outputDirectory;
+    private final int maxSize;
+    private final int levels;
+    private final int[] parallelism = new int[Stage.values().length];
+    private int queueCapacity = 16;
+    private int pixelBudget = 64 << 20;
+    private ResizeFilter filter = ResizeFilter.BICUBIC;
+    private String watermark;
+    private String format = "jpg";
+
+    private volatile List<ThumbnailStageMetrics> metrics = Collections.emptyList();
+    private volatile Queue<ImageFailure> failures = new ConcurrentLinkedQueue<>();
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile Semaphore budget;
+
+    /**
+     * @param pool            the pool used to resize each image in parallel
+     * @param outputDirectory where the levels are written
+     * @param maxSize         the largest width and height of the first pyramid level
+     * @param levels          the number of pyramid levels per image
+     */
+    public ThumbnailPipeline(ForkJoinPool pool, Path outputDirectory, int maxSize, int levels) {
+        if (maxSize < 1 || levels < 1) {
+            throw new IllegalArgumentException("Maximum size and number of levels must be positive");
+        }
+        this.resizer = new RasterResizer(pool);
+        this.outputDirectory = outputDirectory;
+        this.maxSize = maxSize;
+        this.levels = levels;
+        int processors = Runtime.getRuntime().availableProcessors();
+        parallelism[Stage.SCAN.ordinal()] = 1;
+        parallelism[Stage.DECODE.ordinal()] = processors;
+        // Every image is already resized in parallel on the pool
+        parallelism[Stage.DOWNSCALE.ordinal()] = Math.max(1, processors / 2);
+        parallelism[Stage.WATERMARK.ordinal()] = Math.max(1, processors / 4);
+        parallelism[Stage.ENCODE.ordinal()] = processors;
+    }
+
+    /**
+     * Sets the number of worker threads of a stage. SCAN always runs on one thread, because a directory walk
+     * is sequential.
+     */
+    public void setParallelism(Stage stage, int threads) {
+        if (threads < 1 || (stage == Stage.SCAN && threads != 1)) {
+            throw new IllegalArgumentException("Invalid number of threads for " + stage + ": " + threads);
+        }
+        parallelism[stage.ordinal()] = threads;
+    }
+
+    public int getParallelism(Stage stage) {
+        return parallelism[stage.ordinal()];
+    }
+
+    /**
+     * Sets the capacity of the queue in front of every stage.
+     */
+    public void setQueueCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        this.queueCapacity = capacity;
+    }
+
+    /**
+     * Sets the number of pixels that may be in flight between DECODE and ENCODE.
+     */
+    public void setPixelBudget(int pixels) {
+        if (pixels < 1) {
+            throw new IllegalArgumentException("Pixel budget must be positive");
+        }
+        this.pixelBudget = pixels;
+    }
+
+    /**
+     * Sets the filter used for the first level. Further levels are halved with BILINEAR, which averages
+     * 4 x 4 source pixels per output pixel at that ratio.
+     */
+    public void setFilter(ResizeFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Sets the watermark text, null for none.
+     */
+    public void setWatermark(String watermark) {
+        this.watermark = watermark;
+    }
+
+    /**
+     * Sets the output format, "jpg" or "png".
+     */
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    /**
+     * @return the metrics of every stage of the current or last run, in stage order
+     */
+    public List<ThumbnailStageMetrics> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the images skipped by the current or last run so far, in the order the failures happened
+     */
+    public List<ImageFailure> getFailures() {
+        return new ArrayList<>(failures);
+    }
+
+    /**
+     * @return the wall-clock time of the current or last run so far
+     */
+    public long getElapsedNanos() {
+        long start = startNanos;
+        if (start == 0) {
+            return 0;
+        }
+        long end = endNanos;
+        return (end == 0 ? System.nanoTime() : end) - start;
+    }
+
+    /**
+     * @return the number of pixels currently reserved by images between DECODE and ENCODE
+     */
+    public int getPixelsInFlight() {
+        Semaphore current = budget;
+        return current == null ? 0 : pixelBudget - current.availablePermits();
+    }
+
+    /**
+     * Processes every image below the input directory and waits until all of them are written.
+     *
+     * @throws IOException if the input directory cannot be walked
+     */
+    public void run(Path inputDirectory) throws IOException, InterruptedException {
+        if (!Files.isDirectory(inputDirectory)) {
+            throw new IllegalArgumentException("Not a directory: " + inputDirectory);
+        }
+        Files.createDirectories(outputDirectory);
+
+        Stage[] stages = Stage.values();
+        List<BlockingQueue<ImageJob>> queues = new ArrayList<>();
+        List<ThumbnailStageMetrics> stageMetrics = new ArrayList<>();
+        for (Stage stage : stages) {
+            // The first stage produces its own input
+            BlockingQueue<ImageJob> queue = stage == Stage.SCAN ? null : new ArrayBlockingQueue<>(queueCapacity);
+            queues.add(queue);
+            stageMetrics.add(new ThumbnailStageMetrics(stage, parallelism[stage.ordinal()], queue));
+        }
+        queues.add(null); // ENCODE has no output
+        budget = new Semaphore(pixelBudget);
+        metrics = Collections.unmodifiableList(stageMetrics);
+        failures = new ConcurrentLinkedQueue<>();
+        endNanos = 0;
+        startNanos = System.nanoTime();
+
+        IOException[] scanError = new IOException[1];
+        ExecutorService[] executors = new ExecutorService[stages.length];
+        for (Stage stage : stages) {
+            int index = stage.ordinal();
+            int threads = parallelism[index];
+            executors[index] = Executors.newFixedThreadPool(threads);
+            if (stage == Stage.SCAN) {
+                executors[index].execute(() -> {
+                    try {
+                        scan(inputDirectory, queues.get(Stage.DECODE.ordinal()), stageMetrics.get(index),
+                                stageMetrics.get(Stage.DECODE.ordinal()));
+                    } catch (IOException e) {
+                        scanError[0] = e;
+                    }
+                });
+                continue;
+            }
+            AtomicInteger running = new AtomicInteger(threads);
+            // The metrics of the stage that owns the output queue, which record its depth
+            ThumbnailStageMetrics outputMetrics = index + 1 < stages.length ? stageMetrics.get(index + 1) : null;
+            for (int i = 0; i < threads; i++) {
+                executors[index].execute(() -> work(stage, queues.get(index), queues.get(index + 1),
+                        stageMetrics.get(index), outputMetrics, running));
+            }
+        }
+
+        try {
+            for (ExecutorService executor : executors) {
+                executor.shutdown();
+            }
+            for (ExecutorService executor : executors) {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            for (ExecutorService executor : executors) {
+                executor.shutdownNow();
+            }
+            throw e;
+        } finally {
+            endNanos = System.nanoTime();
+        }
+        if (scanError[0] != null) {
+            throw scanError[0];
+        }
+    }
+
+    private void scan(Path inputDirectory, BlockingQueue<ImageJob> output, ThumbnailStageMetrics stageMetrics,
+                      ThumbnailStageMetrics outputMetrics) throws IOException {
+        try (Stream<Path> files = Files.walk(inputDirectory)) {
+            Iterator<Path> iterator = files.filter(Files::isRegularFile).filter(ThumbnailPipeline::isImage).iterator();
+            long start = System.nanoTime();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                stageMetrics.recordSuccess(System.nanoTime() - start);
+                output.put(new ImageJob(file, inputDirectory.relativize(file)));
+                outputMetrics.recordQueueDepth();
+                start = System.nanoTime();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            signalEnd(output, Stage.DECODE);
+        }
+    }
+
+    // The loop of one worker thread of a stage
+    private void work(Stage stage, BlockingQueue<ImageJob> input, BlockingQueue<ImageJob> output,
+                      ThumbnailStageMetrics stageMetrics, ThumbnailStageMetrics outputMetrics, AtomicInteger running) {
+        try {
+            while (true) {
+                ImageJob job = input.take();
+                if (job == END) {
+                    break;
+                }
+                long start = System.nanoTime();
+                try {
+                    process(stage, job);
+                } catch (InterruptedException e) {
+                    release(job, job.permits);
+                    throw e;
+                } catch (Exception e) {
+                    release(job, job.permits);
+                    stageMetrics.recordFailure(System.nanoTime() - start - job.waitNanos);
+                    failures.add(new ImageFailure(job.file, stage, e));
+                    continue;
+                }
+                stageMetrics.recordSuccess(System.nanoTime() - start - job.waitNanos);
+                job.waitNanos = 0;
+                if (output != null) {
+                    output.put(job);
+                    outputMetrics.recordQueueDepth();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // The last worker to finish tells the next stage that no more input will come
+            if (running.decrementAndGet() == 0 && output != null) {
+                signalEnd(output, Stage.values()[stage.ordinal() + 1]);
+            }
+        }
+    }
+
+    private void signalEnd(BlockingQueue<ImageJob> queue, Stage stage) {
+        if (Thread.currentThread().isInterrupted()) {
+            return; // The run is being cancelled and every stage is interrupted anyway
+        }
+        try {
+            for (int i = 0; i < parallelism[stage.ordinal()]; i++) {
+                queue.put(END);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(Stage stage, ImageJob job) throws IOException, InterruptedException {
+        switch (stage) {
+            case DECODE:
+                decode(job);
+                break;
+            case DOWNSCALE:
+                downscale(job);
+                break;
+            case WATERMARK:
+                if (watermark != null) {
+                    for (BufferedImage level : job.levels) {
+                        drawWatermark(level);
+                    }
+                }
+                break;
+            case ENCODE:
+                encode(job);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected stage " + stage);
+        }
+    }
+
+    private void decode(ImageJob job) throws IOException, InterruptedException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(job.file.toFile())) {
+            if (stream == null) {
+                throw new IOException("Cannot open file");
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                // The header is enough to know how much memory the image will need
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                job.sizes = levelSizes(width, height);
+                long pixels = (long) width * height + job.pyramidPixels();
+                int permits = (int) Math.min(pixels, pixelBudget);
+                long waitStart = System.nanoTime();
+                budget.acquire(permits);
+                job.permits = permits;
+                job.waitNanos = System.nanoTime() - waitStart;
+                job.image = reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void downscale(ImageJob job) {
+        BufferedImage source = job.image;
+        int[][] sizes = job.sizes;
+        job.levels = new BufferedImage[sizes.length];
+        for (int level = 0; level < sizes.length; level++) {
+            BufferedImage previous = level == 0 ? source : job.levels[level - 1];
+            ResizeFilter levelFilter = level == 0 ? filter : ResizeFilter.BILINEAR;
+            job.levels[level] = resizer.resize(previous, sizes[level][0], sizes[level][1], levelFilter);
+        }
+
+        // The source is not needed anymore, give its share of the budget back
+        job.image = null;
+        int sourcePermits = (int) Math.max(0, job.permits - job.pyramidPixels());
+        release(job, sourcePermits);
+    }
+
+    private void drawWatermark(BufferedImage image) {
+        if (image.getWidth() < MIN_WATERMARK_WIDTH) {
+            return;
+        }
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, Math.max(10, image.getWidth() / 24)));
+            FontMetrics fontMetrics = graphics.getFontMetrics();
+            int margin = fontMetrics.getHeight() / 2;
+            int x = image.getWidth() - fontMetrics.stringWidth(watermark) - margin;
+            int y = image.getHeight() - fontMetrics.getDescent() - margin;
+            graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
+            graphics.setColor(Color.BLACK);
+            graphics.drawString(watermark, x + 1, y + 1);
+            graphics.setColor(Color.WHITE);
+            graphics.drawString(watermark, x, y);
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    private void encode(ImageJob job) throws IOException {
+        // The source extension stays in the name, so images that differ only in it do not overwrite each other
+        String name = job.relative.getFileName().toString();
+        Path parent = job.relative.getParent();
+        Path directory = parent == null ? outputDirectory : outputDirectory.resolve(parent);
+        Files.createDirectories(directory);
+
+        for (BufferedImage level : job.levels) {
+            BufferedImage image = level;
+            if (!format.equals("png") && image.getColorModel().hasAlpha()) {
+                // JPEG has no alpha channel
+                image = RasterResizer.convert(image, BufferedImage.TYPE_INT_RGB);
+            }
+            Path file = directory.resolve(name + "_" + level.getWidth() + "x" + level.getHeight() + "." + format);
+            if (!ImageIO.write(image, format, file.toFile())) {
+                throw new IOException("No writer for format " + format);
+            }
+        }
+
+        job.levels = null;
+        release(job, job.permits);
+    }
+
+    private void release(ImageJob job, int permits) {
+        if (permits > 0) {
+            budget.release(permits);
+            job.permits -= permits;
+        }
+    }
+
+    /**
+     * @return the width and height of every pyramid level, never larger than the source and never below 1 x 1
+     */
+    private int[][] levelSizes(int width, int height) {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int levelWidth = Math.max(1, (int) Math.round(width * scale));
+        int levelHeight = Math.max(1, (int) Math.round(height * scale));
+        List<int[]> sizes = new ArrayList<>();
+        sizes.add(new int[]{levelWidth, levelHeight});
+        while (sizes.size() < levels && (levelWidth > 1 || levelHeight > 1)) {
+            levelWidth = Math.max(1, levelWidth / 2);
+            levelHeight = Math.max(1, levelHeight / 2);
+            sizes.add(new int[]{levelWidth, levelHeight});
+        }
+        return sizes.toArray(new int[0][]);
+    }
+
+    private static boolean isImage(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    // One image on its way through the stages, handed from one worker to the next through the queues
+    private static class ImageJob {
+        final Path file;
+        final Path relative;
+        int[][] sizes;
+        BufferedImage image;
+        BufferedImage[] levels;
+        // Budget permits currently held by this image
+        int permits;
+        // Time the current stage spent waiting for the budget, which does not count as work
+        long waitNanos;
+
+        ImageJob(Path file, Path relative) {
+            this.file = file;
+            this.relative = relative;
+        }
+
+        long pyramidPixels() {
+            long pixels = 0;
+            for (int[] size : sizes) {
+                pixels += (long) size[0] * size[1];
+            }
+            return pixels;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.clay.g_parallel_processing_parallelism.parallel_image_processing;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import javax.imageio.ImageIO;
+
+/**
+ * Generates thumbnail pyramids for a directory of images with ThumbnailPipeline and prints the stage metrics
+ * while the pipeline runs.
+ *
+ * Usage: ThumbnailPipelineExample [inputDirectory] [outputDirectory]
+ *
+ * Without arguments, a temporary directory is filled with synthetic images of various sizes and formats first.
+ * The stage with the highest utilization is the bottleneck, and its queue is usually the one that stays full.
+ */
+public class ThumbnailPipelineExample {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path input = args.length > 0 ? Paths.get(args[0]) : createSampleImages(60);
+        Path output = args.length > 1 ? Paths.get(args[1]) : Files.createTempDirectory("thumbnails");
+        System.out.println("Input: " + input + ", output: " + output);
+
+        ThumbnailPipeline pipeline = new ThumbnailPipeline(ForkJoinPool.commonPool(), output, 512, 4);
+        pipeline.setWatermark("(c) Example");
+        pipeline.setQueueCapacity(8);
+        // About 24 megapixels in flight, roughly 100 MB of decoded ARGB pixels
+        pipeline.setPixelBudget(24 << 20);
+
+        // Run the pipeline in the background and report on it every half second
+        Thread runner = new Thread(() -> {
+            try {
+                pipeline.run(input);
+            } catch (IOException e) {
+                e.printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        runner.start();
+        while (runner.isAlive()) {
+            runner.join(500);
+            System.out.printf("%.1f s, %d pixels in flight%n", pipeline.getElapsedNanos() / 1e9, pipeline.getPixelsInFlight());
+            for (ThumbnailStageMetrics stage : pipeline.getMetrics()) {
+                System.out.println("  " + stage);
+            }
+        }
+
+        long elapsed = pipeline.getElapsedNanos();
+        System.out.printf("Finished in %.2f s%n", elapsed / 1e9);
+        for (ThumbnailStageMetrics stage : pipeline.getMetrics()) {
+            System.out.printf("  %-9s %8.1f images/s, utilization %5.1f %%%n",
+                    stage.getStage(), stage.getThroughput(elapsed), stage.getUtilization(elapsed) * 100);
+        }
+        for (ImageFailure failure : pipeline.getFailures()) {
+            System.err.println(failure);
+        }
+    }
+
+    private static Path createSampleImages(int count) throws IOException {
+        Path directory = Files.createTempDirectory("thumbnail-input");
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            int width = 800 + random.nextInt(3200);
+            int height = 600 + random.nextInt(2400);
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setPaint(new GradientPaint(0, 0, new Color(random.nextInt()), width, height, new Color(random.nextInt())));
+            graphics.fillRect(0, 0, width, height);
+            for (int shape = 0; shape < 20; shape++) {
+                graphics.setColor(new Color(random.nextInt()));
+                graphics.fillOval(random.nextInt(width), random.nextInt(height), width / 8, height / 8);
+            }
+            graphics.dispose();
+            // Spread the images over a few sub directories to show that the tree is mirrored
+            Path subDirectory = Files.createDirectories(directory.resolve("album" + i % 3));
+            String format = i % 2 == 0 ? "jpg" : "png";
+            ImageIO.write(image, format, subDirectory.resolve("photo" + i + "." + format).toFile());
+        }
+        return directory;
+    }
+}
@@ -0,0 +1,53 @@
+package com.clay.g_parallel_processing_parallelism.parallel_image_processing;
+
+import com.clay.g_parallel_processing_parallelism.pipelining.StageMetrics;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of one stage of a ThumbnailPipeline. All values may be read from any thread while the pipeline runs.
+ *
+ * The processed items are the images the stage passed on, the ones it dropped because of an error are counted
+ * separately. The queue depth is counted in images and sampled whenever an image is added to the queue.
+ */
+public class ThumbnailStageMetrics extends StageMetrics {
+
+    private final ThumbnailPipeline.Stage stage;
+    private final LongAdder failed = new LongAdder();
+
+    ThumbnailStageMetrics(ThumbnailPipeline.Stage stage, int threads, BlockingQueue<?> input) {
+        super(stage.name(), threads, input);
+        this.stage = stage;
+    }
+
+    void recordSuccess(long nanos) {
+        recordProcessed(1, nanos);
+    }
+
+    void recordFailure(long nanos) {
+        failed.increment();
+        recordBusy(nanos);
+    }
+
+    void recordQueueDepth() {
+        sampleQueueDepth();
+    }
+
+    public ThumbnailPipeline.Stage getStage() {
+        return stage;
+    }
+
+    /**
+     * @return the number of items the stage dropped because of an error
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-9s threads %2d, processed %6d, failed %4d, queue %4d (max %4d)",
+                stage, getThreads(), getProcessed(), getFailed(), getQueueDepth(), getMaxQueueDepth());
+    }
+}
@@ -0,0 +1,221 @@
+package com.clay.g_parallel_processing_parallelism.parallel_image_processing;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Loads an image file straight into a smaller output size without ever holding the full-resolution image.
+ *
+ * ImageIO.read() decodes every pixel of the file, so a 20000 x 20000 scan needs more than 1.5 GB of heap even
+ * if only a 800 x 600 preview is wanted. This loader uses an ImageReader with an ImageReadParam instead:
+ *
+ * - Source subsampling makes the decoder keep only every n-th pixel of every n-th row. n is chosen so that the
+ *   subsampled image still has at least twice the output resolution, which leaves the resize filter enough
+ *   pixels to avoid aliasing.
+ * - The output rows are split into horizontal tiles. Each tile decodes only the source region its rows need,
+ *   with its own reader, and resizes it into its part of the output with RasterResizer. Tiles run in parallel
+ *   on the ForkJoinPool.
+ *
+ * Peak memory is therefore the output plus a few tiles, and the tile size is bounded by MAX_TILE_PIXELS.
+ * Neighboring tiles decode the few source rows they share twice. For formats that can only be decoded from the
+ * top, such as PNG and baseline JPEG, every tile also has to read past the rows above its region, so the tiles
+ * are kept as few as memory and parallelism allow.
+ */
+public class TiledImageLoader {
+
+    // Subsampled pixels decoded by one tile at most
+    private static final long MAX_TILE_PIXELS = 8L << 20;
+
+    private final ForkJoinPool pool;
+    private final RasterResizer resizer;
+
+    public TiledImageLoader(ForkJoinPool pool) {
+        this.pool = pool;
+        this.resizer = new RasterResizer(pool);
+    }
+
+    /**
+     * Loads an image resized to the given size.
+     *
+     * @param file   the image file
+     * @param width  the width of the result
+     * @param height the height of the result
+     * @param filter the reconstruction filter
+     * @return the resized image
+     * @throws IOException if the file cannot be read or has an unsupported format
+     */
+    public BufferedImage loadResized(Path file, int width, int height, ResizeFilter filter) throws IOException {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Width and height must be positive");
+        }
+
+        // Read the header and pick a pixel layout RasterResizer can work on directly
+        int sourceWidth;
+        int sourceHeight;
+        ImageTypeSpecifier type;
+        try (ImageInputStream stream = open(file)) {
+            ImageReader reader = reader(stream, file);
+            try {
+                sourceWidth = reader.getWidth(0);
+                sourceHeight = reader.getHeight(0);
+                type = directType(reader);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        int subsampling = subsampling(sourceWidth, sourceHeight, width, height);
+        int subsampledWidth = (sourceWidth + subsampling - 1) / subsampling;
+        int subsampledHeight = (sourceHeight + subsampling - 1) / subsampling;
+        WeightTable columns = WeightTable.build(subsampledWidth, width, filter);
+        WeightTable rows = WeightTable.build(subsampledHeight, height, filter);
+
+        // Enough tiles to keep every worker busy and every tile below the size limit
+        long tilesBySize = ((long) subsampledWidth * subsampledHeight + MAX_TILE_PIXELS - 1) / MAX_TILE_PIXELS;
+        int tiles = (int) Math.min(height, Math.max(pool.getParallelism(), tilesBySize));
+
+        BufferedImage output = type == null
+                ? new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)
+                : type.createBufferedImage(width, height);
+        Tile tile = new Tile(file, type, subsampling, columns, rows, output, tiles);
+        try {
+            pool.invoke(new TileTask(tile, 0, tiles));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return output;
+    }
+
+    /**
+     * Chooses the largest subsampling factor that keeps at least twice the output resolution in both directions.
+     */
+    static int subsampling(int sourceWidth, int sourceHeight, int width, int height) {
+        return Math.max(1, Math.min(sourceWidth / (2 * width), sourceHeight / (2 * height)));
+    }
+
+    /**
+     * @return a pixel layout offered by the reader that RasterResizer can use directly, or null if there is none
+     */
+    private static ImageTypeSpecifier directType(ImageReader reader) throws IOException {
+        Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+        while (types.hasNext()) {
+            ImageTypeSpecifier candidate = types.next();
+            if (RasterResizer.isDirectlyAccessible(candidate.createBufferedImage(1, 1))) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static ImageInputStream open(Path file) throws IOException {
+        ImageInputStream stream = ImageIO.createImageInputStream(file.toFile());
+        if (stream == null) {
+            throw new IOException("Cannot open " + file);
+        }
+        return stream;
+    }
+
+    private static ImageReader reader(ImageInputStream stream, Path file) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+        if (!readers.hasNext()) {
+            stream.close();
+            throw new IOException("Unsupported image format: " + file);
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(stream, true, true);
+        return reader;
+    }
+
+    // Everything the tiles of one load share
+    private class Tile {
+        final Path file;
+        final ImageTypeSpecifier type;
+        final int subsampling;
+        final WeightTable columns;
+        final WeightTable rows;
+        final BufferedImage output;
+        final int tiles;
+
+        Tile(Path file, ImageTypeSpecifier type, int subsampling, WeightTable columns, WeightTable rows,
+             BufferedImage output, int tiles) {
+            this.file = file;
+            this.type = type;
+            this.subsampling = subsampling;
+            this.columns = columns;
+            this.rows = rows;
+            this.output = output;
+            this.tiles = tiles;
+        }
+
+        /**
+         * Decodes the source rows needed by the given output rows and resizes them into the output.
+         */
+        void load(int firstRow, int endRow) throws IOException {
+            // The subsampled source rows read by these output rows, and the original rows they come from
+            int firstSourceRow = rows.starts[firstRow];
+            int lastSourceRow = rows.end(endRow - 1);
+            BufferedImage region;
+            try (ImageInputStream stream = open(file)) {
+                ImageReader reader = reader(stream, file);
+                try {
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    int y = firstSourceRow * subsampling;
+                    int regionHeight = Math.min(reader.getHeight(0) - y, (lastSourceRow - firstSourceRow) * subsampling + 1);
+                    // The region starts on a multiple of the subsampling, so it samples the same grid as the whole image
+                    param.setSourceRegion(new Rectangle(0, y, reader.getWidth(0), regionHeight));
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                    if (type != null) {
+                        param.setDestinationType(type);
+                    }
+                    region = reader.read(0, param);
+                } finally {
+                    reader.dispose();
+                }
+            }
+            if (!RasterResizer.isDirectlyAccessible(region) || region.getType() != output.getType()) {
+                region = RasterResizer.convert(region, output.getType());
+            }
+            resizer.resample(region, 0, firstSourceRow, columns, rows, output, firstRow, endRow);
+        }
+    }
+
+    private static class TileTask extends RecursiveAction {
+        private final Tile tile;
+        private final int startTile;
+        private final int endTile;
+
+        TileTask(Tile tile, int startTile, int endTile) {
+            this.tile = tile;
+            this.startTile = startTile;
+            this.endTile = endTile;
+        }
+
+        @Override
+        protected void compute() {
+            if (endTile - startTile == 1) {
+                int height = tile.output.getHeight();
+                int firstRow = (int) ((long) startTile * height / tile.tiles);
+                int endRow = (int) ((long) endTile * height / tile.tiles);
+                try {
+                    tile.load(firstRow, endRow);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                int mid = (startTile + endTile) >>> 1;
+                invokeAll(new TileTask(tile, startTile, mid), new TileTask(tile, mid, endTile));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.clay.g_parallel_processing_parallelism.parallel_image_processing;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed filter weights for resampling one axis of an image.
+ *
+ * For every destination coordinate the table stores the first source coordinate it reads and a fixed number of
+ * normalized weights, so the inner resampling loops only multiply and add. Taps that would fall outside the
+ * source are folded onto the edge pixel when the table is built, so the loops never check bounds.
+ */
+class WeightTable {
+    final int taps;
+    final int[] starts;
+    final float[] weights;
+
+    private WeightTable(int taps, int[] starts, float[] weights) {
+        this.taps = taps;
+        this.starts = starts;
+        this.weights = weights;
+    }
+
+    /**
+     * @param sourceSize      the number of source pixels along this axis
+     * @param destinationSize the number of destination pixels along this axis
+     * @param filter          the reconstruction filter
+     */
+    static WeightTable build(int sourceSize, int destinationSize, ResizeFilter filter) {
+        double scale = (double) sourceSize / destinationSize;
+        int[] starts = new int[destinationSize];
+
+        if (filter == ResizeFilter.NEAREST) {
+            float[] weights = new float[destinationSize];
+            for (int i = 0; i < destinationSize; i++) {
+                starts[i] = Math.min(sourceSize - 1, (int) ((i + 0.5) * scale));
+                weights[i] = 1;
+            }
+            return new WeightTable(1, starts, weights);
+        }
+
+        // Stretch the filter when shrinking so that every source pixel contributes
+        double filterScale = Math.max(1.0, scale);
+        double radius = filter.support() * filterScale;
+        int maxTaps = (int) Math.ceil(2 * radius) + 1;
+        int taps = Math.min(maxTaps, sourceSize);
+        float[] weights = new float[destinationSize * taps];
+        double[] raw = new double[taps];
+
+        for (int i = 0; i < destinationSize; i++) {
+            // Pixel centers sit at half-integer positions
+            double center = (i + 0.5) * scale - 0.5;
+            int left = (int) Math.floor(center - radius) + 1;
+            int start = Math.max(0, Math.min(left, sourceSize - taps));
+            starts[i] = start;
+
+            Arrays.fill(raw, 0);
+            double total = 0;
+            for (int j = left; j < left + maxTaps; j++) {
+                double weight = filter.weight((j - center) / filterScale);
+                if (weight == 0) {
+                    continue;
+                }
+                // Fold taps outside the image onto the nearest edge pixel
+                int clamped = Math.max(0, Math.min(sourceSize - 1, j));
+                raw[clamped - start] += weight;
+                total += weight;
+            }
+            if (total == 0) {
+                // Degenerate filter response, fall back to the nearest pixel
+                raw[Math.max(start, Math.min(start + taps - 1, (int) Math.round(center))) - start] = 1;
+                total = 1;
+            }
+            for (int t = 0; t < taps; t++) {
+                weights[i * taps + t] = (float) (raw[t] / total);
+            }
+        }
+        return new WeightTable(taps, starts, weights);
+    }
+
+    /**
+     * @return the last source coordinate read by the given destination coordinate
+     */
+    int end(int destination) {
+        return starts[destination] + taps - 1;
+    }
+}
@@ -0,0 +1,233 @@
+package com.clay.g_parallel_processing_parallelism.parallel_loops;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An Aho-Corasick automaton that finds all occurrences of many patterns in one pass over a text, matching the UTF-8
+ * bytes of the patterns.
+ *
+ * The patterns are put into a trie, and every state gets a failure link to the state of the longest proper suffix
+ * of its text that is also in the trie. The failure links are then resolved into a complete transition table (a
+ * DFA), so that every text byte costs exactly one table lookup:
+ *
+ * - Bytes are mapped to classes first. All bytes that occur in no pattern share class 0, so a row of the table has
+ *   one entry per distinct pattern byte plus one, instead of 256. With ignoreCase, the upper and lower case of an
+ *   ASCII letter share a class, which makes the matching case-insensitive at no cost.
+ * - All rows are stored in one flat int[] and a state is the offset of its row, so the next state is
+ *   transitions[state + class] without a multiplication. A state in which a pattern ends is stored negated, so a
+ *   single sign test per byte finds the matches.
+ * - The patterns that end in every state, including those that end in the states of its failure chain, are stored
+ *   in one flat int[] as well.
+ *
+ * The automaton is immutable once built, so one instance can be shared by any number of threads scanning different
+ * texts or different parts of one text.
+ */
+public class AhoCorasick {
+
+    /**
+     * Receives the matches of a scan.
+     */
+    public interface MatchConsumer {
+        /**
+         * @param pattern the index of the pattern in the list the automaton was built from
+         * @param end     the position in the text right after the last byte of the match
+         */
+        void accept(int pattern, int end);
+    }
+
+    private final String[] patterns;
+    private final int[] patternLengths;
+    private final int maxPatternLength;
+    // The class of every byte value
+    private final int[] classes;
+    private final int classCount;
+    // The row offset of the next state for every state and class, negated if patterns end in the next state
+    private final int[] transitions;
+    // The patterns that end in state s are outputs[outputStarts[s] ... outputStarts[s + 1] - 1]
+    private final int[] outputStarts;
+    private final int[] outputs;
+
+    public AhoCorasick(List<String> patterns) {
+        this(patterns, false);
+    }
+
+    /**
+     * @param ignoreCase whether ASCII letters match regardless of their case
+     */
+    public AhoCorasick(List<String> patterns, boolean ignoreCase) {
+        this.patterns = patterns.toArray(new String[0]);
+        byte[][] bytes = new byte[this.patterns.length][];
+        patternLengths = new int[bytes.length];
+        int maxLength = 0;
+        long totalLength = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = this.patterns[i].getBytes(StandardCharsets.UTF_8);
+            if (bytes[i].length == 0) {
+                throw new IllegalArgumentException("Pattern " + i + " is empty");
+            }
+            patternLengths[i] = bytes[i].length;
+            maxLength = Math.max(maxLength, bytes[i].length);
+            totalLength += bytes[i].length;
+        }
+        maxPatternLength = maxLength;
+
+        classes = new int[256];
+        int nextClass = 1;
+        for (byte[] pattern : bytes) {
+            for (byte b : pattern) {
+                int value = b & 0xFF;
+                if (classes[value] == 0) {
+                    int other = ignoreCase ? otherCase(value) : value;
+                    classes[value] = classes[other] != 0 ? classes[other] : nextClass++;
+                    classes[other] = classes[value];
+                }
+            }
+        }
+        classCount = nextClass;
+        if ((totalLength + 1) * classCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many pattern bytes for one automaton: " + totalLength);
+        }
+
+        // The trie, with 0 for a missing child: the root is never the child of another state
+        int[] table = new int[(int) (totalLength + 1) * classCount];
+        // The patterns that end in a state, as linked lists through nextInState
+        int[] firstInState = new int[(int) totalLength + 1];
+        int[] nextInState = new int[bytes.length];
+        Arrays.fill(firstInState, -1);
+        int states = 1;
+        for (int i = 0; i < bytes.length; i++) {
+            int state = 0;
+            for (byte b : bytes[i]) {
+                int index = state * classCount + classes[b & 0xFF];
+                if (table[index] == 0) {
+                    table[index] = states++;
+                }
+                state = table[index];
+            }
+            nextInState[i] = firstInState[state];
+            firstInState[state] = i;
+        }
+
+        // Breadth-first, so that the failure state of a state, which is shallower, is always complete before it
+        int[] failure = new int[states];
+        int[] queue = new int[states];
+        int[] starts = new int[states + 1];
+        int[] ends = new int[states];
+        int[] collected = new int[Math.max(16, bytes.length)];
+        int outputCount = 0;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        while (head < tail) {
+            int state = queue[head++];
+            // The outputs of the state: its own patterns and those of its failure state
+            starts[state] = outputCount;
+            for (int pattern = firstInState[state]; pattern >= 0; pattern = nextInState[pattern]) {
+                collected = ensureCapacity(collected, outputCount + 1);
+                collected[outputCount++] = pattern;
+            }
+            if (state != 0) {
+                int inherited = ends[failure[state]] - starts[failure[state]];
+                collected = ensureCapacity(collected, outputCount + inherited);
+                System.arraycopy(collected, starts[failure[state]], collected, outputCount, inherited);
+                outputCount += inherited;
+            }
+            ends[state] = outputCount;
+
+            for (int c = 0; c < classCount; c++) {
+                int index = state * classCount + c;
+                int child = table[index];
+                if (child != 0) {
+                    failure[child] = state == 0 ? 0 : table[failure[state] * classCount + c];
+                    queue[tail++] = child;
+                } else {
+                    // No child: continue where the failure state would go, already resolved
+                    table[index] = state == 0 ? 0 : table[failure[state] * classCount + c];
+                }
+            }
+        }
+
+        // Store the outputs by state number, and the states as negated row offsets where patterns end
+        outputStarts = new int[states + 1];
+        outputs = new int[outputCount];
+        int position = 0;
+        for (int state = 0; state < states; state++) {
+            outputStarts[state] = position;
+            int count = ends[state] - starts[state];
+            System.arraycopy(collected, starts[state], outputs, position, count);
+            position += count;
+        }
+        outputStarts[states] = position;
+        transitions = new int[states * classCount];
+        for (int index = 0; index < transitions.length; index++) {
+            int next = table[index];
+            int offset = next * classCount;
+            transitions[index] = ends[next] > starts[next] ? -offset : offset;
+        }
+    }
+
+    private static int otherCase(int value) {
+        if (value >= 'a' && value <= 'z') {
+            return value - 'a' + 'A';
+        }
+        if (value >= 'A' && value <= 'Z') {
+            return value - 'A' + 'a';
+        }
+        return value;
+    }
+
+    private static int[] ensureCapacity(int[] array, int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, 2 * array.length));
+    }
+
+    public int getPatternCount() {
+        return patterns.length;
+    }
+
+    public String getPattern(int pattern) {
+        return patterns[pattern];
+    }
+
+    /**
+     * @return the length of the pattern in UTF-8 bytes
+     */
+    public int getPatternLength(int pattern) {
+        return patternLengths[pattern];
+    }
+
+    /**
+     * @return the length in bytes of the longest pattern, so a match never spans more bytes
+     */
+    public int getMaxPatternLength() {
+        return maxPatternLength;
+    }
+
+    public int getStateCount() {
+        return outputStarts.length - 1;
+    }
+
+    /**
+     * Finds all matches in text[position ... limit - 1], starting in the initial state.
+     *
+     * @param reportFrom only matches that end at or after this position are reported, so that a scan can start a
+     *                   little before the part it is responsible for and still report every match only once
+     */
+    public void scan(ByteBuffer text, int reportFrom, MatchConsumer consumer) {
+        int state = 0;
+        for (int i = text.position(), limit = text.limit(); i < limit; i++) {
+            state = transitions[state + classes[text.get(i) & 0xFF]];
+            if (state < 0) {
+                state = -state;
+                if (i >= reportFrom) {
+                    int number = state / classCount;
+                    for (int output = outputStarts[number]; output < outputStarts[number + 1]; output++) {
+                        consumer.accept(outputs[output], i + 1);
+                    }
+                }
+            }
+        }
+    }
+}
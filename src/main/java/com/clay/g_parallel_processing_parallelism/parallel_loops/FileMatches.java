@@ -0,0 +1,42 @@
+package com.clay.g_parallel_processing_parallelism.parallel_loops;
+
+import java.nio.file.Path;
+
+/**
+ * The pattern matches found in one file, ordered by the position where they end, and matches that end at the same
+ * position from the longest to the shortest. Positions are byte offsets from the start of the file.
+ */
+public class FileMatches {
+
+    private final Path file;
+    private final int[] patterns;
+    private final long[] starts;
+
+    FileMatches(Path file, int[] patterns, long[] starts) {
+        this.file = file;
+        this.patterns = patterns;
+        this.starts = starts;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getMatchCount() {
+        return patterns.length;
+    }
+
+    /**
+     * @return the index of the pattern of the match in the list the automaton was built from
+     */
+    public int getPattern(int match) {
+        return patterns[match];
+    }
+
+    /**
+     * @return the byte offset of the first byte of the match
+     */
+    public long getStart(int match) {
+        return starts[match];
+    }
+}
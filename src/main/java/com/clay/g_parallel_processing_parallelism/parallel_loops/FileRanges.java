@@ -0,0 +1,105 @@
+package com.clay.g_parallel_processing_parallelism.parallel_loops;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Cuts a set of files into byte ranges that are processed in parallel, each from its own memory mapping, shared by
+ * the file scanners of this package.
+ *
+ * A file gets several ranges per worker thread, but no range is smaller than 1 MB or larger than 64 MB, so that
+ * many small files and one huge file both keep all workers busy, and files larger than 2 GB can be mapped.
+ */
+class FileRanges {
+
+    // Ranges larger than this are split further, and a mapped region must stay below 2 GB anyway
+    private static final long MAX_RANGE_BYTES = 64L << 20;
+    private static final long MIN_RANGE_BYTES = 1L << 20;
+    // Ranges per worker thread, so that work stealing can even out ranges of uneven cost
+    private static final int RANGES_PER_WORKER = 4;
+
+    /**
+     * Chooses where the ranges of one file start and end.
+     */
+    interface Boundaries {
+        /**
+         * @return ranges + 1 ascending offsets, from 0 to size
+         */
+        long[] boundaries(FileChannel channel, long size, int ranges) throws IOException;
+    }
+
+    /**
+     * Cuts every file into ranges of equal size.
+     */
+    static final Boundaries EVEN = (channel, size, ranges) -> {
+        long[] boundaries = new long[ranges + 1];
+        for (int range = 0; range <= ranges; range++) {
+            boundaries[range] = size * range / ranges;
+        }
+        return boundaries;
+    };
+
+    private FileRanges() {
+    }
+
+    /**
+     * @param sizes receives the size of every file
+     * @return the non-empty ranges of all files, the ranges of a file consecutive and in order
+     */
+    static List<Range> split(ForkJoinPool pool, List<Path> files, long[] sizes, Boundaries boundaries)
+            throws IOException {
+        List<Range> ranges = new ArrayList<>();
+        for (int file = 0; file < files.size(); file++) {
+            try (FileChannel channel = FileChannel.open(files.get(file), StandardOpenOption.READ)) {
+                sizes[file] = channel.size();
+                long[] offsets = boundaries.boundaries(channel, sizes[file], rangeCount(pool, sizes[file]));
+                for (int range = 0; range + 1 < offsets.length; range++) {
+                    if (offsets[range] < offsets[range + 1]) {
+                        ranges.add(new Range(file, offsets[range], offsets[range + 1]));
+                    }
+                }
+            }
+        }
+        return ranges;
+    }
+
+    private static int rangeCount(ForkJoinPool pool, long size) {
+        long bySize = Math.max(1, (size + MIN_RANGE_BYTES - 1) / MIN_RANGE_BYTES);
+        long byParallelism = Math.max((long) pool.getParallelism() * RANGES_PER_WORKER,
+                (size + MAX_RANGE_BYTES - 1) / MAX_RANGE_BYTES);
+        return (int) Math.min(bySize, byParallelism);
+    }
+
+    /**
+     * Maps the bytes from ... to - 1 of a file. The channel is closed right away, the mapping stays valid.
+     *
+     * @throws UncheckedIOException if the file cannot be mapped, for use inside a parallel loop body
+     */
+    static MappedByteBuffer map(Path file, long from, long to) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A part of a file, from inclusive to exclusive
+    static class Range {
+        final int file;
+        final long from;
+        final long to;
+
+        Range(int file, long from, long to) {
+            this.file = file;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.clay.g_parallel_processing_parallelism.parallel_loops;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares ParallelKeywordSearch with searching the file once per keyword, as a loop of String.indexOf over the
+ * decoded content.
+ *
+ * Usage: KeywordSearchBenchmark [file size in MB] [keywords] [iterations]
+ *
+ * The generated file looks like a log of random words, and some of the keywords occur in it. Both searches must
+ * find the same number of matches.
+ */
+public class KeywordSearchBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        long fileSize = (args.length > 0 ? Long.parseLong(args[0]) : 64) << 20;
+        int keywordCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            words.add(randomWord(random));
+        }
+        List<String> keywords = new ArrayList<>();
+        for (int i = 0; i < keywordCount; i++) {
+            // Every second keyword occurs in the text, the others most likely not
+            keywords.add(i % 2 == 0 ? words.get(random.nextInt(words.size())) : randomWord(random));
+        }
+
+        Path file = Files.createTempFile("log", ".txt");
+        try {
+            writeLog(file, fileSize, words, random);
+            long start = System.nanoTime();
+            AhoCorasick automaton = new AhoCorasick(keywords);
+            System.out.printf("File: %d MB, keywords: %d, automaton states: %d, built in %.2f ms, threads: %d%n",
+                    Files.size(file) >> 20, keywordCount, automaton.getStateCount(), (System.nanoTime() - start) / 1e6,
+                    pool.getParallelism());
+            ParallelKeywordSearch search = new ParallelKeywordSearch(pool, automaton);
+            List<Path> files = Collections.singletonList(file);
+
+            long expected = search.search(files).get(0).getMatchCount();
+            run("indexOf per keyword", expected, iterations, () -> {
+                String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                long matches = 0;
+                for (String keyword : keywords) {
+                    for (int i = content.indexOf(keyword); i >= 0; i = content.indexOf(keyword, i + 1)) {
+                        matches++;
+                    }
+                }
+                return matches;
+            });
+            run("ParallelKeywordSearch", expected, iterations, () -> search.search(files).get(0).getMatchCount());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static String randomWord(SplittableRandom random) {
+        char[] word = new char[5 + random.nextInt(8)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+
+    private static void writeLog(Path file, long size, List<String> words, SplittableRandom random) throws IOException {
+        long written = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long line = 0; written < size; line++) {
+                StringBuilder text = new StringBuilder("2024-01-01T00:00:00 INFO [worker-" + line % 16 + "]");
+                for (int i = 0; i < 12; i++) {
+                    text.append(' ').append(words.get(random.nextInt(words.size())));
+                }
+                text.append('\n');
+                out.write(text.toString());
+                written += text.length();
+            }
+        }
+    }
+
+    private static void run(String name, long expected, int iterations, Search search) throws IOException {
+        // Warm up so that the JIT has compiled the hot loops
+        search.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            long result = search.run();
+            best = Math.min(best, System.nanoTime() - start);
+            if (result != expected) {
+                throw new IllegalStateException(name + " found " + result + " matches instead of " + expected);
+            }
+        }
+        System.out.printf("  %-24s %9.2f ms%n", name, best / 1e6);
+    }
+
+    private interface Search {
+        long run() throws IOException;
+    }
+}
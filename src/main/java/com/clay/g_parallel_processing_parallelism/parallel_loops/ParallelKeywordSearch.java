@@ -0,0 +1,94 @@
+package com.clay.g_parallel_processing_parallelism.parallel_loops;
+
+import com.clay.g_parallel_processing_parallelism.parallel_graph_algo.ParallelRange;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Finds all occurrences of the patterns of an AhoCorasick automaton in a set of files, in parallel and in a single
+ * pass over every file.
+ *
+ * Like ParallelWordCounter, every file is cut into byte ranges by FileRanges, and the ranges of all files are
+ * scanned together on a ForkJoinPool, each from its own memory mapping. A match can cross the boundary between two
+ * ranges, so every range is scanned from up to (longest pattern - 1) bytes before its start, and reports only the
+ * matches that end inside it. So every match is found exactly once, by the range in which it ends, and the ranges of a file can be
+ * concatenated in order. The automaton is shared by all tasks, each of which only keeps its own state.
+ */
+public class ParallelKeywordSearch {
+
+    private final ForkJoinPool pool;
+    private final AhoCorasick automaton;
+
+    public ParallelKeywordSearch(ForkJoinPool pool, AhoCorasick automaton) {
+        this.pool = pool;
+        this.automaton = automaton;
+    }
+
+    /**
+     * @return the matches in every file, in the order of the list
+     */
+    public List<FileMatches> search(List<Path> files) throws IOException {
+        List<FileRanges.Range> ranges = FileRanges.split(pool, files, new long[files.size()], FileRanges.EVEN);
+
+        int overlap = Math.max(0, automaton.getMaxPatternLength() - 1);
+        MatchList[] matches = new MatchList[ranges.size()];
+        try {
+            ParallelRange.forEachChunk(pool, ranges.size(), index -> {
+                FileRanges.Range range = ranges.get(index);
+                long mapFrom = Math.max(0, range.from - overlap);
+                MappedByteBuffer buffer = FileRanges.map(files.get(range.file), mapFrom, range.to);
+                MatchList found = new MatchList();
+                automaton.scan(buffer, (int) (range.from - mapFrom),
+                        (pattern, end) -> found.add(pattern, mapFrom + end - automaton.getPatternLength(pattern)));
+                matches[index] = found;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // The ranges of a file are consecutive and in order
+        List<FileMatches> result = new ArrayList<>();
+        int index = 0;
+        for (int file = 0; file < files.size(); file++) {
+            int first = index;
+            int total = 0;
+            while (index < ranges.size() && ranges.get(index).file == file) {
+                total += matches[index++].size;
+            }
+            int[] patterns = new int[total];
+            long[] starts = new long[total];
+            int position = 0;
+            for (int range = first; range < index; range++) {
+                System.arraycopy(matches[range].patterns, 0, patterns, position, matches[range].size);
+                System.arraycopy(matches[range].starts, 0, starts, position, matches[range].size);
+                position += matches[range].size;
+            }
+            result.add(new FileMatches(files.get(file), patterns, starts));
+        }
+        return result;
+    }
+
+    // The matches of one range, in growing primitive arrays
+    private static class MatchList {
+        int[] patterns = new int[16];
+        long[] starts = new long[16];
+        int size;
+
+        void add(int pattern, long start) {
+            if (size == patterns.length) {
+                patterns = Arrays.copyOf(patterns, 2 * size);
+                starts = Arrays.copyOf(starts, 2 * size);
+            }
+            patterns[size] = pattern;
+            starts[size] = start;
+            size++;
+        }
+    }
+}
@@ -1,14 +1,14 @@
 package com.clay.g_parallel_processing_parallelism.parallel_loops;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ParallelLoopsExample {
 
@@ -16,58 +16,62 @@ public class ParallelLoopsExample {
         // Specify the directory containing the files to process
         String directoryPath = "src/main/java/com/clay/g_parallel_processing_parallelism/parallel_loops/data";
 
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
         try {
             // Get a list of files in the directory
-            List<File> files = getFilesFromDirectory(directoryPath);
+            List<Path> files = getFilesFromDirectory(directoryPath);
 
-            // Perform text analysis on each file in parallel
-            processFilesInParallel(files);
+            // Perform text analysis on all files in parallel
+            processFilesInParallel(files, pool);
+
+            // Search all files for several keywords at once
+            searchKeywordsInParallel(files, pool);
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            pool.shutdown();
         }
     }
 
-    private static List<File> getFilesFromDirectory(String directoryPath) throws IOException {
-        // Retrieve all files from the specified directory
-        return Files.walk(Paths.get(directoryPath))
-                .filter(Files::isRegularFile)
-                .map(Path::toFile)
-                .collect(Collectors.toList());
+    private static List<Path> getFilesFromDirectory(String directoryPath) throws IOException {
+        // Retrieve all files from the specified directory, sorted so that the output is always in the same order
+        try (Stream<Path> paths = Files.walk(Paths.get(directoryPath))) {
+            return paths.filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
     }
 
-    private static void processFilesInParallel(List<File> files) {
-        // Create an AtomicInteger to keep track of the total word count
-        AtomicInteger totalWordCount = new AtomicInteger(0);
-
-        // Process each file in parallel using parallelStream()
-        files.parallelStream().forEach(file -> {
-            try {
-                // Read the content of the file
-                String content = new String(Files.readAllBytes(file.toPath()));
-
-                // Split the content into words and count the number of words
-                int wordCount = countWords(content);
-
-                // Update the total word count using atomic operations
-                totalWordCount.addAndGet(wordCount);
+    private static void processFilesInParallel(List<Path> files, ForkJoinPool pool) throws IOException {
+        // Count the words of all files at once: the files are memory-mapped and split into byte ranges,
+        // which are counted in parallel, so even a single large file uses all workers
+        ParallelWordCounter counter = new ParallelWordCounter(pool);
+        long[] wordCounts = counter.countWords(files);
 
-                // Print the file name and its word count
-                System.out.println("File: " + file.getName() + ", Word Count: " + wordCount +
-                        ", Thread: " + Thread.currentThread().getName());
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        });
+        long totalWordCount = 0;
+        for (int i = 0; i < files.size(); i++) {
+            // Print the file name and its word count
+            System.out.println("File: " + files.get(i).getFileName() + ", Word Count: " + wordCounts[i]);
+            totalWordCount += wordCounts[i];
+        }
 
         // Print the total word count
-        System.out.println("Total Word Count: " + totalWordCount.get());
+        System.out.println("Total Word Count: " + totalWordCount);
     }
 
-    private static int countWords(String content) {
-        // Split the content into words using whitespace as the delimiter
-        String[] words = content.split("\\s+");
+    private static void searchKeywordsInParallel(List<Path> files, ForkJoinPool pool) throws IOException {
+        // All keywords are compiled into one automaton, so every file is read once, however many keywords there are
+        List<String> keywords = Arrays.asList("treasure", "journey", "mystery", "love", "space");
+        AhoCorasick automaton = new AhoCorasick(keywords, true);
+        ParallelKeywordSearch search = new ParallelKeywordSearch(pool, automaton);
 
-        // Return the number of words
-        return words.length;
+        for (FileMatches matches : search.search(files)) {
+            // Print the matches of the file with their byte offsets
+            StringBuilder line = new StringBuilder("File: " + matches.getFile().getFileName() + ", Keywords:");
+            for (int i = 0; i < matches.getMatchCount(); i++) {
+                line.append(' ').append(automaton.getPattern(matches.getPattern(i))).append('@').append(matches.getStart(i));
+            }
+            System.out.println(line);
+        }
     }
 }
@@ -0,0 +1,135 @@
+package com.clay.g_parallel_processing_parallelism.parallel_loops;
+
+import com.clay.g_parallel_processing_parallelism.parallel_graph_algo.ParallelRange;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Counts the words of a set of files in parallel, straight from memory-mapped bytes.
+ *
+ * Every file is cut into byte ranges by FileRanges, and the ranges of all files are counted together, so that many
+ * small files and one huge file both keep all workers busy. A range boundary is moved forward to the next whitespace
+ * byte, so that no word is split between two ranges. The whitespace characters are all ASCII, and in UTF-8 every
+ * byte of a multi-byte character is at least 0x80, so such a boundary never falls inside a character either. Every
+ * range is mapped on its own, which also allows files larger than 2 GB.
+ *
+ * A range counts the bytes that are not whitespace but follow whitespace, the first bytes of the words, with a
+ * table lookup and no branch per byte. No String, regex or copy of the file is created.
+ *
+ * The counts are the same as String.split("\\s+").length on the decoded content, where whitespace is space, tab,
+ * newline, vertical tab, form feed and carriage return. The quirks of split are reproduced: leading whitespace adds
+ * an empty first word, and an empty file has one (empty) word, while a file of only whitespace has none.
+ */
+public class ParallelWordCounter {
+
+    // 1 for the bytes that \s matches, 0 for all others
+    private static final int[] WHITESPACE = new int[256];
+
+    static {
+        for (char c : new char[]{' ', '\t', '\n', '\u000B', '\f', '\r'}) {
+            WHITESPACE[c] = 1;
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public ParallelWordCounter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public long countWords(Path file) throws IOException {
+        return countWords(Collections.singletonList(file))[0];
+    }
+
+    /**
+     * @return the word count of every file, in the order of the list
+     */
+    public long[] countWords(List<Path> files) throws IOException {
+        // The byte ranges of all files, and for every file whether it is empty or starts with whitespace
+        long[] sizes = new long[files.size()];
+        List<FileRanges.Range> ranges = FileRanges.split(pool, files, sizes,
+                ParallelWordCounter::whitespaceAlignedBoundaries);
+
+        long[] words = new long[ranges.size()];
+        boolean[] leadingWhitespace = new boolean[files.size()];
+        try {
+            ParallelRange.forEachChunk(pool, ranges.size(), index -> {
+                FileRanges.Range range = ranges.get(index);
+                MappedByteBuffer buffer = FileRanges.map(files.get(range.file), range.from, range.to);
+                words[index] = countWordStarts(buffer);
+                if (range.from == 0) {
+                    leadingWhitespace[range.file] = WHITESPACE[buffer.get(0) & 0xFF] == 1;
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        long[] counts = new long[files.size()];
+        for (int index = 0; index < ranges.size(); index++) {
+            counts[ranges.get(index).file] += words[index];
+        }
+        for (int file = 0; file < files.size(); file++) {
+            if (sizes[file] == 0) {
+                counts[file] = 1;
+            } else if (counts[file] > 0 && leadingWhitespace[file]) {
+                counts[file]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return the number of bytes that are not whitespace and follow whitespace or the start of the buffer
+     */
+    private static long countWordStarts(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        long words = 0;
+        // A range starts at the start of the file or at whitespace, so its first word always starts in it
+        int previous = 1;
+        for (int i = 0; i < limit; i++) {
+            int whitespace = WHITESPACE[buffer.get(i) & 0xFF];
+            words += previous & (whitespace ^ 1);
+            previous = whitespace;
+        }
+        return words;
+    }
+
+    /**
+     * Moves every evenly spaced range boundary forward to the next whitespace byte. Without whitespace after it, a
+     * boundary moves to the end of the file, and the ranges in between are empty.
+     */
+    private static long[] whitespaceAlignedBoundaries(FileChannel channel, long size, int ranges) throws IOException {
+        long[] boundaries = new long[ranges + 1];
+        ByteBuffer window = ByteBuffer.allocate(64 * 1024);
+        for (int range = 1; range < ranges; range++) {
+            long position = Math.max(boundaries[range - 1], size * range / ranges);
+            boundaries[range] = size;
+            search:
+            while (position < size) {
+                window.clear();
+                int read = channel.read(window, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (WHITESPACE[window.get(i) & 0xFF] == 1) {
+                        boundaries[range] = position + i;
+                        break search;
+                    }
+                }
+                position += read;
+            }
+        }
+        boundaries[ranges] = size;
+        return boundaries;
+    }
+}
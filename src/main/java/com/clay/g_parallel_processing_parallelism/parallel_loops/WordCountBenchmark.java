@@ -0,0 +1,81 @@
+package com.clay.g_parallel_processing_parallelism.parallel_loops;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares ParallelWordCounter with reading the file into a String and splitting it with a regex, as the
+ * ParallelLoopsExample did before.
+ *
+ * Usage: WordCountBenchmark [file size in MB] [iterations]
+ *
+ * The generated file mixes ASCII and multi-byte UTF-8 words with all kinds of whitespace and starts with
+ * whitespace, so that the result is checked against the split also where it is not obvious.
+ */
+public class WordCountBenchmark {
+
+    private static final String[] WORDS = {"parallel", "loop", "größe", "naïve", "日本語", "данные", "a", "x1", "—"};
+    private static final String[] SEPARATORS = {" ", " ", " ", "  ", "\n", "\r\n", "\t", "\f", "\u000B"};
+
+    public static void main(String[] args) throws IOException {
+        long fileSize = (args.length > 0 ? Long.parseLong(args[0]) : 256) << 20;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        ParallelWordCounter counter = new ParallelWordCounter(pool);
+
+        Path file = Files.createTempFile("words", ".txt");
+        try {
+            writeRandomText(file, fileSize);
+            System.out.println("File: " + (Files.size(file) >> 20) + " MB, threads: " + pool.getParallelism());
+
+            long expected = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).split("\\s+").length;
+            run("readAllBytes and split", expected, iterations,
+                    () -> new String(Files.readAllBytes(file), StandardCharsets.UTF_8).split("\\s+").length);
+            run("ParallelWordCounter", expected, iterations, () -> counter.countWords(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void writeRandomText(Path file, long size) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        long written = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 20)) {
+            out.write('\n');
+            while (written < size) {
+                byte[] word = WORDS[random.nextInt(WORDS.length)].getBytes(StandardCharsets.UTF_8);
+                byte[] separator = SEPARATORS[random.nextInt(SEPARATORS.length)].getBytes(StandardCharsets.UTF_8);
+                out.write(word);
+                out.write(separator);
+                written += word.length + separator.length;
+            }
+        }
+    }
+
+    private static void run(String name, long expected, int iterations, Count count) throws IOException {
+        // Warm up so that the JIT has compiled the hot loops
+        for (int i = 0; i < 2; i++) {
+            count.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            long result = count.run();
+            best = Math.min(best, System.nanoTime() - start);
+            if (result != expected) {
+                throw new IllegalStateException(name + " counted " + result + " instead of " + expected);
+            }
+        }
+        System.out.printf("  %-24s %9.2f ms%n", name, best / 1e6);
+    }
+
+    private interface Count {
+        long run() throws IOException;
+    }
+}
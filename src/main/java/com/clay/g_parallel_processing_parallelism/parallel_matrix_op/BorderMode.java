@@ -0,0 +1,11 @@
+package com.clay.g_parallel_processing_parallelism.parallel_matrix_op;
+
+/**
+ * How a convolution treats kernel taps that fall outside the image.
+ */
+public enum BorderMode {
+    /** Pixels outside the image are 0 */
+    ZERO,
+    /** Pixels outside the image repeat the nearest edge pixel */
+    CLAMP
+}
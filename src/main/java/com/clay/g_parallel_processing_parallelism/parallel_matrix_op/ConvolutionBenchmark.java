@@ -0,0 +1,99 @@
+package com.clay.g_parallel_processing_parallelism.parallel_matrix_op;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures ParallelConvolution on a large multi-channel float image against a straightforward sequential
+ * implementation that checks the bounds of every tap.
+ *
+ * Usage: ConvolutionBenchmark [width] [height] [channels] [iterations]
+ *
+ * A 7 x 7 Gaussian blur is run once through the separable path and once forced through the general 2D path (by
+ * perturbing a single weight so that the kernel is no longer of rank 1). Every result is compared with the
+ * sequential reference.
+ */
+public class ConvolutionBenchmark {
+
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 3000;
+        int channels = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        float[] image = new float[width * height * channels];
+        Random random = new Random(42);
+        for (int i = 0; i < image.length; i++) {
+            image[i] = random.nextFloat() * 255;
+        }
+
+        ConvolutionKernel separable = ConvolutionKernel.gaussian(3, 1.5);
+        float[] weights = new float[49];
+        for (int y = 0; y < 7; y++) {
+            for (int x = 0; x < 7; x++) {
+                weights[y * 7 + x] = separable.getWeight(x, y);
+            }
+        }
+        weights[0] += 1e-3f;
+        ConvolutionKernel general = new ConvolutionKernel(7, 7, weights);
+        System.out.printf("Image %dx%d with %d channels, %d threads, separable detected: %b / %b%n", width, height,
+                channels, ForkJoinPool.commonPool().getParallelism(), separable.isSeparable(), general.isSeparable());
+
+        ParallelConvolution convolution = new ParallelConvolution(ForkJoinPool.commonPool());
+        float[] output = new float[image.length];
+        for (BorderMode border : BorderMode.values()) {
+            for (ConvolutionKernel kernel : new ConvolutionKernel[]{separable, general}) {
+                float[] expected = new float[image.length];
+                String name = border + (kernel == separable ? " separable" : " general 2D");
+                run("Sequential " + name, width, height, iterations,
+                        () -> sequential(image, expected, width, height, channels, kernel, border));
+                run("Parallel   " + name, width, height, iterations,
+                        () -> convolution.convolve(image, output, width, height, channels, kernel, border));
+                for (int i = 0; i < output.length; i++) {
+                    if (Math.abs(output[i] - expected[i]) > 1e-2f) {
+                        throw new IllegalStateException(name + " differs at " + i + ": " + output[i] + " vs " + expected[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void run(String name, int width, int height, int iterations, Runnable convolution) {
+        // Warm up so that the JIT has compiled the loops
+        convolution.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            convolution.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-34s %9.2f ms %9.1f MP/s%n", name, best / 1e6, width * (double) height / 1e6 / (best / 1e9));
+    }
+
+    // The textbook loop: every tap computes and checks its source coordinates
+    private static void sequential(float[] image, float[] result, int width, int height, int channels,
+                                   ConvolutionKernel kernel, BorderMode border) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (int c = 0; c < channels; c++) {
+                    float sum = 0;
+                    for (int ky = 0; ky < kernel.getHeight(); ky++) {
+                        for (int kx = 0; kx < kernel.getWidth(); kx++) {
+                            int sy = y + ky - kernel.getAnchorY();
+                            int sx = x + kx - kernel.getAnchorX();
+                            if (sy < 0 || sy >= height || sx < 0 || sx >= width) {
+                                if (border == BorderMode.ZERO) {
+                                    continue;
+                                }
+                                sy = Math.max(0, Math.min(height - 1, sy));
+                                sx = Math.max(0, Math.min(width - 1, sx));
+                            }
+                            sum += kernel.getWeight(kx, ky) * image[(sy * width + sx) * channels + c];
+                        }
+                    }
+                    result[(y * width + x) * channels + c] = sum;
+                }
+            }
+        }
+    }
+}
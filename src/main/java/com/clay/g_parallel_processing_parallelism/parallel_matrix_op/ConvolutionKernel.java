@@ -0,0 +1,241 @@
+package com.clay.g_parallel_processing_parallelism.parallel_matrix_op;
+
+/**
+ * An immutable convolution kernel with its anchor at the center (rounded down for even sizes).
+ *
+ * When the kernel is created, it is checked whether it is separable, that is whether it is the outer product of a
+ * column vector and a row vector (a matrix of rank 1). Box, Gaussian and Sobel kernels are separable, and
+ * ParallelConvolution runs them as a horizontal and a vertical 1D pass, which costs width + height instead of
+ * width * height multiplications per pixel. For kernels whose weights are all integers, an integer factorization
+ * is searched as well, so that int images can take the same fast path with exact arithmetic.
+ */
+public class ConvolutionKernel {
+
+    // Relative tolerance of the rank-1 test for float kernels
+    private static final double SEPARABLE_TOLERANCE = 1e-6;
+
+    private final int width;
+    private final int height;
+    private final float[] weights;
+    // Null if a weight is not an integer
+    private final int[] intWeights;
+    // Null if the kernel is not separable
+    private final float[] columnFactor;
+    private final float[] rowFactor;
+    // Null if the kernel has no integer factorization
+    private final int[] intColumnFactor;
+    private final int[] intRowFactor;
+
+    /**
+     * @param width   the number of columns
+     * @param height  the number of rows
+     * @param weights the weights in row-major order
+     */
+    public ConvolutionKernel(int width, int height, float[] weights) {
+        if (width < 1 || height < 1 || weights.length != width * height) {
+            throw new IllegalArgumentException("Kernel needs width * height weights");
+        }
+        this.width = width;
+        this.height = height;
+        this.weights = weights.clone();
+        this.intWeights = integerWeights(this.weights);
+
+        // Rank 1 means every row is a multiple of the row through the largest weight
+        int pivot = 0;
+        for (int i = 1; i < weights.length; i++) {
+            if (Math.abs(weights[i]) > Math.abs(weights[pivot])) {
+                pivot = i;
+            }
+        }
+        int pivotRow = pivot / width;
+        int pivotColumn = pivot % width;
+        float[] column = new float[height];
+        float[] row = new float[width];
+        for (int y = 0; y < height; y++) {
+            column[y] = weights[y * width + pivotColumn];
+        }
+        for (int x = 0; x < width; x++) {
+            row[x] = weights[pivotRow * width + x] / (weights[pivot] == 0 ? 1 : weights[pivot]);
+        }
+        boolean separable = weights[pivot] != 0;
+        double tolerance = SEPARABLE_TOLERANCE * Math.abs(weights[pivot]);
+        for (int y = 0; y < height && separable; y++) {
+            for (int x = 0; x < width; x++) {
+                if (Math.abs((double) column[y] * row[x] - weights[y * width + x]) > tolerance) {
+                    separable = false;
+                    break;
+                }
+            }
+        }
+        this.columnFactor = separable ? column : null;
+        this.rowFactor = separable ? row : null;
+
+        int[][] intFactors = separable && intWeights != null ? integerFactors(intWeights, width, height, pivotRow, pivotColumn) : null;
+        this.intColumnFactor = intFactors == null ? null : intFactors[0];
+        this.intRowFactor = intFactors == null ? null : intFactors[1];
+    }
+
+    /**
+     * Creates a kernel from a matrix of weights, one array per kernel row.
+     */
+    public static ConvolutionKernel of(float[][] matrix) {
+        int width = matrix[0].length;
+        float[] weights = new float[matrix.length * width];
+        for (int y = 0; y < matrix.length; y++) {
+            if (matrix[y].length != width) {
+                throw new IllegalArgumentException("All kernel rows must have the same length");
+            }
+            System.arraycopy(matrix[y], 0, weights, y * width, width);
+        }
+        return new ConvolutionKernel(width, matrix.length, weights);
+    }
+
+    /**
+     * Creates a kernel from a matrix of integer weights, one array per kernel row.
+     */
+    public static ConvolutionKernel of(int[][] matrix) {
+        float[][] converted = new float[matrix.length][];
+        for (int y = 0; y < matrix.length; y++) {
+            converted[y] = new float[matrix[y].length];
+            for (int x = 0; x < matrix[y].length; x++) {
+                converted[y][x] = matrix[y][x];
+            }
+        }
+        return of(converted);
+    }
+
+    /**
+     * Creates the separable kernel columnFactor x rowFactor.
+     */
+    public static ConvolutionKernel outerProduct(float[] columnFactor, float[] rowFactor) {
+        float[] weights = new float[columnFactor.length * rowFactor.length];
+        for (int y = 0; y < columnFactor.length; y++) {
+            for (int x = 0; x < rowFactor.length; x++) {
+                weights[y * rowFactor.length + x] = columnFactor[y] * rowFactor[x];
+            }
+        }
+        return new ConvolutionKernel(rowFactor.length, columnFactor.length, weights);
+    }
+
+    /**
+     * Creates a normalized Gaussian blur kernel of size 2 * radius + 1.
+     */
+    public static ConvolutionKernel gaussian(int radius, double sigma) {
+        float[] factor = new float[2 * radius + 1];
+        double total = 0;
+        for (int i = -radius; i <= radius; i++) {
+            total += Math.exp(-i * i / (2 * sigma * sigma));
+        }
+        for (int i = -radius; i <= radius; i++) {
+            factor[i + radius] = (float) (Math.exp(-i * i / (2 * sigma * sigma)) / total);
+        }
+        return outerProduct(factor, factor);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getAnchorX() {
+        return width / 2;
+    }
+
+    public int getAnchorY() {
+        return height / 2;
+    }
+
+    public float getWeight(int x, int y) {
+        return weights[y * width + x];
+    }
+
+    public boolean isSeparable() {
+        return columnFactor != null;
+    }
+
+    /**
+     * @return whether all weights are integers, which is required for convolving int images
+     */
+    public boolean isInteger() {
+        return intWeights != null;
+    }
+
+    float[] weights() {
+        return weights;
+    }
+
+    int[] intWeights() {
+        return intWeights;
+    }
+
+    float[] columnFactor() {
+        return columnFactor;
+    }
+
+    float[] rowFactor() {
+        return rowFactor;
+    }
+
+    int[] intColumnFactor() {
+        return intColumnFactor;
+    }
+
+    int[] intRowFactor() {
+        return intRowFactor;
+    }
+
+    private static int[] integerWeights(float[] weights) {
+        int[] result = new int[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] != Math.rint(weights[i]) || Math.abs(weights[i]) > 1 << 24) {
+                return null;
+            }
+            result[i] = (int) weights[i];
+        }
+        return result;
+    }
+
+    /**
+     * Splits an integer rank-1 kernel into integer factors. The column through the pivot divided by the gcd of its
+     * entries is tried as the column factor, the row factor is then the quotient of the pivot row by the column
+     * factor at the pivot. Returns null if the quotient is not exact, which can happen for unusual kernels.
+     */
+    private static int[][] integerFactors(int[] weights, int width, int height, int pivotRow, int pivotColumn) {
+        int divisor = 0;
+        for (int y = 0; y < height; y++) {
+            divisor = gcd(divisor, Math.abs(weights[y * width + pivotColumn]));
+        }
+        int[] column = new int[height];
+        for (int y = 0; y < height; y++) {
+            column[y] = weights[y * width + pivotColumn] / divisor;
+        }
+        int[] row = new int[width];
+        for (int x = 0; x < width; x++) {
+            int value = weights[pivotRow * width + x];
+            if (value % column[pivotRow] != 0) {
+                return null;
+            }
+            row[x] = value / column[pivotRow];
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if ((long) column[y] * row[x] != weights[y * width + x]) {
+                    return null;
+                }
+            }
+        }
+        return new int[][]{column, row};
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
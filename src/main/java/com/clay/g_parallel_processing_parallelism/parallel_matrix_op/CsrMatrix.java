@@ -0,0 +1,149 @@
+package com.clay.g_parallel_processing_parallelism.parallel_matrix_op;
+
+import java.util.Arrays;
+
+/**
+ * An immutable sparse matrix in compressed sparse row (CSR) format.
+ *
+ * The non-zero entries of row i are stored at positions rowOffsets[i] ... rowOffsets[i + 1] - 1 of columnIndices
+ * and values, sorted by column. A matrix with nnz non-zeros therefore takes 12 * nnz + 4 * rows bytes, no matter how
+ * many columns it has.
+ */
+public class CsrMatrix {
+
+    private final int rows;
+    private final int columns;
+    private final int[] rowOffsets;
+    private final int[] columnIndices;
+    private final double[] values;
+
+    /**
+     * Wraps existing CSR arrays without copying them.
+     *
+     * @param rows          the number of rows
+     * @param columns       the number of columns
+     * @param rowOffsets    rows + 1 non-decreasing offsets starting at 0
+     * @param columnIndices the column of every non-zero, sorted within each row
+     * @param values        the value of every non-zero
+     */
+    public CsrMatrix(int rows, int columns, int[] rowOffsets, int[] columnIndices, double[] values) {
+        if (rows < 0 || columns < 0 || rowOffsets.length != rows + 1 || rowOffsets[0] != 0
+                || rowOffsets[rows] != columnIndices.length || values.length != columnIndices.length) {
+            throw new IllegalArgumentException("Inconsistent CSR arrays");
+        }
+        for (int row = 0; row < rows; row++) {
+            if (rowOffsets[row] > rowOffsets[row + 1]) {
+                throw new IllegalArgumentException("Row offsets must not decrease");
+            }
+        }
+        for (int column : columnIndices) {
+            if (column < 0 || column >= columns) {
+                throw new IllegalArgumentException("Column index " + column + " out of range");
+            }
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.rowOffsets = rowOffsets;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    /**
+     * Builds a matrix from entries in any order. Entries with the same row and column are added up.
+     *
+     * @param rows          the number of rows
+     * @param columns       the number of columns
+     * @param entryRows     the row of every entry
+     * @param entryColumns  the column of every entry
+     * @param entryValues   the value of every entry
+     * @param count         the number of entries to use from the arrays
+     */
+    public static CsrMatrix fromCoordinates(int rows, int columns, int[] entryRows, int[] entryColumns,
+                                            double[] entryValues, int count) {
+        // Counting sort of the entries by row
+        int[] offsets = new int[rows + 1];
+        for (int i = 0; i < count; i++) {
+            int row = entryRows[i];
+            if (row < 0 || row >= rows || entryColumns[i] < 0 || entryColumns[i] >= columns) {
+                throw new IllegalArgumentException("Entry (" + row + ", " + entryColumns[i] + ") out of range");
+            }
+            offsets[row + 1]++;
+        }
+        for (int row = 0; row < rows; row++) {
+            offsets[row + 1] += offsets[row];
+        }
+        int[] cursor = Arrays.copyOf(offsets, rows);
+        long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            // Sort key: the column in the high half, the entry index in the low half
+            packed[cursor[entryRows[i]]++] = (long) entryColumns[i] << 32 | i;
+        }
+
+        // Sort every row by column and merge duplicates
+        int[] columnIndices = new int[count];
+        double[] values = new double[count];
+        int[] rowOffsets = new int[rows + 1];
+        int size = 0;
+        for (int row = 0; row < rows; row++) {
+            Arrays.sort(packed, offsets[row], offsets[row + 1]);
+            for (int j = offsets[row]; j < offsets[row + 1]; j++) {
+                int column = (int) (packed[j] >>> 32);
+                double value = entryValues[(int) packed[j]];
+                if (size > rowOffsets[row] && columnIndices[size - 1] == column) {
+                    values[size - 1] += value;
+                } else {
+                    columnIndices[size] = column;
+                    values[size] = value;
+                    size++;
+                }
+            }
+            rowOffsets[row + 1] = size;
+        }
+        return new CsrMatrix(rows, columns, rowOffsets, Arrays.copyOf(columnIndices, size), Arrays.copyOf(values, size));
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getNonZeroCount() {
+        return columnIndices.length;
+    }
+
+    public int getRowLength(int row) {
+        return rowOffsets[row + 1] - rowOffsets[row];
+    }
+
+    /**
+     * @return the value at the given position, 0 if it is not stored
+     */
+    public double get(int row, int column) {
+        int index = Arrays.binarySearch(columnIndices, rowOffsets[row], rowOffsets[row + 1], column);
+        return index >= 0 ? values[index] : 0;
+    }
+
+    /**
+     * @return the internal row offsets, not a copy
+     */
+    public int[] getRowOffsets() {
+        return rowOffsets;
+    }
+
+    /**
+     * @return the internal column indices, not a copy
+     */
+    public int[] getColumnIndices() {
+        return columnIndices;
+    }
+
+    /**
+     * @return the internal values, not a copy
+     */
+    public double[] getValues() {
+        return values;
+    }
+}
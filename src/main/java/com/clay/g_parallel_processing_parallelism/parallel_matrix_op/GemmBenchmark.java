@@ -0,0 +1,113 @@
+package com.clay.g_parallel_processing_parallelism.parallel_matrix_op;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the GFLOP/s of ParallelGemm for square matrices of several sizes and thread counts.
+ *
+ * Usage: GemmBenchmark [maxSize] [iterations]
+ *
+ * Sizes double from 256 up to maxSize, and thread counts double from 1 up to the number of processors, so that
+ * both cache effects and scaling show up. A straightforward i-k-j triple loop is timed for the smaller sizes as a
+ * baseline. Every result is checked against a reference: the full triple loop for small sizes, and a sample of
+ * recomputed entries for large ones.
+ */
+public class GemmBenchmark {
+
+    public static void main(String[] args) {
+        int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int processors = Runtime.getRuntime().availableProcessors();
+        Random random = new Random(42);
+
+        for (int size = 256; size <= maxSize; size *= 2) {
+            double[] a = random.doubles((long) size * size, -1, 1).toArray();
+            double[] b = random.doubles((long) size * size, -1, 1).toArray();
+            float[] floatA = toFloats(a);
+            float[] floatB = toFloats(b);
+            double[] c = new double[size * size];
+            float[] floatC = new float[size * size];
+            double flops = 2.0 * size * size * size;
+            System.out.println("Size " + size + " x " + size);
+
+            if (size <= 1024) {
+                double[] expected = new double[size * size];
+                int n = size;
+                report("i-k-j loop, 1 thread", flops, time(1, () -> naive(a, b, expected, n)));
+                new ParallelGemm(ForkJoinPool.commonPool()).multiply(a, b, c, size, size, size);
+                check(c, expected, size, 1e-9);
+            }
+
+            for (int threads = 1; threads <= processors; threads *= 2) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                ParallelGemm gemm = new ParallelGemm(pool);
+                int n = size;
+                report("double, " + threads + " threads", flops, time(iterations, () -> gemm.multiply(a, b, c, n, n, n)));
+                report("float,  " + threads + " threads", flops,
+                        time(iterations, () -> gemm.multiply(floatA, floatB, floatC, n, n, n)));
+                pool.shutdown();
+            }
+            checkSample(a, b, c, size, random);
+        }
+    }
+
+    private static long time(int iterations, Runnable multiply) {
+        // Warm up so that the JIT has compiled the micro-kernel
+        multiply.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            multiply.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static void report(String name, double flops, long nanos) {
+        System.out.printf("  %-24s %10.2f ms %8.2f GFLOP/s%n", name, nanos / 1e6, flops / nanos);
+    }
+
+    private static void naive(double[] a, double[] b, double[] c, int n) {
+        Arrays.fill(c, 0);
+        for (int i = 0; i < n; i++) {
+            for (int p = 0; p < n; p++) {
+                double value = a[i * n + p];
+                for (int j = 0; j < n; j++) {
+                    c[i * n + j] += value * b[p * n + j];
+                }
+            }
+        }
+    }
+
+    private static void check(double[] actual, double[] expected, int n, double tolerance) {
+        for (int i = 0; i < actual.length; i++) {
+            if (Math.abs(actual[i] - expected[i]) > tolerance * n) {
+                throw new IllegalStateException("Wrong result at " + i + ": " + actual[i] + " vs " + expected[i]);
+            }
+        }
+    }
+
+    private static void checkSample(double[] a, double[] b, double[] c, int n, Random random) {
+        for (int sample = 0; sample < 1000; sample++) {
+            int i = random.nextInt(n);
+            int j = random.nextInt(n);
+            double expected = 0;
+            for (int p = 0; p < n; p++) {
+                expected += a[i * n + p] * b[p * n + j];
+            }
+            if (Math.abs(c[i * n + j] - expected) > 1e-9 * n) {
+                throw new IllegalStateException("Wrong result at (" + i + ", " + j + "): " + c[i * n + j] + " vs " + expected);
+            }
+        }
+    }
+
+    private static float[] toFloats(double[] values) {
+        float[] floats = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            floats[i] = (float) values[i];
+        }
+        return floats;
+    }
+}
@@ -0,0 +1,109 @@
+package com.clay.g_parallel_processing_parallelism.parallel_matrix_op;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Reads sparse matrices in the Matrix Market coordinate format, as used by the SuiteSparse collection.
+ *
+ * The file starts with a header line such as "%%MatrixMarket matrix coordinate real general", followed by comment
+ * lines starting with '%', a size line "rows columns entries" and one "row column [value]" line per entry with
+ * 1-based indices. The supported fields are real, integer and pattern (no values, every entry is 1), and the
+ * supported symmetries are general, symmetric and skew-symmetric. For the symmetric kinds only one triangle is
+ * stored in the file, and the mirrored entries are added while reading. Dense "array" files and complex values
+ * are rejected.
+ */
+public class MatrixMarketReader {
+
+    private MatrixMarketReader() {
+    }
+
+    public static CsrMatrix read(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException("Empty Matrix Market file: " + file);
+            }
+            String[] banner = header.trim().toLowerCase(Locale.ROOT).split("\\s+");
+            if (banner.length < 5 || !banner[0].equals("%%matrixmarket") || !banner[1].equals("matrix")) {
+                throw new IOException("Not a Matrix Market matrix: " + header);
+            }
+            if (!banner[2].equals("coordinate")) {
+                throw new IOException("Only the coordinate format is supported, not " + banner[2]);
+            }
+            String field = banner[3];
+            if (!field.equals("real") && !field.equals("integer") && !field.equals("pattern")) {
+                throw new IOException("Unsupported field " + field);
+            }
+            String symmetry = banner[4];
+            if (!symmetry.equals("general") && !symmetry.equals("symmetric") && !symmetry.equals("skew-symmetric")) {
+                throw new IOException("Unsupported symmetry " + symmetry);
+            }
+            boolean pattern = field.equals("pattern");
+            boolean mirrored = !symmetry.equals("general");
+            double mirrorSign = symmetry.equals("skew-symmetric") ? -1 : 1;
+
+            String line = nextDataLine(reader);
+            if (line == null) {
+                throw new IOException("Missing size line in " + file);
+            }
+            String[] size = line.trim().split("\\s+");
+            int rows = Integer.parseInt(size[0]);
+            int columns = Integer.parseInt(size[1]);
+            long entries = Long.parseLong(size[2]);
+            long capacity = mirrored ? 2 * entries : entries;
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new IOException("Too many entries: " + entries);
+            }
+
+            int[] entryRows = new int[(int) capacity];
+            int[] entryColumns = new int[(int) capacity];
+            double[] entryValues = new double[(int) capacity];
+            int count = 0;
+            for (long entry = 0; entry < entries; entry++) {
+                line = nextDataLine(reader);
+                if (line == null) {
+                    throw new IOException("Expected " + entries + " entries but found only " + entry);
+                }
+                String[] tokens = line.trim().split("\\s+");
+                if (tokens.length < (pattern ? 2 : 3)) {
+                    throw new IOException("Malformed entry line: " + line);
+                }
+                int row = Integer.parseInt(tokens[0]) - 1;
+                int column = Integer.parseInt(tokens[1]) - 1;
+                double value = pattern ? 1 : Double.parseDouble(tokens[2]);
+                entryRows[count] = row;
+                entryColumns[count] = column;
+                entryValues[count] = value;
+                count++;
+                if (mirrored && row != column) {
+                    entryRows[count] = column;
+                    entryColumns[count] = row;
+                    entryValues[count] = mirrorSign * value;
+                    count++;
+                }
+            }
+            return CsrMatrix.fromCoordinates(rows, columns, entryRows, entryColumns, entryValues, count);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Malformed Matrix Market file " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the next line that is neither empty nor a comment, or null at the end of the file
+     */
+    private static String nextDataLine(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && trimmed.charAt(0) != '%') {
+                return trimmed;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,372 @@
+package com.clay.g_parallel_processing_parallelism.parallel_matrix_op;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 2D convolution of images stored in flat float[] or int[] arrays.
+ *
+ * An image of width x height pixels with c channels is stored row by row with interleaved channels, so channel k of
+ * pixel (x, y) is at index (y * width + x) * c + k. Every channel is filtered independently with the same kernel.
+ * Like most image processing libraries, the kernel is applied without flipping (a correlation), so
+ * result(x, y) = sum of kernel(i, j) * image(x + i - anchorX, y + j - anchorY).
+ *
+ * Each output row is built by adding whole shifted source rows, scaled by one weight, into a row accumulator. For a
+ * given tap, the columns whose source lies inside the image form one contiguous range, so the inner loop is a plain
+ * multiply-add over two arrays without any bounds check or branch, which the JIT can unroll and vectorize. The few
+ * border columns are handled by a separate loop per tap, and source rows outside the image are skipped or clamped
+ * once per kernel row.
+ *
+ * Separable kernels (see ConvolutionKernel) run as a horizontal pass into a small buffer and a vertical pass from it.
+ * The output is cut into bands of rows whose working set fits in the L2 cache, and the bands are processed in
+ * parallel on the ForkJoinPool. Separable bands are kept several times taller than the kernel even on wide images,
+ * because each band repeats the horizontal pass for the rows the kernel reaches beyond it.
+ *
+ * The int variant requires a kernel with integer weights and computes exact int sums, which wrap around on overflow
+ * just like the equivalent Java expression.
+ */
+public class ParallelConvolution {
+
+    // Target size of the source rows or intermediate rows touched by one band
+    private static final int BAND_BYTES = 256 * 1024;
+    // Bands per worker at least, so that work stealing can balance the load
+    private static final int BANDS_PER_WORKER = 4;
+    // A separable band filters the rows the kernel reaches beyond it horizontally once more than needed, so it must
+    // be this many times taller than those rows for the extra work to stay small
+    private static final int MIN_BAND_HALO_RATIO = 8;
+
+    private final ForkJoinPool pool;
+
+    public ParallelConvolution(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public float[] convolve(float[] source, int width, int height, int channels, ConvolutionKernel kernel, BorderMode border) {
+        float[] destination = new float[source.length];
+        convolve(source, destination, width, height, channels, kernel, border);
+        return destination;
+    }
+
+    public int[] convolve(int[] source, int width, int height, int channels, ConvolutionKernel kernel, BorderMode border) {
+        int[] destination = new int[source.length];
+        convolve(source, destination, width, height, channels, kernel, border);
+        return destination;
+    }
+
+    /**
+     * Convolves a float image.
+     *
+     * @param source      the image
+     * @param destination receives the result, must be a different array of the same length
+     * @param width       the width of the image in pixels
+     * @param height      the height of the image in pixels
+     * @param channels    the number of interleaved channels per pixel
+     * @param kernel      the kernel
+     * @param border      how pixels outside the image are treated
+     */
+    public void convolve(float[] source, float[] destination, int width, int height, int channels,
+                         ConvolutionKernel kernel, BorderMode border) {
+        checkArguments(source.length, destination.length, source == destination, width, height, channels);
+        Job job = new Job(width, height, channels, kernel, border, kernel.isSeparable());
+        job.floatSource = source;
+        job.floatDestination = destination;
+        run(job);
+    }
+
+    /**
+     * Convolves an int image. The kernel must have integer weights.
+     *
+     * @param source      the image
+     * @param destination receives the result, must be a different array of the same length
+     * @param width       the width of the image in pixels
+     * @param height      the height of the image in pixels
+     * @param channels    the number of interleaved channels per pixel
+     * @param kernel      a kernel with integer weights
+     * @param border      how pixels outside the image are treated
+     */
+    public void convolve(int[] source, int[] destination, int width, int height, int channels,
+                         ConvolutionKernel kernel, BorderMode border) {
+        checkArguments(source.length, destination.length, source == destination, width, height, channels);
+        if (!kernel.isInteger()) {
+            throw new IllegalArgumentException("Int images need a kernel with integer weights");
+        }
+        Job job = new Job(width, height, channels, kernel, border, kernel.intColumnFactor() != null);
+        job.intSource = source;
+        job.intDestination = destination;
+        run(job);
+    }
+
+    private void run(Job job) {
+        // A band touches its own rows plus the rows the kernel reaches beyond them
+        int halo = job.kernel.getHeight() - 1;
+        long rowBytes = (long) job.rowLength * Integer.BYTES;
+        int bandRows = (int) Math.max(1, BAND_BYTES / rowBytes - halo);
+        int minBands = pool.getParallelism() * BANDS_PER_WORKER;
+        bandRows = Math.min(bandRows, Math.max(1, (job.height + minBands - 1) / minBands));
+        if (job.separable) {
+            // On wide images the cache budget leaves room for few rows, but short bands would spend more time on
+            // the halo than the separable passes save. Tall bands win, as long as every worker still gets one.
+            int rowsPerWorker = Math.max(1, (job.height + pool.getParallelism() - 1) / pool.getParallelism());
+            bandRows = Math.max(bandRows, Math.min(MIN_BAND_HALO_RATIO * halo, rowsPerWorker));
+        }
+        job.bandRows = bandRows;
+        pool.invoke(new BandTask(job, 0, (job.height + bandRows - 1) / bandRows));
+    }
+
+    private static void checkArguments(int sourceLength, int destinationLength, boolean sameArray,
+                                       int width, int height, int channels) {
+        if (width < 1 || height < 1 || channels < 1) {
+            throw new IllegalArgumentException("Width, height and channels must be positive");
+        }
+        if (sourceLength != (long) width * height * channels || destinationLength != sourceLength) {
+            throw new IllegalArgumentException("Source and destination must hold width * height * channels values");
+        }
+        if (sameArray) {
+            throw new IllegalArgumentException("Source and destination must be different arrays");
+        }
+    }
+
+    /**
+     * @return the source row a kernel row reads for the given (possibly outside) row, or -1 if it reads zeros
+     */
+    private static int sourceRow(int row, int height, BorderMode border) {
+        if (row >= 0 && row < height) {
+            return row;
+        }
+        if (border == BorderMode.ZERO) {
+            return -1;
+        }
+        return row < 0 ? 0 : height - 1;
+    }
+
+    /**
+     * Adds one row of source values, filtered horizontally by the given taps, to an accumulator row.
+     */
+    private static void accumulateRow(float[] source, int sourceOffset, float[] taps, int tapOffset, int tapCount,
+                                      int anchor, int width, int channels, BorderMode border,
+                                      float[] accumulator, int accumulatorOffset) {
+        for (int t = 0; t < tapCount; t++) {
+            float weight = taps[tapOffset + t];
+            if (weight == 0) {
+                continue;
+            }
+            int dx = t - anchor;
+            // Columns x whose source column x + dx is inside the image
+            int low = Math.max(0, -dx);
+            int high = Math.min(width, width - dx);
+            int shift = sourceOffset + dx * channels;
+            for (int i = low * channels, end = high * channels; i < end; i++) {
+                accumulator[accumulatorOffset + i] += weight * source[shift + i];
+            }
+            if (border == BorderMode.CLAMP) {
+                for (int x = 0, end = Math.min(low, width); x < end; x++) {
+                    for (int c = 0; c < channels; c++) {
+                        accumulator[accumulatorOffset + x * channels + c] += weight * source[sourceOffset + c];
+                    }
+                }
+                int last = sourceOffset + (width - 1) * channels;
+                for (int x = Math.max(high, 0); x < width; x++) {
+                    for (int c = 0; c < channels; c++) {
+                        accumulator[accumulatorOffset + x * channels + c] += weight * source[last + c];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The int version of accumulateRow().
+     */
+    private static void accumulateRow(int[] source, int sourceOffset, int[] taps, int tapOffset, int tapCount,
+                                      int anchor, int width, int channels, BorderMode border,
+                                      int[] accumulator, int accumulatorOffset) {
+        for (int t = 0; t < tapCount; t++) {
+            int weight = taps[tapOffset + t];
+            if (weight == 0) {
+                continue;
+            }
+            int dx = t - anchor;
+            int low = Math.max(0, -dx);
+            int high = Math.min(width, width - dx);
+            int shift = sourceOffset + dx * channels;
+            for (int i = low * channels, end = high * channels; i < end; i++) {
+                accumulator[accumulatorOffset + i] += weight * source[shift + i];
+            }
+            if (border == BorderMode.CLAMP) {
+                for (int x = 0, end = Math.min(low, width); x < end; x++) {
+                    for (int c = 0; c < channels; c++) {
+                        accumulator[accumulatorOffset + x * channels + c] += weight * source[sourceOffset + c];
+                    }
+                }
+                int last = sourceOffset + (width - 1) * channels;
+                for (int x = Math.max(high, 0); x < width; x++) {
+                    for (int c = 0; c < channels; c++) {
+                        accumulator[accumulatorOffset + x * channels + c] += weight * source[last + c];
+                    }
+                }
+            }
+        }
+    }
+
+    // Everything a band needs to know about one convolution
+    private static class Job {
+        final int width;
+        final int height;
+        final int channels;
+        final int rowLength;
+        final ConvolutionKernel kernel;
+        final BorderMode border;
+        final boolean separable;
+        float[] floatSource;
+        float[] floatDestination;
+        int[] intSource;
+        int[] intDestination;
+        int bandRows;
+
+        Job(int width, int height, int channels, ConvolutionKernel kernel, BorderMode border, boolean separable) {
+            this.width = width;
+            this.height = height;
+            this.channels = channels;
+            this.rowLength = width * channels;
+            this.kernel = kernel;
+            this.border = border;
+            // A kernel with a single row or column is already as cheap as it gets
+            this.separable = separable && kernel.getWidth() > 1 && kernel.getHeight() > 1;
+        }
+    }
+
+    private static class BandTask extends RecursiveAction {
+        private final Job job;
+        private final int startBand;
+        private final int endBand;
+
+        BandTask(Job job, int startBand, int endBand) {
+            this.job = job;
+            this.startBand = startBand;
+            this.endBand = endBand;
+        }
+
+        @Override
+        protected void compute() {
+            if (endBand - startBand == 1) {
+                int from = startBand * job.bandRows;
+                int to = Math.min(job.height, from + job.bandRows);
+                if (job.floatSource != null) {
+                    if (job.separable) {
+                        separableBand(from, to);
+                    } else {
+                        generalBand(from, to);
+                    }
+                } else {
+                    if (job.separable) {
+                        separableIntBand(from, to);
+                    } else {
+                        generalIntBand(from, to);
+                    }
+                }
+            } else {
+                int mid = (startBand + endBand) >>> 1;
+                invokeAll(new BandTask(job, startBand, mid), new BandTask(job, mid, endBand));
+            }
+        }
+
+        private void generalBand(int from, int to) {
+            ConvolutionKernel kernel = job.kernel;
+            int rowLength = job.rowLength;
+            float[] accumulator = new float[rowLength];
+            for (int y = from; y < to; y++) {
+                Arrays.fill(accumulator, 0f);
+                for (int ky = 0; ky < kernel.getHeight(); ky++) {
+                    int sourceRow = sourceRow(y + ky - kernel.getAnchorY(), job.height, job.border);
+                    if (sourceRow >= 0) {
+                        accumulateRow(job.floatSource, sourceRow * rowLength, kernel.weights(), ky * kernel.getWidth(),
+                                kernel.getWidth(), kernel.getAnchorX(), job.width, job.channels, job.border, accumulator, 0);
+                    }
+                }
+                System.arraycopy(accumulator, 0, job.floatDestination, y * rowLength, rowLength);
+            }
+        }
+
+        private void separableBand(int from, int to) {
+            ConvolutionKernel kernel = job.kernel;
+            int rowLength = job.rowLength;
+            // Horizontal pass over every source row the band reads
+            int firstRow = Math.max(0, from - kernel.getAnchorY());
+            int lastRow = Math.min(job.height - 1, to - 1 + kernel.getHeight() - 1 - kernel.getAnchorY());
+            float[] rows = new float[(lastRow - firstRow + 1) * rowLength];
+            float[] rowFactor = kernel.rowFactor();
+            for (int row = firstRow; row <= lastRow; row++) {
+                accumulateRow(job.floatSource, row * rowLength, rowFactor, 0, rowFactor.length, kernel.getAnchorX(),
+                        job.width, job.channels, job.border, rows, (row - firstRow) * rowLength);
+            }
+
+            // Vertical pass straight into the destination
+            float[] columnFactor = kernel.columnFactor();
+            float[] destination = job.floatDestination;
+            for (int y = from; y < to; y++) {
+                int out = y * rowLength;
+                Arrays.fill(destination, out, out + rowLength, 0f);
+                for (int ky = 0; ky < columnFactor.length; ky++) {
+                    float weight = columnFactor[ky];
+                    int sourceRow = sourceRow(y + ky - kernel.getAnchorY(), job.height, job.border);
+                    if (weight == 0 || sourceRow < 0) {
+                        continue;
+                    }
+                    int in = (sourceRow - firstRow) * rowLength;
+                    for (int i = 0; i < rowLength; i++) {
+                        destination[out + i] += weight * rows[in + i];
+                    }
+                }
+            }
+        }
+
+        private void generalIntBand(int from, int to) {
+            ConvolutionKernel kernel = job.kernel;
+            int rowLength = job.rowLength;
+            int[] accumulator = new int[rowLength];
+            for (int y = from; y < to; y++) {
+                Arrays.fill(accumulator, 0);
+                for (int ky = 0; ky < kernel.getHeight(); ky++) {
+                    int sourceRow = sourceRow(y + ky - kernel.getAnchorY(), job.height, job.border);
+                    if (sourceRow >= 0) {
+                        accumulateRow(job.intSource, sourceRow * rowLength, kernel.intWeights(), ky * kernel.getWidth(),
+                                kernel.getWidth(), kernel.getAnchorX(), job.width, job.channels, job.border, accumulator, 0);
+                    }
+                }
+                System.arraycopy(accumulator, 0, job.intDestination, y * rowLength, rowLength);
+            }
+        }
+
+        private void separableIntBand(int from, int to) {
+            ConvolutionKernel kernel = job.kernel;
+            int rowLength = job.rowLength;
+            int firstRow = Math.max(0, from - kernel.getAnchorY());
+            int lastRow = Math.min(job.height - 1, to - 1 + kernel.getHeight() - 1 - kernel.getAnchorY());
+            int[] rows = new int[(lastRow - firstRow + 1) * rowLength];
+            int[] rowFactor = kernel.intRowFactor();
+            for (int row = firstRow; row <= lastRow; row++) {
+                accumulateRow(job.intSource, row * rowLength, rowFactor, 0, rowFactor.length, kernel.getAnchorX(),
+                        job.width, job.channels, job.border, rows, (row - firstRow) * rowLength);
+            }
+
+            int[] columnFactor = kernel.intColumnFactor();
+            int[] destination = job.intDestination;
+            for (int y = from; y < to; y++) {
+                int out = y * rowLength;
+                Arrays.fill(destination, out, out + rowLength, 0);
+                for (int ky = 0; ky < columnFactor.length; ky++) {
+                    int weight = columnFactor[ky];
+                    int sourceRow = sourceRow(y + ky - kernel.getAnchorY(), job.height, job.border);
+                    if (weight == 0 || sourceRow < 0) {
+                        continue;
+                    }
+                    int in = (sourceRow - firstRow) * rowLength;
+                    for (int i = 0; i < rowLength; i++) {
+                        destination[out + i] += weight * rows[in + i];
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,531 @@
+package com.clay.g_parallel_processing_parallelism.parallel_matrix_op;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel dense matrix multiplication C = A * B for row-major double[] and float[] matrices, where A is m x k,
+ * B is k x n and C is m x n.
+ *
+ * The implementation follows the usual structure of optimized BLAS libraries:
+ *
+ * - B is packed once into panels of NR columns. Inside a panel the values are stored row after row, so the
+ *   micro-kernel reads B strictly sequentially. A packed B can be kept and reused for many products, see pack().
+ * - C is cut into tiles of MC x NC. The tiles are independent and are computed in parallel on the ForkJoinPool.
+ * - For every block of KC columns of A, a tile packs its MC x KC block of A into panels of MR rows. That block
+ *   stays in the L2 cache while it is multiplied with all B panels of the tile, and each KC x NR panel of B
+ *   stays in the L1 cache while it meets all A panels.
+ * - The micro-kernel computes an MR x NR = 4 x 4 block of C in 16 local variables, which the JIT keeps in
+ *   registers, so every loaded value of A and B is used four times.
+ *
+ * Edges that are not multiples of MR or NR are padded with zeros in the packed operands, so the micro-kernel never
+ * checks bounds and only its final store is masked. The incubating Vector API is not used: it needs
+ * --add-modules jdk.incubator.vector at compile and run time, and the scalar kernel already lets the JIT use
+ * vector registers for the independent accumulators on common JVMs.
+ */
+public class ParallelGemm {
+
+    // Micro-kernel size
+    private static final int MR = 4;
+    private static final int NR = 4;
+    // Cache blocking: an MC x KC block of A (128 KB of doubles) fits in L2, a KC x NC block of B in L3
+    private static final int MC = 64;
+    private static final int KC = 256;
+    private static final int NC = 1024;
+    // Panels of B packed by one task at least
+    private static final int PACK_PANELS_PER_TASK = 16;
+
+    private final ForkJoinPool pool;
+
+    public ParallelGemm(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * B packed into panels of NR columns for repeated use as the right operand.
+     */
+    public static class PackedMatrix {
+        private final int rows;
+        private final int columns;
+        private final double[] doubles;
+        private final float[] floats;
+
+        private PackedMatrix(int rows, int columns, double[] doubles, float[] floats) {
+            this.rows = rows;
+            this.columns = columns;
+            this.doubles = doubles;
+            this.floats = floats;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getColumns() {
+            return columns;
+        }
+    }
+
+    /**
+     * Computes C = A * B.
+     *
+     * @param a an m x k matrix
+     * @param b a k x n matrix
+     * @param c receives the m x n result, its previous content is overwritten
+     */
+    public void multiply(double[] a, double[] b, double[] c, int m, int n, int k) {
+        multiply(a, pack(b, k, n), c, m);
+    }
+
+    /**
+     * Computes C = A * B.
+     *
+     * @param a an m x k matrix
+     * @param b a k x n matrix
+     * @param c receives the m x n result, its previous content is overwritten
+     */
+    public void multiply(float[] a, float[] b, float[] c, int m, int n, int k) {
+        multiply(a, pack(b, k, n), c, m);
+    }
+
+    /**
+     * Computes C = A * B with a B packed by pack(double[], int, int).
+     */
+    public void multiply(double[] a, PackedMatrix b, double[] c, int m) {
+        if (b.doubles == null) {
+            throw new IllegalArgumentException("B was packed from a float matrix");
+        }
+        checkLengths(a.length, c.length, m, b.columns, b.rows);
+        run(new Job(a, null, b, c, null, m));
+    }
+
+    /**
+     * Computes C = A * B with a B packed by pack(float[], int, int).
+     */
+    public void multiply(float[] a, PackedMatrix b, float[] c, int m) {
+        if (b.floats == null) {
+            throw new IllegalArgumentException("B was packed from a double matrix");
+        }
+        checkLengths(a.length, c.length, m, b.columns, b.rows);
+        run(new Job(null, a, b, null, c, m));
+    }
+
+    /**
+     * Packs a k x n matrix for use as the right operand.
+     */
+    public PackedMatrix pack(double[] b, int k, int n) {
+        checkShape(b.length, k, n);
+        double[] packed = new double[panelCount(n) * k * NR];
+        pool.invoke(new PackTask(b, null, packed, null, k, n, 0, panelCount(n)));
+        return new PackedMatrix(k, n, packed, null);
+    }
+
+    /**
+     * Packs a k x n matrix for use as the right operand.
+     */
+    public PackedMatrix pack(float[] b, int k, int n) {
+        checkShape(b.length, k, n);
+        float[] packed = new float[panelCount(n) * k * NR];
+        pool.invoke(new PackTask(null, b, null, packed, k, n, 0, panelCount(n)));
+        return new PackedMatrix(k, n, null, packed);
+    }
+
+    private void run(Job job) {
+        if (job.m == 0 || job.n == 0) {
+            return;
+        }
+        int tiles = job.rowTiles * job.columnTiles;
+        pool.invoke(new TileTask(job, 0, tiles));
+    }
+
+    private static int panelCount(int n) {
+        return (n + NR - 1) / NR;
+    }
+
+    private static void checkShape(int length, int rows, int columns) {
+        if (rows < 0 || columns < 0 || length != (long) rows * columns) {
+            throw new IllegalArgumentException("Matrix of length " + length + " is not " + rows + " x " + columns);
+        }
+    }
+
+    private static void checkLengths(int aLength, int cLength, int m, int n, int k) {
+        checkShape(aLength, m, k);
+        checkShape(cLength, m, n);
+    }
+
+    // Everything the tiles of one product share
+    private static class Job {
+        final double[] a;
+        final float[] floatA;
+        final double[] packedB;
+        final float[] floatPackedB;
+        final double[] c;
+        final float[] floatC;
+        final int m;
+        final int n;
+        final int k;
+        final int rowTiles;
+        final int columnTiles;
+
+        Job(double[] a, float[] floatA, PackedMatrix b, double[] c, float[] floatC, int m) {
+            this.a = a;
+            this.floatA = floatA;
+            this.packedB = b.doubles;
+            this.floatPackedB = b.floats;
+            this.c = c;
+            this.floatC = floatC;
+            this.m = m;
+            this.n = b.columns;
+            this.k = b.rows;
+            this.rowTiles = (m + MC - 1) / MC;
+            this.columnTiles = (n + NC - 1) / NC;
+        }
+    }
+
+    private static class PackTask extends RecursiveAction {
+        private final double[] b;
+        private final float[] floatB;
+        private final double[] packed;
+        private final float[] floatPacked;
+        private final int k;
+        private final int n;
+        private final int startPanel;
+        private final int endPanel;
+
+        PackTask(double[] b, float[] floatB, double[] packed, float[] floatPacked, int k, int n, int startPanel, int endPanel) {
+            this.b = b;
+            this.floatB = floatB;
+            this.packed = packed;
+            this.floatPacked = floatPacked;
+            this.k = k;
+            this.n = n;
+            this.startPanel = startPanel;
+            this.endPanel = endPanel;
+        }
+
+        @Override
+        protected void compute() {
+            if (endPanel - startPanel <= PACK_PANELS_PER_TASK) {
+                for (int panel = startPanel; panel < endPanel; panel++) {
+                    int column = panel * NR;
+                    int width = Math.min(NR, n - column);
+                    int out = panel * k * NR;
+                    // Columns beyond n stay 0
+                    for (int p = 0; p < k; p++, out += NR) {
+                        int in = p * n + column;
+                        if (b != null) {
+                            System.arraycopy(b, in, packed, out, width);
+                        } else {
+                            System.arraycopy(floatB, in, floatPacked, out, width);
+                        }
+                    }
+                }
+            } else {
+                int mid = (startPanel + endPanel) >>> 1;
+                invokeAll(new PackTask(b, floatB, packed, floatPacked, k, n, startPanel, mid),
+                        new PackTask(b, floatB, packed, floatPacked, k, n, mid, endPanel));
+            }
+        }
+    }
+
+    private static class TileTask extends RecursiveAction {
+        private final Job job;
+        private final int startTile;
+        private final int endTile;
+
+        TileTask(Job job, int startTile, int endTile) {
+            this.job = job;
+            this.startTile = startTile;
+            this.endTile = endTile;
+        }
+
+        @Override
+        protected void compute() {
+            if (endTile - startTile == 1) {
+                int row = (startTile / job.columnTiles) * MC;
+                int column = (startTile % job.columnTiles) * NC;
+                int rows = Math.min(MC, job.m - row);
+                int columns = Math.min(NC, job.n - column);
+                if (job.a != null) {
+                    computeTile(row, rows, column, columns);
+                } else {
+                    computeFloatTile(row, rows, column, columns);
+                }
+            } else {
+                int mid = (startTile + endTile) >>> 1;
+                invokeAll(new TileTask(job, startTile, mid), new TileTask(job, mid, endTile));
+            }
+        }
+
+        private void computeTile(int row, int rows, int column, int columns) {
+            int k = job.k;
+            int n = job.n;
+            if (k == 0) {
+                for (int i = row; i < row + rows; i++) {
+                    Arrays.fill(job.c, i * n + column, i * n + column + columns, 0);
+                }
+                return;
+            }
+            int rowPanels = (rows + MR - 1) / MR;
+            double[] packedA = new double[rowPanels * MR * Math.min(KC, k)];
+            for (int depth = 0; depth < k; depth += KC) {
+                int kc = Math.min(KC, k - depth);
+                // Pack the block of A into panels of MR rows, padding missing rows with zeros
+                for (int panel = 0; panel < rowPanels; panel++) {
+                    int base = panel * MR * kc;
+                    for (int i = 0; i < MR; i++) {
+                        int sourceRow = row + panel * MR + i;
+                        if (sourceRow < row + rows) {
+                            int in = sourceRow * k + depth;
+                            for (int p = 0; p < kc; p++) {
+                                packedA[base + p * MR + i] = job.a[in + p];
+                            }
+                        } else {
+                            for (int p = 0; p < kc; p++) {
+                                packedA[base + p * MR + i] = 0;
+                            }
+                        }
+                    }
+                }
+                boolean overwrite = depth == 0;
+                for (int j = column; j < column + columns; j += NR) {
+                    int bOffset = (j / NR) * k * NR + depth * NR;
+                    int width = Math.min(NR, column + columns - j);
+                    for (int panel = 0; panel < rowPanels; panel++) {
+                        int i = row + panel * MR;
+                        kernel(packedA, panel * MR * kc, job.packedB, bOffset, kc, job.c, i, j, n,
+                                Math.min(MR, row + rows - i), width, overwrite);
+                    }
+                }
+            }
+        }
+
+        private void computeFloatTile(int row, int rows, int column, int columns) {
+            int k = job.k;
+            int n = job.n;
+            if (k == 0) {
+                for (int i = row; i < row + rows; i++) {
+                    Arrays.fill(job.floatC, i * n + column, i * n + column + columns, 0f);
+                }
+                return;
+            }
+            int rowPanels = (rows + MR - 1) / MR;
+            float[] packedA = new float[rowPanels * MR * Math.min(KC, k)];
+            for (int depth = 0; depth < k; depth += KC) {
+                int kc = Math.min(KC, k - depth);
+                for (int panel = 0; panel < rowPanels; panel++) {
+                    int base = panel * MR * kc;
+                    for (int i = 0; i < MR; i++) {
+                        int sourceRow = row + panel * MR + i;
+                        if (sourceRow < row + rows) {
+                            int in = sourceRow * k + depth;
+                            for (int p = 0; p < kc; p++) {
+                                packedA[base + p * MR + i] = job.floatA[in + p];
+                            }
+                        } else {
+                            for (int p = 0; p < kc; p++) {
+                                packedA[base + p * MR + i] = 0;
+                            }
+                        }
+                    }
+                }
+                boolean overwrite = depth == 0;
+                for (int j = column; j < column + columns; j += NR) {
+                    int bOffset = (j / NR) * k * NR + depth * NR;
+                    int width = Math.min(NR, column + columns - j);
+                    for (int panel = 0; panel < rowPanels; panel++) {
+                        int i = row + panel * MR;
+                        kernel(packedA, panel * MR * kc, job.floatPackedB, bOffset, kc, job.floatC, i, j, n,
+                                Math.min(MR, row + rows - i), width, overwrite);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Multiplies an MR x kc panel of A with a kc x NR panel of B and stores or adds the result to the
+     * rows x columns block of C at (row, column).
+     */
+    private static void kernel(double[] a, int aOffset, double[] b, int bOffset, int kc, double[] c,
+                               int row, int column, int n, int rows, int columns, boolean overwrite) {
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+        for (int p = 0, ai = aOffset, bi = bOffset; p < kc; p++, ai += MR, bi += NR) {
+            double a0 = a[ai];
+            double a1 = a[ai + 1];
+            double a2 = a[ai + 2];
+            double a3 = a[ai + 3];
+            double b0 = b[bi];
+            double b1 = b[bi + 1];
+            double b2 = b[bi + 2];
+            double b3 = b[bi + 3];
+            c00 += a0 * b0;
+            c01 += a0 * b1;
+            c02 += a0 * b2;
+            c03 += a0 * b3;
+            c10 += a1 * b0;
+            c11 += a1 * b1;
+            c12 += a1 * b2;
+            c13 += a1 * b3;
+            c20 += a2 * b0;
+            c21 += a2 * b1;
+            c22 += a2 * b2;
+            c23 += a2 * b3;
+            c30 += a3 * b0;
+            c31 += a3 * b1;
+            c32 += a3 * b2;
+            c33 += a3 * b3;
+        }
+        if (rows == MR && columns == NR) {
+            int r0 = row * n + column;
+            int r1 = r0 + n;
+            int r2 = r1 + n;
+            int r3 = r2 + n;
+            if (overwrite) {
+                c[r0] = c00;
+                c[r0 + 1] = c01;
+                c[r0 + 2] = c02;
+                c[r0 + 3] = c03;
+                c[r1] = c10;
+                c[r1 + 1] = c11;
+                c[r1 + 2] = c12;
+                c[r1 + 3] = c13;
+                c[r2] = c20;
+                c[r2 + 1] = c21;
+                c[r2 + 2] = c22;
+                c[r2 + 3] = c23;
+                c[r3] = c30;
+                c[r3 + 1] = c31;
+                c[r3 + 2] = c32;
+                c[r3 + 3] = c33;
+            } else {
+                c[r0] += c00;
+                c[r0 + 1] += c01;
+                c[r0 + 2] += c02;
+                c[r0 + 3] += c03;
+                c[r1] += c10;
+                c[r1 + 1] += c11;
+                c[r1 + 2] += c12;
+                c[r1 + 3] += c13;
+                c[r2] += c20;
+                c[r2 + 1] += c21;
+                c[r2 + 2] += c22;
+                c[r2 + 3] += c23;
+                c[r3] += c30;
+                c[r3 + 1] += c31;
+                c[r3 + 2] += c32;
+                c[r3 + 3] += c33;
+            }
+            return;
+        }
+        // Edge block: only part of it lies inside C
+        double[] block = {
+                c00, c01, c02, c03,
+                c10, c11, c12, c13,
+                c20, c21, c22, c23,
+                c30, c31, c32, c33
+        };
+        for (int i = 0; i < rows; i++) {
+            int out = (row + i) * n + column;
+            for (int j = 0; j < columns; j++) {
+                c[out + j] = overwrite ? block[i * NR + j] : c[out + j] + block[i * NR + j];
+            }
+        }
+    }
+
+    /**
+     * The float version of the micro-kernel.
+     */
+    private static void kernel(float[] a, int aOffset, float[] b, int bOffset, int kc, float[] c,
+                               int row, int column, int n, int rows, int columns, boolean overwrite) {
+        float c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        float c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        float c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        float c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+        for (int p = 0, ai = aOffset, bi = bOffset; p < kc; p++, ai += MR, bi += NR) {
+            float a0 = a[ai];
+            float a1 = a[ai + 1];
+            float a2 = a[ai + 2];
+            float a3 = a[ai + 3];
+            float b0 = b[bi];
+            float b1 = b[bi + 1];
+            float b2 = b[bi + 2];
+            float b3 = b[bi + 3];
+            c00 += a0 * b0;
+            c01 += a0 * b1;
+            c02 += a0 * b2;
+            c03 += a0 * b3;
+            c10 += a1 * b0;
+            c11 += a1 * b1;
+            c12 += a1 * b2;
+            c13 += a1 * b3;
+            c20 += a2 * b0;
+            c21 += a2 * b1;
+            c22 += a2 * b2;
+            c23 += a2 * b3;
+            c30 += a3 * b0;
+            c31 += a3 * b1;
+            c32 += a3 * b2;
+            c33 += a3 * b3;
+        }
+        if (rows == MR && columns == NR) {
+            int r0 = row * n + column;
+            int r1 = r0 + n;
+            int r2 = r1 + n;
+            int r3 = r2 + n;
+            if (overwrite) {
+                c[r0] = c00;
+                c[r0 + 1] = c01;
+                c[r0 + 2] = c02;
+                c[r0 + 3] = c03;
+                c[r1] = c10;
+                c[r1 + 1] = c11;
+                c[r1 + 2] = c12;
+                c[r1 + 3] = c13;
+                c[r2] = c20;
+                c[r2 + 1] = c21;
+                c[r2 + 2] = c22;
+                c[r2 + 3] = c23;
+                c[r3] = c30;
+                c[r3 + 1] = c31;
+                c[r3 + 2] = c32;
+                c[r3 + 3] = c33;
+            } else {
+                c[r0] += c00;
+                c[r0 + 1] += c01;
+                c[r0 + 2] += c02;
+                c[r0 + 3] += c03;
+                c[r1] += c10;
+                c[r1 + 1] += c11;
+                c[r1 + 2] += c12;
+                c[r1 + 3] += c13;
+                c[r2] += c20;
+                c[r2 + 1] += c21;
+                c[r2 + 2] += c22;
+                c[r2 + 3] += c23;
+                c[r3] += c30;
+                c[r3 + 1] += c31;
+                c[r3 + 2] += c32;
+                c[r3 + 3] += c33;
+            }
+            return;
+        }
+        // Edge block: only part of it lies inside C
+        float[] block = {
+                c00, c01, c02, c03,
+                c10, c11, c12, c13,
+                c20, c21, c22, c23,
+                c30, c31, c32, c33
+        };
+        for (int i = 0; i < rows; i++) {
+            int out = (row + i) * n + column;
+            for (int j = 0; j < columns; j++) {
+                c[out + j] = overwrite ? block[i * NR + j] : c[out + j] + block[i * NR + j];
+            }
+        }
+    }
+}
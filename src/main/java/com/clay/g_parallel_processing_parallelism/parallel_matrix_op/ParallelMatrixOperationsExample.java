@@ -2,14 +2,18 @@ package com.clay.g_parallel_processing_parallelism.parallel_matrix_op;
 
 import java.util.Arrays;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.RecursiveAction;
 
 /**
  * In this example, we have an image represented as a matrix, and we want to apply a filter to perform image convolution.
- * The image matrix and the filter matrix are divided into smaller subtasks, and each subtask computes the convolution for its portion of the image.
- * The subtasks are then combined by updating the result matrix with the computed convolution.
+ * The image is stored in a flat int array, row by row, and the output rows are divided into bands that are convolved in parallel
+ * by ParallelConvolution on a ForkJoinPool. Each band is sized so that the rows it touches stay in the L2 cache.
+ * Pixels outside the image count as 0, and this border handling happens outside the inner loop, which only multiplies and adds.
+ * Separable kernels such as a Gaussian blur are detected automatically and applied as two cheaper 1D passes.
  * This approach allows for efficient parallel computation of image filtering, which is a common operation in image processing
- * and computer vision tasks.
+ * and computer vision tasks. See ConvolutionBenchmark for a comparison on large multi-channel images.
+ *
+ * The example also multiplies two small matrices with ParallelGemm, the cache-blocked parallel matrix multiplication
+ * of this package. See GemmBenchmark for its GFLOP/s across matrix sizes and thread counts.
  */
 public class ParallelMatrixOperationsExample {
 
@@ -17,87 +21,51 @@ public class ParallelMatrixOperationsExample {
         // Create a ForkJoinPool with parallelism level equal to the number of available processors
         ForkJoinPool forkJoinPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 
-        // Create a sample image represented as a matrix
-        int[][] image = {
-                {100, 100, 100, 100, 100},
-                {100, 200, 200, 200, 100},
-                {100, 200, 400, 200, 100},
-                {100, 200, 200, 200, 100},
-                {100, 100, 100, 100, 100}
+        // Create a sample image represented as a 5 x 5 matrix, stored row by row
+        int width = 5;
+        int height = 5;
+        int[] image = {
+                100, 100, 100, 100, 100,
+                100, 200, 200, 200, 100,
+                100, 200, 400, 200, 100,
+                100, 200, 200, 200, 100,
+                100, 100, 100, 100, 100
         };
 
         // Create a filter matrix for image convolution
-        int[][] filter = {
+        ConvolutionKernel filter = ConvolutionKernel.of(new int[][]{
                 {0, -1, 0},
                 {-1, 5, -1},
                 {0, -1, 0}
-        };
-
-        // Create a result matrix to store the filtered image
-        int[][] result = new int[image.length][image[0].length];
+        });
 
-        // Perform parallel image filtering using convolution
-        forkJoinPool.invoke(new ConvolutionTask(image, filter, result, 0, image.length - 1));
+        // Perform parallel image filtering using convolution, with zeros outside the image
+        ParallelConvolution convolution = new ParallelConvolution(forkJoinPool);
+        int[] result = convolution.convolve(image, width, height, 1, filter, BorderMode.ZERO);
 
         // Print the filtered image
-        for (int[] row : result) {
-            System.out.println(Arrays.toString(row));
+        for (int row = 0; row < height; row++) {
+            System.out.println(Arrays.toString(Arrays.copyOfRange(result, row * width, (row + 1) * width)));
         }
-    }
-
-    private static class ConvolutionTask extends RecursiveAction {
-        private int[][] image;
-        private int[][] filter;
-        private int[][] result;
-        private int startRow;
-        private int endRow;
-        private static final int THRESHOLD = 1000;
-
-        public ConvolutionTask(int[][] image, int[][] filter, int[][] result, int startRow, int endRow) {
-            this.image = image;
-            this.filter = filter;
-            this.result = result;
-            this.startRow = startRow;
-            this.endRow = endRow;
-        }
-
-        @Override
-        protected void compute() {
-            if (endRow - startRow <= THRESHOLD) {
-                // If the problem size is small enough, compute the convolution directly
-                for (int i = startRow; i <= endRow; i++) {
-                    for (int j = 0; j < image[i].length; j++) {
-                        result[i][j] = applyConvolution(image, filter, i, j);
-                    }
-                }
-            } else {
-                // If the problem size is larger, split it into smaller subtasks and invoke them in parallel
-                int mid = (startRow + endRow) / 2;
-                ConvolutionTask leftTask = new ConvolutionTask(image, filter, result, startRow, mid);
-                ConvolutionTask rightTask = new ConvolutionTask(image, filter, result, mid + 1, endRow);
 
-                invokeAll(leftTask, rightTask); // Invoke both tasks in parallel
-            }
-        }
-
-        private int applyConvolution(int[][] image, int[][] filter, int row, int col) {
-            int sum = 0;
-            int filterSize = filter.length;
-            int center = filterSize / 2;
-
-            for (int i = 0; i < filterSize; i++) {
-                for (int j = 0; j < filterSize; j++) {
-                    int rowIndex = row + i - center;
-                    int colIndex = col + j - center;
-
-                    // Handle edge cases where the filter extends beyond the image boundaries
-                    if (rowIndex >= 0 && rowIndex < image.length && colIndex >= 0 && colIndex < image[rowIndex].length) {
-                        sum += image[rowIndex][colIndex] * filter[i][j];
-                    }
-                }
-            }
-
-            return sum;
-        }
+        // A box blur is separable and runs as a horizontal and a vertical pass
+        ConvolutionKernel blur = ConvolutionKernel.of(new int[][]{
+                {1, 1, 1},
+                {1, 1, 1},
+                {1, 1, 1}
+        });
+        System.out.println("Box blur separable: " + blur.isSeparable());
+        int[] blurred = convolution.convolve(image, width, height, 1, blur, BorderMode.CLAMP);
+        System.out.println("Blurred center: " + blurred[2 * width + 2] / 9);
+
+        // Dense matrix multiplication: a 2 x 3 matrix times a 3 x 2 matrix, both stored row by row
+        ParallelGemm gemm = new ParallelGemm(forkJoinPool);
+        double[] a = {1, 2, 3, 4, 5, 6};
+        double[] b = {7, 8, 9, 10, 11, 12};
+        double[] product = new double[4];
+        gemm.multiply(a, b, product, 2, 2, 3);
+        System.out.println("Matrix product: " + Arrays.toString(product));
+
+        forkJoinPool.shutdown();
     }
 }
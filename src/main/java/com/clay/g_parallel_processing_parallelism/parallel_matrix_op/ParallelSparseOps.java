@@ -0,0 +1,142 @@
+package com.clay.g_parallel_processing_parallelism.parallel_matrix_op;
+
+import com.clay.g_parallel_processing_parallelism.parallel_graph_algo.ParallelRange;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parallel products of a CsrMatrix with a dense vector (SpMV) and with a dense row-major matrix (SpMM).
+ *
+ * Both products process every row of the sparse matrix independently, so the rows are split into contiguous
+ * partitions that are computed in parallel. Splitting by row count balances badly on skewed matrices, where a few
+ * rows hold most of the non-zeros: the partition that gets them does most of the work. The partitions are
+ * therefore cut at equal amounts of work, measured as non-zeros plus one per row for the row's own overhead. The
+ * boundaries are found by binary search in the row offsets, so partitioning costs almost nothing. A single row is
+ * never split, so a row with more non-zeros than a partition's share still forms a partition of its own.
+ */
+public class ParallelSparseOps {
+
+    // Partitions per worker, so that work stealing can absorb the remaining imbalance
+    private static final int PARTITIONS_PER_WORKER = 8;
+    // Work units (non-zeros plus rows) per partition at least
+    private static final int MIN_PARTITION_WORK = 1 << 14;
+
+    private final ForkJoinPool pool;
+    private final boolean balanceByNonZeros;
+
+    public ParallelSparseOps(ForkJoinPool pool) {
+        this(pool, true);
+    }
+
+    /**
+     * @param balanceByNonZeros false to split by row count instead, only useful to measure the difference
+     */
+    ParallelSparseOps(ForkJoinPool pool, boolean balanceByNonZeros) {
+        this.pool = pool;
+        this.balanceByNonZeros = balanceByNonZeros;
+    }
+
+    /**
+     * Computes y = A * x.
+     *
+     * @param a the sparse matrix
+     * @param x a vector with one entry per column of A
+     * @param y receives one entry per row of A
+     */
+    public void multiply(CsrMatrix a, double[] x, double[] y) {
+        if (x.length != a.getColumns() || y.length != a.getRows()) {
+            throw new IllegalArgumentException("Vector lengths do not match the matrix");
+        }
+        int[] offsets = a.getRowOffsets();
+        int[] columns = a.getColumnIndices();
+        double[] values = a.getValues();
+        forEachPartition(a, (from, to) -> {
+            for (int row = from; row < to; row++) {
+                double sum = 0;
+                for (int j = offsets[row], end = offsets[row + 1]; j < end; j++) {
+                    sum += values[j] * x[columns[j]];
+                }
+                y[row] = sum;
+            }
+        });
+    }
+
+    /**
+     * Computes C = A * B for a dense B.
+     *
+     * @param a        the sparse matrix
+     * @param b        a dense row-major matrix with one row per column of A
+     * @param bColumns the number of columns of B
+     * @param c        receives the dense row-major result with one row per row of A and bColumns columns
+     */
+    public void multiply(CsrMatrix a, double[] b, int bColumns, double[] c) {
+        if (bColumns < 0 || b.length != (long) a.getColumns() * bColumns || c.length != (long) a.getRows() * bColumns) {
+            throw new IllegalArgumentException("Dense matrix sizes do not match the sparse matrix");
+        }
+        int[] offsets = a.getRowOffsets();
+        int[] columns = a.getColumnIndices();
+        double[] values = a.getValues();
+        forEachPartition(a, (from, to) -> {
+            for (int row = from; row < to; row++) {
+                // The result row is a sum of scaled rows of B, each added in one contiguous loop
+                int out = row * bColumns;
+                for (int i = out; i < out + bColumns; i++) {
+                    c[i] = 0;
+                }
+                for (int j = offsets[row], end = offsets[row + 1]; j < end; j++) {
+                    double value = values[j];
+                    int in = columns[j] * bColumns;
+                    for (int i = 0; i < bColumns; i++) {
+                        c[out + i] += value * b[in + i];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @return partitions + 1 row boundaries that split the rows of the matrix into partitions of similar work
+     */
+    int[] partition(CsrMatrix matrix) {
+        int rows = matrix.getRows();
+        int[] offsets = matrix.getRowOffsets();
+        long totalWork = (long) matrix.getNonZeroCount() + rows;
+        int partitions = (int) Math.max(1, Math.min(rows,
+                Math.min((long) pool.getParallelism() * PARTITIONS_PER_WORKER, totalWork / MIN_PARTITION_WORK)));
+        int[] boundaries = new int[partitions + 1];
+        boundaries[partitions] = rows;
+        for (int p = 1; p < partitions; p++) {
+            if (balanceByNonZeros) {
+                // The first row whose work prefix reaches the target
+                long target = totalWork * p / partitions;
+                int low = boundaries[p - 1];
+                int high = rows;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if ((long) offsets[mid] + mid < target) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                boundaries[p] = low;
+            } else {
+                boundaries[p] = (int) ((long) rows * p / partitions);
+            }
+        }
+        return boundaries;
+    }
+
+    private void forEachPartition(CsrMatrix matrix, RowRange body) {
+        if (matrix.getRows() > 0) {
+            int[] boundaries = partition(matrix);
+            ParallelRange.forEachChunk(pool, boundaries.length - 1,
+                    partition -> body.run(boundaries[partition], boundaries[partition + 1]));
+        }
+    }
+
+    // Processes the rows from ... to - 1
+    private interface RowRange {
+        void run(int from, int to);
+    }
+}
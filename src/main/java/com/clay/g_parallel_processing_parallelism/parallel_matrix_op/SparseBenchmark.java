@@ -0,0 +1,105 @@
+package com.clay.g_parallel_processing_parallelism.parallel_matrix_op;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the throughput of ParallelSparseOps for sparse matrix-vector (SpMV) and sparse-dense matrix (SpMM)
+ * products.
+ *
+ * Usage: SparseBenchmark [matrixMarketFile] [iterations]
+ *
+ * Without a file, a skewed 200000 x 100000 matrix is generated: the first 1% of the rows hold about half of the
+ * non-zeros, much like the few very active users or frequent features of real data. Each product is run on a
+ * one-thread pool, on the common pool with partitions of equal row count, and on the common pool with partitions
+ * of equal work, and the results are compared.
+ */
+public class SparseBenchmark {
+
+    private static final int DENSE_COLUMNS = 16;
+
+    public static void main(String[] args) throws IOException {
+        CsrMatrix matrix = args.length > 0 ? MatrixMarketReader.read(Paths.get(args[0])) : skewedMatrix(200_000, 100_000);
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        System.out.printf("Matrix %d x %d, %d non-zeros (%.4f %% dense), %d threads%n", matrix.getRows(),
+                matrix.getColumns(), matrix.getNonZeroCount(),
+                100.0 * matrix.getNonZeroCount() / ((double) matrix.getRows() * matrix.getColumns()),
+                ForkJoinPool.commonPool().getParallelism());
+
+        SplittableRandom random = new SplittableRandom(42);
+        double[] x = random.doubles(matrix.getColumns()).toArray();
+        double[] b = random.doubles((long) matrix.getColumns() * DENSE_COLUMNS).toArray();
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ParallelSparseOps[] variants = {
+                new ParallelSparseOps(single),
+                new ParallelSparseOps(ForkJoinPool.commonPool(), false),
+                new ParallelSparseOps(ForkJoinPool.commonPool())
+        };
+        String[] names = {"1 thread", "split by rows", "split by work"};
+
+        double[] expectedY = null;
+        double[] expectedC = null;
+        for (int v = 0; v < variants.length; v++) {
+            ParallelSparseOps ops = variants[v];
+            double[] y = new double[matrix.getRows()];
+            long nanos = time(iterations, () -> ops.multiply(matrix, x, y));
+            report("SpMV " + names[v], 2.0 * matrix.getNonZeroCount(), nanos);
+
+            double[] c = new double[matrix.getRows() * DENSE_COLUMNS];
+            nanos = time(iterations, () -> ops.multiply(matrix, b, DENSE_COLUMNS, c));
+            report("SpMM x" + DENSE_COLUMNS + " " + names[v], 2.0 * matrix.getNonZeroCount() * DENSE_COLUMNS, nanos);
+
+            // Every row is summed in the same order by all variants, so the results must be identical
+            if (expectedY == null) {
+                expectedY = y;
+                expectedC = c;
+            } else if (!Arrays.equals(y, expectedY) || !Arrays.equals(c, expectedC)) {
+                throw new IllegalStateException(names[v] + " produced a different result");
+            }
+        }
+        single.shutdown();
+    }
+
+    private static long time(int iterations, Runnable product) {
+        // Warm up so that the JIT has compiled the loops
+        product.run();
+        product.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            product.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static void report(String name, double flops, long nanos) {
+        System.out.printf("%-28s %9.2f ms %8.2f GFLOP/s%n", name, nanos / 1e6, flops / nanos);
+    }
+
+    private static CsrMatrix skewedMatrix(int rows, int columns) {
+        SplittableRandom random = new SplittableRandom(7);
+        int heavyRows = rows / 100;
+        int heavyLength = 2000;
+        int lightLength = 20;
+        long total = (long) heavyRows * heavyLength + (long) (rows - heavyRows) * lightLength;
+        int[] entryRows = new int[(int) total];
+        int[] entryColumns = new int[(int) total];
+        double[] entryValues = new double[(int) total];
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            int length = row < heavyRows ? heavyLength : lightLength;
+            for (int i = 0; i < length; i++) {
+                entryRows[count] = row;
+                entryColumns[count] = random.nextInt(columns);
+                entryValues[count] = random.nextDouble();
+                count++;
+            }
+        }
+        return CsrMatrix.fromCoordinates(rows, columns, entryRows, entryColumns, entryValues, count);
+    }
+}
@@ -0,0 +1,275 @@
+package com.clay.g_parallel_processing_parallelism.parallel_prefix_sum;
+
+import com.clay.g_parallel_processing_parallelism.parallel_graph_algo.ParallelRange;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * A work-efficient parallel prefix scan for primitive arrays based on the three-phase block-sum algorithm.
+ *
+ * The input is cut into a small number of contiguous blocks (a few per worker thread):
+ *
+ * 1. Up-sweep: every block is reduced independently and in parallel to a single block total.
+ * 2. The block totals are scanned sequentially. There are only a handful of them, so this step is negligible.
+ * 3. Down-sweep: every block is scanned again in parallel, seeded with the combined total of all blocks to its left.
+ *
+ * Every element is read twice and written once, so the total work stays O(n) no matter how many threads take part,
+ * unlike a recursive split that patches up the right half after every join.
+ *
+ * The operator must be associative and the identity must be its neutral element (0 for sum, 1 for product,
+ * Long.MIN_VALUE for max, ...). Commutativity is not required because blocks are always combined left to right.
+ * The destination may be the source array itself for an in-place scan.
+ */
+public class ParallelPrefixScan {
+
+    public enum Mode {
+        /** destination[i] = source[0] op ... op source[i] */
+        INCLUSIVE,
+        /** destination[i] = identity op source[0] op ... op source[i - 1] */
+        EXCLUSIVE
+    }
+
+    // Blocks smaller than this are not worth a separate task
+    private static final int MIN_BLOCK_SIZE = 1 << 14;
+    // A few blocks per worker so that a slow worker does not hold up the whole phase
+    private static final int BLOCKS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+
+    public ParallelPrefixScan() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelPrefixScan(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Scans an int array.
+     *
+     * @param source      the values to scan
+     * @param destination the array receiving the scan, may be the source itself
+     * @param mode        inclusive or exclusive scan
+     * @param identity    the neutral element of the operator
+     * @param operator    an associative operator
+     */
+    public void scan(int[] source, int[] destination, Mode mode, int identity, IntBinaryOperator operator) {
+        checkLengths(source.length, destination.length);
+        int n = source.length;
+        int blocks = blockCount(n);
+        if (blocks <= 1) {
+            scanBlock(source, destination, 0, n, identity, mode, operator);
+            return;
+        }
+        int blockSize = blockSize(n, blocks);
+        int[] blockTotals = new int[blocks];
+
+        // Phase 1: reduce every block except the last one, whose total is never needed
+        ParallelRange.forEachChunk(pool, blocks - 1, block -> {
+            int from = block * blockSize;
+            int to = Math.min(n, from + blockSize);
+            int acc = identity;
+            for (int i = from; i < to; i++) {
+                acc = operator.applyAsInt(acc, source[i]);
+            }
+            blockTotals[block] = acc;
+        });
+
+        // Phase 2: exclusive scan of the block totals gives the seed of every block
+        int acc = identity;
+        for (int block = 0; block < blocks; block++) {
+            int total = blockTotals[block];
+            blockTotals[block] = acc;
+            acc = operator.applyAsInt(acc, total);
+        }
+
+        // Phase 3: scan every block starting from its seed
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int from = block * blockSize;
+            int to = Math.min(n, from + blockSize);
+            scanBlock(source, destination, from, to, blockTotals[block], mode, operator);
+        });
+    }
+
+    /**
+     * Scans a long array.
+     *
+     * @param source      the values to scan
+     * @param destination the array receiving the scan, may be the source itself
+     * @param mode        inclusive or exclusive scan
+     * @param identity    the neutral element of the operator
+     * @param operator    an associative operator
+     */
+    public void scan(long[] source, long[] destination, Mode mode, long identity, LongBinaryOperator operator) {
+        checkLengths(source.length, destination.length);
+        int n = source.length;
+        int blocks = blockCount(n);
+        if (blocks <= 1) {
+            scanBlock(source, destination, 0, n, identity, mode, operator);
+            return;
+        }
+        int blockSize = blockSize(n, blocks);
+        long[] blockTotals = new long[blocks];
+
+        // Phase 1: reduce every block except the last one, whose total is never needed
+        ParallelRange.forEachChunk(pool, blocks - 1, block -> {
+            int from = block * blockSize;
+            int to = Math.min(n, from + blockSize);
+            long acc = identity;
+            for (int i = from; i < to; i++) {
+                acc = operator.applyAsLong(acc, source[i]);
+            }
+            blockTotals[block] = acc;
+        });
+
+        // Phase 2: exclusive scan of the block totals gives the seed of every block
+        long acc = identity;
+        for (int block = 0; block < blocks; block++) {
+            long total = blockTotals[block];
+            blockTotals[block] = acc;
+            acc = operator.applyAsLong(acc, total);
+        }
+
+        // Phase 3: scan every block starting from its seed
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int from = block * blockSize;
+            int to = Math.min(n, from + blockSize);
+            scanBlock(source, destination, from, to, blockTotals[block], mode, operator);
+        });
+    }
+
+    /**
+     * Scans a double array. Note that floating point addition is only approximately associative,
+     * so the result may differ from a sequential scan in the last bits.
+     *
+     * @param source      the values to scan
+     * @param destination the array receiving the scan, may be the source itself
+     * @param mode        inclusive or exclusive scan
+     * @param identity    the neutral element of the operator
+     * @param operator    an associative operator
+     */
+    public void scan(double[] source, double[] destination, Mode mode, double identity, DoubleBinaryOperator operator) {
+        checkLengths(source.length, destination.length);
+        int n = source.length;
+        int blocks = blockCount(n);
+        if (blocks <= 1) {
+            scanBlock(source, destination, 0, n, identity, mode, operator);
+            return;
+        }
+        int blockSize = blockSize(n, blocks);
+        double[] blockTotals = new double[blocks];
+
+        // Phase 1: reduce every block except the last one, whose total is never needed
+        ParallelRange.forEachChunk(pool, blocks - 1, block -> {
+            int from = block * blockSize;
+            int to = Math.min(n, from + blockSize);
+            double acc = identity;
+            for (int i = from; i < to; i++) {
+                acc = operator.applyAsDouble(acc, source[i]);
+            }
+            blockTotals[block] = acc;
+        });
+
+        // Phase 2: exclusive scan of the block totals gives the seed of every block
+        double acc = identity;
+        for (int block = 0; block < blocks; block++) {
+            double total = blockTotals[block];
+            blockTotals[block] = acc;
+            acc = operator.applyAsDouble(acc, total);
+        }
+
+        // Phase 3: scan every block starting from its seed
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int from = block * blockSize;
+            int to = Math.min(n, from + blockSize);
+            scanBlock(source, destination, from, to, blockTotals[block], mode, operator);
+        });
+    }
+
+    /**
+     * In-place inclusive prefix sum of an int array.
+     */
+    public void inclusiveSum(int[] values) {
+        scan(values, values, Mode.INCLUSIVE, 0, Integer::sum);
+    }
+
+    /**
+     * In-place inclusive prefix sum of a long array.
+     */
+    public void inclusiveSum(long[] values) {
+        scan(values, values, Mode.INCLUSIVE, 0L, Long::sum);
+    }
+
+    /**
+     * In-place exclusive prefix sum of a long array, the usual way of turning sizes into offsets.
+     */
+    public void exclusiveSum(long[] values) {
+        scan(values, values, Mode.EXCLUSIVE, 0L, Long::sum);
+    }
+
+    private static void scanBlock(int[] source, int[] destination, int from, int to, int seed, Mode mode, IntBinaryOperator operator) {
+        int acc = seed;
+        if (mode == Mode.INCLUSIVE) {
+            for (int i = from; i < to; i++) {
+                acc = operator.applyAsInt(acc, source[i]);
+                destination[i] = acc;
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                int value = source[i]; // Read before writing so that in-place scans work
+                destination[i] = acc;
+                acc = operator.applyAsInt(acc, value);
+            }
+        }
+    }
+
+    private static void scanBlock(long[] source, long[] destination, int from, int to, long seed, Mode mode, LongBinaryOperator operator) {
+        long acc = seed;
+        if (mode == Mode.INCLUSIVE) {
+            for (int i = from; i < to; i++) {
+                acc = operator.applyAsLong(acc, source[i]);
+                destination[i] = acc;
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                long value = source[i]; // Read before writing so that in-place scans work
+                destination[i] = acc;
+                acc = operator.applyAsLong(acc, value);
+            }
+        }
+    }
+
+    private static void scanBlock(double[] source, double[] destination, int from, int to, double seed, Mode mode, DoubleBinaryOperator operator) {
+        double acc = seed;
+        if (mode == Mode.INCLUSIVE) {
+            for (int i = from; i < to; i++) {
+                acc = operator.applyAsDouble(acc, source[i]);
+                destination[i] = acc;
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                double value = source[i]; // Read before writing so that in-place scans work
+                destination[i] = acc;
+                acc = operator.applyAsDouble(acc, value);
+            }
+        }
+    }
+
+    private int blockCount(int n) {
+        int byMinimumSize = (n + MIN_BLOCK_SIZE - 1) / MIN_BLOCK_SIZE;
+        return Math.min(byMinimumSize, pool.getParallelism() * BLOCKS_PER_WORKER);
+    }
+
+    private static int blockSize(int n, int blocks) {
+        return (int) (((long) n + blocks - 1) / blocks);
+    }
+
+    private static void checkLengths(int sourceLength, int destinationLength) {
+        if (sourceLength != destinationLength) {
+            throw new IllegalArgumentException("Source and destination must have the same length");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.clay.g_parallel_processing_parallelism.parallel_prefix_sum;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares ParallelPrefixScan with Arrays.parallelPrefix and a plain sequential loop on a large long array.
+ *
+ * Usage: PrefixScanBenchmark [size] [iterations]
+ *
+ * Each variant is warmed up first and then timed over several iterations on a fresh copy of the same input.
+ * The results of all variants are compared so that a fast but wrong scan is caught immediately.
+ */
+public class PrefixScanBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        long[] input = new Random(42).longs(size, 0, 1_000).toArray();
+        long[] work = new long[size];
+        ParallelPrefixScan scanner = new ParallelPrefixScan(ForkJoinPool.commonPool());
+
+        System.out.println("Elements: " + size + ", threads: " + ForkJoinPool.commonPool().getParallelism());
+
+        long[] expected = input.clone();
+        for (int i = 1; i < expected.length; i++) {
+            expected[i] += expected[i - 1];
+        }
+
+        run("Sequential loop", input, work, work, iterations, expected, () -> {
+            for (int i = 1; i < work.length; i++) {
+                work[i] += work[i - 1];
+            }
+        });
+        run("Arrays.parallelPrefix", input, work, work, iterations, expected, () -> Arrays.parallelPrefix(work, Long::sum));
+        run("ParallelPrefixScan (in place)", input, work, work, iterations, expected, () -> scanner.inclusiveSum(work));
+
+        long[] output = new long[size];
+        run("ParallelPrefixScan (out of place)", input, work, output, iterations, expected,
+                () -> scanner.scan(work, output, ParallelPrefixScan.Mode.INCLUSIVE, 0L, Long::sum));
+    }
+
+    private static void run(String name, long[] input, long[] work, long[] result, int iterations, long[] expected, Runnable scan) {
+        // Warm up so that the JIT has compiled the hot loops before timing
+        for (int i = 0; i < 3; i++) {
+            System.arraycopy(input, 0, work, 0, input.length);
+            scan.run();
+        }
+
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < iterations; i++) {
+            System.arraycopy(input, 0, work, 0, input.length);
+            long start = System.nanoTime();
+            scan.run();
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+
+        if (!Arrays.equals(result, expected)) {
+            throw new IllegalStateException(name + " produced a wrong result");
+        }
+
+        double bestMillis = best / 1e6;
+        System.out.printf("%-36s best %8.2f ms, avg %8.2f ms, %8.1f M elements/s%n",
+                name, bestMillis, total / 1e6 / iterations, input.length / bestMillis / 1e3);
+    }
+}
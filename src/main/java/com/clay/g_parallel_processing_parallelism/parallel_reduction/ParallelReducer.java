@@ -0,0 +1,271 @@
+package com.clay.g_parallel_processing_parallelism.parallel_reduction;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Parallel map-reduce over int, long and double arrays: every element is mapped, and the mapped values are combined
+ * with an associative operator, starting from its identity (0 for sum, 1 for product, Long.MIN_VALUE for max, ...).
+ * The operator does not need to be commutative, because partial results are always combined left to right.
+ * Int elements are mapped to longs, so that sums and sums of squares of ints do not overflow.
+ *
+ * The work is not split down to a fixed threshold. Instead, a task keeps splitting off its right half for other
+ * workers only while its own queue holds few unclaimed tasks (getSurplusQueuedTaskCount). When the other workers
+ * are busy, the queue fills up, and the task reduces the rest of its range itself. This creates just enough tasks
+ * to keep all workers busy: few on a busy pool, more where work is stolen, and no tuning per element cost or
+ * machine. Ranges shorter than a minimum are never split, so that the per-task overhead stays small.
+ *
+ * Results are kept in primitive fields, so unlike a RecursiveTask<Integer> no partial result is boxed.
+ */
+public class ParallelReducer {
+
+    // Splitting stops when more than this many forked tasks wait in the current worker's queue
+    private static final int SURPLUS_LIMIT = 3;
+    // Ranges of up to this many elements are reduced without splitting
+    private static final int MIN_SPLIT_SIZE = 1 << 12;
+
+    private final ForkJoinPool pool;
+
+    public ParallelReducer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelReducer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return the sum of all elements, as a long so that it cannot overflow
+     */
+    public long sum(int[] source) {
+        return mapReduce(source, value -> value, 0, Long::sum);
+    }
+
+    public long sum(long[] source) {
+        return reduce(source, 0, Long::sum);
+    }
+
+    public double sum(double[] source) {
+        return reduce(source, 0, Double::sum);
+    }
+
+    /**
+     * @return identity combined with all elements, for example the maximum with Integer.MIN_VALUE and Math::max
+     */
+    public int reduce(int[] source, int identity, IntBinaryOperator combiner) {
+        return (int) mapReduce(source, value -> value, identity,
+                (left, right) -> combiner.applyAsInt((int) left, (int) right));
+    }
+
+    /**
+     * @return identity combined with the mapped values of all elements
+     */
+    public long mapReduce(int[] source, IntToLongFunction mapper, long identity, LongBinaryOperator combiner) {
+        if (source.length == 0) {
+            return identity;
+        }
+        IntTask task = new IntTask(source, mapper, identity, combiner, 0, source.length, null);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    public long reduce(long[] source, long identity, LongBinaryOperator combiner) {
+        return mapReduce(source, LongUnaryOperator.identity(), identity, combiner);
+    }
+
+    public long mapReduce(long[] source, LongUnaryOperator mapper, long identity, LongBinaryOperator combiner) {
+        if (source.length == 0) {
+            return identity;
+        }
+        LongTask task = new LongTask(source, mapper, identity, combiner, 0, source.length, null);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    public double reduce(double[] source, double identity, DoubleBinaryOperator combiner) {
+        return mapReduce(source, DoubleUnaryOperator.identity(), identity, combiner);
+    }
+
+    public double mapReduce(double[] source, DoubleUnaryOperator mapper, double identity, DoubleBinaryOperator combiner) {
+        if (source.length == 0) {
+            return identity;
+        }
+        DoubleTask task = new DoubleTask(source, mapper, identity, combiner, 0, source.length, null);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    private static boolean shouldSplit(int from, int to) {
+        return to - from > MIN_SPLIT_SIZE && RecursiveAction.getSurplusQueuedTaskCount() <= SURPLUS_LIMIT;
+    }
+
+    /**
+     * Reduces source[from, to). The task forks its right halves as a linked list, reduces what is left, and then
+     * adds the forked results from left to right. A forked task that nobody has stolen yet is taken back with
+     * tryUnfork and reduced directly.
+     */
+    private static class IntTask extends RecursiveAction {
+        private final int[] source;
+        private final IntToLongFunction mapper;
+        private final long identity;
+        private final LongBinaryOperator combiner;
+        private final int from;
+        private final int to;
+        // The next forked task to the right, combined after this one
+        private final IntTask next;
+        private long result;
+
+        IntTask(int[] source, IntToLongFunction mapper, long identity, LongBinaryOperator combiner,
+                int from, int to, IntTask next) {
+            this.source = source;
+            this.mapper = mapper;
+            this.identity = identity;
+            this.combiner = combiner;
+            this.from = from;
+            this.to = to;
+            this.next = next;
+        }
+
+        @Override
+        protected void compute() {
+            int end = to;
+            IntTask right = null;
+            while (shouldSplit(from, end)) {
+                int mid = (from + end) >>> 1;
+                right = new IntTask(source, mapper, identity, combiner, mid, end, right);
+                right.fork();
+                end = mid;
+            }
+            long value = reduceRange(from, end);
+            for (; right != null; right = right.next) {
+                if (right.tryUnfork()) {
+                    value = combiner.applyAsLong(value, right.reduceRange(right.from, right.to));
+                } else {
+                    right.join();
+                    value = combiner.applyAsLong(value, right.result);
+                }
+            }
+            result = value;
+        }
+
+        private long reduceRange(int start, int end) {
+            long value = identity;
+            for (int i = start; i < end; i++) {
+                value = combiner.applyAsLong(value, mapper.applyAsLong(source[i]));
+            }
+            return value;
+        }
+    }
+
+    // The same as IntTask for long elements
+    private static class LongTask extends RecursiveAction {
+        private final long[] source;
+        private final LongUnaryOperator mapper;
+        private final long identity;
+        private final LongBinaryOperator combiner;
+        private final int from;
+        private final int to;
+        private final LongTask next;
+        private long result;
+
+        LongTask(long[] source, LongUnaryOperator mapper, long identity, LongBinaryOperator combiner,
+                 int from, int to, LongTask next) {
+            this.source = source;
+            this.mapper = mapper;
+            this.identity = identity;
+            this.combiner = combiner;
+            this.from = from;
+            this.to = to;
+            this.next = next;
+        }
+
+        @Override
+        protected void compute() {
+            int end = to;
+            LongTask right = null;
+            while (shouldSplit(from, end)) {
+                int mid = (from + end) >>> 1;
+                right = new LongTask(source, mapper, identity, combiner, mid, end, right);
+                right.fork();
+                end = mid;
+            }
+            long value = reduceRange(from, end);
+            for (; right != null; right = right.next) {
+                if (right.tryUnfork()) {
+                    value = combiner.applyAsLong(value, right.reduceRange(right.from, right.to));
+                } else {
+                    right.join();
+                    value = combiner.applyAsLong(value, right.result);
+                }
+            }
+            result = value;
+        }
+
+        private long reduceRange(int start, int end) {
+            long value = identity;
+            for (int i = start; i < end; i++) {
+                value = combiner.applyAsLong(value, mapper.applyAsLong(source[i]));
+            }
+            return value;
+        }
+    }
+
+    // The same as IntTask for double elements
+    private static class DoubleTask extends RecursiveAction {
+        private final double[] source;
+        private final DoubleUnaryOperator mapper;
+        private final double identity;
+        private final DoubleBinaryOperator combiner;
+        private final int from;
+        private final int to;
+        private final DoubleTask next;
+        private double result;
+
+        DoubleTask(double[] source, DoubleUnaryOperator mapper, double identity, DoubleBinaryOperator combiner,
+                   int from, int to, DoubleTask next) {
+            this.source = source;
+            this.mapper = mapper;
+            this.identity = identity;
+            this.combiner = combiner;
+            this.from = from;
+            this.to = to;
+            this.next = next;
+        }
+
+        @Override
+        protected void compute() {
+            int end = to;
+            DoubleTask right = null;
+            while (shouldSplit(from, end)) {
+                int mid = (from + end) >>> 1;
+                right = new DoubleTask(source, mapper, identity, combiner, mid, end, right);
+                right.fork();
+                end = mid;
+            }
+            double value = reduceRange(from, end);
+            for (; right != null; right = right.next) {
+                if (right.tryUnfork()) {
+                    value = combiner.applyAsDouble(value, right.reduceRange(right.from, right.to));
+                } else {
+                    right.join();
+                    value = combiner.applyAsDouble(value, right.result);
+                }
+            }
+            result = value;
+        }
+
+        private double reduceRange(int start, int end) {
+            double value = identity;
+            for (int i = start; i < end; i++) {
+                value = combiner.applyAsDouble(value, mapper.applyAsDouble(source[i]));
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.clay.g_parallel_processing_parallelism.parallel_reduction;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongSupplier;
+
+/**
+ * Compares ParallelReducer with a hand-written fork/join task with a fixed threshold, as the examples used to have,
+ * and with parallel streams, for a sum and a sum of squares of an int array.
+ *
+ * Usage: ReductionBenchmark [size] [iterations]
+ *
+ * Each variant is warmed up first and then timed over several iterations; the best time is reported. All results
+ * are compared with a sequential loop so that a fast but wrong reduction is caught immediately. The values are
+ * small enough for IntStream.sum, which returns an int, not to overflow.
+ */
+public class ReductionBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        int[] numbers = new Random(42).ints(size, 0, 100).toArray();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        ParallelReducer reducer = new ParallelReducer(pool);
+        System.out.println("Elements: " + size + ", threads: " + pool.getParallelism());
+
+        long sum = 0;
+        long sumOfSquares = 0;
+        for (int value : numbers) {
+            sum += value;
+            sumOfSquares += (long) value * value;
+        }
+
+        run("sum", "fixed-threshold task", sum, iterations, () -> pool.invoke(new SumTask(numbers, 0, numbers.length, false)));
+        run("sum", "IntStream.parallel", sum, iterations, () -> Arrays.stream(numbers).parallel().sum());
+        run("sum", "ParallelReducer", sum, iterations, () -> reducer.sum(numbers));
+
+        run("squares", "fixed-threshold task", sumOfSquares, iterations,
+                () -> pool.invoke(new SumTask(numbers, 0, numbers.length, true)));
+        run("squares", "LongStream.parallel", sumOfSquares, iterations,
+                () -> Arrays.stream(numbers).parallel().asLongStream().map(value -> value * value).sum());
+        run("squares", "ParallelReducer", sumOfSquares, iterations,
+                () -> reducer.mapReduce(numbers, value -> (long) value * value, 0, Long::sum));
+    }
+
+    private static void run(String operation, String name, long expected, int iterations, LongSupplier reduction) {
+        // Warm up so that the JIT has compiled the hot loops before timing
+        for (int i = 0; i < 5; i++) {
+            reduction.getAsLong();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            long result = reduction.getAsLong();
+            best = Math.min(best, System.nanoTime() - start);
+            if (result != expected) {
+                throw new IllegalStateException(name + " returned " + result + " instead of " + expected);
+            }
+        }
+        System.out.printf("%-8s %-22s %8.3f ms%n", operation, name, best / 1e6);
+    }
+
+    // The hand-written reduction of ParallelReductionExample, with a long result
+    private static class SumTask extends RecursiveTask<Long> {
+        private static final int THRESHOLD = 1000;
+        private final int[] numbers;
+        private final int start;
+        private final int end;
+        private final boolean squares;
+
+        SumTask(int[] numbers, int start, int end, boolean squares) {
+            this.numbers = numbers;
+            this.start = start;
+            this.end = end;
+            this.squares = squares;
+        }
+
+        @Override
+        protected Long compute() {
+            if (end - start <= THRESHOLD) {
+                long sum = 0;
+                for (int i = start; i < end; i++) {
+                    sum += squares ? (long) numbers[i] * numbers[i] : numbers[i];
+                }
+                return sum;
+            }
+            int mid = (start + end) >>> 1;
+            SumTask left = new SumTask(numbers, start, mid, squares);
+            left.fork();
+            long right = new SumTask(numbers, mid, end, squares).compute();
+            return left.join() + right;
+        }
+    }
+}
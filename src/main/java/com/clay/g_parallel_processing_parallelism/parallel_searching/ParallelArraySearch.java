@@ -0,0 +1,269 @@
+package com.clay.g_parallel_processing_parallelism.parallel_searching;
+
+import com.clay.g_parallel_processing_parallelism.parallel_graph_algo.ParallelRange;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel linear search over int and long arrays.
+ *
+ * The array is cut into blocks that are searched in parallel. All tasks of one search share the result found so
+ * far, and it doubles as the cancellation flag, checked between chunks of a few thousand elements:
+ *
+ * - findAny returns the index of any match and stops all tasks as soon as one task has found one.
+ * - findFirst returns the lowest index of a match. A match only cancels the work to its right: a task stops once a
+ *   match before its own range is known, while tasks further left keep going, since they could still find an
+ *   earlier one.
+ *
+ * The inner loop has no branch per element, so that the JIT can vectorize it. Over 256 elements at a time it
+ * accumulates (v - 1) & ~v for v = element ^ target, whose sign bit is set exactly when v is 0. Only when a chunk
+ * reports a match is it searched again for the exact position.
+ *
+ * The batched mode finds the first index of many targets at once. It puts the targets into a small open-addressing
+ * hash index and then reads the array a single time, looking up every element in the index. This replaces one
+ * pass over the array per target with a single pass.
+ */
+public class ParallelArraySearch {
+
+    public static final int NOT_FOUND = -1;
+
+    // Elements per branch-free scan
+    private static final int SCAN_CHUNK = 256;
+    // Elements between two checks of the shared result
+    private static final int CHECK_INTERVAL = 1 << 14;
+    // Every block should be large enough to amortize its task
+    private static final int MIN_BLOCK_SIZE = 1 << 16;
+    private static final int BLOCKS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+
+    public ParallelArraySearch(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return the lowest index of the target, or NOT_FOUND
+     */
+    public int findFirst(int[] array, int target) {
+        return search(array.length, true, (from, to) -> scan(array, target, from, to));
+    }
+
+    /**
+     * @return the index of some occurrence of the target, or NOT_FOUND
+     */
+    public int findAny(int[] array, int target) {
+        return search(array.length, false, (from, to) -> scan(array, target, from, to));
+    }
+
+    public int findFirst(long[] array, long target) {
+        return search(array.length, true, (from, to) -> scan(array, target, from, to));
+    }
+
+    public int findAny(long[] array, long target) {
+        return search(array.length, false, (from, to) -> scan(array, target, from, to));
+    }
+
+    /**
+     * Finds the first index of every target in one pass over the array.
+     *
+     * @return for every target, the lowest index at which it occurs in the array, or NOT_FOUND
+     */
+    public int[] findFirst(int[] array, int[] targets) {
+        TargetIndex index = new TargetIndex(Arrays.stream(targets).asLongStream().toArray());
+        int[] first = findAll(array.length, index, (from, to, firstInBlock) -> {
+            int remaining = index.size();
+            for (int i = from; i < to && remaining > 0; i++) {
+                int target = index.find(array[i]);
+                if (target >= 0 && firstInBlock[target] == NOT_FOUND) {
+                    firstInBlock[target] = i;
+                    remaining--;
+                }
+            }
+        });
+        return index.resultsFor(first);
+    }
+
+    public int[] findFirst(long[] array, long[] targets) {
+        TargetIndex index = new TargetIndex(targets);
+        int[] first = findAll(array.length, index, (from, to, firstInBlock) -> {
+            int remaining = index.size();
+            for (int i = from; i < to && remaining > 0; i++) {
+                int target = index.find(array[i]);
+                if (target >= 0 && firstInBlock[target] == NOT_FOUND) {
+                    firstInBlock[target] = i;
+                    remaining--;
+                }
+            }
+        });
+        return index.resultsFor(first);
+    }
+
+    private int search(int n, boolean first, RangeScan scan) {
+        if (n == 0) {
+            return NOT_FOUND;
+        }
+        // The best index so far, Integer.MAX_VALUE while nothing has been found
+        AtomicInteger found = new AtomicInteger(Integer.MAX_VALUE);
+        int blocks = blockCount(n);
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int from = ParallelRange.chunkStart(block, blocks, n); from < end; from += CHECK_INTERVAL) {
+                int best = found.get();
+                if (first ? best < from : best != Integer.MAX_VALUE) {
+                    return;
+                }
+                int index = scan.find(from, Math.min(end, from + CHECK_INTERVAL));
+                if (index != NOT_FOUND) {
+                    // Later matches in this block can only be larger
+                    found.accumulateAndGet(index, Math::min);
+                    return;
+                }
+            }
+        });
+        int result = found.get();
+        return result == Integer.MAX_VALUE ? NOT_FOUND : result;
+    }
+
+    /**
+     * @return the lowest index of every distinct target over all blocks
+     */
+    private int[] findAll(int n, TargetIndex index, BlockLookup lookup) {
+        int blocks = blockCount(n);
+        int[][] firstPerBlock = new int[blocks][];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int[] firstInBlock = new int[index.size()];
+            Arrays.fill(firstInBlock, NOT_FOUND);
+            lookup.scan(ParallelRange.chunkStart(block, blocks, n), ParallelRange.chunkStart(block + 1, blocks, n),
+                    firstInBlock);
+            firstPerBlock[block] = firstInBlock;
+        });
+        // The blocks are in index order, so the first block that found a target has its lowest index
+        int[] first = new int[index.size()];
+        Arrays.fill(first, NOT_FOUND);
+        for (int[] firstInBlock : firstPerBlock) {
+            for (int target = 0; target < first.length; target++) {
+                if (first[target] == NOT_FOUND) {
+                    first[target] = firstInBlock[target];
+                }
+            }
+        }
+        return first;
+    }
+
+    private static int scan(int[] array, int target, int from, int to) {
+        for (int chunk = from; chunk < to; chunk += SCAN_CHUNK) {
+            int end = Math.min(to, chunk + SCAN_CHUNK);
+            int zero = 0;
+            for (int i = chunk; i < end; i++) {
+                int difference = array[i] ^ target;
+                zero |= (difference - 1) & ~difference;
+            }
+            if (zero < 0) {
+                for (int i = chunk; i < end; i++) {
+                    if (array[i] == target) {
+                        return i;
+                    }
+                }
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private static int scan(long[] array, long target, int from, int to) {
+        for (int chunk = from; chunk < to; chunk += SCAN_CHUNK) {
+            int end = Math.min(to, chunk + SCAN_CHUNK);
+            long zero = 0;
+            for (int i = chunk; i < end; i++) {
+                long difference = array[i] ^ target;
+                zero |= (difference - 1) & ~difference;
+            }
+            if (zero < 0) {
+                for (int i = chunk; i < end; i++) {
+                    if (array[i] == target) {
+                        return i;
+                    }
+                }
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private int blockCount(int n) {
+        int bySize = Math.max(1, n / MIN_BLOCK_SIZE);
+        return Math.min(bySize, pool.getParallelism() * BLOCKS_PER_WORKER);
+    }
+
+    // Returns the lowest index of the target in from ... to - 1, or NOT_FOUND
+    private interface RangeScan {
+        int find(int from, int to);
+    }
+
+    // Records the first index of every target in from ... to - 1
+    private interface BlockLookup {
+        void scan(int from, int to, int[] firstInBlock);
+    }
+
+    /**
+     * Maps the distinct targets of a batch to consecutive numbers with open addressing and linear probing.
+     */
+    private static class TargetIndex {
+        private final long[] keys;
+        // The number of the target in a slot plus 1, 0 for an empty slot
+        private final int[] numbers;
+        // The number of every requested target, in the order of the request
+        private final int[] requested;
+        // Fibonacci hashing: the upper bits of value * 2^64 / golden ratio select the slot
+        private final int shift;
+        private int size;
+
+        TargetIndex(long[] targets) {
+            // At least twice as many slots as targets
+            int capacity = Integer.highestOneBit(Math.max(1, targets.length) * 4 - 1);
+            shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+            keys = new long[capacity];
+            numbers = new int[capacity];
+            requested = new int[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                int slot = slotOf(targets[i]);
+                if (numbers[slot] == 0) {
+                    keys[slot] = targets[i];
+                    numbers[slot] = ++size;
+                }
+                requested[i] = numbers[slot] - 1;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return the number of the target, or -1 if the value is not a target
+         */
+        int find(long value) {
+            return numbers[slotOf(value)] - 1;
+        }
+
+        private int slotOf(long value) {
+            int mask = keys.length - 1;
+            int slot = (int) ((value * 0x9e3779b97f4a7c15L) >>> shift) & mask;
+            while (numbers[slot] != 0 && keys[slot] != value) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * @return the result of every requested target, given the results of the distinct targets
+         */
+        int[] resultsFor(int[] perTarget) {
+            int[] results = new int[requested.length];
+            for (int i = 0; i < requested.length; i++) {
+                results[i] = perTarget[requested[i]];
+            }
+            return results;
+        }
+    }
+}
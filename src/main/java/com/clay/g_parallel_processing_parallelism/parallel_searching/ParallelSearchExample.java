@@ -1,81 +1,57 @@
 package com.clay.g_parallel_processing_parallelism.parallel_searching;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Random;
-import java.util.concurrent.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * In this example, we have a list of numbers and we want to search for a specific target value in parallel. The list is divided into smaller sublists, and each sublist is searched concurrently by separate threads. The search is performed by the ParallelSearchTask class, which implements the Callable interface to support returning the result from each thread.
+ * In this example, we have an array of numbers and we want to search for a specific target value in parallel. The array is divided into blocks, and the blocks are searched concurrently by the threads of a ForkJoinPool. The search is performed by ParallelArraySearch.
  *
- * The main logic splits the list into sublists, submits each sublist to a thread in the thread pool, and collects the search results. If the target is found in any sublist, the program prints the index where it was found. If the target is not found in any sublist, it prints a message indicating that the target was not found.
+ * All blocks share the result found so far. As soon as a match is known, the blocks that cannot improve on it stop scanning: for findAny every block, for findFirst every block to the right of the match. The batched search answers several targets in a single pass over the array.
+ *
+ * Finally, ParallelSelection finds the largest values and the median without sorting the array.
  */
 public class ParallelSearchExample {
 
     public static void main(String[] args) {
-        List<Integer> numbers = generateRandomList(1000);
-        System.out.println(numbers);
+        int[] numbers = generateRandomArray(1000);
+        System.out.println(Arrays.toString(numbers));
         int target = 42;
 
-        // Split the list into smaller sublists for parallel search
-        int numThreads = Runtime.getRuntime().availableProcessors();
-        ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
-        List<Future<Integer>> futures = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            ParallelArraySearch search = new ParallelArraySearch(pool);
 
-        int sublistSize = numbers.size() / numThreads;
-        for (int i = 0; i < numThreads; i++) {
-            int startIndex = i * sublistSize;
-            int endIndex = (i == numThreads - 1) ? numbers.size() : (i + 1) * sublistSize;
-            List<Integer> sublist = numbers.subList(startIndex, endIndex);
-            Future<Integer> future = executorService.submit(new ParallelSearchTask(sublist, target, startIndex));
-            futures.add(future);
-        }
+            int first = search.findFirst(numbers, target);
+            if (first != ParallelArraySearch.NOT_FOUND) {
+                System.out.println("Target first found at index: " + first);
+                System.out.println("Target also found at index: " + search.findAny(numbers, target));
+            } else {
+                System.out.println("Target not found in the array.");
+            }
 
-        // Collect the search results from all the threads
-        for (Future<Integer> future : futures) {
-            try {
-                int result = future.get();
-                if (result != -1) {
-                    System.out.println("Target found at index: " + result);
-                    return;
-                }
-            } catch (InterruptedException | ExecutionException e) {
-                e.printStackTrace();
+            int[] targets = {7, 42, 99, 1000};
+            int[] indexes = search.findFirst(numbers, targets);
+            for (int i = 0; i < targets.length; i++) {
+                System.out.println("First index of " + targets[i] + ": " + indexes[i]);
             }
-        }
 
-        System.out.println("Target not found in the list.");
-        executorService.shutdown();
+            // Selection finds the best values without sorting the array
+            ParallelSelection selection = new ParallelSelection(pool);
+            System.out.println("Top 5: " + Arrays.toString(selection.largest(numbers, 5)));
+            System.out.println("Median: " + selection.kthSmallest(numbers, numbers.length / 2));
+        } finally {
+            // Release the worker threads also when the search fails
+            pool.shutdown();
+        }
     }
 
-    private static List<Integer> generateRandomList(int size) {
+    private static int[] generateRandomArray(int size) {
         Random random = new Random();
-        List<Integer> list = new ArrayList<>();
+        int[] array = new int[size];
         for (int i = 0; i < size; i++) {
-            list.add(random.nextInt(100));
-        }
-        return list;
-    }
-
-    private static class ParallelSearchTask implements Callable<Integer> {
-        private List<Integer> list;
-        private int target;
-        private int startIndex;
-
-        public ParallelSearchTask(List<Integer> list, int target, int startIndex) {
-            this.list = list;
-            this.target = target;
-            this.startIndex = startIndex;
-        }
-
-        @Override
-        public Integer call() {
-            for (int i = 0; i < list.size(); i++) {
-                if (list.get(i) == target) {
-                    return startIndex + i; // Return the absolute index in the original list
-                }
-            }
-            return -1; // Target not found in this sublist
+            array[i] = random.nextInt(100);
         }
+        return array;
     }
 }
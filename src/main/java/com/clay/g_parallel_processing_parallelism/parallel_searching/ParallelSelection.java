@@ -0,0 +1,330 @@
+package com.clay.g_parallel_processing_parallelism.parallel_searching;
+
+import com.clay.g_parallel_processing_parallelism.parallel_graph_algo.ParallelRange;
+import com.clay.g_parallel_processing_parallelism.parallel_sorting.ParallelRadixSort;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Finds the k smallest or largest values, or the value of a given rank, of an int array in parallel, without
+ * sorting the whole array. The array is not modified.
+ *
+ * For small k, every block of the array keeps the k best values it has seen in a bounded heap. Most elements are
+ * rejected with a single comparison against the root of the heap. At the end, the few block heaps are merged.
+ *
+ * For large k, the heaps would grow too large, so the value of rank k is found by a parallel quickselect. A sorted
+ * random sample of the remaining values gives two pivots close to the wanted rank, one a little below and one a
+ * little above it. One parallel pass counts the values below, between and above the pivots, and a second pass
+ * copies only the part that contains the rank into a buffer. The band between the pivots holds the rank with high
+ * probability and only a few percent of the values, so every round shrinks the data by more than ten times. The k
+ * best values are then all values beyond the found one, plus copies of it up to k.
+ *
+ * The largest values are found as the smallest values of ~x, which reverses the order of ints without the overflow
+ * of -x.
+ */
+public class ParallelSelection {
+
+    // Up to this k the block heaps are used
+    private static final int HEAP_LIMIT = 4096;
+    // Quickselect finishes by sorting when this few values are left
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 15;
+    private static final int SAMPLE_SIZE = 1024;
+    // Sample positions between the wanted rank and each pivot, about three standard deviations of the rank
+    private static final int SAMPLE_MARGIN = 48;
+    // Every block should be large enough to amortize its task
+    private static final int MIN_BLOCK_SIZE = 1 << 16;
+    private static final int BLOCKS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+    private final ParallelRadixSort radixSort;
+
+    public ParallelSelection(ForkJoinPool pool) {
+        this.pool = pool;
+        this.radixSort = new ParallelRadixSort(pool);
+    }
+
+    /**
+     * @return the k smallest values in ascending order
+     */
+    public int[] smallest(int[] array, int k) {
+        checkCount(array, k);
+        if (k <= HEAP_LIMIT) {
+            return heapSelect(array, k, 0);
+        }
+        int threshold = select(array, k - 1);
+        return collect(array, k, threshold, false);
+    }
+
+    /**
+     * @return the k largest values in descending order
+     */
+    public int[] largest(int[] array, int k) {
+        checkCount(array, k);
+        if (k <= HEAP_LIMIT) {
+            return heapSelect(array, k, -1);
+        }
+        int threshold = select(array, array.length - k);
+        int[] result = collect(array, k, threshold, true);
+        for (int i = 0, j = k - 1; i < j; i++, j--) {
+            int swap = result[i];
+            result[i] = result[j];
+            result[j] = swap;
+        }
+        return result;
+    }
+
+    /**
+     * @param rank the 0-based position in ascending order, 0 for the minimum and length / 2 for the median
+     * @return the value that would be at this position if the array was sorted
+     */
+    public int kthSmallest(int[] array, int rank) {
+        if (rank < 0 || rank >= array.length) {
+            throw new IllegalArgumentException("Rank " + rank + " is outside of the array");
+        }
+        if (rank < HEAP_LIMIT) {
+            return heapSelect(array, rank + 1, 0)[rank];
+        }
+        if (array.length - rank <= HEAP_LIMIT) {
+            return heapSelect(array, array.length - rank, -1)[array.length - rank - 1];
+        }
+        return select(array, rank);
+    }
+
+    private static void checkCount(int[] array, int k) {
+        if (k < 0 || k > array.length) {
+            throw new IllegalArgumentException("Cannot select " + k + " of " + array.length + " values");
+        }
+    }
+
+    /**
+     * Keeps the k smallest values of x ^ mask in one bounded max-heap per block.
+     *
+     * @param mask 0 for the smallest values, -1 for the largest
+     * @return the selected values, best first
+     */
+    private int[] heapSelect(int[] array, int k, int mask) {
+        int n = array.length;
+        if (k == 0) {
+            return new int[0];
+        }
+        int blocks = blockCount(n);
+        int[][] heaps = new int[blocks][];
+        int[] heapSizes = new int[blocks];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int[] heap = new int[k];
+            int size = 0;
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                int value = array[i] ^ mask;
+                if (size < k) {
+                    siftUp(heap, size++, value);
+                } else if (value < heap[0]) {
+                    siftDown(heap, k, value);
+                }
+            }
+            heaps[block] = heap;
+            heapSizes[block] = size;
+        });
+
+        int[] merged = heaps[0];
+        int size = heapSizes[0];
+        for (int block = 1; block < blocks; block++) {
+            for (int i = 0; i < heapSizes[block]; i++) {
+                int value = heaps[block][i];
+                if (size < k) {
+                    siftUp(merged, size++, value);
+                } else if (value < merged[0]) {
+                    siftDown(merged, k, value);
+                }
+            }
+        }
+        Arrays.sort(merged, 0, size);
+        for (int i = 0; i < size; i++) {
+            merged[i] ^= mask;
+        }
+        return merged;
+    }
+
+    // Adds the value at position size of a max-heap
+    private static void siftUp(int[] heap, int size, int value) {
+        int position = size;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = value;
+    }
+
+    // Replaces the root of a full max-heap with a smaller value
+    private static void siftDown(int[] heap, int size, int value) {
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = value;
+    }
+
+    /**
+     * @return the value of the given rank, by parallel sample-based quickselect
+     */
+    private int select(int[] array, int rank) {
+        int[] source = array;
+        int size = array.length;
+        // The buffer that is not the current source, reused for the next round
+        int[] spare = null;
+        // Set after a round in which the band between the pivots held all values
+        boolean singlePivot = false;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (size > SEQUENTIAL_THRESHOLD) {
+            int[] sample = new int[SAMPLE_SIZE];
+            for (int i = 0; i < SAMPLE_SIZE; i++) {
+                sample[i] = source[random.nextInt(size)];
+            }
+            Arrays.sort(sample);
+            int position = (int) ((long) rank * SAMPLE_SIZE / size);
+            int low = singlePivot ? sample[position] : sample[Math.max(0, position - SAMPLE_MARGIN)];
+            int high = singlePivot ? low : sample[Math.min(SAMPLE_SIZE - 1, position + SAMPLE_MARGIN)];
+
+            int[] data = source;
+            int length = size;
+            int blocks = blockCount(length);
+            int[] below = new int[blocks];
+            int[] inside = new int[blocks];
+            ParallelRange.forEachChunk(pool, blocks, block -> {
+                int start = ParallelRange.chunkStart(block, blocks, length);
+                int end = ParallelRange.chunkStart(block + 1, blocks, length);
+                int countBelow = 0;
+                int countAbove = 0;
+                for (int i = start; i < end; i++) {
+                    int value = data[i];
+                    // Branch-free: the sign bit of the long difference is the result of the comparison
+                    countBelow += (int) (((long) value - low) >>> 63);
+                    countAbove += (int) (((long) high - value) >>> 63);
+                }
+                below[block] = countBelow;
+                inside[block] = end - start - countBelow - countAbove;
+            });
+            int totalBelow = 0;
+            int totalInside = 0;
+            for (int block = 0; block < blocks; block++) {
+                totalBelow += below[block];
+                totalInside += inside[block];
+            }
+
+            // 0: below the low pivot, 1: between the pivots, 2: above the high pivot
+            int side;
+            int sideSize;
+            if (rank < totalBelow) {
+                side = 0;
+                sideSize = totalBelow;
+            } else if (rank < totalBelow + totalInside) {
+                if (low == high) {
+                    return low;
+                }
+                if (totalInside == size) {
+                    // Few distinct values: split at a single value next time, which always makes progress
+                    singlePivot = true;
+                    continue;
+                }
+                side = 1;
+                sideSize = totalInside;
+                rank -= totalBelow;
+            } else {
+                side = 2;
+                sideSize = size - totalBelow - totalInside;
+                rank -= totalBelow + totalInside;
+            }
+            singlePivot = false;
+
+            // Every block copies its values of the chosen side to consecutive positions
+            int rangeStart = side == 0 ? Integer.MIN_VALUE : side == 1 ? low : high + 1;
+            int rangeWidth = (side == 0 ? low - 1 : side == 1 ? high : Integer.MAX_VALUE) - rangeStart;
+            int[] offsets = new int[blocks];
+            for (int block = 1; block < blocks; block++) {
+                int previous = block - 1;
+                int previousSize = ParallelRange.chunkStart(block, blocks, length)
+                        - ParallelRange.chunkStart(previous, blocks, length);
+                int count = side == 0 ? below[previous] : side == 1 ? inside[previous]
+                        : previousSize - below[previous] - inside[previous];
+                offsets[block] = offsets[previous] + count;
+            }
+            int[] target = spare != null && spare.length >= sideSize ? spare : new int[sideSize];
+            ParallelRange.forEachChunk(pool, blocks, block -> {
+                int out = offsets[block];
+                int end = ParallelRange.chunkStart(block + 1, blocks, length);
+                for (int i = ParallelRange.chunkStart(block, blocks, length); i < end; i++) {
+                    int value = data[i];
+                    // An unsigned comparison checks both ends of the range at once
+                    if (Integer.compareUnsigned(value - rangeStart, rangeWidth) <= 0) {
+                        target[out++] = value;
+                    }
+                }
+            });
+            spare = source == array ? null : source;
+            source = target;
+            size = sideSize;
+        }
+        int[] rest = source == array ? Arrays.copyOf(array, size) : source;
+        Arrays.sort(rest, 0, size);
+        return rest[rank];
+    }
+
+    /**
+     * @param threshold the value of rank k - 1 in the wanted order
+     * @param largest   whether the values above the threshold are wanted, otherwise the values below it
+     * @return the k values beyond the threshold, padded with copies of the threshold, in ascending order
+     */
+    private int[] collect(int[] array, int k, int threshold, boolean largest) {
+        int n = array.length;
+        int blocks = blockCount(n);
+        int[] counts = new int[blocks];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int count = 0;
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                count += (largest ? array[i] > threshold : array[i] < threshold) ? 1 : 0;
+            }
+            counts[block] = count;
+        });
+        int[] offsets = new int[blocks + 1];
+        for (int block = 0; block < blocks; block++) {
+            offsets[block + 1] = offsets[block] + counts[block];
+        }
+        int[] result = new int[k];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int out = offsets[block];
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                int value = array[i];
+                if (largest ? value > threshold : value < threshold) {
+                    result[out++] = value;
+                }
+            }
+        });
+        Arrays.fill(result, offsets[blocks], k, threshold);
+        radixSort.sort(result);
+        return result;
+    }
+
+    private int blockCount(int n) {
+        int bySize = Math.max(1, n / MIN_BLOCK_SIZE);
+        return Math.min(bySize, pool.getParallelism() * BLOCKS_PER_WORKER);
+    }
+}
@@ -0,0 +1,93 @@
+package com.clay.g_parallel_processing_parallelism.parallel_searching;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Compares ParallelArraySearch with a sequential loop and a parallel stream, and the batched search with one search
+ * per target.
+ *
+ * Usage: SearchBenchmark [size] [iterations]
+ *
+ * The array holds distinct values, and the target is placed near the start, in the middle, or not at all, which
+ * shows how early the searches stop. Every result is checked against the known position.
+ */
+public class SearchBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        ParallelArraySearch search = new ParallelArraySearch(pool);
+        System.out.println("Elements: " + size + ", threads: " + pool.getParallelism());
+
+        // Distinct values, so every target has exactly one position
+        int[] array = IntStream.range(0, size).map(i -> i * 2).toArray();
+        int[] positions = {size / 100, size / 2, ParallelArraySearch.NOT_FOUND};
+        for (int position : positions) {
+            int target = position == ParallelArraySearch.NOT_FOUND ? -1 : array[position];
+            String name = position == ParallelArraySearch.NOT_FOUND ? "absent" : "at " + position;
+            System.out.println("Target " + name);
+            run("sequential loop", position, iterations, () -> {
+                for (int i = 0; i < array.length; i++) {
+                    if (array[i] == target) {
+                        return i;
+                    }
+                }
+                return ParallelArraySearch.NOT_FOUND;
+            });
+            run("stream findFirst", position, iterations, () -> IntStream.range(0, array.length).parallel()
+                    .filter(i -> array[i] == target).findFirst().orElse(ParallelArraySearch.NOT_FOUND));
+            run("findFirst", position, iterations, () -> search.findFirst(array, target));
+            run("findAny", position, iterations, () -> search.findAny(array, target));
+        }
+
+        // Batched: 64 targets, half of them present
+        Random random = new Random(42);
+        int[] targets = new int[64];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = i % 2 == 0 ? array[random.nextInt(size)] : -1 - i;
+        }
+        int[] expected = new int[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            expected[i] = search.findFirst(array, targets[i]);
+        }
+        System.out.println(targets.length + " targets");
+        run("one findFirst per target", 0, iterations, () -> {
+            for (int i = 0; i < targets.length; i++) {
+                if (search.findFirst(array, targets[i]) != expected[i]) {
+                    return 1;
+                }
+            }
+            return 0;
+        });
+        run("batched findFirst", 0, iterations, () -> {
+            int[] found = search.findFirst(array, targets);
+            for (int i = 0; i < targets.length; i++) {
+                if (found[i] != expected[i]) {
+                    return 1;
+                }
+            }
+            return 0;
+        });
+    }
+
+    private static void run(String name, int expected, int iterations, IntSupplier search) {
+        // Warm up so that the JIT has compiled the hot loops
+        for (int i = 0; i < 3; i++) {
+            search.getAsInt();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            int result = search.getAsInt();
+            best = Math.min(best, System.nanoTime() - start);
+            if (result != expected) {
+                throw new IllegalStateException(name + " returned " + result + " instead of " + expected);
+            }
+        }
+        System.out.printf("  %-26s %8.3f ms%n", name, best / 1e6);
+    }
+}
@@ -0,0 +1,65 @@
+package com.clay.g_parallel_processing_parallelism.parallel_searching;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Compares ParallelSelection with sorting a copy of the array by Arrays.parallelSort and taking the values from its
+ * end, for small and large k.
+ *
+ * Usage: TopKBenchmark [size] [iterations]
+ *
+ * Small k uses the block heaps, large k the parallel quickselect. Every result is compared with the sorted array.
+ */
+public class TopKBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        ParallelSelection selection = new ParallelSelection(pool);
+        System.out.println("Elements: " + size + ", threads: " + pool.getParallelism());
+
+        int[] array = new Random(42).ints(size).toArray();
+        int[] sorted = array.clone();
+        Arrays.parallelSort(sorted);
+
+        for (int k : new int[]{100, 4096, size / 100, size / 2}) {
+            int[] expected = new int[k];
+            for (int i = 0; i < k; i++) {
+                expected[i] = sorted[size - 1 - i];
+            }
+            System.out.println("Top " + k);
+            run("sort and take", expected, iterations, () -> {
+                int[] copy = array.clone();
+                Arrays.parallelSort(copy);
+                int[] top = new int[k];
+                for (int i = 0; i < k; i++) {
+                    top[i] = copy[size - 1 - i];
+                }
+                return top;
+            });
+            run("ParallelSelection", expected, iterations, () -> selection.largest(array, k));
+        }
+        System.out.println("Median");
+        int median = sorted[size / 2];
+        run("ParallelSelection", new int[]{median}, iterations, () -> new int[]{selection.kthSmallest(array, size / 2)});
+    }
+
+    private static void run(String name, int[] expected, int iterations, Supplier<int[]> selection) {
+        // Warm up so that the JIT has compiled the hot loops
+        selection.get();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            int[] result = selection.get();
+            best = Math.min(best, System.nanoTime() - start);
+            if (!Arrays.equals(result, expected)) {
+                throw new IllegalStateException(name + " returned wrong values");
+            }
+        }
+        System.out.printf("  %-18s %9.2f ms%n", name, best / 1e6);
+    }
+}
@@ -0,0 +1,462 @@
+package com.clay.g_parallel_processing_parallelism.parallel_sorting;
+
+import com.clay.g_parallel_processing_parallelism.parallel_graph_algo.ParallelRange;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Sorts files of fixed-width binary records that are larger than the heap.
+ *
+ * Records are ordered by a key at a fixed position within the record, compared as unsigned bytes (like memcmp).
+ * The sort is stable: records with equal keys keep their order from the input file.
+ *
+ * 1. Run creation: the input is memory-mapped one run at a time, and every run is sorted in the heap in parallel.
+ *    The first 8 key bytes of every record are packed into a long, and the (prefix, record index) pairs are sorted
+ *    by ParallelRadixSort. Only records with equal prefixes still need a comparison of their remaining key bytes.
+ *    The records are then copied in sorted order into one buffer, in parallel, and written to a temporary file in
+ *    one sequential write.
+ * 2. Merge: up to fanIn runs at a time are merged into one, with a loser tree that finds the next record with
+ *    log2(fanIn) comparisons. Every run is read through its own large buffer, so that the disk sees long
+ *    sequential reads instead of seeks between the runs. Passes repeat until one run is left, and the last pass
+ *    writes the output file. Input that fits into a single run is written to the output directly.
+ *
+ * The memory budget limits the heap used by the buffers: the records of a run plus 24 bytes per record for the
+ * sort, or one buffer per merged run and one for the output. It does not limit the mapped input, which the
+ * operating system pages in and out by itself.
+ */
+public class ExternalMergeSort {
+
+    // Bytes of heap per record of a run besides the record itself: prefix and index, and their radix sort buffers
+    private static final int SORT_BYTES_PER_RECORD = 24;
+    // Records per block when the work on a run is split up
+    private static final int BLOCK_RECORDS = 1 << 15;
+    // Ranges of records with equal prefixes up to this length are insertion sorted
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final ForkJoinPool pool;
+    private final ParallelRadixSort radixSort;
+    private final int recordSize;
+    private final int keyOffset;
+    private final int keyLength;
+    private long memoryBudget = 256L << 20;
+    private long runSize = Long.MAX_VALUE;
+    private int fanIn = 64;
+    private Path tempDirectory;
+    private volatile ExternalSortMetrics metrics;
+
+    /**
+     * @param pool       sorts the runs
+     * @param recordSize the size of every record in bytes
+     * @param keyOffset  the position of the key within a record
+     * @param keyLength  the size of the key in bytes
+     */
+    public ExternalMergeSort(ForkJoinPool pool, int recordSize, int keyOffset, int keyLength) {
+        if (recordSize <= 0 || keyOffset < 0 || keyLength <= 0 || (long) keyOffset + keyLength > recordSize) {
+            throw new IllegalArgumentException("The key must lie within the record");
+        }
+        this.pool = pool;
+        this.radixSort = new ParallelRadixSort(pool);
+        this.recordSize = recordSize;
+        this.keyOffset = keyOffset;
+        this.keyLength = keyLength;
+    }
+
+    /**
+     * Sets the heap the sort may use for its buffers, 256 MB by default.
+     */
+    public void setMemoryBudget(long bytes) {
+        if (bytes < (long) 2 * recordSize + SORT_BYTES_PER_RECORD) {
+            throw new IllegalArgumentException("The memory budget does not fit a single record");
+        }
+        this.memoryBudget = bytes;
+    }
+
+    /**
+     * Limits the bytes per sorted run. By default a run is as large as the memory budget allows.
+     */
+    public void setRunSize(long bytes) {
+        if (bytes < recordSize) {
+            throw new IllegalArgumentException("A run must hold at least one record");
+        }
+        this.runSize = bytes;
+    }
+
+    /**
+     * Sets the number of runs merged at once, 64 by default. A larger fan-in needs fewer passes over the data,
+     * but the memory budget is split into smaller buffers.
+     */
+    public void setFanIn(int fanIn) {
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("At least two runs must be merged at once");
+        }
+        this.fanIn = fanIn;
+    }
+
+    /**
+     * Sets the directory for the runs, the default temporary directory if null.
+     */
+    public void setTempDirectory(Path tempDirectory) {
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * @return the metrics of the sort that runs or ran last, null before the first sort
+     */
+    public ExternalSortMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sorts the records of the input file into the output file, which is created or replaced.
+     *
+     * @throws IOException if a file cannot be read or written, or the input size is not a multiple of the record size
+     */
+    public ExternalSortMetrics sort(Path input, Path output) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        // Every temporary file, so that all are deleted even if the sort fails
+        List<Path> temporary = new ArrayList<>();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size % recordSize != 0) {
+                throw new IOException("The size of " + input + " is not a multiple of " + recordSize + " bytes");
+            }
+            long records = size / recordSize;
+            int recordsPerRun = recordsPerRun();
+            int runCount = (int) Math.max(1, (records + recordsPerRun - 1) / recordsPerRun);
+            int passes = 0;
+            for (int remaining = runCount; remaining > 1; remaining = (remaining + fanIn - 1) / fanIn) {
+                passes++;
+            }
+            ExternalSortMetrics sortMetrics = new ExternalSortMetrics(size, runCount, passes);
+            metrics = sortMetrics;
+
+            if (runCount == 1) {
+                createRun(in, 0, (int) records, output, sortMetrics);
+            } else {
+                for (long first = 0; first < records; first += recordsPerRun) {
+                    Path run = createRunFile(temporary);
+                    runs.add(run);
+                    createRun(in, first, (int) Math.min(recordsPerRun, records - first), run, sortMetrics);
+                }
+            }
+
+            sortMetrics.setPhase(ExternalSortMetrics.Phase.MERGING);
+            int bufferSize = mergeBufferSize();
+            while (runs.size() > 1) {
+                boolean last = runs.size() <= fanIn;
+                List<Path> merged = new ArrayList<>();
+                // Consecutive runs are merged, so that earlier records stay first among equal keys
+                for (int from = 0; from < runs.size(); from += fanIn) {
+                    List<Path> group = runs.subList(from, Math.min(from + fanIn, runs.size()));
+                    Path target = last ? output : createRunFile(temporary);
+                    if (!last) {
+                        merged.add(target);
+                    }
+                    merge(group, target, bufferSize, sortMetrics);
+                    for (Path run : group) {
+                        Files.delete(run);
+                    }
+                }
+                runs = merged;
+                sortMetrics.mergePassDone();
+            }
+            sortMetrics.setPhase(ExternalSortMetrics.Phase.DONE);
+            return sortMetrics;
+        } finally {
+            for (Path file : temporary) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private int recordsPerRun() {
+        long byBudget = memoryBudget / (recordSize + SORT_BYTES_PER_RECORD);
+        long bySize = runSize / recordSize;
+        long byArraySize = MAX_ARRAY_SIZE / recordSize;
+        return (int) Math.max(1, Math.min(byBudget, Math.min(bySize, byArraySize)));
+    }
+
+    /**
+     * @return the size of the buffer for every merged run and for the output, a multiple of the record size
+     */
+    private int mergeBufferSize() {
+        long perBuffer = memoryBudget / (Math.min(fanIn, Integer.MAX_VALUE - 1) + 1);
+        long records = Math.max(1, Math.min(perBuffer, MAX_ARRAY_SIZE) / recordSize);
+        return (int) (records * recordSize);
+    }
+
+    private Path createRunFile(List<Path> temporary) throws IOException {
+        Path file = tempDirectory == null ? Files.createTempFile("run", ".tmp")
+                : Files.createTempFile(tempDirectory, "run", ".tmp");
+        temporary.add(file);
+        return file;
+    }
+
+    /**
+     * Sorts the records first ... first + count - 1 of the input into a new file.
+     */
+    private void createRun(FileChannel in, long first, int count, Path target, ExternalSortMetrics sortMetrics)
+            throws IOException {
+        MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, first * recordSize, (long) count * recordSize);
+        int blocks = (count + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+
+        long[] prefixes = new long[count];
+        int[] order = new int[count];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            ByteBuffer records = mapped.duplicate();
+            for (int i = block * BLOCK_RECORDS, end = Math.min(count, i + BLOCK_RECORDS); i < end; i++) {
+                prefixes[i] = prefix(records, i * recordSize + keyOffset);
+                order[i] = i;
+            }
+        });
+        radixSort.sort(prefixes, order);
+        if (keyLength > Long.BYTES) {
+            sortEqualPrefixes(mapped, prefixes, order);
+        }
+
+        byte[] sorted = new byte[count * recordSize];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            ByteBuffer records = mapped.duplicate();
+            for (int i = block * BLOCK_RECORDS, end = Math.min(count, i + BLOCK_RECORDS); i < end; i++) {
+                records.position(order[i] * recordSize);
+                records.get(sorted, i * recordSize, recordSize);
+            }
+        });
+        sortMetrics.addBytesRead((long) count * recordSize);
+
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, ByteBuffer.wrap(sorted));
+        }
+        sortMetrics.addBytesWritten(sorted.length);
+        sortMetrics.runWritten();
+    }
+
+    /**
+     * @return the first 8 key bytes at the position as a long whose signed order is the unsigned order of the bytes
+     */
+    private long prefix(ByteBuffer records, int position) {
+        long prefix;
+        if (keyLength >= Long.BYTES) {
+            prefix = records.getLong(position);
+        } else {
+            prefix = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                prefix = prefix << 8 | (i < keyLength ? records.get(position + i) & 0xff : 0);
+            }
+        }
+        return prefix ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Orders the records of every range with equal prefixes by the rest of their keys. The radix sort has kept
+     * them in input order, and both sorts used here are stable.
+     */
+    private void sortEqualPrefixes(ByteBuffer records, long[] prefixes, int[] order) {
+        int restOffset = keyOffset + Long.BYTES;
+        int restLength = keyLength - Long.BYTES;
+        ByteBuffer view = records.duplicate();
+        byte[] a = new byte[restLength];
+        byte[] b = new byte[restLength];
+        Comparator<Integer> byRest = (x, y) -> {
+            view.position(x * recordSize + restOffset);
+            view.get(a);
+            view.position(y * recordSize + restOffset);
+            view.get(b);
+            return Arrays.compareUnsigned(a, b);
+        };
+        int n = prefixes.length;
+        for (int from = 0; from < n; ) {
+            int to = from + 1;
+            while (to < n && prefixes[to] == prefixes[from]) {
+                to++;
+            }
+            if (to - from > INSERTION_SORT_THRESHOLD) {
+                Integer[] range = new Integer[to - from];
+                for (int i = from; i < to; i++) {
+                    range[i - from] = order[i];
+                }
+                Arrays.sort(range, byRest);
+                for (int i = from; i < to; i++) {
+                    order[i] = range[i - from];
+                }
+            } else {
+                for (int i = from + 1; i < to; i++) {
+                    int record = order[i];
+                    int j = i - 1;
+                    while (j >= from && byRest.compare(order[j], record) > 0) {
+                        order[j + 1] = order[j];
+                        j--;
+                    }
+                    order[j + 1] = record;
+                }
+            }
+            from = to;
+        }
+    }
+
+    /**
+     * Merges the sorted runs into the target with a loser tree.
+     */
+    private void merge(List<Path> runs, Path target, int bufferSize, ExternalSortMetrics sortMetrics)
+            throws IOException {
+        int k = runs.size();
+        RunReader[] readers = new RunReader[k];
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < k; i++) {
+                readers[i] = new RunReader(runs.get(i), bufferSize, sortMetrics);
+            }
+            LoserTree tree = new LoserTree(readers);
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            byte[] output = buffer.array();
+            int filled = 0;
+            for (int winner = tree.winner(); !readers[winner].isExhausted(); winner = tree.winner()) {
+                RunReader reader = readers[winner];
+                if (filled == output.length) {
+                    buffer.clear();
+                    writeFully(out, buffer);
+                    sortMetrics.addBytesWritten(filled);
+                    filled = 0;
+                }
+                System.arraycopy(reader.buffer, reader.position, output, filled, recordSize);
+                filled += recordSize;
+                reader.advance();
+                tree.replay(winner);
+            }
+            buffer.clear().limit(filled);
+            writeFully(out, buffer);
+            sortMetrics.addBytesWritten(filled);
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * @return the unsigned order of the keys of the current records of two readers
+     */
+    private int compareKeys(RunReader x, RunReader y) {
+        int a = x.position + keyOffset;
+        int b = y.position + keyOffset;
+        return Arrays.compareUnsigned(x.buffer, a, a + keyLength, y.buffer, b, b + keyLength);
+    }
+
+    /**
+     * A tournament tree over the current records of k runs. Every inner node holds the run that lost the match at
+     * that node, and node 0 holds the overall winner. After the winner's run advances, only the matches on the path
+     * from its leaf to the root are replayed. Exhausted runs lose every match; equal keys are won by the earlier run.
+     */
+    private class LoserTree {
+        private final RunReader[] readers;
+        private final int[] nodes;
+
+        LoserTree(RunReader[] readers) {
+            this.readers = readers;
+            int k = readers.length;
+            this.nodes = new int[k];
+            // Run k stands for a key smaller than any other, so that the first replays fill the tree bottom-up
+            Arrays.fill(nodes, k);
+            for (int run = k - 1; run >= 0; run--) {
+                replay(run);
+            }
+        }
+
+        int winner() {
+            return nodes[0];
+        }
+
+        void replay(int run) {
+            int k = nodes.length;
+            int winner = run;
+            for (int node = (run + k) >>> 1; node > 0; node >>>= 1) {
+                if (beats(nodes[node], winner)) {
+                    int loser = winner;
+                    winner = nodes[node];
+                    nodes[node] = loser;
+                }
+            }
+            nodes[0] = winner;
+        }
+
+        private boolean beats(int x, int y) {
+            int k = nodes.length;
+            if (x == k || y == k) {
+                return x == k;
+            }
+            RunReader a = readers[x];
+            RunReader b = readers[y];
+            if (a.isExhausted() || b.isExhausted()) {
+                return b.isExhausted() && !a.isExhausted();
+            }
+            int order = compareKeys(a, b);
+            return order < 0 || (order == 0 && x < y);
+        }
+    }
+
+    /**
+     * Reads a run sequentially through a large buffer. The current record starts at position in the buffer.
+     */
+    private class RunReader {
+        private final FileChannel channel;
+        private final ByteBuffer wrapper;
+        private final byte[] buffer;
+        private final ExternalSortMetrics sortMetrics;
+        private int position;
+        private int limit;
+
+        RunReader(Path run, int bufferSize, ExternalSortMetrics sortMetrics) throws IOException {
+            this.channel = FileChannel.open(run, StandardOpenOption.READ);
+            this.wrapper = ByteBuffer.allocate(bufferSize);
+            this.buffer = wrapper.array();
+            this.sortMetrics = sortMetrics;
+            fill();
+        }
+
+        boolean isExhausted() {
+            return position >= limit;
+        }
+
+        void advance() throws IOException {
+            position += recordSize;
+            if (position >= limit) {
+                fill();
+            }
+        }
+
+        private void fill() throws IOException {
+            wrapper.clear();
+            while (wrapper.hasRemaining() && channel.read(wrapper) >= 0) {
+                // Keep reading until the buffer is full or the run ends
+            }
+            position = 0;
+            limit = wrapper.position();
+            sortMetrics.addBytesRead(limit);
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.clay.g_parallel_processing_parallelism.parallel_sorting;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorts a file of 100-byte records with 10-byte keys, the record layout of the TeraSort benchmark, with a memory
+ * budget far below the file size, so that the records are sorted in several runs and merged in several passes.
+ *
+ * Usage: ExternalSortExample [file size in MB] [memory budget in MB] [fan-in]
+ *
+ * The progress is printed twice a second while the sort runs. Afterwards the output is checked for the order of
+ * the keys and for its size.
+ */
+public class ExternalSortExample {
+
+    private static final int RECORD_SIZE = 100;
+    private static final int KEY_LENGTH = 10;
+
+    public static void main(String[] args) throws IOException {
+        long fileSize = (args.length > 0 ? Long.parseLong(args[0]) : 256) << 20;
+        long memoryBudget = (args.length > 1 ? Long.parseLong(args[1]) : 16) << 20;
+        int fanIn = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        Path input = Files.createTempFile("records", ".bin");
+        Path output = Files.createTempFile("sorted", ".bin");
+        ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            writeRandomRecords(input, fileSize / RECORD_SIZE);
+
+            ExternalMergeSort sorter = new ExternalMergeSort(ForkJoinPool.commonPool(), RECORD_SIZE, 0, KEY_LENGTH);
+            sorter.setMemoryBudget(memoryBudget);
+            sorter.setFanIn(fanIn);
+            monitor.scheduleAtFixedRate(() -> {
+                ExternalSortMetrics metrics = sorter.getMetrics();
+                if (metrics != null) {
+                    System.out.println(metrics);
+                }
+            }, 500, 500, TimeUnit.MILLISECONDS);
+
+            ExternalSortMetrics metrics = sorter.sort(input, output);
+            monitor.shutdownNow();
+            System.out.println(metrics);
+            System.out.printf("Sorted %,d MB in %.2f s%n", Files.size(input) >> 20, metrics.getElapsedNanos() / 1e9);
+
+            verify(output, Files.size(input));
+            System.out.println("Output is sorted");
+        } finally {
+            monitor.shutdownNow();
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static void writeRandomRecords(Path file, long records) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        byte[] record = new byte[RECORD_SIZE];
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 20)) {
+            for (long i = 0; i < records; i++) {
+                for (int j = 0; j < KEY_LENGTH; j++) {
+                    record[j] = (byte) random.nextInt(256);
+                }
+                // The rest of the record is the record's number, readable in a hex dump
+                Arrays.fill(record, KEY_LENGTH, RECORD_SIZE, (byte) ' ');
+                byte[] number = Long.toString(i).getBytes();
+                System.arraycopy(number, 0, record, RECORD_SIZE - number.length, number.length);
+                out.write(record);
+            }
+        }
+    }
+
+    private static void verify(Path file, long expectedSize) throws IOException {
+        if (Files.size(file) != expectedSize) {
+            throw new IllegalStateException("The output has " + Files.size(file) + " bytes instead of " + expectedSize);
+        }
+        byte[] previous = new byte[RECORD_SIZE];
+        byte[] current = new byte[RECORD_SIZE];
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 20)) {
+            DataInputStream data = new DataInputStream(in);
+            for (long i = 0; i < expectedSize / RECORD_SIZE; i++) {
+                data.readFully(current);
+                if (i > 0 && Arrays.compareUnsigned(previous, 0, KEY_LENGTH, current, 0, KEY_LENGTH) > 0) {
+                    throw new IllegalStateException("Record " + i + " is out of order");
+                }
+                byte[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.clay.g_parallel_processing_parallelism.parallel_sorting;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live progress of one ExternalMergeSort. All values may be read from any thread while the sort runs.
+ *
+ * Every record is written once when the runs are created and once more in every merge pass, and the number of
+ * passes is known as soon as the run size is. The progress is therefore the bytes written so far divided by the
+ * input size times the number of writes.
+ */
+public class ExternalSortMetrics {
+
+    public enum Phase {CREATING_RUNS, MERGING, DONE}
+
+    private final long inputBytes;
+    private final int plannedRuns;
+    private final int plannedMergePasses;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicInteger runsWritten = new AtomicInteger();
+    private final AtomicInteger mergePassesDone = new AtomicInteger();
+    private volatile Phase phase = Phase.CREATING_RUNS;
+    private volatile long endNanos;
+
+    ExternalSortMetrics(long inputBytes, int plannedRuns, int plannedMergePasses) {
+        this.inputBytes = inputBytes;
+        this.plannedRuns = plannedRuns;
+        this.plannedMergePasses = plannedMergePasses;
+    }
+
+    void addBytesRead(long bytes) {
+        bytesRead.addAndGet(bytes);
+    }
+
+    void addBytesWritten(long bytes) {
+        bytesWritten.addAndGet(bytes);
+    }
+
+    void runWritten() {
+        runsWritten.incrementAndGet();
+    }
+
+    void mergePassDone() {
+        mergePassesDone.incrementAndGet();
+    }
+
+    void setPhase(Phase phase) {
+        if (phase == Phase.DONE) {
+            endNanos = System.nanoTime();
+        }
+        this.phase = phase;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public long getInputBytes() {
+        return inputBytes;
+    }
+
+    /**
+     * @return the number of sorted runs the input is split into, 1 if it fits into memory
+     */
+    public int getPlannedRuns() {
+        return plannedRuns;
+    }
+
+    public int getRunsWritten() {
+        return runsWritten.get();
+    }
+
+    /**
+     * @return the number of passes over the data needed to merge the runs, 0 if there is only one run
+     */
+    public int getPlannedMergePasses() {
+        return plannedMergePasses;
+    }
+
+    public int getMergePassesDone() {
+        return mergePassesDone.get();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * @return the fraction of the work done, from 0 to 1
+     */
+    public double getProgress() {
+        long total = inputBytes * (1 + plannedMergePasses);
+        return total == 0 ? 1 : Math.min(1, (double) getBytesWritten() / total);
+    }
+
+    /**
+     * @return the time since the sort started, or its total duration once it is done
+     */
+    public long getElapsedNanos() {
+        return (phase == Phase.DONE ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * @return bytes read plus bytes written per second
+     */
+    public double getBytesPerSecond() {
+        long elapsed = getElapsedNanos();
+        return elapsed <= 0 ? 0 : (getBytesRead() + getBytesWritten()) / (elapsed / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-13s %5.1f%%, runs %d/%d, merge passes %d/%d, read %,d MB, written %,d MB, %.1f MB/s",
+                phase, getProgress() * 100, getRunsWritten(), plannedRuns, getMergePassesDone(), plannedMergePasses,
+                getBytesRead() >> 20, getBytesWritten() >> 20, getBytesPerSecond() / (1 << 20));
+    }
+}
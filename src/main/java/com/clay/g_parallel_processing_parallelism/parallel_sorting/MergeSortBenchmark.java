@@ -0,0 +1,83 @@
+package com.clay.g_parallel_processing_parallelism.parallel_sorting;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Compares ParallelMergeSort with Arrays.parallelSort on int arrays and on objects sorted with a Comparator.
+ *
+ * Usage: MergeSortBenchmark [size] [iterations]
+ *
+ * Every variant sorts a fresh copy of the same input in each iteration. The int result is compared with Arrays.sort.
+ * The objects are records of a small key and their original index, sorted by key only, so a stable result must
+ * have the indices of equal keys in increasing order.
+ */
+public class MergeSortBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        ParallelMergeSort mergeSort = new ParallelMergeSort(ForkJoinPool.commonPool());
+        SplittableRandom random = new SplittableRandom(42);
+        System.out.println("Elements: " + size + ", threads: " + ForkJoinPool.commonPool().getParallelism());
+
+        int[] ints = random.ints(size).toArray();
+        int[] expected = ints.clone();
+        Arrays.sort(expected);
+        int[] actual = ints.clone();
+        mergeSort.sort(actual);
+        if (!Arrays.equals(actual, expected)) {
+            throw new IllegalStateException("int: merge sort produced a wrong result");
+        }
+        report("int", size, time(iterations, ints::clone, Arrays::parallelSort), time(iterations, ints::clone, mergeSort::sort));
+
+        int objectCount = size / 4;
+        Entry[] entries = new Entry[objectCount];
+        for (int i = 0; i < objectCount; i++) {
+            entries[i] = new Entry(random.nextInt(objectCount / 16 + 1), i);
+        }
+        Comparator<Entry> byKey = Comparator.comparingInt(entry -> entry.key);
+        Entry[] sorted = entries.clone();
+        mergeSort.sort(sorted, byKey);
+        for (int i = 1; i < objectCount; i++) {
+            if (sorted[i - 1].key > sorted[i].key || (sorted[i - 1].key == sorted[i].key && sorted[i - 1].index > sorted[i].index)) {
+                throw new IllegalStateException("Objects are not sorted stably at " + i);
+            }
+        }
+        report("object", objectCount, time(iterations, entries::clone, array -> Arrays.parallelSort(array, byKey)),
+                time(iterations, entries::clone, array -> mergeSort.sort(array, byKey)));
+    }
+
+    private static <T> long time(int iterations, Supplier<T> input, Consumer<T> sort) {
+        // Warm up so that the JIT has compiled the hot loops
+        sort.accept(input.get());
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            T array = input.get();
+            long start = System.nanoTime();
+            sort.accept(array);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static void report(String name, int size, long parallelSortNanos, long mergeNanos) {
+        System.out.printf("%-8s Arrays.parallelSort %8.2f ms, merge sort %8.2f ms (%5.1f M elements/s), speedup %.2fx%n",
+                name, parallelSortNanos / 1e6, mergeNanos / 1e6, size / (mergeNanos / 1e3),
+                (double) parallelSortNanos / mergeNanos);
+    }
+
+    private static class Entry {
+        final int key;
+        final int index;
+
+        Entry(int key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.clay.g_parallel_processing_parallelism.parallel_sorting;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A parallel merge sort for int arrays and a stable variant for object arrays with a Comparator.
+ *
+ * Only one auxiliary array of the input's size is allocated, once per sort. The recursion alternates the roles of
+ * the two arrays: to get a sorted range into one array, both halves are sorted into the other array and then
+ * merged back. Every level moves the data exactly once, and no level copies or allocates.
+ *
+ * The merges themselves run in parallel too. Otherwise the last merge would run on a single core and, since it
+ * touches every element, limit the speedup to about log(n) however many cores are available. A large merge is
+ * split by co-ranking: a binary search finds how many elements of each input fall into the first half of the
+ * output, and both halves of the output are then merged independently. On equal elements the left input always
+ * goes first, which keeps the sort stable.
+ *
+ * Ranges below a leaf size are sorted with Arrays.sort, which is stable (TimSort) for objects.
+ */
+public class ParallelMergeSort {
+
+    // Leaves are at least this large, and there are only a few per worker
+    private static final int MIN_LEAF_SIZE = 1 << 13;
+    private static final int LEAVES_PER_WORKER = 4;
+    // Merges of fewer elements are not split any further
+    private static final int MERGE_THRESHOLD = 1 << 13;
+
+    private final ForkJoinPool pool;
+
+    public ParallelMergeSort(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void sort(int[] array) {
+        if (array.length < 2) {
+            return;
+        }
+        int[] buffer = new int[array.length];
+        pool.invoke(new IntSortTask(array, buffer, 0, array.length, false, leafSize(array.length)));
+    }
+
+    /**
+     * Sorts objects stably: equal elements keep their relative order.
+     */
+    public <T> void sort(T[] array, Comparator<? super T> comparator) {
+        if (array.length < 2) {
+            return;
+        }
+        T[] buffer = array.clone();
+        pool.invoke(new ObjectSortTask<>(array, buffer, 0, array.length, false, leafSize(array.length), comparator));
+    }
+
+    private int leafSize(int n) {
+        return Math.max(MIN_LEAF_SIZE, n / (pool.getParallelism() * LEAVES_PER_WORKER));
+    }
+
+    /**
+     * Sorts array[from, to) and leaves the result in the buffer if intoBuffer is set, otherwise in the array. The
+     * other array's range is used as scratch space.
+     */
+    private static class IntSortTask extends RecursiveAction {
+        private final int[] array;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final boolean intoBuffer;
+        private final int leafSize;
+
+        IntSortTask(int[] array, int[] buffer, int from, int to, boolean intoBuffer, int leafSize) {
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.intoBuffer = intoBuffer;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                Arrays.sort(array, from, to);
+                if (intoBuffer) {
+                    System.arraycopy(array, from, buffer, from, to - from);
+                }
+                return;
+            }
+            // Sort both halves into the other array, then merge them into the target
+            int mid = (from + to) >>> 1;
+            invokeAll(new IntSortTask(array, buffer, from, mid, !intoBuffer, leafSize),
+                    new IntSortTask(array, buffer, mid, to, !intoBuffer, leafSize));
+            int[] source = intoBuffer ? array : buffer;
+            int[] target = intoBuffer ? buffer : array;
+            new IntMergeTask(source, from, mid, mid, to, target, from).compute();
+        }
+    }
+
+    /**
+     * Merges source[leftFrom, leftTo) and source[rightFrom, rightTo) into target starting at position out.
+     */
+    private static class IntMergeTask extends RecursiveAction {
+        private final int[] source;
+        private final int leftFrom;
+        private final int leftTo;
+        private final int rightFrom;
+        private final int rightTo;
+        private final int[] target;
+        private final int out;
+
+        IntMergeTask(int[] source, int leftFrom, int leftTo, int rightFrom, int rightTo, int[] target, int out) {
+            this.source = source;
+            this.leftFrom = leftFrom;
+            this.leftTo = leftTo;
+            this.rightFrom = rightFrom;
+            this.rightTo = rightTo;
+            this.target = target;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            int leftLength = leftTo - leftFrom;
+            int rightLength = rightTo - rightFrom;
+            int total = leftLength + rightLength;
+            if (total <= MERGE_THRESHOLD) {
+                merge();
+                return;
+            }
+
+            // Co-rank: find how many left elements belong to the first half of the output
+            int half = total >>> 1;
+            int low = Math.max(0, half - rightLength);
+            int high = Math.min(half, leftLength);
+            while (low < high) {
+                int i = (low + high) >>> 1;
+                // A left element equal to a right one comes first, so it must be part of the first half
+                if (source[leftFrom + i] <= source[rightFrom + half - i - 1]) {
+                    low = i + 1;
+                } else {
+                    high = i;
+                }
+            }
+            int leftSplit = leftFrom + low;
+            int rightSplit = rightFrom + half - low;
+            invokeAll(new IntMergeTask(source, leftFrom, leftSplit, rightFrom, rightSplit, target, out),
+                    new IntMergeTask(source, leftSplit, leftTo, rightSplit, rightTo, target, out + half));
+        }
+
+        private void merge() {
+            int i = leftFrom;
+            int j = rightFrom;
+            int k = out;
+            while (i < leftTo && j < rightTo) {
+                if (source[i] <= source[j]) {
+                    target[k++] = source[i++];
+                } else {
+                    target[k++] = source[j++];
+                }
+            }
+            System.arraycopy(source, i, target, k, leftTo - i);
+            System.arraycopy(source, j, target, k + leftTo - i, rightTo - j);
+        }
+    }
+
+    /**
+     * The object version of IntSortTask.
+     */
+    private static class ObjectSortTask<T> extends RecursiveAction {
+        private final T[] array;
+        private final T[] buffer;
+        private final int from;
+        private final int to;
+        private final boolean intoBuffer;
+        private final int leafSize;
+        private final Comparator<? super T> comparator;
+
+        ObjectSortTask(T[] array, T[] buffer, int from, int to, boolean intoBuffer, int leafSize,
+                       Comparator<? super T> comparator) {
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.intoBuffer = intoBuffer;
+            this.leafSize = leafSize;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                Arrays.sort(array, from, to, comparator);
+                if (intoBuffer) {
+                    System.arraycopy(array, from, buffer, from, to - from);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ObjectSortTask<>(array, buffer, from, mid, !intoBuffer, leafSize, comparator),
+                    new ObjectSortTask<>(array, buffer, mid, to, !intoBuffer, leafSize, comparator));
+            T[] source = intoBuffer ? array : buffer;
+            T[] target = intoBuffer ? buffer : array;
+            new ObjectMergeTask<>(source, from, mid, mid, to, target, from, comparator).compute();
+        }
+    }
+
+    /**
+     * The object version of IntMergeTask.
+     */
+    private static class ObjectMergeTask<T> extends RecursiveAction {
+        private final T[] source;
+        private final int leftFrom;
+        private final int leftTo;
+        private final int rightFrom;
+        private final int rightTo;
+        private final T[] target;
+        private final int out;
+        private final Comparator<? super T> comparator;
+
+        ObjectMergeTask(T[] source, int leftFrom, int leftTo, int rightFrom, int rightTo, T[] target, int out,
+                        Comparator<? super T> comparator) {
+            this.source = source;
+            this.leftFrom = leftFrom;
+            this.leftTo = leftTo;
+            this.rightFrom = rightFrom;
+            this.rightTo = rightTo;
+            this.target = target;
+            this.out = out;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            int leftLength = leftTo - leftFrom;
+            int rightLength = rightTo - rightFrom;
+            int total = leftLength + rightLength;
+            if (total <= MERGE_THRESHOLD) {
+                merge();
+                return;
+            }
+
+            int half = total >>> 1;
+            int low = Math.max(0, half - rightLength);
+            int high = Math.min(half, leftLength);
+            while (low < high) {
+                int i = (low + high) >>> 1;
+                if (comparator.compare(source[leftFrom + i], source[rightFrom + half - i - 1]) <= 0) {
+                    low = i + 1;
+                } else {
+                    high = i;
+                }
+            }
+            int leftSplit = leftFrom + low;
+            int rightSplit = rightFrom + half - low;
+            invokeAll(new ObjectMergeTask<>(source, leftFrom, leftSplit, rightFrom, rightSplit, target, out, comparator),
+                    new ObjectMergeTask<>(source, leftSplit, leftTo, rightSplit, rightTo, target, out + half, comparator));
+        }
+
+        private void merge() {
+            int i = leftFrom;
+            int j = rightFrom;
+            int k = out;
+            while (i < leftTo && j < rightTo) {
+                if (comparator.compare(source[i], source[j]) <= 0) {
+                    target[k++] = source[i++];
+                } else {
+                    target[k++] = source[j++];
+                }
+            }
+            System.arraycopy(source, i, target, k, leftTo - i);
+            System.arraycopy(source, j, target, k + leftTo - i, rightTo - j);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.clay.g_parallel_processing_parallelism.parallel_sorting;
+
+import com.clay.g_parallel_processing_parallelism.parallel_graph_algo.ParallelRange;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A parallel least-significant-digit radix sort for int, long, float and double arrays and for long keys with
+ * int payloads.
+ *
+ * The keys are sorted 8 bits at a time, starting with the lowest byte. Every pass is a stable counting sort from
+ * one array into another:
+ *
+ * 1. The array is cut into one block per worker (or a few), and every block counts its digits in parallel.
+ * 2. A prefix sum over the counts, bucket by bucket and within each bucket block by block, gives every block the
+ *    position where its elements of each bucket go.
+ * 3. Every block scatters its elements to those positions in parallel. No two blocks write to the same position,
+ *    so no synchronization is needed, and the order within a bucket is kept, which makes the sort stable.
+ *
+ * Before the first pass, the counts of all digits are computed in one read of the input. A digit that is the same
+ * for all keys (for example the upper bytes of small numbers) would not move anything, so its pass is skipped.
+ *
+ * Signed keys are sorted by flipping the sign bit of the most significant digit, which puts negative numbers
+ * first. Floating point keys are mapped to signed integers with bits ^ ((bits >> 31) & 0x7fffffff), which keeps
+ * positive values as they are and reverses the order of negative ones, so that the integer order equals the
+ * order of Arrays.sort: -0.0 before 0.0, NaN last. NaN values come back in their canonical form.
+ *
+ * The sort needs an auxiliary array of the same size as the input. Small arrays are left to Arrays.sort.
+ */
+public class ParallelRadixSort {
+
+    private static final int BITS = 8;
+    private static final int BUCKETS = 1 << BITS;
+    private static final int MASK = BUCKETS - 1;
+    // The most significant digit gets its sign bit flipped
+    private static final int SIGN_FLIP = BUCKETS >>> 1;
+    // Arrays shorter than this are sorted sequentially by Arrays.sort
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+    // Every block should be large enough to amortize its 256 counters and 256 write positions
+    private static final int MIN_BLOCK_SIZE = 1 << 16;
+    private static final int BLOCKS_PER_WORKER = 2;
+
+    private final ForkJoinPool pool;
+
+    public ParallelRadixSort(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void sort(int[] array) {
+        if (array.length < SEQUENTIAL_THRESHOLD) {
+            Arrays.sort(array);
+            return;
+        }
+        sortInts(array);
+    }
+
+    public void sort(long[] array) {
+        if (array.length < SEQUENTIAL_THRESHOLD) {
+            Arrays.sort(array);
+            return;
+        }
+        sortLongs(array, null);
+    }
+
+    public void sort(float[] array) {
+        if (array.length < SEQUENTIAL_THRESHOLD) {
+            Arrays.sort(array);
+            return;
+        }
+        int n = array.length;
+        int blocks = blockCount(n);
+        int[] keys = new int[n];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                int bits = Float.floatToIntBits(array[i]);
+                keys[i] = bits ^ ((bits >> 31) & 0x7fffffff);
+            }
+        });
+        sortInts(keys);
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                // The mapping is its own inverse
+                array[i] = Float.intBitsToFloat(keys[i] ^ ((keys[i] >> 31) & 0x7fffffff));
+            }
+        });
+    }
+
+    public void sort(double[] array) {
+        if (array.length < SEQUENTIAL_THRESHOLD) {
+            Arrays.sort(array);
+            return;
+        }
+        int n = array.length;
+        int blocks = blockCount(n);
+        long[] keys = new long[n];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                long bits = Double.doubleToLongBits(array[i]);
+                keys[i] = bits ^ ((bits >> 63) & 0x7fffffffffffffffL);
+            }
+        });
+        sortLongs(keys, null);
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                array[i] = Double.longBitsToDouble(keys[i] ^ ((keys[i] >> 63) & 0x7fffffffffffffffL));
+            }
+        });
+    }
+
+    /**
+     * Sorts the keys and moves every payload along with its key. The sort is stable, so payloads of equal keys
+     * keep their relative order.
+     *
+     * @param keys     the keys to sort
+     * @param payloads one payload per key, for example the original index of the key
+     */
+    public void sort(long[] keys, int[] payloads) {
+        if (keys.length != payloads.length) {
+            throw new IllegalArgumentException("Keys and payloads must have the same length");
+        }
+        sortLongs(keys, payloads);
+    }
+
+    private void sortInts(int[] array) {
+        int n = array.length;
+        int blocks = blockCount(n);
+        int passes = Integer.SIZE / BITS;
+        // counts[block][pass * BUCKETS + digit]
+        int[][] counts = new int[blocks][passes * BUCKETS];
+
+        // Count all digits at once, which also tells which passes can be skipped
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int[] count = counts[block];
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                int value = array[i];
+                count[value & MASK]++;
+                count[BUCKETS + ((value >>> 8) & MASK)]++;
+                count[2 * BUCKETS + ((value >>> 16) & MASK)]++;
+                count[3 * BUCKETS + ((value >>> 24) ^ SIGN_FLIP)]++;
+            }
+        });
+
+        int[] source = array;
+        int[] target = new int[n];
+        boolean countsMatchSource = true;
+        for (int pass = 0; pass < passes; pass++) {
+            if (isConstantDigit(counts, pass, n)) {
+                continue;
+            }
+            int shift = pass * BITS;
+            int flip = pass == passes - 1 ? SIGN_FLIP : 0;
+            int base = pass * BUCKETS;
+            int[] from = source;
+            int[] to = target;
+            if (!countsMatchSource) {
+                // Earlier passes have moved the elements between blocks, so count this digit again
+                ParallelRange.forEachChunk(pool, blocks, block -> {
+                    int[] count = counts[block];
+                    Arrays.fill(count, base, base + BUCKETS, 0);
+                    int end = ParallelRange.chunkStart(block + 1, blocks, n);
+                    for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                        count[base + (((from[i] >>> shift) & MASK) ^ flip)]++;
+                    }
+                });
+            }
+            toOffsets(counts, base);
+            ParallelRange.forEachChunk(pool, blocks, block -> {
+                int[] offset = counts[block];
+                int end = ParallelRange.chunkStart(block + 1, blocks, n);
+                for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                    int value = from[i];
+                    to[offset[base + (((value >>> shift) & MASK) ^ flip)]++] = value;
+                }
+            });
+            source = to;
+            target = from;
+            countsMatchSource = false;
+        }
+        if (source != array) {
+            copy(source, array, blocks);
+        }
+    }
+
+    private void sortLongs(long[] keys, int[] payloads) {
+        int n = keys.length;
+        if (n < 2) {
+            return;
+        }
+        int blocks = blockCount(n);
+        int passes = Long.SIZE / BITS;
+        int[][] counts = new int[blocks][passes * BUCKETS];
+
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int[] count = counts[block];
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                long value = keys[i];
+                for (int pass = 0; pass < passes - 1; pass++) {
+                    count[pass * BUCKETS + (int) ((value >>> (pass * BITS)) & MASK)]++;
+                }
+                count[(passes - 1) * BUCKETS + (int) ((value >>> 56) ^ SIGN_FLIP)]++;
+            }
+        });
+
+        long[] sourceKeys = keys;
+        long[] targetKeys = new long[n];
+        int[] sourcePayloads = payloads;
+        int[] targetPayloads = payloads == null ? null : new int[n];
+        boolean countsMatchSource = true;
+        for (int pass = 0; pass < passes; pass++) {
+            if (isConstantDigit(counts, pass, n)) {
+                continue;
+            }
+            int shift = pass * BITS;
+            int flip = pass == passes - 1 ? SIGN_FLIP : 0;
+            int base = pass * BUCKETS;
+            long[] fromKeys = sourceKeys;
+            long[] toKeys = targetKeys;
+            int[] fromPayloads = sourcePayloads;
+            int[] toPayloads = targetPayloads;
+            if (!countsMatchSource) {
+                ParallelRange.forEachChunk(pool, blocks, block -> {
+                    int[] count = counts[block];
+                    Arrays.fill(count, base, base + BUCKETS, 0);
+                    int end = ParallelRange.chunkStart(block + 1, blocks, n);
+                    for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                        count[base + ((int) ((fromKeys[i] >>> shift) & MASK) ^ flip)]++;
+                    }
+                });
+            }
+            toOffsets(counts, base);
+            ParallelRange.forEachChunk(pool, blocks, block -> {
+                int[] offset = counts[block];
+                int start = ParallelRange.chunkStart(block, blocks, n);
+                int end = ParallelRange.chunkStart(block + 1, blocks, n);
+                if (fromPayloads == null) {
+                    for (int i = start; i < end; i++) {
+                        long value = fromKeys[i];
+                        toKeys[offset[base + ((int) ((value >>> shift) & MASK) ^ flip)]++] = value;
+                    }
+                } else {
+                    for (int i = start; i < end; i++) {
+                        long value = fromKeys[i];
+                        int position = offset[base + ((int) ((value >>> shift) & MASK) ^ flip)]++;
+                        toKeys[position] = value;
+                        toPayloads[position] = fromPayloads[i];
+                    }
+                }
+            });
+            sourceKeys = toKeys;
+            targetKeys = fromKeys;
+            sourcePayloads = toPayloads;
+            targetPayloads = fromPayloads;
+            countsMatchSource = false;
+        }
+        if (sourceKeys != keys) {
+            copy(sourceKeys, keys, blocks);
+            if (payloads != null) {
+                copy(sourcePayloads, payloads, blocks);
+            }
+        }
+    }
+
+    /**
+     * @return whether a single bucket holds all elements in this pass
+     */
+    private static boolean isConstantDigit(int[][] counts, int pass, int n) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            int total = 0;
+            for (int[] count : counts) {
+                total += count[pass * BUCKETS + bucket];
+            }
+            if (total != 0) {
+                return total == n;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Turns the counts of one pass into the first target position of every block and bucket: all smaller buckets
+     * come first, and within a bucket the blocks follow each other in order.
+     */
+    private static void toOffsets(int[][] counts, int base) {
+        int position = 0;
+        for (int bucket = base; bucket < base + BUCKETS; bucket++) {
+            for (int[] count : counts) {
+                int size = count[bucket];
+                count[bucket] = position;
+                position += size;
+            }
+        }
+    }
+
+    private void copy(int[] source, int[] target, int blocks) {
+        int n = source.length;
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int start = ParallelRange.chunkStart(block, blocks, n);
+            System.arraycopy(source, start, target, start, ParallelRange.chunkStart(block + 1, blocks, n) - start);
+        });
+    }
+
+    private void copy(long[] source, long[] target, int blocks) {
+        int n = source.length;
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int start = ParallelRange.chunkStart(block, blocks, n);
+            System.arraycopy(source, start, target, start, ParallelRange.chunkStart(block + 1, blocks, n) - start);
+        });
+    }
+
+    private int blockCount(int n) {
+        int bySize = Math.max(1, n / MIN_BLOCK_SIZE);
+        return Math.min(bySize, pool.getParallelism() * BLOCKS_PER_WORKER);
+    }
+}
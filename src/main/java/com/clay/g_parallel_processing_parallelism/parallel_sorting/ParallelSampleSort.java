@@ -0,0 +1,321 @@
+package com.clay.g_parallel_processing_parallelism.parallel_sorting;
+
+import com.clay.g_parallel_processing_parallelism.parallel_graph_algo.ParallelRange;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToLongFunction;
+
+/**
+ * A parallel sample sort for lists of objects, ordered by a Comparator or by a primitive long key.
+ *
+ * 1. A random sample of the elements is sorted, and every OVERSAMPLING-th sample becomes a splitter. Oversampling
+ *    makes the buckets between the splitters about equally large, even though the sample is small.
+ * 2. The list is cut into blocks. Every block finds the bucket of each of its elements by binary search over the
+ *    splitters and counts the buckets, all blocks in parallel.
+ * 3. As in ParallelRadixSort, a prefix sum over the counts gives every block its positions within every bucket,
+ *    and the blocks scatter their elements to these positions in parallel. Elements keep their order within a
+ *    bucket.
+ * 4. The buckets are sorted independently and in parallel. Their concatenation is the sorted list.
+ *
+ * A splitter that is equal to other sampled elements gets a bucket of its own for all elements equal to it. These
+ * buckets need no sorting, so heavily duplicated values cannot make one bucket hold most of the list.
+ *
+ * With a key extractor, the keys are extracted once into a long[]. The sort then works on pairs of a key and the
+ * element's index, and compares primitive longs instead of calling a Comparator on objects. The elements
+ * themselves are moved only once at the end.
+ *
+ * Both variants are stable. Short lists are sorted with List.sort.
+ */
+public class ParallelSampleSort {
+
+    // Lists shorter than this are sorted sequentially
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+    // Buckets between splitters per worker, so that work stealing can even out the bucket sizes
+    private static final int BUCKETS_PER_WORKER = 8;
+    // Sample elements per bucket
+    private static final int OVERSAMPLING = 16;
+    // Every block should be large enough to amortize its bucket counters
+    private static final int MIN_BLOCK_SIZE = 1 << 14;
+    private static final int BLOCKS_PER_WORKER = 2;
+    // Runs of this length are insertion sorted before the pairs are merged
+    private static final int INSERTION_RUN = 32;
+
+    private final ForkJoinPool pool;
+
+    public ParallelSampleSort(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sorts the list stably by the comparator.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void sort(List<T> list, Comparator<? super T> comparator) {
+        int n = list.size();
+        if (n < SEQUENTIAL_THRESHOLD) {
+            list.sort(comparator);
+            return;
+        }
+        Object[] elements = list.toArray();
+        Comparator<Object> order = (Comparator<Object>) comparator;
+
+        // Splitters from a sorted sample, without duplicates
+        Object[] sample = new Object[sampleSize()];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = elements[random.nextInt(n)];
+        }
+        Arrays.sort(sample, order);
+        Object[] splitters = new Object[sample.length / OVERSAMPLING];
+        int splitterCount = 0;
+        for (int i = OVERSAMPLING - 1; i < sample.length; i += OVERSAMPLING) {
+            if (splitterCount == 0 || order.compare(splitters[splitterCount - 1], sample[i]) != 0) {
+                splitters[splitterCount++] = sample[i];
+            }
+        }
+        int splittersUsed = splitterCount;
+
+        int[] bucketStarts = new int[2 * splittersUsed + 2];
+        int[] destinations = scatterPositions(n, 2 * splittersUsed + 1, index -> {
+            Object element = elements[index];
+            int low = 0;
+            int high = splittersUsed;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (order.compare(splitters[mid], element) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low < splittersUsed && order.compare(splitters[low], element) == 0 ? 2 * low + 1 : 2 * low;
+        }, bucketStarts);
+
+        Object[] sorted = new Object[n];
+        int blocks = blockCount(n);
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                sorted[destinations[i]] = elements[i];
+            }
+        });
+        // Odd buckets hold elements equal to a splitter and are already in order; TimSort keeps the rest stable
+        ParallelRange.forEachChunk(pool, bucketStarts.length - 1, bucket -> {
+            if (bucket % 2 == 0) {
+                Arrays.sort(sorted, bucketStarts[bucket], bucketStarts[bucket + 1], order);
+            }
+        });
+        writeBack(list, sorted);
+    }
+
+    /**
+     * Sorts the list stably by a long key of every element. The key is extracted exactly once per element.
+     */
+    public <T> void sort(List<T> list, ToLongFunction<? super T> keyExtractor) {
+        int n = list.size();
+        if (n < SEQUENTIAL_THRESHOLD) {
+            list.sort(Comparator.comparingLong(keyExtractor));
+            return;
+        }
+        Object[] elements = list.toArray();
+        long[] keys = new long[n];
+        int blocks = blockCount(n);
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                @SuppressWarnings("unchecked")
+                T element = (T) elements[i];
+                keys[i] = keyExtractor.applyAsLong(element);
+            }
+        });
+
+        long[] sample = new long[sampleSize()];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = keys[random.nextInt(n)];
+        }
+        Arrays.sort(sample);
+        long[] splitters = new long[sample.length / OVERSAMPLING];
+        int splitterCount = 0;
+        for (int i = OVERSAMPLING - 1; i < sample.length; i += OVERSAMPLING) {
+            if (splitterCount == 0 || splitters[splitterCount - 1] != sample[i]) {
+                splitters[splitterCount++] = sample[i];
+            }
+        }
+        int splittersUsed = splitterCount;
+
+        int[] bucketStarts = new int[2 * splittersUsed + 2];
+        int[] destinations = scatterPositions(n, 2 * splittersUsed + 1, index -> {
+            long key = keys[index];
+            int low = 0;
+            int high = splittersUsed;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (splitters[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low < splittersUsed && splitters[low] == key ? 2 * low + 1 : 2 * low;
+        }, bucketStarts);
+
+        long[] sortedKeys = new long[n];
+        int[] sortedIndices = new int[n];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                int position = destinations[i];
+                sortedKeys[position] = keys[i];
+                sortedIndices[position] = i;
+            }
+        });
+        // The extracted keys and the destinations are no longer needed and serve as the merge buffers
+        ParallelRange.forEachChunk(pool, bucketStarts.length - 1, bucket -> {
+            if (bucket % 2 == 0) {
+                sortPairs(sortedKeys, sortedIndices, keys, destinations, bucketStarts[bucket], bucketStarts[bucket + 1]);
+            }
+        });
+
+        Object[] sorted = new Object[n];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                sorted[i] = elements[sortedIndices[i]];
+            }
+        });
+        writeBack(list, sorted);
+    }
+
+    private int sampleSize() {
+        return pool.getParallelism() * BUCKETS_PER_WORKER * OVERSAMPLING;
+    }
+
+    /**
+     * Computes the position of every element in the bucketed order.
+     *
+     * @param bucketOf     returns the bucket of the element with the given index
+     * @param bucketStarts receives buckets + 1 entries: where every bucket starts, and n at the end
+     * @return the target position of every element
+     */
+    private int[] scatterPositions(int n, int buckets, IntUnaryOperator bucketOf, int[] bucketStarts) {
+        int blocks = blockCount(n);
+        int[] positions = new int[n];
+        int[][] counts = new int[blocks][buckets];
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int[] count = counts[block];
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                int bucket = bucketOf.applyAsInt(i);
+                positions[i] = bucket;
+                count[bucket]++;
+            }
+        });
+
+        // Bucket by bucket, and within each bucket block by block, as in ParallelRadixSort
+        int position = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            bucketStarts[bucket] = position;
+            for (int[] count : counts) {
+                int size = count[bucket];
+                count[bucket] = position;
+                position += size;
+            }
+        }
+        bucketStarts[buckets] = position;
+
+        ParallelRange.forEachChunk(pool, blocks, block -> {
+            int[] offset = counts[block];
+            int end = ParallelRange.chunkStart(block + 1, blocks, n);
+            for (int i = ParallelRange.chunkStart(block, blocks, n); i < end; i++) {
+                positions[i] = offset[positions[i]]++;
+            }
+        });
+        return positions;
+    }
+
+    /**
+     * Sorts keys[from, to) together with their indices, stably, with a bottom-up merge sort that uses the same range
+     * of the buffers.
+     */
+    private static void sortPairs(long[] keys, int[] indices, long[] keyBuffer, int[] indexBuffer, int from, int to) {
+        for (int run = from; run < to; run += INSERTION_RUN) {
+            insertionSort(keys, indices, run, Math.min(run + INSERTION_RUN, to));
+        }
+        long[] sourceKeys = keys;
+        int[] sourceIndices = indices;
+        long[] targetKeys = keyBuffer;
+        int[] targetIndices = indexBuffer;
+        for (int width = INSERTION_RUN; width < to - from; width *= 2) {
+            for (int left = from; left < to; ) {
+                int mid = (int) Math.min(left + (long) width, to);
+                int right = (int) Math.min(left + 2L * width, to);
+                mergePairs(sourceKeys, sourceIndices, targetKeys, targetIndices, left, mid, right);
+                left = right;
+            }
+            long[] keySwap = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = keySwap;
+            int[] indexSwap = sourceIndices;
+            sourceIndices = targetIndices;
+            targetIndices = indexSwap;
+        }
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, from, keys, from, to - from);
+            System.arraycopy(sourceIndices, from, indices, from, to - from);
+        }
+    }
+
+    private static void insertionSort(long[] keys, int[] indices, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long key = keys[i];
+            int index = indices[i];
+            int j = i - 1;
+            while (j >= from && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                indices[j + 1] = indices[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            indices[j + 1] = index;
+        }
+    }
+
+    private static void mergePairs(long[] keys, int[] indices, long[] targetKeys, int[] targetIndices,
+                                   int from, int mid, int to) {
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && keys[i] <= keys[j])) {
+                targetKeys[k] = keys[i];
+                targetIndices[k] = indices[i++];
+            } else {
+                targetKeys[k] = keys[j];
+                targetIndices[k] = indices[j++];
+            }
+        }
+    }
+
+    /**
+     * Replaces the list's elements in the same way as List.sort does.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void writeBack(List<T> list, Object[] sorted) {
+        ListIterator<T> iterator = list.listIterator();
+        for (Object element : sorted) {
+            iterator.next();
+            iterator.set((T) element);
+        }
+    }
+
+    private int blockCount(int n) {
+        int bySize = Math.max(1, n / MIN_BLOCK_SIZE);
+        return Math.min(bySize, pool.getParallelism() * BLOCKS_PER_WORKER);
+    }
+}
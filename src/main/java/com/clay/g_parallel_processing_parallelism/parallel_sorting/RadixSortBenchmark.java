@@ -0,0 +1,99 @@
+package com.clay.g_parallel_processing_parallelism.parallel_sorting;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Compares ParallelRadixSort with Arrays.parallelSort on int, long and double arrays and on (long key, int
+ * payload) pairs.
+ *
+ * Usage: RadixSortBenchmark [size] [iterations]
+ *
+ * Every variant sorts a fresh copy of the same input in each iteration, and its result is compared with the
+ * result of Arrays.sort. Small-range ints show the effect of skipping passes whose digit is constant. Arrays has
+ * no key-payload sort, so the pairs are compared with parallelSort of the keys alone, which does strictly less work.
+ */
+public class RadixSortBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        ParallelRadixSort radix = new ParallelRadixSort(ForkJoinPool.commonPool());
+        SplittableRandom random = new SplittableRandom(42);
+        System.out.println("Elements: " + size + ", threads: " + ForkJoinPool.commonPool().getParallelism());
+
+        int[] ints = random.ints(size).toArray();
+        compare("int, full range", size, iterations, ints::clone, Arrays::parallelSort, radix::sort, Arrays::sort, Arrays::equals);
+
+        int[] smallInts = random.ints(size, -1000, 1000).toArray();
+        compare("int, range +-1000", size, iterations, smallInts::clone, Arrays::parallelSort, radix::sort, Arrays::sort, Arrays::equals);
+
+        long[] longs = random.longs(size).toArray();
+        compare("long, full range", size, iterations, longs::clone, Arrays::parallelSort, radix::sort, Arrays::sort, Arrays::equals);
+
+        double[] doubles = random.doubles(size, -1e6, 1e6).toArray();
+        compare("double", size, iterations, doubles::clone, Arrays::parallelSort, radix::sort, Arrays::sort, Arrays::equals);
+
+        // Pairs: the payload is the original index, so the sorted pairs must be ordered by (key, index)
+        long[] keys = random.longs(size, 0, size / 4).toArray();
+        int[] payloads = new int[size];
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations + 1; i++) {
+            long[] k = keys.clone();
+            for (int j = 0; j < size; j++) {
+                payloads[j] = j;
+            }
+            long start = System.nanoTime();
+            radix.sort(k, payloads);
+            long elapsed = System.nanoTime() - start;
+            if (i > 0) {
+                best = Math.min(best, elapsed);
+            }
+            for (int j = 1; j < size; j++) {
+                if (k[j - 1] > k[j] || (k[j - 1] == k[j] && payloads[j - 1] > payloads[j]) || k[j] != keys[payloads[j]]) {
+                    throw new IllegalStateException("Pairs are not sorted stably at " + j);
+                }
+            }
+        }
+        long baseline = time(iterations, keys::clone, Arrays::parallelSort);
+        report("long + int pairs", size, baseline, best);
+    }
+
+    private static <T> void compare(String name, int size, int iterations, Supplier<T> input, Consumer<T> parallelSort,
+                                    Consumer<T> radixSort, Consumer<T> referenceSort, Equality<T> equality) {
+        T expected = input.get();
+        referenceSort.accept(expected);
+        T actual = input.get();
+        radixSort.accept(actual);
+        if (!equality.equal(actual, expected)) {
+            throw new IllegalStateException(name + ": radix sort produced a wrong result");
+        }
+        report(name, size, time(iterations, input, parallelSort), time(iterations, input, radixSort));
+    }
+
+    private static <T> long time(int iterations, Supplier<T> input, Consumer<T> sort) {
+        // Warm up so that the JIT has compiled the hot loops
+        sort.accept(input.get());
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            T array = input.get();
+            long start = System.nanoTime();
+            sort.accept(array);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static void report(String name, int size, long parallelSortNanos, long radixNanos) {
+        System.out.printf("%-20s Arrays.parallelSort %8.2f ms, radix %8.2f ms (%5.1f M elements/s), speedup %.2fx%n",
+                name, parallelSortNanos / 1e6, radixNanos / 1e6, size / (radixNanos / 1e3),
+                (double) parallelSortNanos / radixNanos);
+    }
+
+    private interface Equality<T> {
+        boolean equal(T a, T b);
+    }
+}
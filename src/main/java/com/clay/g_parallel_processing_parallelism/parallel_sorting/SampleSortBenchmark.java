@@ -0,0 +1,87 @@
+package com.clay.g_parallel_processing_parallelism.parallel_sorting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Compares ParallelSampleSort with List.sort and with Arrays.parallelSort on lists of records.
+ *
+ * Usage: SampleSortBenchmark [size] [iterations]
+ *
+ * The records have a long key with many duplicates and their original position. Every variant sorts a fresh copy
+ * of the same list by key, and the result is checked for order and stability: equal keys must keep the order of
+ * their positions. The Arrays.parallelSort variant includes copying the list into an array and back.
+ */
+public class SampleSortBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        ParallelSampleSort sampleSort = new ParallelSampleSort(ForkJoinPool.commonPool());
+        System.out.println("Records: " + size + ", threads: " + ForkJoinPool.commonPool().getParallelism());
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<Trade> trades = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            trades.add(new Trade(random.nextLong(size / 8 + 1), i));
+        }
+        Comparator<Trade> byTime = Comparator.comparingLong(Trade::getTimestamp);
+
+        run("List.sort", trades, iterations, list -> list.sort(byTime));
+        run("Arrays.parallelSort", trades, iterations, list -> {
+            Trade[] array = list.toArray(new Trade[0]);
+            Arrays.parallelSort(array, byTime);
+            for (int i = 0; i < array.length; i++) {
+                list.set(i, array[i]);
+            }
+        });
+        run("sample sort, comparator", trades, iterations, list -> sampleSort.sort(list, byTime));
+        run("sample sort, long key", trades, iterations, list -> sampleSort.sort(list, Trade::getTimestamp));
+    }
+
+    private static void run(String name, List<Trade> trades, int iterations, Consumer<List<Trade>> sort) {
+        long best = Long.MAX_VALUE;
+        // The first run warms up the JIT and is not timed
+        for (int i = 0; i <= iterations; i++) {
+            List<Trade> list = new ArrayList<>(trades);
+            long start = System.nanoTime();
+            sort.accept(list);
+            long elapsed = System.nanoTime() - start;
+            if (i > 0) {
+                best = Math.min(best, elapsed);
+            }
+            verify(name, list);
+        }
+        System.out.printf("%-24s %8.2f ms (%5.1f M records/s)%n", name, best / 1e6, trades.size() / (best / 1e3));
+    }
+
+    private static void verify(String name, List<Trade> list) {
+        for (int i = 1; i < list.size(); i++) {
+            Trade previous = list.get(i - 1);
+            Trade current = list.get(i);
+            if (previous.timestamp > current.timestamp
+                    || (previous.timestamp == current.timestamp && previous.sequence > current.sequence)) {
+                throw new IllegalStateException(name + ": not sorted stably at " + i);
+            }
+        }
+    }
+
+    private static class Trade {
+        private final long timestamp;
+        private final int sequence;
+
+        Trade(long timestamp, int sequence) {
+            this.timestamp = timestamp;
+            this.sequence = sequence;
+        }
+
+        long getTimestamp() {
+            return timestamp;
+        }
+    }
+}
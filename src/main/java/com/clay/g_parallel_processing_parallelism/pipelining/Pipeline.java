@@ -0,0 +1,577 @@
+package com.clay.g_parallel_processing_parallelism.pipelining;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A streaming pipeline of stages that run concurrently, connected by bounded queues.
+ *
+ * The source is read on one thread, every stage has its own pool of worker threads, and the sink is called on one
+ * thread, so it needs no synchronization. Items flow through the stages while the source is still being read: the
+ * first results reach the sink long before the last item has left the source, and only the items in the queues are
+ * in memory at any time, never the whole input.
+ *
+ * Items are passed in micro-batches of up to batchSize items. A worker takes a batch from its input queue,
+ * processes its items, and puts what they emitted into its output queue as one batch. Larger batches spread the cost
+ * of the queue operations over more items, smaller ones lower the latency, and a batch size of 1 passes every item
+ * on its own.
+ *
+ * The queues hold at most queueCapacity batches. When a stage is slower than the stages in front of it, its queue
+ * fills up and the workers in front of it block on put. This backpressure travels back to the source, so the
+ * pipeline runs at the speed of its slowest stage with bounded memory, and the PipelineStageMetrics show which stage
+ * that is. A slow stage can be given more workers.
+ *
+ * Workers of the same stage process different batches at the same time, so with more than one worker the items of
+ * a stage can leave it in a different order than they arrived. An ordered stage keeps the order: every batch gets a
+ * sequence number when a worker takes it from the queue, and the results of a batch are only passed on once the
+ * results of all earlier batches have been. Results that are done early wait in a reorder buffer. A batch that
+ * takes long holds back all batches after it, so the number of batches between being taken and being passed on is
+ * bounded by the reorder capacity: when it is reached, the workers of the stage wait for the head-of-line batch
+ * instead of taking more input, and the backpressure travels back to the source as for a full queue. The source,
+ * the sink and stages with one worker always keep the order, so a pipeline whose other stages are all ordered
+ * delivers the items to the sink in the order of the source.
+ *
+ * If a stage or the sink throws, the run is cancelled and run() throws an ExecutionException with the cause. The
+ * setters and then() configure the next run and must not be called while a run is in progress.
+ *
+ * @param <I> the type of the items of the source
+ * @param <O> the type of the items that reach the sink
+ */
+public class Pipeline<I, O> {
+
+    /**
+     * The work of one stage: processes one item and emits any number of results.
+     */
+    public interface Stage<T, R> {
+        void process(T item, Consumer<? super R> emit) throws Exception;
+    }
+
+    // Marks the end of the input of a worker
+    private static final Batch END = new Batch(0, 0);
+
+    private final List<StageDefinition> stages = new ArrayList<>();
+    private int batchSize = 64;
+    private int queueCapacity = 16;
+    private int reorderCapacity = 32;
+
+    private volatile List<PipelineStageMetrics> metrics = Collections.emptyList();
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    /**
+     * @param name    the name of the first stage, used for its metrics and threads
+     * @param threads the number of worker threads of the first stage
+     */
+    public Pipeline(String name, int threads, Stage<? super I, ? extends O> stage) {
+        this(name, threads, false, stage);
+    }
+
+    /**
+     * @param ordered whether the first stage passes its results on in the order of its input
+     */
+    public Pipeline(String name, int threads, boolean ordered, Stage<? super I, ? extends O> stage) {
+        addStage(name, threads, ordered, stage);
+    }
+
+    /**
+     * A stage that emits the result of the function for every item.
+     */
+    public static <T, R> Stage<T, R> map(Function<? super T, ? extends R> function) {
+        return (item, emit) -> emit.accept(function.apply(item));
+    }
+
+    /**
+     * A stage that passes on the items that match the predicate.
+     */
+    public static <T> Stage<T, T> filter(Predicate<? super T> predicate) {
+        return (item, emit) -> {
+            if (predicate.test(item)) {
+                emit.accept(item);
+            }
+        };
+    }
+
+    /**
+     * Adds a stage at the end of the pipeline.
+     *
+     * @return this pipeline, with the output type of the new stage
+     */
+    public <R> Pipeline<I, R> then(String name, int threads, Stage<? super O, ? extends R> stage) {
+        return then(name, threads, false, stage);
+    }
+
+    /**
+     * Adds a stage at the end of the pipeline.
+     *
+     * @param ordered whether the stage passes its results on in the order of its input
+     * @return this pipeline, with the output type of the new stage
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Pipeline<I, R> then(String name, int threads, boolean ordered, Stage<? super O, ? extends R> stage) {
+        addStage(name, threads, ordered, stage);
+        return (Pipeline<I, R>) this;
+    }
+
+    private void addStage(String name, int threads, boolean ordered, Stage<?, ?> stage) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads for " + name + ": " + threads);
+        }
+        stages.add(new StageDefinition(name, threads, ordered, stage));
+    }
+
+    /**
+     * Sets the largest number of items passed between stages at once.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets the capacity, in batches, of the queue in front of every stage and the sink.
+     */
+    public void setQueueCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        this.queueCapacity = capacity;
+    }
+
+    /**
+     * Sets the largest number of batches of an ordered stage that have been taken from its queue but not yet passed
+     * on, counting those being processed and those waiting in the reorder buffer. It is raised to the number of
+     * workers of a stage if that is larger, so that every worker can have a batch.
+     */
+    public void setReorderCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Reorder capacity must be positive");
+        }
+        this.reorderCapacity = capacity;
+    }
+
+    /**
+     * @return the metrics of the source, every stage and the sink of the current or last run, in pipeline order
+     */
+    public List<PipelineStageMetrics> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the wall-clock time of the current or last run so far
+     */
+    public long getElapsedNanos() {
+        long start = startNanos;
+        if (start == 0) {
+            return 0;
+        }
+        long end = endNanos;
+        return (end == 0 ? System.nanoTime() : end) - start;
+    }
+
+    /**
+     * Passes every item of the source through all stages to the sink and waits until the sink has received all
+     * results.
+     *
+     * @throws ExecutionException if the source, a stage or the sink threw, with that exception as the cause
+     */
+    public void run(Iterable<? extends I> source, Consumer<? super O> sink)
+            throws InterruptedException, ExecutionException {
+        int stageCount = stages.size();
+        // queues.get(k) is the input of stage k, and the last one the input of the sink
+        List<BlockingQueue<Batch>> queues = new ArrayList<>();
+        List<PipelineStageMetrics> stageMetrics = new ArrayList<>();
+        stageMetrics.add(new PipelineStageMetrics("source", 1, false, null));
+        for (StageDefinition stage : stages) {
+            BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueCapacity);
+            queues.add(queue);
+            stageMetrics.add(new PipelineStageMetrics(stage.name, stage.threads, stage.ordered, queue));
+        }
+        BlockingQueue<Batch> sinkQueue = new ArrayBlockingQueue<>(queueCapacity);
+        queues.add(sinkQueue);
+        stageMetrics.add(new PipelineStageMetrics("sink", 1, false, sinkQueue));
+        metrics = Collections.unmodifiableList(stageMetrics);
+        endNanos = 0;
+        startNanos = System.nanoTime();
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<ExecutorService> executors = new ArrayList<>();
+        Runnable cancel = () -> {
+            for (ExecutorService executor : executors) {
+                executor.shutdownNow();
+            }
+        };
+        ExecutorService sourceExecutor = newExecutor("source", 1);
+        executors.add(sourceExecutor);
+        for (StageDefinition stage : stages) {
+            executors.add(newExecutor(stage.name, stage.threads));
+        }
+        ExecutorService sinkExecutor = newExecutor("sink", 1);
+        executors.add(sinkExecutor);
+
+        // The source starts last: nothing can fail before items flow, so no executor is shut down while tasks are
+        // still being submitted
+        sinkExecutor.execute(guard(failure, cancel, () -> drain(sinkQueue, sink, stageMetrics.get(stageCount + 1))));
+        for (int index = 0; index < stageCount; index++) {
+            StageDefinition stage = stages.get(index);
+            int nextThreads = index + 1 < stageCount ? stages.get(index + 1).threads : 1;
+            AtomicInteger running = new AtomicInteger(stage.threads);
+            ReorderBuffer reorder = stage.ordered ? new ReorderBuffer(Math.max(reorderCapacity, stage.threads),
+                    queues.get(index + 1), stageMetrics.get(index + 1)) : null;
+            for (int i = 0; i < stage.threads; i++) {
+                executors.get(index + 1).execute(guard(failure, cancel,
+                        new Worker(stage, queues.get(index), queues.get(index + 1), stageMetrics.get(index + 1),
+                                running, nextThreads, reorder)));
+            }
+        }
+        sourceExecutor.execute(guard(failure, cancel,
+                () -> readSource(source, queues.get(0), stageMetrics.get(0), stages.get(0).threads)));
+
+        try {
+            for (ExecutorService executor : executors) {
+                executor.shutdown();
+            }
+            for (ExecutorService executor : executors) {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            cancel.run();
+            throw e;
+        } finally {
+            endNanos = System.nanoTime();
+        }
+        if (failure.get() != null) {
+            throw new ExecutionException(failure.get());
+        }
+    }
+
+    private static ExecutorService newExecutor(String name, int threads) {
+        AtomicInteger number = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads,
+                runnable -> new Thread(runnable, "pipeline-" + name + "-" + number.incrementAndGet()));
+    }
+
+    /**
+     * Records the first exception of any thread and cancels the run. A thread that stops early would leave the
+     * threads after it waiting forever, so every exception counts, but the exceptions that the other threads get
+     * from being cancelled come later and are not recorded.
+     */
+    private static Runnable guard(AtomicReference<Throwable> failure, Runnable cancel, Task task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                if (failure.compareAndSet(null, e)) {
+                    cancel.run();
+                }
+            }
+        };
+    }
+
+    private void readSource(Iterable<? extends I> source, BlockingQueue<Batch> output,
+                            PipelineStageMetrics sourceMetrics, int consumers) throws InterruptedException {
+        Iterator<? extends I> iterator = source.iterator();
+        while (iterator.hasNext()) {
+            long start = System.nanoTime();
+            Batch batch = new Batch(batchSize, start);
+            while (batch.size < batchSize && iterator.hasNext()) {
+                batch.add(iterator.next());
+            }
+            long read = System.nanoTime();
+            sourceMetrics.recordBatch(batch.size, read - start, read - start);
+            sourceMetrics.recordOutput(batch.size);
+            output.put(batch);
+            sourceMetrics.recordBlocked(System.nanoTime() - read);
+        }
+        signalEnd(output, consumers);
+    }
+
+    private void drain(BlockingQueue<Batch> input, Consumer<? super O> sink, PipelineStageMetrics sinkMetrics)
+            throws InterruptedException {
+        while (true) {
+            long waitStart = System.nanoTime();
+            Batch batch = input.take();
+            sinkMetrics.sampleQueueDepth();
+            long start = System.nanoTime();
+            sinkMetrics.recordStarved(start - waitStart);
+            if (batch == END) {
+                return;
+            }
+            for (int i = 0; i < batch.size; i++) {
+                @SuppressWarnings("unchecked")
+                O item = (O) batch.items[i];
+                sink.accept(item);
+            }
+            long end = System.nanoTime();
+            sinkMetrics.recordBatch(batch.size, end - start, end - batch.createdNanos);
+        }
+    }
+
+    private static void signalEnd(BlockingQueue<Batch> queue, int consumers) throws InterruptedException {
+        for (int i = 0; i < consumers; i++) {
+            queue.put(END);
+        }
+    }
+
+    // A Runnable that may throw
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private static class StageDefinition {
+        final String name;
+        final int threads;
+        final boolean ordered;
+        final Stage<Object, Object> stage;
+
+        @SuppressWarnings("unchecked")
+        StageDefinition(String name, int threads, boolean ordered, Stage<?, ?> stage) {
+            this.name = name;
+            this.threads = threads;
+            this.ordered = ordered;
+            this.stage = (Stage<Object, Object>) stage;
+        }
+    }
+
+    // Items passed between two stages at once
+    private static class Batch {
+        final Object[] items;
+        // When the items of the batch left the source
+        final long createdNanos;
+        int size;
+        // The position of the batch in the input of an ordered stage
+        long sequence;
+
+        Batch(int capacity, long createdNanos) {
+            this.items = new Object[capacity];
+            this.createdNanos = createdNanos;
+        }
+
+        void add(Object item) {
+            items[size++] = item;
+        }
+    }
+
+    /**
+     * The loop of one worker thread of a stage. The items a batch emits are collected in output batches, which are
+     * put into the next queue when they are full and when the input batch is done, so that no item waits for the
+     * next input batch. In an ordered stage, the output batches are handed to the reorder buffer instead.
+     */
+    private class Worker implements Task {
+        private final StageDefinition stage;
+        private final BlockingQueue<Batch> input;
+        private final BlockingQueue<Batch> output;
+        private final PipelineStageMetrics stageMetrics;
+        private final AtomicInteger running;
+        private final int consumers;
+        // Null for an unordered stage
+        private final ReorderBuffer reorder;
+        // The output batches of the current input batch, in an ordered stage
+        private final List<Batch> completed = new ArrayList<>();
+        private Batch current;
+        private long createdNanos;
+        private long blockedNanos;
+
+        Worker(StageDefinition stage, BlockingQueue<Batch> input, BlockingQueue<Batch> output,
+               PipelineStageMetrics stageMetrics, AtomicInteger running, int consumers, ReorderBuffer reorder) {
+            this.stage = stage;
+            this.input = input;
+            this.output = output;
+            this.stageMetrics = stageMetrics;
+            this.running = running;
+            this.consumers = consumers;
+            this.reorder = reorder;
+        }
+
+        @Override
+        public void run() throws Exception {
+            Consumer<Object> emit = item -> {
+                if (current == null) {
+                    current = new Batch(batchSize, createdNanos);
+                }
+                current.add(item);
+                if (current.size == batchSize) {
+                    flush();
+                }
+            };
+            while (true) {
+                if (reorder != null) {
+                    reorder.acquire();
+                }
+                long waitStart = System.nanoTime();
+                Batch batch = reorder == null ? input.take() : reorder.take(input);
+                stageMetrics.sampleQueueDepth();
+                long start = System.nanoTime();
+                stageMetrics.recordStarved(start - waitStart);
+                if (batch == END) {
+                    break;
+                }
+                createdNanos = batch.createdNanos;
+                blockedNanos = 0;
+                for (int i = 0; i < batch.size; i++) {
+                    stage.stage.process(batch.items[i], emit);
+                }
+                flush();
+                if (reorder != null) {
+                    blockedNanos += reorder.complete(batch.sequence, new ArrayList<>(completed));
+                    completed.clear();
+                }
+                long end = System.nanoTime();
+                stageMetrics.recordBatch(batch.size, end - start - blockedNanos, end - batch.createdNanos);
+            }
+            // The last worker to finish tells the next stage that no more input will come
+            if (running.decrementAndGet() == 0) {
+                signalEnd(output, consumers);
+            }
+        }
+
+        private void flush() {
+            if (current == null) {
+                return;
+            }
+            if (reorder != null) {
+                completed.add(current);
+                current = null;
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                output.put(current);
+            } catch (InterruptedException e) {
+                // The run is cancelled, emit cannot throw a checked exception
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Pipeline cancelled");
+            }
+            long blocked = System.nanoTime() - start;
+            blockedNanos += blocked;
+            stageMetrics.recordBlocked(blocked);
+            stageMetrics.recordOutput(current.size);
+            current = null;
+        }
+    }
+
+    /**
+     * Restores the input order of the output batches of an ordered stage.
+     *
+     * A worker holds one of capacity permits from before it takes a batch until the batch's results have been passed
+     * on, which bounds the batches in the stage. The sequence number is assigned together with the take, so it is
+     * the order of the queue. A finished batch is stored in a ring of capacity slots, indexed by sequence number,
+     * which cannot overflow because of the permits. Whichever worker stores the head-of-line batch becomes the
+     * releaser: it passes on the results of all consecutive finished batches, and does the blocking puts outside the
+     * lock, so that the other workers can store theirs in the meantime. There is only one releaser at a time, which
+     * keeps the puts in order.
+     */
+    private static class ReorderBuffer {
+        private final int capacity;
+        private final Semaphore permits;
+        private final BlockingQueue<Batch> output;
+        private final PipelineStageMetrics stageMetrics;
+        private final Object takeLock = new Object();
+        // Guarded by takeLock
+        private long nextSequence;
+        // Guarded by this: the finished batches by sequence number modulo capacity, null while not finished
+        private final Object[] finished;
+        private long nextRelease;
+        private boolean releasing;
+        private int occupancy;
+
+        ReorderBuffer(int capacity, BlockingQueue<Batch> output, PipelineStageMetrics stageMetrics) {
+            this.capacity = capacity;
+            this.permits = new Semaphore(capacity);
+            this.output = output;
+            this.stageMetrics = stageMetrics;
+            this.finished = new Object[capacity];
+        }
+
+        /**
+         * Waits until the stage may take another batch, which it may not while capacity batches are between being
+         * taken and being passed on.
+         */
+        void acquire() throws InterruptedException {
+            long start = System.nanoTime();
+            permits.acquire();
+            stageMetrics.recordReorderWait(System.nanoTime() - start);
+        }
+
+        Batch take(BlockingQueue<Batch> input) throws InterruptedException {
+            synchronized (takeLock) {
+                Batch batch = input.take();
+                if (batch == END) {
+                    permits.release();
+                } else {
+                    batch.sequence = nextSequence++;
+                }
+                return batch;
+            }
+        }
+
+        /**
+         * Stores the output batches of a finished input batch, and passes on all output that is in order now.
+         *
+         * @return the time spent waiting for room in the output queue
+         */
+        long complete(long sequence, List<Batch> outputs) throws InterruptedException {
+            synchronized (this) {
+                finished[(int) (sequence % capacity)] = outputs;
+                occupancy++;
+                stageMetrics.recordReorderOccupancy(occupancy);
+                if (releasing) {
+                    return 0;
+                }
+                releasing = true;
+            }
+            long blocked = 0;
+            List<Batch> release = new ArrayList<>();
+            while (true) {
+                int released = 0;
+                synchronized (this) {
+                    int slot = (int) (nextRelease % capacity);
+                    while (finished[slot] != null) {
+                        @SuppressWarnings("unchecked")
+                        List<Batch> batches = (List<Batch>) finished[slot];
+                        release.addAll(batches);
+                        finished[slot] = null;
+                        nextRelease++;
+                        released++;
+                        slot = (int) (nextRelease % capacity);
+                    }
+                    occupancy -= released;
+                    stageMetrics.setReorderOccupancy(occupancy);
+                    if (released == 0) {
+                        releasing = false;
+                        return blocked;
+                    }
+                }
+                long start = System.nanoTime();
+                for (Batch batch : release) {
+                    output.put(batch);
+                    stageMetrics.recordOutput(batch.size);
+                }
+                long waited = System.nanoTime() - start;
+                stageMetrics.recordBlocked(waited);
+                blocked += waited;
+                release.clear();
+                permits.release(released);
+            }
+        }
+    }
+}
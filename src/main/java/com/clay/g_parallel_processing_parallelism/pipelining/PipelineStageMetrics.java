@@ -0,0 +1,168 @@
+package com.clay.g_parallel_processing_parallelism.pipelining;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of one stage of a Pipeline. All values may be read from any thread while the pipeline runs.
+ *
+ * The processed items are the items the stage took in, and its queue depth is counted in batches.
+ *
+ * Every worker of a stage is, at any time, either working, waiting for input (the stage is starved, upstream is the
+ * bottleneck) or waiting for room in the next queue (the stage is held back by backpressure, downstream is the
+ * bottleneck). The three times are counted separately.
+ *
+ * The latency of a batch is the time since its items left the source. It is recorded when the stage has processed
+ * the batch, so along the pipeline it shows where the time goes.
+ *
+ * An ordered stage also counts the batches in its reorder buffer, which have been processed but wait for an earlier
+ * batch, and the time its workers waited because the reorder buffer was full (head-of-line blocking). A high reorder
+ * wait means the processing times of the batches vary too much for the reorder capacity.
+ */
+public class PipelineStageMetrics extends StageMetrics {
+
+    private final boolean ordered;
+    private final LongAdder itemsOut = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder starvedNanos = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final LongAdder reorderWaitNanos = new LongAdder();
+    private final AtomicInteger reorderOccupancy = new AtomicInteger();
+    private final AtomicInteger maxReorderOccupancy = new AtomicInteger();
+    private final LongAdder reorderOccupancySum = new LongAdder();
+    private final LongAdder reorderSamples = new LongAdder();
+
+    PipelineStageMetrics(String name, int threads, boolean ordered, BlockingQueue<?> input) {
+        super(name, threads, input);
+        this.ordered = ordered;
+    }
+
+    void recordBatch(int in, long nanos, long latency) {
+        recordProcessed(in, nanos);
+        batches.increment();
+        latencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    void recordOutput(int out) {
+        itemsOut.add(out);
+    }
+
+    void recordStarved(long nanos) {
+        starvedNanos.add(nanos);
+    }
+
+    void recordBlocked(long nanos) {
+        blockedNanos.add(nanos);
+    }
+
+    void recordReorderWait(long nanos) {
+        reorderWaitNanos.add(nanos);
+    }
+
+    // Called when a batch enters the reorder buffer, with the number of batches in it including the new one
+    void recordReorderOccupancy(int occupancy) {
+        reorderOccupancy.set(occupancy);
+        maxReorderOccupancy.accumulateAndGet(occupancy, Math::max);
+        reorderOccupancySum.add(occupancy);
+        reorderSamples.increment();
+    }
+
+    void setReorderOccupancy(int occupancy) {
+        reorderOccupancy.set(occupancy);
+    }
+
+    /**
+     * @return whether the stage passes its results on in the order of its input
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * @return the number of items the stage has passed on, fewer than it processed for a filter
+     */
+    public long getItemsOut() {
+        return itemsOut.sum();
+    }
+
+    /**
+     * @return the time the workers of this stage waited for input, summed over all workers
+     */
+    public long getStarvedNanos() {
+        return starvedNanos.sum();
+    }
+
+    /**
+     * @return the time the workers of this stage waited for room in the next queue, summed over all workers
+     */
+    public long getBlockedNanos() {
+        return blockedNanos.sum();
+    }
+
+    /**
+     * @return the average processing time per item
+     */
+    public double getNanosPerItem() {
+        long items = getProcessed();
+        return items == 0 ? 0 : getBusyNanos() / (double) items;
+    }
+
+    /**
+     * @return the average time from the source to the end of this stage, per batch
+     */
+    public double getAverageLatencyNanos() {
+        long count = batches.sum();
+        return count == 0 ? 0 : latencyNanos.sum() / (double) count;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos.get();
+    }
+
+    /**
+     * @return the time the workers of this stage waited for the head-of-line batch because the reorder buffer was
+     *         full, summed over all workers
+     */
+    public long getReorderWaitNanos() {
+        return reorderWaitNanos.sum();
+    }
+
+    /**
+     * @return the number of processed batches in the reorder buffer right now, waiting for an earlier batch
+     */
+    public int getReorderOccupancy() {
+        return reorderOccupancy.get();
+    }
+
+    public int getMaxReorderOccupancy() {
+        return maxReorderOccupancy.get();
+    }
+
+    /**
+     * @return the average number of batches in the reorder buffer, seen by each batch that entered it
+     */
+    public double getAverageReorderOccupancy() {
+        long count = reorderSamples.sum();
+        return count == 0 ? 0 : reorderOccupancySum.sum() / (double) count;
+    }
+
+    @Override
+    public String toString() {
+        String line = String.format("%-10s threads %2d, in %9d, out %9d, %8.1f ns/item,"
+                        + " latency avg %8.3f ms max %8.3f ms, starved %7.1f ms, blocked %7.1f ms,"
+                        + " queue %3d (max %3d)",
+                getName(), getThreads(), getProcessed(), getItemsOut(), getNanosPerItem(),
+                getAverageLatencyNanos() / 1e6, getMaxLatencyNanos() / 1e6, getStarvedNanos() / 1e6,
+                getBlockedNanos() / 1e6, getQueueDepth(), getMaxQueueDepth());
+        if (!ordered) {
+            return line;
+        }
+        return line + String.format(", reorder avg %5.1f max %3d, head-of-line wait %7.1f ms",
+                getAverageReorderOccupancy(), getMaxReorderOccupancy(), getReorderWaitNanos() / 1e6);
+    }
+}
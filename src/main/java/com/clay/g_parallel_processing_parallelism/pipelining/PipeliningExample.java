@@ -1,82 +1,91 @@
 package com.clay.g_parallel_processing_parallelism.pipelining;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
-import java.util.Arrays;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 /**
- * In this example, we have a PipeliningExample class that demonstrates the pipelining technique using Java's CompletableFuture. We simulate a complex data processing pipeline with four stages of computation:
+ * In this example, we have a PipeliningExample class that demonstrates the pipelining technique with a Pipeline of
+ * concurrently running stages. We simulate a data processing pipeline with four stages of computation:
  *
  * Stage 1: Multiply each input by 2
  * Stage 2: Filter even numbers
  * Stage 3: Square each number
  * Stage 4: Sum all numbers
  *
- * Each stage of computation is represented by a CompletableFuture, which allows us to perform the computation asynchronously. The thenApplyAsync method is used to define the next stage of computation, creating a pipeline of tasks.
- *
- * In the processPipeline method, we define each stage using the CompletableFuture.supplyAsync and thenApplyAsync methods. Each stage performs a specific operation on the input data and produces a result that is passed to the next stage.
+ * Usage: PipeliningExample [number of inputs]
  *
- * Each stage is executed asynchronously, and the pipeline flows through the stages concurrently. The System.out.println statements in each stage indicate the parallel execution of stages by printing the thread name.
+ * The stages are connected by bounded queues and pass the numbers on in small batches, so all stages work at the
+ * same time on different parts of the input, and the sum grows while the input is still being read. Stage 3 is made
+ * deliberately slow and gets more threads than the others. The metrics printed at the end show for every stage how
+ * long it worked, how long it waited for input (starved) and how long it waited for the next stage (blocked, the
+ * backpressure of a slower stage).
  *
+ * Stage 3 is ordered, so although its threads finish batches in any order, the squares reach the sink in the order
+ * of the input, which the sink checks. Batches finished early wait in the reorder buffer of stage 3, whose
+ * occupancy is printed with the metrics.
  */
 public class PipeliningExample {
 
     public static void main(String[] args) {
-        // Simulating a list of input data
-        List<Integer> inputData = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        // Simulating a stream of input data
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Iterable<Integer> inputData = () -> IntStream.rangeClosed(1, count).iterator();
 
         try {
-            // Execute the pipeline in parallel
-            List<Integer> result = processPipeline(inputData);
+            // Execute the pipeline, all stages concurrently
+            long result = processPipeline(inputData);
 
-            System.out.println("Final Result: " + result);
+            // 4 * (1^2 + 2^2 + ... + count^2)
+            long expected = 4L * count * (count + 1) * (2L * count + 1) / 6;
+            System.out.println("Final Result: " + result
+                    + (result == expected ? " (correct)" : " (expected " + expected + ")"));
         } catch (InterruptedException | ExecutionException e) {
             e.printStackTrace();
         }
     }
 
-    private static List<Integer> processPipeline(List<Integer> inputData) throws InterruptedException, ExecutionException {
+    private static long processPipeline(Iterable<Integer> inputData) throws InterruptedException, ExecutionException {
+        int threads = Runtime.getRuntime().availableProcessors();
+
         // Stage 1: Multiply each input by 2
-        CompletableFuture<List<Integer>> stage1 = CompletableFuture.supplyAsync(() -> {
-            System.out.println("Stage 1: Multiply by 2 (Thread: " + Thread.currentThread().getName() + ")");
-            return inputData.stream()
-                    .map(num -> num * 2)
-                    .collect(Collectors.toList());
-        });
+        Pipeline<Integer, Integer> pipeline = new Pipeline<>("multiply", 1, Pipeline.map((Integer num) -> num * 2));
 
         // Stage 2: Filter even numbers
-        CompletableFuture<List<Integer>> stage2 = stage1.thenApplyAsync(result -> {
-            System.out.println("Stage 2: Filter even numbers (Thread: " + Thread.currentThread().getName() + ")");
-            return result.stream()
-                    .filter(num -> num % 2 == 0)
-                    .collect(Collectors.toList());
-        });
+        Pipeline<Integer, Long> complete = pipeline
+                .then("filter", 1, Pipeline.filter((Integer num) -> num % 2 == 0))
+                // Stage 3: Square each number, with simulated extra work that makes it the slowest stage, in order
+                .then("square", Math.max(2, threads), true, Pipeline.map((Integer num) -> {
+                    simulateWork(2_000);
+                    return (long) num * num;
+                }));
+        complete.setBatchSize(256);
+        complete.setQueueCapacity(8);
 
-        // Stage 3: Square each number
-        CompletableFuture<List<Integer>> stage3 = stage2.thenApplyAsync(result -> {
-            System.out.println("Stage 3: Square each number (Thread: " + Thread.currentThread().getName() + ")");
-            return result.stream()
-                    .map(num -> num * num)
-                    .collect(Collectors.toList());
+        // Stage 4: Sum all numbers, in the sink, which always runs on a single thread
+        AtomicLong sum = new AtomicLong();
+        AtomicLong previous = new AtomicLong();
+        AtomicBoolean inOrder = new AtomicBoolean(true);
+        complete.run(inputData, square -> {
+            sum.addAndGet(square);
+            if (square <= previous.getAndSet(square)) {
+                inOrder.set(false);
+            }
         });
 
-        // Stage 4: Sum all numbers
-        CompletableFuture<Integer> stage4 = stage3.thenApplyAsync(result -> {
-            System.out.println("Stage 4: Sum all numbers (Thread: " + Thread.currentThread().getName() + ")");
-            return result.stream()
-                    .reduce(0, Integer::sum);
-        });
+        System.out.printf("Pipeline finished in %.1f ms, output %s%n", complete.getElapsedNanos() / 1e6,
+                inOrder.get() ? "in input order" : "out of order");
+        for (PipelineStageMetrics stageMetrics : complete.getMetrics()) {
+            System.out.println("  " + stageMetrics);
+        }
+        return sum.get();
+    }
 
-        // Wait for the final result
-        return Collections.singletonList(stage4.get());
+    private static void simulateWork(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
     }
 }
-
@@ -0,0 +1,98 @@
+package com.clay.g_parallel_processing_parallelism.pipelining;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of one stage of a pipeline of bounded queues, the part shared by the generic Pipeline
+ * (PipelineStageMetrics) and by specialized pipelines such as the ThumbnailPipeline (ThumbnailStageMetrics). All
+ * values may be read from any thread while the pipeline runs.
+ *
+ * A stage has a number of worker threads that take entries from its input queue. The time the workers spend working
+ * and the depth of the input queue show which stage is the bottleneck: it is the one with the highest utilization,
+ * and the queue in front of it is the one that fills up.
+ */
+public abstract class StageMetrics {
+
+    private final String name;
+    private final int threads;
+    private final BlockingQueue<?> input;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    /**
+     * @param input the queue the stage takes its work from, null for a stage that produces its own input
+     */
+    protected StageMetrics(String name, int threads, BlockingQueue<?> input) {
+        this.name = name;
+        this.threads = threads;
+        this.input = input;
+    }
+
+    protected final void recordProcessed(long items, long nanos) {
+        processed.add(items);
+        busyNanos.add(nanos);
+    }
+
+    protected final void recordBusy(long nanos) {
+        busyNanos.add(nanos);
+    }
+
+    protected final void sampleQueueDepth() {
+        if (input != null) {
+            maxQueueDepth.accumulateAndGet(input.size(), Math::max);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return the number of items the stage has processed
+     */
+    public long getProcessed() {
+        return processed.sum();
+    }
+
+    /**
+     * @return the time the workers of this stage spent working, summed over all workers
+     */
+    public long getBusyNanos() {
+        return busyNanos.sum();
+    }
+
+    /**
+     * @return the number of entries waiting for this stage right now, 0 for a stage without an input queue
+     */
+    public int getQueueDepth() {
+        return input == null ? 0 : input.size();
+    }
+
+    /**
+     * @return the largest queue depth seen while the pipeline ran
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * @return processed items per second over the given wall-clock time
+     */
+    public double getThroughput(long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : getProcessed() / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * @return the fraction of the available worker time that was spent working, a high value marks the bottleneck
+     */
+    public double getUtilization(long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : getBusyNanos() / ((double) elapsedNanos * threads);
+    }
+}
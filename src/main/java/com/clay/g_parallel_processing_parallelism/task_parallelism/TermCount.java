@@ -0,0 +1,28 @@
+package com.clay.g_parallel_processing_parallelism.task_parallelism;
+
+/**
+ * A term and how often it occurs.
+ */
+public class TermCount {
+
+    private final String term;
+    private final long count;
+
+    public TermCount(String term, long count) {
+        this.term = term;
+        this.count = count;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return term + ": " + count;
+    }
+}
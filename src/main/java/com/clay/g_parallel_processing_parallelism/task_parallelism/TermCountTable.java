@@ -0,0 +1,177 @@
+package com.clay.g_parallel_processing_parallelism.task_parallelism;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash table from terms, given as byte slices, to their counts.
+ *
+ * The bytes of every distinct term are copied once into a shared byte array (the arena), and a slot only holds the
+ * term's offset and length in the arena, its hash and its count, all in parallel primitive arrays. So a new
+ * occurrence of a known term allocates nothing, and no String or boxed count is created per term. The full hash is
+ * kept so that most mismatches are found without comparing bytes and the table can grow without rehashing terms.
+ * Collisions are resolved by linear probing, and the table doubles when it is half full. A slot is empty while its
+ * count is 0. Not thread-safe.
+ */
+class TermCountTable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] hashes;
+    private int[] offsets;
+    private int[] lengths;
+    private long[] counts;
+    private byte[] arena = new byte[256];
+    private int arenaSize;
+    private int size;
+
+    TermCountTable() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        hashes = new int[capacity];
+        offsets = new int[capacity];
+        lengths = new int[capacity];
+        counts = new long[capacity];
+    }
+
+    /**
+     * The hash of a term. A tokenizer can also compute it byte by byte as hash = 31 * hash + b, starting at 0.
+     */
+    static int hash(byte[] term, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + (term[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return counts.length;
+    }
+
+    boolean isOccupied(int slot) {
+        return counts[slot] != 0;
+    }
+
+    long count(int slot) {
+        return counts[slot];
+    }
+
+    String term(int slot) {
+        return new String(arena, offsets[slot], lengths[slot], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares the terms of two slots byte by byte, as unsigned bytes.
+     */
+    int compareTerms(int slot, int otherSlot) {
+        return Arrays.compareUnsigned(arena, offsets[slot], offsets[slot] + lengths[slot],
+                arena, offsets[otherSlot], offsets[otherSlot] + lengths[otherSlot]);
+    }
+
+    /**
+     * @param hash hash(term, offset, length)
+     */
+    void add(byte[] term, int offset, int length, int hash, long count) {
+        int slot = find(term, offset, length, hash);
+        if (counts[slot] == 0) {
+            if (2 * (size + 1) > counts.length) {
+                grow();
+                slot = find(term, offset, length, hash);
+            }
+            intern(slot, term, offset, length, hash);
+        }
+        counts[slot] += count;
+    }
+
+    /**
+     * @return the count of the term, 0 if it is not in the table
+     */
+    long get(byte[] term, int offset, int length, int hash) {
+        return counts[find(term, offset, length, hash)];
+    }
+
+    /**
+     * Adds all counts of another table to this one.
+     */
+    void addAll(TermCountTable other) {
+        for (int slot = 0; slot < other.counts.length; slot++) {
+            if (other.counts[slot] != 0) {
+                add(other.arena, other.offsets[slot], other.lengths[slot], other.hashes[slot], other.counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * @return the slot of the term, or the empty slot where it would be inserted
+     */
+    private int find(byte[] term, int offset, int length, int hash) {
+        int mask = counts.length - 1;
+        int slot = mix(hash) & mask;
+        while (counts[slot] != 0) {
+            if (hashes[slot] == hash && lengths[slot] == length
+                    && Arrays.equals(arena, offsets[slot], offsets[slot] + length, term, offset, offset + length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void intern(int slot, byte[] term, int offset, int length, int hash) {
+        if (arenaSize + length > arena.length) {
+            long capacity = Math.max(2L * arena.length, (long) arenaSize + length);
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Too many distinct terms for one table: " + size);
+            }
+            arena = Arrays.copyOf(arena, (int) capacity);
+        }
+        System.arraycopy(term, offset, arena, arenaSize, length);
+        hashes[slot] = hash;
+        offsets[slot] = arenaSize;
+        lengths[slot] = length;
+        arenaSize += length;
+        size++;
+    }
+
+    private void grow() {
+        int[] oldHashes = hashes;
+        int[] oldOffsets = offsets;
+        int[] oldLengths = lengths;
+        long[] oldCounts = counts;
+        allocate(oldCounts.length * 2);
+        int mask = counts.length - 1;
+        for (int old = 0; old < oldCounts.length; old++) {
+            if (oldCounts[old] != 0) {
+                int slot = mix(oldHashes[old]) & mask;
+                while (counts[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[old];
+                offsets[slot] = oldOffsets[old];
+                lengths[slot] = oldLengths[old];
+                counts[slot] = oldCounts[old];
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of the polynomial hash (the finalizer of MurmurHash3), whose lower bits alone would make
+     * similar terms collide.
+     */
+    private static int mix(int hash) {
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,91 @@
+package com.clay.g_parallel_processing_parallelism.task_parallelism;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The term counts of a set of documents, as computed by TermFrequencyIndexer.
+ */
+public class TermFrequencies {
+
+    private final TermCountTable table;
+    private final long[] termsPerDocument;
+
+    TermFrequencies(TermCountTable table, long[] termsPerDocument) {
+        this.table = table;
+        this.termsPerDocument = termsPerDocument;
+    }
+
+    /**
+     * @return the number of distinct terms
+     */
+    public int getDistinctTermCount() {
+        return table.size();
+    }
+
+    /**
+     * @return the number of terms in all documents, counting every occurrence
+     */
+    public long getTotalTermCount() {
+        long total = 0;
+        for (long terms : termsPerDocument) {
+            total += terms;
+        }
+        return total;
+    }
+
+    /**
+     * @return the number of terms in the document with the given index in the indexed list
+     */
+    public long getTermCount(int document) {
+        return termsPerDocument[document];
+    }
+
+    /**
+     * @return how often the term occurs in all documents, ignoring the case of ASCII letters
+     */
+    public long getCount(String term) {
+        byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+        TermFrequencyIndexer.normalize(bytes);
+        return table.get(bytes, 0, bytes.length, TermCountTable.hash(bytes, 0, bytes.length));
+    }
+
+    /**
+     * @return the n most frequent terms, most frequent first, terms of the same count in byte order
+     */
+    public List<TermCount> top(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Cannot return " + n + " terms");
+        }
+        // A min-heap of the n best slots so far, whose root is the first to be replaced
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.max(1, Math.min(n, table.size())),
+                (first, second) -> compare(second, first));
+        for (int slot = 0; slot < table.capacity() && n > 0; slot++) {
+            if (table.isOccupied(slot)) {
+                if (best.size() < n) {
+                    best.add(slot);
+                } else if (compare(slot, best.peek()) < 0) {
+                    best.poll();
+                    best.add(slot);
+                }
+            }
+        }
+        List<TermCount> result = new ArrayList<>();
+        while (!best.isEmpty()) {
+            int slot = best.poll();
+            result.add(new TermCount(table.term(slot), table.count(slot)));
+        }
+        // The heap returns the worst first
+        Collections.reverse(result);
+        return result;
+    }
+
+    // Negative if the term of the first slot ranks before the other one
+    private int compare(int slot, int otherSlot) {
+        int byCount = Long.compare(table.count(otherSlot), table.count(slot));
+        return byCount != 0 ? byCount : table.compareTerms(slot, otherSlot);
+    }
+}
@@ -0,0 +1,232 @@
+package com.clay.g_parallel_processing_parallelism.task_parallelism;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Counts how often every term occurs in a set of documents, with one task per worker on an ExecutorService.
+ *
+ * A term is a maximal run of ASCII letters, ASCII digits and non-ASCII bytes, so that UTF-8 encoded letters are part
+ * of the terms, and ASCII letters are lowercased. Everything else separates terms.
+ *
+ * Every worker task takes the next document from a shared counter until none are left, and counts its terms in a
+ * table of its own (TermCountTable), so the workers share nothing they write and need no lock. Small documents are
+ * read into a buffer that the worker reuses, large files are memory-mapped. The worker tables are then merged in a
+ * tree: in every round, pairs of tables are merged in parallel, which halves the number of tables, until one is
+ * left. All waiting is done by blocking on the futures of the tasks.
+ */
+public class TermFrequencyIndexer {
+
+    // Files larger than this are memory-mapped instead of read
+    private static final long MAP_THRESHOLD = 1 << 20;
+
+    // For every byte, the byte it stands for in a term, lowercased, or 0 if it separates terms
+    private static final byte[] TERM_BYTES = new byte[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            if (b >= 'A' && b <= 'Z') {
+                TERM_BYTES[b] = (byte) (b - 'A' + 'a');
+            } else if (b >= 'a' && b <= 'z' || b >= '0' && b <= '9' || b >= 0x80) {
+                TERM_BYTES[b] = (byte) b;
+            }
+        }
+    }
+
+    private final ExecutorService executor;
+    private final int workers;
+
+    /**
+     * @param workers the number of worker tasks, usually the number of threads of the executor
+     */
+    public TermFrequencyIndexer(ExecutorService executor, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is needed");
+        }
+        this.executor = executor;
+        this.workers = workers;
+    }
+
+    /**
+     * Counts the terms of every file.
+     */
+    public TermFrequencies indexFiles(List<Path> files) throws IOException, InterruptedException {
+        return index(files.size(), () -> new FileDocumentReader(files));
+    }
+
+    /**
+     * Counts the terms of documents that are already in memory, encoded as UTF-8.
+     */
+    public TermFrequencies index(List<byte[]> documents) throws IOException, InterruptedException {
+        return index(documents.size(), () -> document -> ByteBuffer.wrap(documents.get(document)));
+    }
+
+    private TermFrequencies index(int documentCount, Supplier<DocumentReader> readers)
+            throws IOException, InterruptedException {
+        AtomicInteger nextDocument = new AtomicInteger();
+        long[] termsPerDocument = new long[documentCount];
+        List<Callable<TermCountTable>> tasks = new ArrayList<>();
+        for (int worker = 0; worker < workers; worker++) {
+            tasks.add(() -> {
+                TermCountTable table = new TermCountTable();
+                Tokenizer tokenizer = new Tokenizer(table);
+                DocumentReader reader = readers.get();
+                for (int document = nextDocument.getAndIncrement(); document < documentCount;
+                     document = nextDocument.getAndIncrement()) {
+                    termsPerDocument[document] = tokenizer.countTerms(reader.read(document));
+                }
+                return table;
+            });
+        }
+        List<TermCountTable> tables = getAll(executor.invokeAll(tasks));
+
+        // Merge pairs of tables in parallel until one is left, always the smaller into the larger one
+        while (tables.size() > 1) {
+            List<Callable<TermCountTable>> merges = new ArrayList<>();
+            for (int i = 0; i + 1 < tables.size(); i += 2) {
+                TermCountTable first = tables.get(i);
+                TermCountTable second = tables.get(i + 1);
+                merges.add(() -> {
+                    TermCountTable target = first.size() >= second.size() ? first : second;
+                    target.addAll(target == first ? second : first);
+                    return target;
+                });
+            }
+            List<TermCountTable> merged = getAll(executor.invokeAll(merges));
+            if (tables.size() % 2 == 1) {
+                merged.add(tables.get(tables.size() - 1));
+            }
+            tables = merged;
+        }
+        return new TermFrequencies(tables.get(0), termsPerDocument);
+    }
+
+    private static List<TermCountTable> getAll(List<Future<TermCountTable>> futures)
+            throws IOException, InterruptedException {
+        List<TermCountTable> results = new ArrayList<>();
+        for (Future<TermCountTable> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Lowercases ASCII letters the same way as the tokenizer, so that a term can be looked up.
+     */
+    static void normalize(byte[] term) {
+        for (int i = 0; i < term.length; i++) {
+            byte b = TERM_BYTES[term[i] & 0xFF];
+            if (b != 0) {
+                term[i] = b;
+            }
+        }
+    }
+
+    // Returns the content of a document, valid until the next call
+    private interface DocumentReader {
+        ByteBuffer read(int document) throws IOException;
+    }
+
+    /**
+     * Reads small files into a buffer that grows as needed and is reused for the next files, and maps large ones.
+     */
+    private static class FileDocumentReader implements DocumentReader {
+        private final List<Path> files;
+        private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+        FileDocumentReader(List<Path> files) {
+            this.files = files;
+        }
+
+        @Override
+        public ByteBuffer read(int document) throws IOException {
+            Path file = files.get(document);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("Cannot map files larger than 2 GB: " + file);
+                }
+                if (size > MAP_THRESHOLD) {
+                    return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                }
+                if (buffer.capacity() < size) {
+                    buffer = ByteBuffer.allocate((int) size);
+                }
+                buffer.clear();
+                buffer.limit((int) size);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        break;
+                    }
+                }
+                buffer.flip();
+                return buffer;
+            }
+        }
+    }
+
+    /**
+     * Splits documents into terms and adds them to a table. The current term is collected in a small array, which
+     * grows for long terms, while its hash is computed byte by byte.
+     */
+    private static class Tokenizer {
+        private final TermCountTable table;
+        private byte[] term = new byte[64];
+
+        Tokenizer(TermCountTable table) {
+            this.table = table;
+        }
+
+        /**
+         * @return the number of terms in the content
+         */
+        long countTerms(ByteBuffer content) {
+            long terms = 0;
+            int length = 0;
+            int hash = 0;
+            for (int i = content.position(), limit = content.limit(); i < limit; i++) {
+                byte b = TERM_BYTES[content.get(i) & 0xFF];
+                if (b != 0) {
+                    if (length == term.length) {
+                        term = Arrays.copyOf(term, 2 * length);
+                    }
+                    term[length++] = b;
+                    hash = 31 * hash + (b & 0xFF);
+                } else if (length > 0) {
+                    table.add(term, 0, length, hash, 1);
+                    terms++;
+                    length = 0;
+                    hash = 0;
+                }
+            }
+            if (length > 0) {
+                table.add(term, 0, length, hash, 1);
+                terms++;
+            }
+            return terms;
+        }
+    }
+}
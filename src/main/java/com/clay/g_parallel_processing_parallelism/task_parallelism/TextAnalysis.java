@@ -1,71 +1,100 @@
 package com.clay.g_parallel_processing_parallelism.task_parallelism;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.SplittableRandom;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Counts the term frequencies of a set of documents with TermFrequencyIndexer and prints the most frequent terms.
+ *
+ * Usage: TextAnalysis [directory | number of generated documents]
+ *
+ * Without an argument the text files of the parallel_loops example are analyzed. With a number, that many random
+ * documents are generated in memory, whose terms follow a skewed distribution like the words of real text.
+ */
 public class TextAnalysis {
-    
-    public static void main(String[] args) {
-        // Get a list of documents to process
-        List<String> documents = getDocuments();
+
+    private static final String DEFAULT_DIRECTORY = "src/main/java/com/clay/g_parallel_processing_parallelism/parallel_loops/data";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String source = args.length > 0 ? args[0] : DEFAULT_DIRECTORY;
 
         // Create a thread pool with a fixed number of threads
         int numThreads = Runtime.getRuntime().availableProcessors();
         ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            // One worker task per thread, each counting into its own table
+            TermFrequencyIndexer indexer = new TermFrequencyIndexer(executor, numThreads);
+            long start = System.nanoTime();
+            TermFrequencies frequencies;
+            if (source.chars().allMatch(Character::isDigit)) {
+                List<byte[]> documents = generateDocuments(Integer.parseInt(source));
+                start = System.nanoTime();
+                frequencies = indexer.index(documents);
+                System.out.println("Documents: " + documents.size());
+            } else {
+                List<Path> documents = getDocuments(source);
+                frequencies = indexer.indexFiles(documents);
+                for (int i = 0; i < documents.size(); i++) {
+                    System.out.println("Document: " + documents.get(i).getFileName() + ", Terms: "
+                            + frequencies.getTermCount(i));
+                }
+            }
+            long elapsed = System.nanoTime() - start;
 
-        // Create a concurrent map to store the results
-        Map<String, Integer> wordCounts = new ConcurrentHashMap<>();
-        Map<String, Double> sentimentScores = new ConcurrentHashMap<>();
-
-        // Process documents in parallel using task parallelism
-        for (String document : documents) {
-            executor.submit(() -> {
-                int count = countWords(document); // Count words in the document
-                wordCounts.put(document, count); // Store the word count result
-
-                double score = analyzeSentiment(document); // Analyze sentiment of the document
-                sentimentScores.put(document, score); // Store the sentiment score result
-            });
-        }
-
-        // Shutdown the executor and wait for all tasks to complete
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-            // Waiting for all tasks to complete
+            // Print the results
+            System.out.printf("Terms: %,d, distinct: %,d, indexed in %.1f ms%n", frequencies.getTotalTermCount(),
+                    frequencies.getDistinctTermCount(), elapsed / 1e6);
+            System.out.println("Most frequent terms:");
+            for (TermCount termCount : frequencies.top(10)) {
+                System.out.println("  " + termCount);
+            }
+        } finally {
+            // Shutdown the executor and wait for all tasks to complete, blocking instead of spinning
+            executor.shutdown();
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                executor.shutdownNow();
+            }
         }
+    }
 
-        // Print the results
-        for (String document : documents) {
-            System.out.println("Document: " + document);
-            System.out.println("Word Count: " + wordCounts.get(document));
-            System.out.println("Sentiment Score: " + sentimentScores.get(document));
-            System.out.println();
+    private static List<Path> getDocuments(String directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(Paths.get(directory))) {
+            return paths.filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
         }
     }
 
-    private static List<String> getDocuments() {
-        // Simulated method to fetch a list of documents to process
-        List<String> documents = new ArrayList<>();
-        documents.add("document1.txt");
-        documents.add("document2.txt");
-        documents.add("document3.txt");
-        // Add more documents to the list
+    /**
+     * Generates documents of 20 to 200 terms from a vocabulary of 100000 terms, where the term of rank r is chosen
+     * with a probability of about 1 / r (Zipf's law).
+     */
+    private static List<byte[]> generateDocuments(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        int vocabulary = 100_000;
+        List<byte[]> documents = new ArrayList<>(count);
+        StringBuilder document = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            document.setLength(0);
+            int terms = 20 + random.nextInt(181);
+            for (int j = 0; j < terms; j++) {
+                // exp(u * ln(vocabulary)) for uniform u gives rank r with probability proportional to 1 / r
+                int rank = (int) Math.exp(random.nextDouble() * Math.log(vocabulary));
+                document.append("term").append(rank).append(j % 12 == 11 ? ".\n" : " ");
+            }
+            documents.add(document.toString().getBytes(StandardCharsets.UTF_8));
+        }
         return documents;
     }
-
-    private static int countWords(String document) {
-        // Simulated method to count words in a document
-        // Perform actual word counting operations
-        return document.split("\\s+").length;
-    }
-
-    private static double analyzeSentiment(String document) {
-        // Simulated method to analyze sentiment of a document
-        // Perform actual sentiment analysis operations
-        return Math.random() * 10; // Return a random sentiment score
-    }
 }